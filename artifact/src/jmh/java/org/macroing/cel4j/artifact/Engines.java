@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+final class Engines {
+	public static final String PROPERTY_BYTECODE_EMITTER = "org.macroing.cel4j.artifact.bytecodeEmitter";
+	public static final String PROPERTY_DISK = "org.macroing.cel4j.artifact.disk";
+	public static final String PROPERTY_INTERPRETER_THRESHOLD = "org.macroing.cel4j.artifact.interpreter.threshold";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Engines() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The system properties are read when an ArtifactScriptEngine is created, so they are only set while it is created. properties alternates between names and values.
+	public static ArtifactScriptEngine create(final String... properties) {
+		for(int i = 0; i + 1 < properties.length; i += 2) {
+			System.setProperty(properties[i], properties[i + 1]);
+		}
+		
+		try {
+			return ArtifactScriptEngine.class.cast(new ArtifactScriptEngineFactory().getScriptEngine());
+		} finally {
+			for(int i = 0; i + 1 < properties.length; i += 2) {
+				System.clearProperty(properties[i]);
+			}
+		}
+	}
+	
+//	Every call returns a script that has not been seen before, so compiling it always runs javac.
+	public static String createUniqueScript(final long id) {
+		return "long x = " + id + "L; return x + 1L;";
+	}
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//	Compares calling a function returned by compileFunction(...) with evaluating the same expression through Bindings. The Bindings are those of the engine, so x has the type Double when the script is compiled.
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class FunctionBenchmark {
+	private ArtifactScriptEngine artifactScriptEngine;
+	private Bindings bindings;
+	private CompiledScript compiledScript;
+	private DoubleUnaryOperator doubleUnaryOperator;
+	private double x;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public FunctionBenchmark() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public Object evalCompiledScript() throws ScriptException {
+		this.bindings.put("x", Double.valueOf(this.x));
+		
+		return this.compiledScript.eval(this.bindings);
+	}
+	
+	@Benchmark
+	public Object evalScript() throws ScriptException {
+		this.bindings.put("x", Double.valueOf(this.x));
+		
+		return this.artifactScriptEngine.eval("return $x * $x;", this.bindings);
+	}
+	
+	@Benchmark
+	public double applyFunction() {
+		return this.doubleUnaryOperator.applyAsDouble(this.x);
+	}
+	
+	@Setup
+	public void setUp() throws ScriptException {
+		this.artifactScriptEngine = Engines.create();
+		this.bindings = this.artifactScriptEngine.getBindings(ScriptContext.ENGINE_SCOPE);
+		this.bindings.put("x", Double.valueOf(1.5D));
+		this.compiledScript = this.artifactScriptEngine.compile("return $x * $x;");
+		this.doubleUnaryOperator = this.artifactScriptEngine.compileFunction(DoubleUnaryOperator.class, "x * x", "x");
+		this.x = 1.5D;
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.artifactScriptEngine.close();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//	Measures the latency of compiling a script after a number of evaluations of a script with an import declaration. The latency should not depend on the number of evaluations.
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class ImportSoakBenchmark {
+	private static final String SCRIPT_WITH_IMPORT = "import java.util.function.IntSupplier; IntSupplier i = () -> 1; return i.getAsInt();";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Param({"0", "100000"})
+	public int evaluations;
+	private ArtifactScriptEngine artifactScriptEngine;
+	private long id;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ImportSoakBenchmark() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public CompiledScript compile() throws ScriptException {
+		return this.artifactScriptEngine.compile(Engines.createUniqueScript(this.id++));
+	}
+	
+	@Setup
+	public void setUp() throws ScriptException {
+		this.artifactScriptEngine = Engines.create(Engines.PROPERTY_INTERPRETER_THRESHOLD, "0", Engines.PROPERTY_BYTECODE_EMITTER, "false");
+		
+		for(int i = 0; i < this.evaluations; i++) {
+			this.artifactScriptEngine.eval(SCRIPT_WITH_IMPORT);
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.artifactScriptEngine.close();
+	}
+}
\ No newline at end of file
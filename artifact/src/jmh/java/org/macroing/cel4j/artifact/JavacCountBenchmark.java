@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.script.ScriptException;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//	Measures the latency of evaluating a script with five $variables the first time it is seen. The counters javacInvocations and scripts are reported per iteration, and their ratio should be 1.
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class JavacCountBenchmark {
+	private ArtifactScriptEngine artifactScriptEngine;
+	private long id;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public JavacCountBenchmark() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public Object eval(final Compilations compilations) throws ScriptException {
+		final long compilationCount = this.artifactScriptEngine.getCompilationCount();
+		
+		final Object result = this.artifactScriptEngine.eval("return $a + $b + $c + $d + $e + " + this.id++ + "L;");
+		
+		compilations.javacInvocations += this.artifactScriptEngine.getCompilationCount() - compilationCount;
+		compilations.scripts++;
+		
+		return result;
+	}
+	
+	@Setup
+	public void setUp() {
+		this.artifactScriptEngine = Engines.create(Engines.PROPERTY_INTERPRETER_THRESHOLD, "0", Engines.PROPERTY_BYTECODE_EMITTER, "false");
+		this.artifactScriptEngine.put("a", Integer.valueOf(1));
+		this.artifactScriptEngine.put("b", Long.valueOf(2L));
+		this.artifactScriptEngine.put("c", "3");
+		this.artifactScriptEngine.put("d", Double.valueOf(4.0D));
+		this.artifactScriptEngine.put("e", Character.valueOf('5'));
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.artifactScriptEngine.close();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Compilations {
+		public long javacInvocations;
+		public long scripts;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Compilations() {
+			
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Setup(Level.Iteration)
+		public void setUp() {
+			this.javacInvocations = 0L;
+			this.scripts = 0L;
+		}
+	}
+}
\ No newline at end of file
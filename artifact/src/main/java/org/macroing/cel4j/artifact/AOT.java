@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import javax.script.ScriptException;
+
+final class AOT {
+	private AOT() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Compiles all scripts in directory, and all scripts recorded in trace if it is not null, into a jar with an index that maps registry keys to class names. Returns true if, and only if, all scripts could be compiled and the jar was written.
+	public static boolean start(final String directory, final String trace, final String jar) {
+		Objects.requireNonNull(directory, "directory == null");
+		Objects.requireNonNull(jar, "jar == null");
+		
+		final ArtifactScriptEngine artifactScriptEngine = ArtifactScriptEngine.class.cast(new ArtifactScriptEngineFactory().getScriptEngine());
+		
+		try {
+			final List<Class<?>[]> variableClasses = new ArrayList<>();
+			final List<String> scripts = new ArrayList<>();
+			
+			for(final String script : WarmUp.readDirectory(directory)) {
+				scripts.add(script);
+				variableClasses.add(null);
+			}
+			
+			if(trace != null) {
+				for(final Map.Entry<String, List<Class<?>[]>> entry : new ScriptTrace(new File(trace)).load(ArtifactScriptEngine.class.getClassLoader()).entrySet()) {
+					for(final Class<?>[] classes : entry.getValue()) {
+						scripts.add(entry.getKey());
+						variableClasses.add(classes);
+					}
+				}
+			}
+			
+			final Map<String, String> classNames = new TreeMap<>();
+			final Map<String, ScriptException> failures = new LinkedHashMap<>();
+			
+			final Map<String, byte[]> classes = artifactScriptEngine.compileAheadOfTime(scripts, variableClasses, classNames, failures);
+			
+			for(final ScriptException e : failures.values()) {
+				System.err.println("Artifact: " + e.getMessage());
+			}
+			
+			if(failures.size() > 0) {
+				return false;
+			}
+			
+			doWriteJar(new File(jar), classes, classNames);
+			
+			System.out.println("Artifact: Compiled " + classNames.size() + " scripts into \"" + jar + "\".");
+			
+			return true;
+		} catch(final IOException e) {
+			System.err.println("Artifact: " + e.toString());
+			
+			return false;
+		} finally {
+			artifactScriptEngine.close();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static void doWriteEntry(final JarOutputStream jarOutputStream, final String name, final byte[] bytes) throws IOException {
+		jarOutputStream.putNextEntry(new JarEntry(name));
+		jarOutputStream.write(bytes);
+		jarOutputStream.closeEntry();
+	}
+	
+	private static void doWriteJar(final File file, final Map<String, byte[]> classes, final Map<String, String> classNames) throws IOException {
+		final File parentFile = file.getAbsoluteFile().getParentFile();
+		
+		if(parentFile != null) {
+			Files.createDirectories(parentFile.toPath());
+		}
+		
+		final
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		
+		final StringBuilder stringBuilder = new StringBuilder("# Maps registry keys of precompiled scripts to class names.\n");
+		
+		for(final Map.Entry<String, String> entry : classNames.entrySet()) {
+			stringBuilder.append(entry.getKey());
+			stringBuilder.append("=");
+			stringBuilder.append(entry.getValue());
+			stringBuilder.append("\n");
+		}
+		
+		try(final JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(file.toPath()), manifest)) {
+			for(final Map.Entry<String, byte[]> entry : new TreeMap<>(classes).entrySet()) {
+				doWriteEntry(jarOutputStream, entry.getKey().replace('.', '/') + ".class", entry.getValue());
+			}
+			
+			doWriteEntry(jarOutputStream, ScriptRegistry.INDEX, stringBuilder.toString().getBytes(StandardCharsets.ISO_8859_1));
+		}
+	}
+}
\ No newline at end of file
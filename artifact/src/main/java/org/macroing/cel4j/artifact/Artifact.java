@@ -28,12 +28,19 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
 /**
  * This {@code Artifact} class is meant to be used for configuration of Artifact.
  * <p>
@@ -126,6 +133,78 @@ public final class Artifact {
 		return new ArrayList<>(GLOBAL_IMPORT_STATEMENTS);
 	}
 	
+	/**
+	 * Compiles all scripts in {@code scripts} using {@code scriptEngine}, in batches, and returns a {@code Map} from each script to a {@code CompletableFuture} with its {@code CompiledScript}.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * ArtifactScriptEngine.class.cast(scriptEngine).compileAllAsync(scripts);
+	 * }
+	 * </pre>
+	 * If either {@code scriptEngine}, {@code scripts} or any of the elements in {@code scripts} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code scriptEngine} is not an {@link ArtifactScriptEngine}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If {@code scriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param scriptEngine the {@code ScriptEngine} to compile with
+	 * @param scripts a {@code Collection} with the scripts to compile
+	 * @return a {@code Map} from each script to a {@code CompletableFuture} with its {@code CompiledScript}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code scriptEngine} is not an {@code ArtifactScriptEngine}
+	 * @throws IllegalStateException thrown if, and only if, {@code scriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code scriptEngine}, {@code scripts} or any of the elements in {@code scripts} are {@code null}
+	 */
+	public static Map<String, CompletableFuture<CompiledScript>> compileAll(final ScriptEngine scriptEngine, final Collection<String> scripts) {
+		Objects.requireNonNull(scriptEngine, "scriptEngine == null");
+		Objects.requireNonNull(scripts, "scripts == null");
+		
+		if(!(scriptEngine instanceof ArtifactScriptEngine)) {
+			throw new IllegalArgumentException("scriptEngine is not an ArtifactScriptEngine");
+		}
+		
+		return ArtifactScriptEngine.class.cast(scriptEngine).compileAllAsync(scripts);
+	}
+	
+	/**
+	 * Compiles {@code script} into an implementation of the functional interface {@code clazz} using {@code scriptEngine} and returns it.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * ArtifactScriptEngine.class.cast(scriptEngine).compileFunction(clazz, script, parameters);
+	 * }
+	 * </pre>
+	 * If either {@code scriptEngine}, {@code clazz}, {@code script}, {@code parameters} or any of the elements in {@code parameters} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code scriptEngine} is not an {@link ArtifactScriptEngine}, or {@code clazz}, {@code parameters} or any of the elements in {@code parameters} are invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If {@code scriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param <T> the type of the functional interface
+	 * @param scriptEngine the {@code ScriptEngine} to compile with
+	 * @param clazz the {@code Class} of the functional interface
+	 * @param script the body of the method
+	 * @param parameters the names of the parameters of the method
+	 * @return an implementation of the functional interface {@code clazz}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code scriptEngine} is not an {@code ArtifactScriptEngine}, or {@code clazz}, {@code parameters} or any of the elements in {@code parameters} are invalid
+	 * @throws IllegalStateException thrown if, and only if, {@code scriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code scriptEngine}, {@code clazz}, {@code script}, {@code parameters} or any of the elements in {@code parameters} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled
+	 * @see ArtifactScriptEngine#compileFunction(Class, String, String...)
+	 */
+	public static <T> T compileFunction(final ScriptEngine scriptEngine, final Class<T> clazz, final String script, final String... parameters) throws ScriptException {
+		Objects.requireNonNull(scriptEngine, "scriptEngine == null");
+		
+		if(!(scriptEngine instanceof ArtifactScriptEngine)) {
+			throw new IllegalArgumentException("scriptEngine is not an ArtifactScriptEngine");
+		}
+		
+		return ArtifactScriptEngine.class.cast(scriptEngine).compileFunction(clazz, script, parameters);
+	}
+	
 	/**
 	 * Adds {@code globalImportStatement} as a global import statement, if absent.
 	 * <p>
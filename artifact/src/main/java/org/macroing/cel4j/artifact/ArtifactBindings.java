@@ -0,0 +1,337 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.script.Bindings;
+
+//	A Bindings that stores its values in an array, indexed by the slots of a BindingsLayout. The slots of the variables of a script are resolved once, so evaluating it does not have to look up any name. An empty element means there is no mapping,
+//	so a null value is stored as NULL. A name that does not get a slot, because all slots of the BindingsLayout are in use, is stored in a HashMap instead.
+final class ArtifactBindings extends AbstractMap<String, Object> implements Bindings {
+	private static final Object NULL = new Object();
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final BindingsLayout bindingsLayout;
+	private Map<String, Object> map;
+	private Object[] values;
+	private int size;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ArtifactBindings(final BindingsLayout bindingsLayout) {
+		this.bindingsLayout = Objects.requireNonNull(bindingsLayout, "bindingsLayout == null");
+		this.values = new Object[0];
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public BindingsLayout getBindingsLayout() {
+		return this.bindingsLayout;
+	}
+	
+	@Override
+	public Object get(final Object key) {
+		final String name = doCheckKey(key);
+		
+		return getValue(this.bindingsLayout.getSlot(name), name);
+	}
+	
+//	Returns the value of the variable called name, whose slot is slot. If slot is -1, name is looked up in the HashMap.
+	public Object getValue(final int slot, final String name) {
+		if(slot >= 0) {
+			return doGetValue(slot);
+		}
+		
+		final Map<String, Object> map = this.map;
+		
+		return map != null ? map.get(name) : null;
+	}
+	
+	@Override
+	public Object put(final String name, final Object value) {
+		final int slot = this.bindingsLayout.getOrCreateSlot(doCheckKey(name));
+		
+		if(slot < 0) {
+			if(this.map == null) {
+				this.map = new HashMap<>();
+			}
+			
+			final int mapSize = this.map.size();
+			
+			final Object oldValue = this.map.put(name, value);
+			
+			this.size += this.map.size() - mapSize;
+			
+			return oldValue;
+		}
+		
+		if(slot >= this.values.length) {
+			this.values = Arrays.copyOf(this.values, Math.max(slot + 1, this.values.length * 2));
+		}
+		
+		final Object oldValue = this.values[slot];
+		
+		this.values[slot] = value != null ? value : NULL;
+		
+		if(oldValue == null) {
+			this.size++;
+		}
+		
+		return doUnmask(oldValue);
+	}
+	
+	@Override
+	public Object remove(final Object key) {
+		final String name = doCheckKey(key);
+		
+		final int slot = this.bindingsLayout.getSlot(name);
+		
+		if(slot < 0) {
+			if(this.map == null || !this.map.containsKey(name)) {
+				return null;
+			}
+			
+			this.size--;
+			
+			return this.map.remove(name);
+		}
+		
+		return slot < this.values.length ? doRemove(slot) : null;
+	}
+	
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new EntrySet();
+	}
+	
+	@Override
+	public boolean containsKey(final Object key) {
+		final String name = doCheckKey(key);
+		
+		final int slot = this.bindingsLayout.getSlot(name);
+		
+		if(slot < 0) {
+			return this.map != null && this.map.containsKey(name);
+		}
+		
+		return slot < this.values.length && this.values[slot] != null;
+	}
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	@Override
+	public void clear() {
+		Arrays.fill(this.values, null);
+		
+		this.map = null;
+		this.size = 0;
+	}
+	
+	@Override
+	public void putAll(final Map<? extends String, ? extends Object> map) {
+		Objects.requireNonNull(map, "map == null");
+		
+		for(final Map.Entry<? extends String, ? extends Object> entry : map.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Object doGetValue(final int slot) {
+		final Object[] values = this.values;
+		
+		return slot < values.length ? doUnmask(values[slot]) : null;
+	}
+	
+	private Object doRemove(final int slot) {
+		final Object oldValue = this.values[slot];
+		
+		if(oldValue != null) {
+			this.values[slot] = null;
+			this.size--;
+		}
+		
+		return doUnmask(oldValue);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Object doUnmask(final Object value) {
+		return value != NULL ? value : null;
+	}
+	
+	private static String doCheckKey(final Object key) {
+		Objects.requireNonNull(key, "key == null");
+		
+		if(!(key instanceof String)) {
+			throw new ClassCastException("key should be a String");
+		}
+		
+		if(String.class.cast(key).isEmpty()) {
+			throw new IllegalArgumentException("key can not be empty");
+		}
+		
+		return String.class.cast(key);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+		public EntrySet() {
+			
+		}
+		
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			return new Iterator<Map.Entry<String, Object>>() {
+				private final Iterator<Map.Entry<String, Object>> iterator = ArtifactBindings.this.map != null ? ArtifactBindings.this.map.entrySet().iterator() : Collections.emptyIterator();
+				private boolean isIteratingMap;
+				private int currentSlot = -1;
+				private int nextSlot = doFindSlot(0);
+				
+//				The mappings with a slot are iterated first, followed by the mappings in the HashMap.
+				@Override
+				public Map.Entry<String, Object> next() {
+					if(this.nextSlot == -1) {
+						if(!this.iterator.hasNext()) {
+							throw new NoSuchElementException();
+						}
+						
+						this.currentSlot = -1;
+						this.isIteratingMap = true;
+						
+						return this.iterator.next();
+					}
+					
+					this.currentSlot = this.nextSlot;
+					this.nextSlot = doFindSlot(this.currentSlot + 1);
+					
+					return new Entry(this.currentSlot);
+				}
+				
+				@Override
+				public boolean hasNext() {
+					return this.nextSlot != -1 || this.iterator.hasNext();
+				}
+				
+				@Override
+				public void remove() {
+					if(this.isIteratingMap) {
+						this.iterator.remove();
+						
+						ArtifactBindings.this.size--;
+					} else if(this.currentSlot != -1) {
+						doRemove(this.currentSlot);
+						
+						this.currentSlot = -1;
+					} else {
+						throw new IllegalStateException();
+					}
+				}
+			};
+		}
+		
+		@Override
+		public int size() {
+			return ArtifactBindings.this.size;
+		}
+		
+		private int doFindSlot(final int fromSlot) {
+			final Object[] values = ArtifactBindings.this.values;
+			
+			for(int slot = fromSlot; slot < values.length; slot++) {
+				if(values[slot] != null) {
+					return slot;
+				}
+			}
+			
+			return -1;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final class Entry implements Map.Entry<String, Object> {
+		private final int slot;
+		
+		public Entry(final int slot) {
+			this.slot = slot;
+		}
+		
+		@Override
+		public Object getValue() {
+			return doGetValue(this.slot);
+		}
+		
+		@Override
+		public Object setValue(final Object value) {
+			return put(getKey(), value);
+		}
+		
+		@Override
+		public String getKey() {
+			return ArtifactBindings.this.bindingsLayout.getName(this.slot);
+		}
+		
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+		
+		@Override
+		public boolean equals(final Object object) {
+			if(object == this) {
+				return true;
+			} else if(!(object instanceof Map.Entry)) {
+				return false;
+			} else if(!Objects.equals(getKey(), Map.Entry.class.cast(object).getKey())) {
+				return false;
+			} else if(!Objects.equals(getValue(), Map.Entry.class.cast(object).getValue())) {
+				return false;
+			} else {
+				return true;
+			}
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+		}
+	}
+}
\ No newline at end of file
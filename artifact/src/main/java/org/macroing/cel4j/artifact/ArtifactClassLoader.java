@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+final class ArtifactClassLoader extends ClassLoader {
+	private final Map<String, byte[]> classes;
+	private final long size;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ArtifactClassLoader(final ClassLoader parent, final Map<String, byte[]> classes) {
+		super(parent);
+		
+		this.classes = new HashMap<>(Objects.requireNonNull(classes, "classes == null"));
+		this.size = doGetSize(classes);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public long getSize() {
+		return this.size;
+	}
+	
+	@Override
+	protected Class<?> findClass(final String name) throws ClassNotFoundException {
+		final byte[] bytes;
+		
+		synchronized(this.classes) {
+			bytes = this.classes.remove(name);
+		}
+		
+		if(bytes == null) {
+			throw new ClassNotFoundException(name);
+		}
+		
+		return defineClass(name, bytes, 0, bytes.length);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static long doGetSize(final Map<String, byte[]> classes) {
+		long size = 0L;
+		
+		for(final byte[] bytes : classes.values()) {
+			size += bytes.length;
+		}
+		
+		return size;
+	}
+}
\ No newline at end of file
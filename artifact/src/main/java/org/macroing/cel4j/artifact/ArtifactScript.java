@@ -23,8 +23,10 @@
  */
 package org.macroing.cel4j.artifact;
 
+import java.io.PrintStream;
 import java.util.Objects;
 
+import javax.script.Bindings;
 import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -39,6 +41,25 @@ import javax.script.ScriptException;
  * @author J&#246;rgen Lundgren
  */
 public abstract class ArtifactScript extends CompiledScript {
+	/**
+	 * The error output of the script.
+	 * <p>
+	 * While a script is evaluated, what is written to this {@code PrintStream} by the thread that evaluates it is buffered, and written to the error writer of its {@code ScriptContext} once the evaluation has finished. Otherwise it is written
+	 * to {@code System.err}. A reference to {@code System.err} in a script refers to this {@code PrintStream}.
+	 */
+	public static final PrintStream err = ScriptOutput.ERR;
+	
+	/**
+	 * The output of the script.
+	 * <p>
+	 * While a script is evaluated, what is written to this {@code PrintStream} by the thread that evaluates it is buffered, and written to the writer of its {@code ScriptContext} once the evaluation has finished. Otherwise it is written to
+	 * {@code System.out}. A reference to {@code System.out} in a script refers to this {@code PrintStream}.
+	 */
+	public static final PrintStream out = ScriptOutput.OUT;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final BindingsLayout bindingsLayout;
 	private final ScriptEngine scriptEngine;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -53,6 +74,7 @@ public abstract class ArtifactScript extends CompiledScript {
 	 */
 	protected ArtifactScript(final ScriptEngine scriptEngine) {
 		this.scriptEngine = Objects.requireNonNull(scriptEngine, "scriptEngine == null");
+		this.bindingsLayout = scriptEngine instanceof ArtifactScriptEngine ? ArtifactScriptEngine.class.cast(scriptEngine).getBindingsLayout() : null;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -120,4 +142,48 @@ public abstract class ArtifactScript extends CompiledScript {
 	public final void set(final String key, final Object value) {
 		this.scriptEngine.getBindings(ScriptContext.ENGINE_SCOPE).put(key, value);
 	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the value of the variable called {@code name} in the engine scope of {@code scriptContext}, or {@code null} if there is no such variable.
+	 * <p>
+	 * This method is used by the generated code of a script to read its variables, and {@code slot} should be the value returned by {@link #getSlot(String)} for {@code name}. If the engine scope was created by the {@code ScriptEngine} of this
+	 * {@code ArtifactScript} and {@code slot} is not {@code -1}, the value is read using {@code slot}, without looking up {@code name}. Otherwise, {@code name} is looked up.
+	 * <p>
+	 * If either {@code scriptContext} or {@code name} are {@code null}, a {@code NullPointerException} may be thrown.
+	 * 
+	 * @param scriptContext the {@code ScriptContext} to read the variable from
+	 * @param slot the slot of the variable
+	 * @param name the name of the variable
+	 * @return the value of the variable called {@code name} in the engine scope of {@code scriptContext}, or {@code null} if there is no such variable
+	 * @throws NullPointerException thrown if, and only if, either {@code scriptContext} or {@code name} are {@code null}
+	 */
+	protected final Object getVariable(final ScriptContext scriptContext, final int slot, final String name) {
+		final Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+		
+		if(bindings instanceof ArtifactBindings && ArtifactBindings.class.cast(bindings).getBindingsLayout() == this.bindingsLayout) {
+			return ArtifactBindings.class.cast(bindings).getValue(slot, name);
+		}
+		
+		return bindings != null ? bindings.get(name) : null;
+	}
+	
+	/**
+	 * Returns the slot of the variable called {@code name}.
+	 * <p>
+	 * The slot is an index into the values of each {@code Bindings} created by the {@code ScriptEngine} of this {@code ArtifactScript}. It is resolved once, when the script is created, and passed to {@link #getVariable(ScriptContext, int, String)}
+	 * each time the variable is read. If the {@code ScriptEngine} of this {@code ArtifactScript} is not an {@link ArtifactScriptEngine}, or if it has run out of slots, {@code -1} is returned.
+	 * <p>
+	 * If {@code name} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param name the name of the variable
+	 * @return the slot of the variable called {@code name}
+	 * @throws NullPointerException thrown if, and only if, {@code name} is {@code null}
+	 */
+	protected final int getSlot(final String name) {
+		Objects.requireNonNull(name, "name == null");
+		
+		return this.bindingsLayout != null ? this.bindingsLayout.getOrCreateSlot(name) : -1;
+	}
 }
\ No newline at end of file
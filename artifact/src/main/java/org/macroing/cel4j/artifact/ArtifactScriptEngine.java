@@ -29,73 +29,200 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 import javax.script.AbstractScriptEngine;
 import javax.script.Bindings;
 import javax.script.Compilable;
 import javax.script.CompiledScript;
+import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
-import javax.script.SimpleBindings;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.StandardLocation;
-import javax.tools.ToolProvider;
 
-final class ArtifactScriptEngine extends AbstractScriptEngine implements Compilable {
-	private static final AtomicInteger IDENTIFIER;
+/**
+ * {@code ArtifactScriptEngine} is the {@code ScriptEngine} implementation called Artifact that evaluates a super-set of Java source code.
+ * <p>
+ * Each script is compiled into its own class, that is defined by a {@code ClassLoader} dedicated to that script. When a script is no longer referenced by this {@code ArtifactScriptEngine} or its callers, its class can be unloaded.
+ * <p>
+ * This class is thread-safe. When several threads evaluate the same script concurrently, it is compiled only once and all of them will wait for that compilation to finish.
+ * <p>
+ * To release all scripts cached by this {@code ArtifactScriptEngine}, consider using {@link #close()}.
+ * <p>
+ * A script that is only evaluated a few times is interpreted, if possible, and compiled in the background once it is evaluated often. What a script writes to {@code System.out} and {@code System.err} is written to the writer and the error
+ * writer of its {@code ScriptContext}. Scripts that were compiled ahead of time, using the {@code -c} flag of {@link Main}, are loaded from the class path instead of being compiled.
+ * <p>
+ * The following system properties are read when an {@code ArtifactScriptEngine} is created. The ones marked with (*) can also be set as attributes of the {@code ScriptContext} a script is evaluated with.
+ * <ul>
+ * <li>{@code org.macroing.cel4j.artifact.bytecodeEmitter} - {@code false} to pass all scripts to the Java compiler, rather than emitting the class of a single {@code return} statement directly</li>
+ * <li>{@code org.macroing.cel4j.artifact.cache.maximumSize} (*) - the maximum number of cached {@code CompiledScript}s, {@code 10000} by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.cache.maximumWeight} (*) - the maximum total length of the source code and bytecode of the cached {@code CompiledScript}s, {@code 67108864} by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.compiler.minimumFreeMemory} - the free memory, in bytes, required to start a compilation while another one is running, {@code 67108864} by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.compiler.options} (*) - a whitespace-separated list of options for the Java compiler, {@code -proc:none} by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.compiler.threads} - the maximum number of concurrent compilations, half the number of available processors by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.disk} - {@code true} to compile on disk and keep the source code and class files in the {@code artifact} directory in {@code java.io.tmpdir}</li>
+ * <li>{@code org.macroing.cel4j.artifact.diskCache.directory} - a directory in which the compiled classes are cached across restarts</li>
+ * <li>{@code org.macroing.cel4j.artifact.diskCache.maximumAge} - the number of days an unused entry of the disk cache is kept, {@code 30} by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.diskCache.maximumSize} - the maximum size of the disk cache, in bytes, {@code 268435456} by default</li>
+ * <li>{@code org.macroing.cel4j.artifact.import.session} - {@code true} to let import and package statements apply to all scripts evaluated afterwards</li>
+ * <li>{@code org.macroing.cel4j.artifact.interpreter.threshold} - the number of evaluations after which an interpreted script is compiled, {@code 64} by default, or {@code 0} to disable the interpreter</li>
+ * <li>{@code org.macroing.cel4j.artifact.warmUp.directory}, {@code org.macroing.cel4j.artifact.warmUp.resources}, {@code org.macroing.cel4j.artifact.warmUp.trace} and {@code org.macroing.cel4j.artifact.warmUp.iterations} - a directory and a comma-separated list of class path resources with
+ * scripts to compile during the warm-up, a file in which the compiled scripts are recorded for the warm-up of the next process, and the number of times a trivial script is evaluated afterwards. See
+ * {@link ArtifactScriptEngineFactory#getReadiness()}</li>
+ * </ul>
+ * The {@code ScriptContext} attribute {@code org.macroing.cel4j.artifact.timeout} is the number of milliseconds a script evaluated using {@code eval} may run, before it ends with a {@link ScriptCancellationException}.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class ArtifactScriptEngine extends AbstractScriptEngine implements AutoCloseable, Compilable, Invocable {
+	private static final int DEFAULT_BATCH_CHUNK_SIZE;
+	private static final int DEFAULT_INTERPRETER_THRESHOLD;
+	private static final int MAXIMUM_BATCH_SIZE;
+	private static final int MAXIMUM_INVOCABLE_SCRIPTS;
+	private static final long DEFAULT_CACHE_MAXIMUM_SIZE;
+	private static final long DEFAULT_CACHE_MAXIMUM_WEIGHT;
+	private static final long DEFAULT_COMPILER_MINIMUM_FREE_MEMORY;
+	private static final long DEFAULT_DISK_CACHE_MAXIMUM_AGE;
+	private static final long DEFAULT_DISK_CACHE_MAXIMUM_SIZE;
+	private static final String CLASS_NAME;
+	private static final String DEFAULT_COMPILER_OPTIONS;
 	private static final String DEFAULT_PACKAGE_NAME;
 	private static final String LINE_SEPARATOR;
+	private static final String PROPERTY_BATCH_CHUNK_SIZE;
+	private static final String PROPERTY_BYTECODE_EMITTER;
+	private static final String PROPERTY_CACHE_MAXIMUM_SIZE;
+	private static final String PROPERTY_CACHE_MAXIMUM_WEIGHT;
+	private static final String PROPERTY_COMPILER_MINIMUM_FREE_MEMORY;
+	private static final String PROPERTY_COMPILER_OPTIONS;
+	private static final String PROPERTY_COMPILER_THREADS;
+	private static final String PROPERTY_DISK;
+	private static final String PROPERTY_DISK_CACHE_DIRECTORY;
+	private static final String PROPERTY_DISK_CACHE_MAXIMUM_AGE;
+	private static final String PROPERTY_DISK_CACHE_MAXIMUM_SIZE;
 	private static final String PROPERTY_DUMP;
+	private static final String PROPERTY_IMPORT_SESSION;
+	private static final String PROPERTY_INTERPRETER_THRESHOLD;
+	private static final String PROPERTY_TIMEOUT;
+	private static final String PROPERTY_WARM_UP_TRACE;
 	private static final String TMP_DIRECTORY;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private final AtomicBoolean isClosed;
+	private final AtomicBoolean isSessionImportStatementsEnabled;
 	private final AtomicReference<String> packageName;
-	private final List<String> importStatements;
+	private final BindingsLayout bindingsLayout;
 	private final List<String> importStatementsRequired;
-	private final Map<String, CompiledScript> compiledScripts;
+	private final Set<String> importStatementsSession;
+	private final BytecodeCache bytecodeCache;
+	private final CompilationScheduler compilationScheduler;
+	private final CompiledScriptCache compiledScriptCache;
+	private final CompilerContextPool compilerContextPool;
+	private final LongAdder compilationCount;
 	private final ScriptEngineFactory scriptEngineFactory;
+	private final ScriptRegistry scriptRegistry;
+	private final ScriptTrace scriptTrace;
+	private final boolean isCompilingOnDisk;
 	private final boolean isDumpingSourceCode;
+	private final boolean isEmittingBytecode;
+	private final int batchChunkSize;
+	private final int interpreterThreshold;
+	private volatile ArtifactScript[] invocableScripts;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	public ArtifactScriptEngine(final ScriptEngineFactory scriptEngineFactory) {
+	ArtifactScriptEngine(final ScriptEngineFactory scriptEngineFactory) {
 		this.scriptEngineFactory = Objects.requireNonNull(scriptEngineFactory, "scriptEngineFactory == null");
+		this.bindingsLayout = new BindingsLayout();
+		this.isClosed = new AtomicBoolean(false);
 		this.packageName = new AtomicReference<>(DEFAULT_PACKAGE_NAME);
-		this.importStatements = new ArrayList<>();
 		this.importStatementsRequired = doCreateImportStatementsRequired();
-		this.compiledScripts = new HashMap<>();
+		this.importStatementsSession = new LinkedHashSet<>();
+		this.isSessionImportStatementsEnabled = new AtomicBoolean(Objects.toString(System.getProperty(PROPERTY_IMPORT_SESSION)).equals("true"));
+		this.compilationCount = new LongAdder();
+		this.bytecodeCache = doCreateBytecodeCache();
+		this.scriptRegistry = new ScriptRegistry(ArtifactScriptEngine.class.getClassLoader());
+		this.scriptTrace = doCreateScriptTrace();
+		this.compilationScheduler = new CompilationScheduler(Math.max(Integer.getInteger(PROPERTY_COMPILER_THREADS, Math.max(Runtime.getRuntime().availableProcessors() / 2, 1)).intValue(), 1), Long.getLong(PROPERTY_COMPILER_MINIMUM_FREE_MEMORY, DEFAULT_COMPILER_MINIMUM_FREE_MEMORY).longValue());
+		this.compilerContextPool = new CompilerContextPool(CompilerContextPool.parseOptions(System.getProperty(PROPERTY_COMPILER_OPTIONS, DEFAULT_COMPILER_OPTIONS)), Runtime.getRuntime().availableProcessors());
+		this.compiledScriptCache = new CompiledScriptCache(Long.getLong(PROPERTY_CACHE_MAXIMUM_SIZE, DEFAULT_CACHE_MAXIMUM_SIZE).longValue(), Long.getLong(PROPERTY_CACHE_MAXIMUM_WEIGHT, DEFAULT_CACHE_MAXIMUM_WEIGHT).longValue());
+		this.isCompilingOnDisk = Objects.toString(System.getProperty(PROPERTY_DISK)).equals("true");
 		this.isDumpingSourceCode = Objects.toString(System.getProperty(PROPERTY_DUMP)).equals("true");
+		this.isEmittingBytecode = !Objects.toString(System.getProperty(PROPERTY_BYTECODE_EMITTER)).equals("false");
+		this.batchChunkSize = Math.max(Integer.getInteger(PROPERTY_BATCH_CHUNK_SIZE, DEFAULT_BATCH_CHUNK_SIZE).intValue(), 1);
+		this.interpreterThreshold = Math.max(Integer.getInteger(PROPERTY_INTERPRETER_THRESHOLD, DEFAULT_INTERPRETER_THRESHOLD).intValue(), 0);
+		this.invocableScripts = new ArtifactScript[0];
+		
+		getContext().setBindings(createBindings(), ScriptContext.ENGINE_SCOPE);
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	static {
-		IDENTIFIER = new AtomicInteger(0);
+		DEFAULT_BATCH_CHUNK_SIZE = 65536;
+		DEFAULT_INTERPRETER_THRESHOLD = 64;
+		MAXIMUM_BATCH_SIZE = 500;
+		MAXIMUM_INVOCABLE_SCRIPTS = 64;
 		
+		DEFAULT_CACHE_MAXIMUM_SIZE = 10000L;
+		DEFAULT_CACHE_MAXIMUM_WEIGHT = 64L * 1024L * 1024L;
+		DEFAULT_COMPILER_MINIMUM_FREE_MEMORY = 64L * 1024L * 1024L;
+		DEFAULT_DISK_CACHE_MAXIMUM_AGE = 30L;
+		DEFAULT_DISK_CACHE_MAXIMUM_SIZE = 256L * 1024L * 1024L;
+		CLASS_NAME = "ArtifactScriptImpl";
+		DEFAULT_COMPILER_OPTIONS = "-proc:none";
 		DEFAULT_PACKAGE_NAME = "org.macroing.cel4j.artifact";
 		
+		PROPERTY_BATCH_CHUNK_SIZE = "org.macroing.cel4j.artifact.batch.chunkSize";
+		PROPERTY_BYTECODE_EMITTER = "org.macroing.cel4j.artifact.bytecodeEmitter";
+		PROPERTY_CACHE_MAXIMUM_SIZE = "org.macroing.cel4j.artifact.cache.maximumSize";
+		PROPERTY_CACHE_MAXIMUM_WEIGHT = "org.macroing.cel4j.artifact.cache.maximumWeight";
+		PROPERTY_COMPILER_MINIMUM_FREE_MEMORY = "org.macroing.cel4j.artifact.compiler.minimumFreeMemory";
+		PROPERTY_COMPILER_OPTIONS = "org.macroing.cel4j.artifact.compiler.options";
+		PROPERTY_COMPILER_THREADS = "org.macroing.cel4j.artifact.compiler.threads";
+		PROPERTY_DISK = "org.macroing.cel4j.artifact.disk";
+		PROPERTY_DISK_CACHE_DIRECTORY = "org.macroing.cel4j.artifact.diskCache.directory";
+		PROPERTY_DISK_CACHE_MAXIMUM_AGE = "org.macroing.cel4j.artifact.diskCache.maximumAge";
+		PROPERTY_DISK_CACHE_MAXIMUM_SIZE = "org.macroing.cel4j.artifact.diskCache.maximumSize";
 		PROPERTY_DUMP = "org.macroing.cel4j.artifact.dump";
+		PROPERTY_IMPORT_SESSION = "org.macroing.cel4j.artifact.import.session";
+		PROPERTY_INTERPRETER_THRESHOLD = "org.macroing.cel4j.artifact.interpreter.threshold";
+		PROPERTY_TIMEOUT = "org.macroing.cel4j.artifact.timeout";
+		PROPERTY_WARM_UP_TRACE = "org.macroing.cel4j.artifact.warmUp.trace";
 		
 		LINE_SEPARATOR = System.getProperty("line.separator");
 		TMP_DIRECTORY = System.getProperty("java.io.tmpdir");
@@ -103,82 +230,1303 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns a new {@code Bindings} instance.
+	 * <p>
+	 * The returned {@code Bindings} stores its values in an array. When it is used as the engine scope of a {@code ScriptContext}, a compiled script reads its variables from that array directly, without looking up their names.
+	 * 
+	 * @return a new {@code Bindings} instance
+	 */
 	@Override
 	public Bindings createBindings() {
-		return new SimpleBindings();
+		return new ArtifactBindings(this.bindingsLayout);
+	}
+	
+	/**
+	 * Evaluates {@code script} once for each {@code Bindings} in {@code bindings} and returns a {@code List} with the results, in order.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * artifactScriptEngine.evalAll(script, bindings, null, null);
+	 * }
+	 * </pre>
+	 * If either {@code script} or {@code bindings} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled or evaluated, or any of the elements in {@code bindings} are {@code null}, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @param bindings an {@code Iterable} with the {@code Bindings} to evaluate {@code script} with
+	 * @return a {@code List} with the results, in order
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script} or {@code bindings} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled or evaluated, or any of the elements in {@code bindings} are {@code null}
+	 */
+	public List<Object> evalAll(final String script, final Iterable<? extends Bindings> bindings) throws ScriptException {
+		return evalAll(script, bindings, null, null);
+	}
+	
+	/**
+	 * Evaluates {@code script} once for each {@code Bindings} in {@code bindings} and returns a {@code List} with the results, in order.
+	 * <p>
+	 * Each {@code Bindings} is used as the engine scope of a {@code ScriptContext} that is reused for all evaluations performed by the same task. It shares the global scope, the reader and the writers of the {@code ScriptContext} of this
+	 * {@code ArtifactScriptEngine}. The script is compiled once, or once for each combination of variable types it is evaluated with, so each evaluation only dispatches to the compiled script and reads its variables. To evaluate a
+	 * {@code Stream}, pass {@code stream::iterator} as {@code bindings}.
+	 * <p>
+	 * If {@code executor} is not {@code null}, the {@code Bindings} are split into chunks that are evaluated by several tasks submitted to {@code executor}. Otherwise they are evaluated by the current thread, in order.
+	 * <p>
+	 * If {@code predicate} is not {@code null}, the evaluation terminates early at the first result, in order, for which {@code predicate} returns {@code true}. That result is the last element in the returned {@code List}. When
+	 * {@code executor} is not {@code null}, some of the {@code Bindings} after it may have been evaluated as well.
+	 * <p>
+	 * If either {@code script} or {@code bindings} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled or evaluated, or any of the elements in {@code bindings} are {@code null}, a {@code ScriptException} will be thrown. It is the {@code ScriptException} of the first evaluation, in order, that failed.
+	 * 
+	 * @param script the script to evaluate
+	 * @param bindings an {@code Iterable} with the {@code Bindings} to evaluate {@code script} with
+	 * @param executor the {@code Executor} to evaluate {@code script} with, or {@code null} to evaluate it in the current thread
+	 * @param predicate a {@code Predicate} that terminates the evaluation when it returns {@code true} for a result, or {@code null}
+	 * @return a {@code List} with the results, in order
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script} or {@code bindings} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled or evaluated, or any of the elements in {@code bindings} are {@code null}
+	 */
+	public List<Object> evalAll(final String script, final Iterable<? extends Bindings> bindings, final Executor executor, final Predicate<Object> predicate) throws ScriptException {
+		Objects.requireNonNull(script, "script == null");
+		Objects.requireNonNull(bindings, "bindings == null");
+		
+		doCheckNotClosed();
+		doConfigure(getContext());
+		
+		final EvaluationBatch evaluationBatch = new EvaluationBatch(doGetPolymorphicScript(ScriptKey.of(script), script), getContext(), predicate);
+		
+		if(executor == null) {
+			return evaluationBatch.evalAll(bindings);
+		}
+		
+		final List<Bindings> bindingsList = new ArrayList<>();
+		
+		bindings.forEach(bindingsList::add);
+		
+		return evaluationBatch.evalAll(bindingsList, executor, executor instanceof ForkJoinPool ? ForkJoinPool.class.cast(executor).getParallelism() : Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Returns a {@code List} with all session import statements.
+	 * <p>
+	 * Modifying the returned {@code List} will not affect this {@code ArtifactScriptEngine}.
+	 * <p>
+	 * The session import statements are only collected if {@link #isSessionImportStatementsEnabled()} returns {@code true}.
+	 * 
+	 * @return a {@code List} with all session import statements
+	 */
+	public List<String> getSessionImportStatements() {
+		synchronized(this.importStatementsSession) {
+			return new ArrayList<>(this.importStatementsSession);
+		}
+	}
+	
+	/**
+	 * Compiles all scripts in {@code scripts} asynchronously, in batches, and returns a {@code Map} from each script to a {@code CompletableFuture} with its {@code CompiledScript}.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * artifactScriptEngine.compileAllAsync(scripts, CompilationPriority.INTERACTIVE);
+	 * }
+	 * </pre>
+	 * If either {@code scripts} or any of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param scripts a {@code Collection} with the scripts to compile
+	 * @return a {@code Map} from each script to a {@code CompletableFuture} with its {@code CompiledScript}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code scripts} or any of its elements are {@code null}
+	 */
+	public Map<String, CompletableFuture<CompiledScript>> compileAllAsync(final Collection<String> scripts) {
+		return compileAllAsync(scripts, CompilationPriority.INTERACTIVE);
 	}
 	
+	/**
+	 * Compiles all scripts in {@code scripts} asynchronously, in batches, and returns a {@code Map} from each script to a {@code CompletableFuture} with its {@code CompiledScript}.
+	 * <p>
+	 * The scripts are partitioned into batches, one or more per thread of the compile scheduler, and each batch is compiled by a single invocation of the Java compiler, with a priority of {@code compilationPriority}. This avoids most of the
+	 * overhead of starting the Java compiler once per script. If a script could not be compiled, its {@code CompletableFuture} is completed exceptionally with a {@code ScriptException} describing the errors of that script. The other scripts in
+	 * the same batch are not affected.
+	 * <p>
+	 * The scripts are compiled for the types of their variables in the current {@code ScriptContext} and are added to the cache of compiled scripts, so evaluating them later does not compile them again. Scripts that are already compiled are
+	 * not compiled again. The returned {@code Map} iterates over the scripts in the order of {@code scripts}, without duplicates.
+	 * <p>
+	 * If either {@code scripts}, any of its elements or {@code compilationPriority} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param scripts a {@code Collection} with the scripts to compile
+	 * @param compilationPriority the {@link CompilationPriority} to use
+	 * @return a {@code Map} from each script to a {@code CompletableFuture} with its {@code CompiledScript}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code scripts}, any of its elements or {@code compilationPriority} are {@code null}
+	 */
+	public Map<String, CompletableFuture<CompiledScript>> compileAllAsync(final Collection<String> scripts, final CompilationPriority compilationPriority) {
+		Objects.requireNonNull(scripts, "scripts == null");
+		Objects.requireNonNull(compilationPriority, "compilationPriority == null");
+		
+		for(final String script : scripts) {
+			Objects.requireNonNull(script, "script == null");
+		}
+		
+		final List<String> distinctScripts = new ArrayList<>(new LinkedHashSet<>(scripts));
+		
+		final List<CompletableFuture<CompiledScript>> completableFutures = compileAllAsync(distinctScripts, Collections.nCopies(distinctScripts.size(), null), compilationPriority);
+		
+		final Map<String, CompletableFuture<CompiledScript>> completableFutureMap = new LinkedHashMap<>();
+		
+		for(int i = 0; i < distinctScripts.size(); i++) {
+			completableFutureMap.put(distinctScripts.get(i), completableFutures.get(i));
+		}
+		
+		return completableFutureMap;
+	}
+	
+	/**
+	 * Compiles {@code script} asynchronously and returns a {@code CompletableFuture} with the {@code CompiledScript}.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * artifactScriptEngine.compileAsync(script, CompilationPriority.INTERACTIVE);
+	 * }
+	 * </pre>
+	 * If {@code script} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to compile
+	 * @return a {@code CompletableFuture} with the {@code CompiledScript}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, {@code script} is {@code null}
+	 */
+	public CompletableFuture<CompiledScript> compileAsync(final String script) {
+		return compileAsync(script, CompilationPriority.INTERACTIVE);
+	}
+	
+	/**
+	 * Compiles {@code script} asynchronously and returns a {@code CompletableFuture} with the {@code CompiledScript}.
+	 * <p>
+	 * The compilation is performed by the compile scheduler of this {@code ArtifactScriptEngine}, with a priority of {@code compilationPriority}. The {@code CompletableFuture} is completed exceptionally with a {@code ScriptException} if
+	 * {@code script} could not be compiled.
+	 * <p>
+	 * If either {@code script} or {@code compilationPriority} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to compile
+	 * @param compilationPriority the {@link CompilationPriority} to use
+	 * @return a {@code CompletableFuture} with the {@code CompiledScript}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script} or {@code compilationPriority} are {@code null}
+	 */
+	public CompletableFuture<CompiledScript> compileAsync(final String script, final CompilationPriority compilationPriority) {
+		Objects.requireNonNull(script, "script == null");
+		Objects.requireNonNull(compilationPriority, "compilationPriority == null");
+		
+		doCheckNotClosed();
+		
+		final ScriptContext scriptContext = getContext();
+		
+		return this.compilationScheduler.submit(() -> doCompile(script, scriptContext), compilationPriority);
+	}
+	
+	/**
+	 * Evaluates {@code script} asynchronously and returns a {@code CompletableFuture} with its result.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * artifactScriptEngine.evalAsync(script, artifactScriptEngine.getContext(), CompilationPriority.INTERACTIVE);
+	 * }
+	 * </pre>
+	 * If {@code script} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @return a {@code CompletableFuture} with the result of {@code script}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, {@code script} is {@code null}
+	 */
+	public CompletableFuture<Object> evalAsync(final String script) {
+		return evalAsync(script, getContext(), CompilationPriority.INTERACTIVE);
+	}
+	
+	/**
+	 * Evaluates {@code script} asynchronously using {@code scriptContext} and returns a {@code CompletableFuture} with its result.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * artifactScriptEngine.evalAsync(script, scriptContext, CompilationPriority.INTERACTIVE);
+	 * }
+	 * </pre>
+	 * If either {@code script} or {@code scriptContext} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @param scriptContext the {@code ScriptContext} to use
+	 * @return a {@code CompletableFuture} with the result of {@code script}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script} or {@code scriptContext} are {@code null}
+	 */
+	public CompletableFuture<Object> evalAsync(final String script, final ScriptContext scriptContext) {
+		return evalAsync(script, scriptContext, CompilationPriority.INTERACTIVE);
+	}
+	
+	/**
+	 * Evaluates {@code script} asynchronously using {@code scriptContext} and returns a {@code CompletableFuture} with its result.
+	 * <p>
+	 * If {@code script} has already been compiled for the types of its variables in {@code scriptContext}, it is evaluated using the default asynchronous execution facility of {@code CompletableFuture}. Otherwise it is first compiled by the
+	 * compile scheduler of this {@code ArtifactScriptEngine}, with a priority of {@code compilationPriority}. The calling thread never waits for a compilation.
+	 * <p>
+	 * The {@code CompletableFuture} is completed exceptionally with a {@code ScriptException} if {@code script} could not be compiled or evaluated.
+	 * <p>
+	 * If either {@code script}, {@code scriptContext} or {@code compilationPriority} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @param scriptContext the {@code ScriptContext} to use
+	 * @param compilationPriority the {@link CompilationPriority} to use
+	 * @return a {@code CompletableFuture} with the result of {@code script}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script}, {@code scriptContext} or {@code compilationPriority} are {@code null}
+	 */
+	public CompletableFuture<Object> evalAsync(final String script, final ScriptContext scriptContext, final CompilationPriority compilationPriority) {
+		Objects.requireNonNull(script, "script == null");
+		Objects.requireNonNull(scriptContext, "scriptContext == null");
+		Objects.requireNonNull(compilationPriority, "compilationPriority == null");
+		
+		doCheckNotClosed();
+		
+		try {
+			doConfigure(scriptContext);
+		} catch(final ScriptException e) {
+			final CompletableFuture<Object> completableFuture = new CompletableFuture<>();
+			
+			completableFuture.completeExceptionally(e);
+			
+			return completableFuture;
+		}
+		
+		final ScriptKey key = ScriptKey.of(script);
+		
+		final CompiledScript compiledScript = doGetCompiledScriptIfPresent(key, scriptContext);
+		
+		final CompletableFuture<CompiledScript> completableFuture = compiledScript != null ? CompletableFuture.completedFuture(compiledScript) : this.compilationScheduler.submit(() -> doGetCompiledScript(key, script, scriptContext), compilationPriority);
+		
+		return completableFuture.thenApplyAsync(compiledScript0 -> {
+			try {
+				return compiledScript0.eval(scriptContext);
+			} catch(final ScriptException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+	
+	/**
+	 * Compiles the script read from {@code reader} and returns it as a {@code CompiledScript}.
+	 * <p>
+	 * If {@code reader} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If the script could not be compiled, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param reader the {@code Reader} to read the script from
+	 * @return a {@code CompiledScript}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, {@code reader} is {@code null}
+	 * @throws ScriptException thrown if, and only if, the script could not be compiled
+	 */
 	@Override
 	public CompiledScript compile(final Reader reader) throws ScriptException {
-		return doCompile(doReadFrom(Objects.requireNonNull(reader, "reader == null")));
+		return doCompile(doReadFrom(Objects.requireNonNull(reader, "reader == null")), getContext());
+	}
+	
+	/**
+	 * Compiles {@code script} and returns it as a {@code CompiledScript}.
+	 * <p>
+	 * If {@code script} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param script the script to compile
+	 * @return a {@code CompiledScript}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, {@code script} is {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled
+	 */
+	@Override
+	public CompiledScript compile(final String script) throws ScriptException {
+		return doCompile(Objects.requireNonNull(script, "script == null"), getContext());
+	}
+	
+	/**
+	 * Evaluates the script read from {@code reader} using {@code scriptContext} and returns its result.
+	 * <p>
+	 * If either {@code reader} or {@code scriptContext} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If the script could not be compiled or evaluated, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param reader the {@code Reader} to read the script from
+	 * @param scriptContext the {@code ScriptContext} to use
+	 * @return the result of the script
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code reader} or {@code scriptContext} are {@code null}
+	 * @throws ScriptException thrown if, and only if, the script could not be compiled or evaluated
+	 */
+	@Override
+	public Object eval(final Reader reader, final ScriptContext scriptContext) throws ScriptException {
+		return doEval(Objects.requireNonNull(reader, "reader == null"), Objects.requireNonNull(scriptContext, "scriptContext == null"));
+	}
+	
+	/**
+	 * Evaluates {@code script} using {@code scriptContext} and returns its result.
+	 * <p>
+	 * If either {@code script} or {@code scriptContext} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled or evaluated, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @param scriptContext the {@code ScriptContext} to use
+	 * @return the result of {@code script}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script} or {@code scriptContext} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled or evaluated
+	 */
+	@Override
+	public Object eval(final String script, final ScriptContext scriptContext) throws ScriptException {
+		return doEval(Objects.requireNonNull(script, "script == null"), Objects.requireNonNull(scriptContext, "scriptContext == null"));
+	}
+	
+	/**
+	 * Calls the method called {@code name} of the most recently evaluated or compiled script that declares such a method that is applicable to {@code args}, and returns its result.
+	 * <p>
+	 * Each method declared at the top level of a script, such as {@code int square(int x) { return x * x; }}, becomes a method of the script. A method without an access modifier is public. Non-static methods can read the variables of the
+	 * script, such as {@code $x}, from the current {@code ScriptContext} of this {@code ArtifactScriptEngine}.
+	 * <p>
+	 * If {@code name} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If no such method can be found, a {@code NoSuchMethodException} will be thrown.
+	 * <p>
+	 * If the method throws an {@code Exception}, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param name the name of the method
+	 * @param args the arguments to pass to the method
+	 * @return the result of the method
+	 * @throws NoSuchMethodException thrown if, and only if, no such method can be found
+	 * @throws NullPointerException thrown if, and only if, {@code name} is {@code null}
+	 * @throws ScriptException thrown if, and only if, the method throws an {@code Exception}
+	 */
+	@Override
+	public Object invokeFunction(final String name, final Object... args) throws NoSuchMethodException, ScriptException {
+		Objects.requireNonNull(name, "name == null");
+		
+		final Object[] arguments = args != null ? args : new Object[0];
+		
+		for(final ArtifactScript artifactScript : this.invocableScripts) {
+			final Method method = Invocables.findFunction(artifactScript.getClass(), name, arguments);
+			
+			if(method != null) {
+				return Invocables.invoke(method, artifactScript, arguments);
+			}
+		}
+		
+		throw new NoSuchMethodException(name);
+	}
+	
+	/**
+	 * Calls the public method called {@code name} of {@code thiz} that is applicable to {@code args}, and returns its result.
+	 * <p>
+	 * If {@code name} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code thiz} is {@code null}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If no such method can be found, a {@code NoSuchMethodException} will be thrown.
+	 * <p>
+	 * If the method throws an {@code Exception}, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param thiz the {@code Object} to call the method on
+	 * @param name the name of the method
+	 * @param args the arguments to pass to the method
+	 * @return the result of the method
+	 * @throws IllegalArgumentException thrown if, and only if, {@code thiz} is {@code null}
+	 * @throws NoSuchMethodException thrown if, and only if, no such method can be found
+	 * @throws NullPointerException thrown if, and only if, {@code name} is {@code null}
+	 * @throws ScriptException thrown if, and only if, the method throws an {@code Exception}
+	 */
+	@Override
+	public Object invokeMethod(final Object thiz, final String name, final Object... args) throws NoSuchMethodException, ScriptException {
+		Objects.requireNonNull(name, "name == null");
+		
+		if(thiz == null) {
+			throw new IllegalArgumentException("thiz == null");
+		}
+		
+		final Object[] arguments = args != null ? args : new Object[0];
+		
+		final Method method = Invocables.findMethod(thiz.getClass(), name, arguments);
+		
+		if(method == null) {
+			throw new NoSuchMethodException(name);
+		}
+		
+		return Invocables.invoke(method, thiz, arguments);
+	}
+	
+	/**
+	 * Returns the {@code ScriptEngineFactory} that created this {@code ArtifactScriptEngine}.
+	 * 
+	 * @return the {@code ScriptEngineFactory} that created this {@code ArtifactScriptEngine}
+	 */
+	@Override
+	public ScriptEngineFactory getFactory() {
+		return this.scriptEngineFactory;
+	}
+	
+	/**
+	 * Compiles {@code script} into an implementation of the functional interface {@code clazz} and returns it.
+	 * <p>
+	 * The script is the body of the single abstract method of {@code clazz}. If it ends with a semicolon or a closing brace, it is used as a block of statements. Otherwise it is used as an expression, whose value is returned. Each element in
+	 * {@code parameters} names a parameter of the method, in order. The type of a parameter is the type declared by the method, such as {@code double} for {@code DoubleUnaryOperator}, unless a type is given before its name, as in
+	 * {@code "Quote quote"}, in which case the argument is cast to that type.
+	 * <p>
+	 * The class of the script implements {@code clazz} itself, so the method takes and returns primitive values without boxing them. A call such as {@code compileFunction(DoubleUnaryOperator.class, "x * x", "x")} returns a
+	 * {@code DoubleUnaryOperator} that does not allocate when it is applied. Compiling the same script for the same interface again returns the same instance.
+	 * <p>
+	 * If either {@code clazz}, {@code script}, {@code parameters} or any of the elements in {@code parameters} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code clazz} does not represent an interface with exactly one abstract method, {@code parameters.length} is not equal to the number of parameters of that method or any of the elements in {@code parameters} is invalid, an
+	 * {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param <T> the type of the functional interface
+	 * @param clazz the {@code Class} of the functional interface
+	 * @param script the body of the method
+	 * @param parameters the names of the parameters of the method
+	 * @return an implementation of the functional interface {@code clazz}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code clazz} does not represent an interface with exactly one abstract method, {@code parameters.length} is not equal to the number of parameters of that method or any of the
+	 *                                  elements in {@code parameters} is invalid
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code clazz}, {@code script}, {@code parameters} or any of the elements in {@code parameters} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled
+	 */
+	public <T> T compileFunction(final Class<T> clazz, final String script, final String... parameters) throws ScriptException {
+		Objects.requireNonNull(clazz, "clazz == null");
+		Objects.requireNonNull(script, "script == null");
+		Objects.requireNonNull(parameters, "parameters == null");
+		
+		doCheckInterface(clazz);
+		
+		final String functionScript = doGenerateFunctionScript(clazz, doGetFunctionalMethod(clazz), script, parameters);
+		
+		doCheckNotClosed();
+		
+		try {
+			final CompiledScript compiledScript = doGetCompiledScript(ScriptKey.of(functionScript), functionScript, getContext());
+			
+			if(!clazz.isInstance(compiledScript)) {
+				throw new ScriptException("Unable to compile script \"" + script + "\" into a " + clazz.getName() + ".");
+			}
+			
+			return clazz.cast(compiledScript);
+		} catch(final NullPointerException e) {
+			throw new ScriptException(e);
+		}
+	}
+	
+	/**
+	 * Returns an implementation of the interface {@code clazz} that calls the methods of the most recently evaluated or compiled script that can implement it, or {@code null} if no such script can be found.
+	 * <p>
+	 * A script can declare that it implements an interface using a directive at its top level, such as {@code implements IntUnaryOperator;}. If it does, the script itself is returned, so each call of a method of {@code clazz} is an ordinary
+	 * interface call that the JIT compiler is able to inline. Otherwise, if a script declares a method for each abstract method of {@code clazz}, a proxy is returned whose methods call {@code MethodHandle}s bound to that script in advance. A default method of {@code clazz} that the script does not declare
+	 * calls the implementation of {@code clazz}.
+	 * <p>
+	 * If either {@code clazz} is {@code null} or it does not represent an interface, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param <T> the type of the interface
+	 * @param clazz the {@code Class} of the interface
+	 * @return an implementation of the interface {@code clazz}, or {@code null} if no such script can be found
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code clazz} is {@code null} or it does not represent an interface
+	 */
+	@Override
+	public <T> T getInterface(final Class<T> clazz) {
+		doCheckInterface(clazz);
+		
+		final ArtifactScript[] invocableScripts = this.invocableScripts;
+		
+		for(final ArtifactScript artifactScript : invocableScripts) {
+			if(clazz.isInstance(artifactScript)) {
+				return clazz.cast(artifactScript);
+			}
+		}
+		
+		for(final ArtifactScript artifactScript : invocableScripts) {
+			final T t = Invocables.newProxy(clazz, artifactScript, true);
+			
+			if(t != null) {
+				return t;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns an implementation of the interface {@code clazz} that calls the public methods of {@code thiz}, or {@code null} if {@code thiz} does not have a method for each abstract method of {@code clazz}.
+	 * <p>
+	 * If {@code thiz} already implements {@code clazz}, {@code thiz} itself is returned. Otherwise a proxy is returned whose methods call {@code MethodHandle}s bound to {@code thiz} in advance. A default method of {@code clazz} that {@code thiz} does not
+	 * have calls the implementation of {@code clazz}.
+	 * <p>
+	 * If either {@code thiz} or {@code clazz} are {@code null}, or {@code clazz} does not represent an interface, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param <T> the type of the interface
+	 * @param thiz the {@code Object} whose methods should be called
+	 * @param clazz the {@code Class} of the interface
+	 * @return an implementation of the interface {@code clazz}, or {@code null} if {@code thiz} does not have a method for each abstract method of {@code clazz}
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code thiz} or {@code clazz} are {@code null}, or {@code clazz} does not represent an interface
+	 */
+	@Override
+	public <T> T getInterface(final Object thiz, final Class<T> clazz) {
+		if(thiz == null) {
+			throw new IllegalArgumentException("thiz == null");
+		}
+		
+		doCheckInterface(clazz);
+		
+		return clazz.isInstance(thiz) ? clazz.cast(thiz) : Invocables.newProxy(clazz, thiz, false);
+	}
+	
+	/**
+	 * Returns the number of compilations currently running.
+	 * 
+	 * @return the number of compilations currently running
+	 */
+	public int getCompilationActiveCount() {
+		return this.compilationScheduler.getActiveCount();
+	}
+	
+	/**
+	 * Returns the number of compilations waiting in the queue of the compile scheduler.
+	 * 
+	 * @return the number of compilations waiting in the queue of the compile scheduler
+	 */
+	public int getCompilationQueueSize() {
+		return this.compilationScheduler.getQueueSize();
+	}
+	
+	/**
+	 * Returns the number of evictions from the cache of compiled scripts.
+	 * 
+	 * @return the number of evictions from the cache of compiled scripts
+	 */
+	public long getCacheEvictionCount() {
+		return this.compiledScriptCache.getEvictionCount();
+	}
+	
+	/**
+	 * Returns the number of cache hits in the cache of compiled scripts.
+	 * 
+	 * @return the number of cache hits in the cache of compiled scripts
+	 */
+	public long getCacheHitCount() {
+		return this.compiledScriptCache.getHitCount();
+	}
+	
+	/**
+	 * Returns the number of cache misses in the cache of compiled scripts.
+	 * <p>
+	 * Each cache miss results in a compilation.
+	 * 
+	 * @return the number of cache misses in the cache of compiled scripts
+	 */
+	public long getCacheMissCount() {
+		return this.compiledScriptCache.getMissCount();
+	}
+	
+	/**
+	 * Returns the number of scripts currently in the cache of compiled scripts.
+	 * 
+	 * @return the number of scripts currently in the cache of compiled scripts
+	 */
+	public long getCacheSize() {
+		return this.compiledScriptCache.getSize();
+	}
+	
+	/**
+	 * Returns the current weight of the cache of compiled scripts.
+	 * <p>
+	 * The weight of a cached script is the length of its normalized source code plus the size of its generated bytecode.
+	 * 
+	 * @return the current weight of the cache of compiled scripts
+	 */
+	public long getCacheWeight() {
+		return this.compiledScriptCache.getWeight();
+	}
+	
+	/**
+	 * Returns the number of compilations that had to wait for memory to become available before they were started.
+	 * 
+	 * @return the number of compilations that had to wait for memory to become available before they were started
+	 */
+	public long getCompilationAdmissionDelayCount() {
+		return this.compilationScheduler.getAdmissionDelayCount();
+	}
+	
+	/**
+	 * Returns the number of times the Java compiler has been invoked by this {@code ArtifactScriptEngine}.
+	 * 
+	 * @return the number of times the Java compiler has been invoked by this {@code ArtifactScriptEngine}
+	 */
+	public long getCompilationCount() {
+		return this.compilationCount.sum();
+	}
+	
+	/**
+	 * Returns the number of hits in the disk cache of compiled classes.
+	 * <p>
+	 * The disk cache is disabled by default. If it is disabled, {@code 0L} will be returned.
+	 * 
+	 * @return the number of hits in the disk cache of compiled classes
+	 */
+	public long getDiskCacheHitCount() {
+		return this.bytecodeCache != null ? this.bytecodeCache.getHitCount() : 0L;
+	}
+	
+	/**
+	 * Returns the number of misses in the disk cache of compiled classes.
+	 * <p>
+	 * The disk cache is disabled by default. If it is disabled, {@code 0L} will be returned.
+	 * 
+	 * @return the number of misses in the disk cache of compiled classes
+	 */
+	public long getDiskCacheMissCount() {
+		return this.bytecodeCache != null ? this.bytecodeCache.getMissCount() : 0L;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code ArtifactScriptEngine} has been closed, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, this {@code ArtifactScriptEngine} has been closed, {@code false} otherwise
+	 */
+	public boolean isClosed() {
+		return this.isClosed.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, session import statements are enabled, {@code false} otherwise.
+	 * <p>
+	 * By default, the import statements and the package statement in a script only apply to that script. If session import statements are enabled, the import statements in each successfully compiled script are also added, if absent, to the
+	 * session import statements, and its package statement, if present, becomes the package of the session. These apply to all scripts compiled afterwards. This is useful for interactive sessions, such as the CLI and GUI.
+	 * <p>
+	 * Session import statements are disabled by default. They can be enabled by setting the system property {@code org.macroing.cel4j.artifact.import.session} to {@code true}, or by using {@link #setSessionImportStatementsEnabled(boolean)}.
+	 * 
+	 * @return {@code true} if, and only if, session import statements are enabled, {@code false} otherwise
+	 */
+	public boolean isSessionImportStatementsEnabled() {
+		return this.isSessionImportStatementsEnabled.get();
+	}
+	
+	/**
+	 * Closes this {@code ArtifactScriptEngine}.
+	 * <p>
+	 * All cached scripts are released. Once they are no longer referenced by the callers of this {@code ArtifactScriptEngine}, their classes and {@code ClassLoader}s can be unloaded.
+	 * <p>
+	 * Calling this method more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if(this.isClosed.compareAndSet(false, true)) {
+			this.compilationScheduler.shutdown();
+			this.compiledScriptCache.clear();
+			this.compilerContextPool.clear();
+			
+			synchronized(this) {
+				this.invocableScripts = new ArtifactScript[0];
+			}
+			
+			synchronized(this.importStatementsSession) {
+				this.importStatementsSession.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Evaluates {@code script} once for each row of {@code columns} and stores the results in {@code output}.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * scriptEngine.evalBatch(script, columns, output, false);
+	 * }
+	 * </pre>
+	 * 
+	 * @param script the expression, or block of statements, to evaluate for each row
+	 * @param columns a {@code Map} from the name of each column to an array with its values
+	 * @param output the array to store the result of each row in
+	 * @throws IllegalArgumentException thrown if, and only if, either any of the names in {@code columns} is invalid, any of the values in {@code columns} or {@code output} is not an array of a primitive type or any of the values in
+	 *                                  {@code columns} is shorter than {@code output}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script}, {@code columns}, any of the keys or values in {@code columns} or {@code output} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled or evaluated
+	 */
+	public void evalBatch(final String script, final Map<String, ?> columns, final Object output) throws ScriptException {
+		evalBatch(script, columns, output, false);
+	}
+	
+	/**
+	 * Evaluates {@code script} once for each row of {@code columns} and stores the results in {@code output}.
+	 * <p>
+	 * Each value in {@code columns} is an array of a primitive type, such as {@code double[]}, {@code long[]} or {@code int[]}. The script refers to the value of a column in the current row by its name, as in {@code price * quantity}, and its
+	 * result for row {@code i} is stored in {@code output[i]}. The number of rows is the length of {@code output}. If the script ends with a semicolon or a closing brace, it is used as a block of statements that returns the result. Otherwise it is
+	 * used as an expression.
+	 * <p>
+	 * The script is compiled, once for each combination of column names and types, into a loop over the rows that reads the arrays directly, so the JIT compiler is able to vectorize it. If {@code isParallel} is {@code true}, the rows are split
+	 * into chunks that are evaluated using the common {@code ForkJoinPool}. The size of the chunks can be configured using the system property {@code org.macroing.cel4j.artifact.batch.chunkSize}. It defaults to {@code 65536}.
+	 * <p>
+	 * If either {@code script}, {@code columns}, any of the keys or values in {@code columns} or {@code output} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either any of the names in {@code columns} is invalid, any of the values in {@code columns} or {@code output} is not an array of a primitive type or any of the values in {@code columns} is shorter than {@code output}, an
+	 * {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If this {@code ArtifactScriptEngine} has been closed, an {@code IllegalStateException} will be thrown.
+	 * <p>
+	 * If {@code script} could not be compiled or evaluated, a {@code ScriptException} will be thrown.
+	 * 
+	 * @param script the expression, or block of statements, to evaluate for each row
+	 * @param columns a {@code Map} from the name of each column to an array with its values
+	 * @param output the array to store the result of each row in
+	 * @param isParallel {@code true} if, and only if, the rows should be evaluated in parallel
+	 * @throws IllegalArgumentException thrown if, and only if, either any of the names in {@code columns} is invalid, any of the values in {@code columns} or {@code output} is not an array of a primitive type or any of the values in
+	 *                                  {@code columns} is shorter than {@code output}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ArtifactScriptEngine} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script}, {@code columns}, any of the keys or values in {@code columns} or {@code output} are {@code null}
+	 * @throws ScriptException thrown if, and only if, {@code script} could not be compiled or evaluated
+	 */
+	public void evalBatch(final String script, final Map<String, ?> columns, final Object output, final boolean isParallel) throws ScriptException {
+		Objects.requireNonNull(script, "script == null");
+		Objects.requireNonNull(columns, "columns == null");
+		
+		final String batchScript = Batches.generateScript(script, columns, output);
+		
+		final Object[] columnArray = Batches.getColumns(columns, output);
+		
+		doCheckNotClosed();
+		
+		try {
+			final CompiledScript compiledScript = doGetCompiledScript(ScriptKey.of(batchScript), batchScript, getContext());
+			
+			Batches.evalBatch(ArtifactScript.class.cast(compiledScript), columnArray, Array.getLength(output), this.batchChunkSize, isParallel);
+		} catch(final RuntimeException e) {
+			throw new ScriptException(e);
+		}
+	}
+	
+	/**
+	 * Enables or disables session import statements.
+	 * <p>
+	 * Disabling session import statements does not remove the session import statements that have already been collected, but they will no longer be used by scripts compiled afterwards.
+	 * <p>
+	 * Scripts that have already been compiled and cached are not affected.
+	 * 
+	 * @param isSessionImportStatementsEnabled {@code true} if, and only if, session import statements should be enabled, {@code false} otherwise
+	 */
+	public void setSessionImportStatementsEnabled(final boolean isSessionImportStatementsEnabled) {
+		this.isSessionImportStatementsEnabled.set(isSessionImportStatementsEnabled);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	BindingsLayout getBindingsLayout() {
+		return this.bindingsLayout;
+	}
+	
+	CompiledScript compile(final PreprocessedScript preprocessedScript, final Map<String, Class<?>> variableTypes) throws ScriptException {
+		return doCompile(preprocessedScript, variableTypes);
+	}
+	
+//	Returns a CompiledScript that interprets preprocessedScript, or null if the interpreter is disabled or the script uses anything it does not support. Once the CompiledScript has been evaluated often enough, onThreshold is run, so the
+//	script can be compiled in the background. Scripts that declare methods or interfaces are always compiled, as they may be invoked.
+	CompiledScript interpret(final PreprocessedScript preprocessedScript, final Map<String, Class<?>> variableTypes, final Runnable onThreshold) {
+		doCheckNotClosed();
+		
+		if(this.interpreterThreshold == 0 || preprocessedScript.hasMembers() || !preprocessedScript.getInterfaceNames().isEmpty()) {
+			return null;
+		}
+		
+		final List<String> importStatements;
+		
+		try {
+//			A script that has been compiled ahead of time is loaded instead, as that is cheaper than interpreting it.
+			if(!this.scriptRegistry.isEmpty() && this.scriptRegistry.get(doCreateCompilationUnit(preprocessedScript, variableTypes).getRegistryKey()) != null) {
+				return null;
+			}
+			
+			importStatements = new ArrayList<>(doGetImportStatements(preprocessedScript.getImportStatements()));
+		} catch(final ScriptException e) {
+			return null;
+		}
+		
+		final CompiledScript compiledScript = Interpreter.interpret(this, preprocessedScript, variableTypes, importStatements, doGetPackageName(preprocessedScript), this.interpreterThreshold, onThreshold);
+		
+		if(compiledScript != null) {
+			doAddSessionImportStatements(preprocessedScript);
+			
+			if(this.scriptTrace != null) {
+				final String[] variableNames = preprocessedScript.getVariableNames();
+				
+				final Class<?>[] variableClasses = new Class<?>[variableNames.length];
+				
+				for(int i = 0; i < variableNames.length; i++) {
+					variableClasses[i] = variableTypes.get(variableNames[i]);
+				}
+				
+				this.scriptTrace.add(preprocessedScript.getScript(), variableClasses);
+			}
+		}
+		
+		return compiledScript;
+	}
+	
+//	Returns the Deadline of an evaluation using scriptContext, or null if it has none. It is given by the attribute org.macroing.cel4j.artifact.timeout, in milliseconds, or by the evaluation that is in progress in the current thread, such as
+//	one performed by a ScriptExecutor.
+	Deadline getDeadline(final ScriptContext scriptContext) throws ScriptException {
+		final Object timeout = scriptContext.getAttribute(PROPERTY_TIMEOUT);
+		
+		return timeout != null ? Deadline.after(TimeUnit.MILLISECONDS.toNanos(doGetLong(PROPERTY_TIMEOUT, timeout))) : Deadline.current();
+	}
+	
+	List<CompletableFuture<CompiledScript>> compileAllAsync(final List<String> scripts, final List<Class<?>[]> variableClasses, final CompilationPriority compilationPriority) {
+		doCheckNotClosed();
+		
+		final ScriptContext scriptContext = getContext();
+		
+		final List<CompletableFuture<CompiledScript>> completableFutures = new ArrayList<>();
+		
+		final Map<List<Object>, CompletableFuture<CompiledScript>> pendingCompletableFutureMap = new HashMap<>();
+		
+		final List<Class<?>[]> pendingClasses = new ArrayList<>();
+		final List<CompletableFuture<CompiledScript>> pendingCompletableFutures = new ArrayList<>();
+		final List<PolymorphicScript> pendingPolymorphicScripts = new ArrayList<>();
+		
+		for(int i = 0; i < scripts.size(); i++) {
+			final String script = scripts.get(i);
+			
+			try {
+				final ScriptKey key = ScriptKey.of(script);
+				
+				final PolymorphicScript polymorphicScript = PolymorphicScript.class.cast(this.compiledScriptCache.get(key, () -> new PolymorphicScript(this, Preprocessor.preprocess(script), () -> this.compiledScriptCache.updateWeight(key))));
+				
+				final Class<?>[] classes = variableClasses.get(i) != null && variableClasses.get(i).length == polymorphicScript.getPreprocessedScript().getVariableNames().length ? variableClasses.get(i) : polymorphicScript.getClasses(scriptContext);
+				
+				final List<Object> pendingKey = new ArrayList<>();
+				
+				pendingKey.add(polymorphicScript);
+				pendingKey.addAll(Arrays.asList(classes));
+				
+				if(polymorphicScript.getCompiledScriptIfPresent(classes) != null) {
+					completableFutures.add(CompletableFuture.completedFuture(polymorphicScript));
+				} else if(pendingCompletableFutureMap.containsKey(pendingKey)) {
+					completableFutures.add(pendingCompletableFutureMap.get(pendingKey));
+				} else {
+					final CompletableFuture<CompiledScript> completableFuture = new CompletableFuture<>();
+					
+					completableFutures.add(completableFuture);
+					
+					pendingClasses.add(classes);
+					pendingCompletableFutureMap.put(pendingKey, completableFuture);
+					pendingCompletableFutures.add(completableFuture);
+					pendingPolymorphicScripts.add(polymorphicScript);
+				}
+			} catch(final ScriptException e) {
+				final CompletableFuture<CompiledScript> completableFuture = new CompletableFuture<>();
+				
+				completableFuture.completeExceptionally(e);
+				
+				completableFutures.add(completableFuture);
+			}
+		}
+		
+		final int count = pendingPolymorphicScripts.size();
+		final int batchSize = Math.max(Math.min((count + this.compilationScheduler.getMaximumConcurrency() - 1) / this.compilationScheduler.getMaximumConcurrency(), MAXIMUM_BATCH_SIZE), 1);
+		
+		for(int i = 0; i < count; i += batchSize) {
+			final List<Class<?>[]> batchClasses = pendingClasses.subList(i, Math.min(i + batchSize, count));
+			final List<CompletableFuture<CompiledScript>> batchCompletableFutures = pendingCompletableFutures.subList(i, Math.min(i + batchSize, count));
+			final List<PolymorphicScript> batchPolymorphicScripts = pendingPolymorphicScripts.subList(i, Math.min(i + batchSize, count));
+			
+			this.compilationScheduler.submit(() -> {
+				doCompileAll(batchPolymorphicScripts, batchClasses, batchCompletableFutures);
+				
+				return null;
+			}, compilationPriority).whenComplete((result, throwable) -> {
+				if(throwable != null) {
+					for(final CompletableFuture<CompiledScript> completableFuture : batchCompletableFutures) {
+						completableFuture.completeExceptionally(throwable);
+					}
+				}
+			});
+		}
+		
+		return completableFutures;
+	}
+	
+//	Compiles scripts ahead of time, for the types in variableClasses or for Object if an element is null, and returns all classes. Each registry key that was compiled is added to classNames, mapped to the name of its class, and each script
+//	that could not be compiled is added to failures.
+	Map<String, byte[]> compileAheadOfTime(final List<String> scripts, final List<Class<?>[]> variableClasses, final Map<String, String> classNames, final Map<String, ScriptException> failures) {
+		doCheckNotClosed();
+		
+		final Map<String, CompilationUnit> compilationUnits = new LinkedHashMap<>();
+		
+		for(int i = 0; i < scripts.size(); i++) {
+			try {
+				final PreprocessedScript preprocessedScript = Preprocessor.preprocess(scripts.get(i));
+				
+				final String[] variableNames = preprocessedScript.getVariableNames();
+				
+				final Class<?>[] classes = variableClasses.get(i);
+				
+				final Map<String, Class<?>> variableTypes = new HashMap<>();
+				
+				for(int j = 0; j < variableNames.length; j++) {
+					variableTypes.put(variableNames[j], classes != null && classes.length == variableNames.length ? classes[j] : null);
+				}
+				
+				final CompilationUnit compilationUnit = doCreateCompilationUnit(preprocessedScript, variableTypes);
+				
+				compilationUnits.putIfAbsent(compilationUnit.getRegistryKey(), compilationUnit);
+			} catch(final ScriptException e) {
+				failures.put(scripts.get(i), e);
+			}
+		}
+		
+		final List<CompilationUnit> remainingCompilationUnits = new ArrayList<>(compilationUnits.values());
+		
+		final Map<String, byte[]> classes = new LinkedHashMap<>();
+		
+		for(int i = 0; i < remainingCompilationUnits.size(); i += MAXIMUM_BATCH_SIZE) {
+			final List<CompilationUnit> batchCompilationUnits = remainingCompilationUnits.subList(i, Math.min(i + MAXIMUM_BATCH_SIZE, remainingCompilationUnits.size()));
+			
+			final Map<CompilationUnit, ScriptException> batchFailures = new HashMap<>();
+			
+			final Map<String, byte[]> batchClasses = doCompileInMemory(batchCompilationUnits, batchFailures);
+			
+			for(final CompilationUnit compilationUnit : batchCompilationUnits) {
+				if(batchFailures.containsKey(compilationUnit)) {
+					failures.put(compilationUnit.getScript(), batchFailures.get(compilationUnit));
+				} else {
+					classes.putAll(compilationUnit.filter(batchClasses));
+					classNames.put(compilationUnit.getRegistryKey(), compilationUnit.getName());
+				}
+			}
+		}
+		
+		return classes;
+	}
+	
+	Optional<ScriptTrace> getScriptTrace() {
+		return Optional.ofNullable(this.scriptTrace);
+	}
+	
+	void compileInBackground(final Callable<?> callable) {
+		this.compilationScheduler.submit(callable, CompilationPriority.BACKGROUND);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private CompilationUnit doCreateCompilationUnit(final PreprocessedScript preprocessedScript, final Map<String, Class<?>> variableTypes) throws ScriptException {
+		final Map<String, Class<?>> variables = new LinkedHashMap<>();
+		final Map<String, String> memberReplacements = new HashMap<>();
+		final Map<String, String> replacements = new HashMap<>();
+		
+		final String[] variableNames = preprocessedScript.getVariableNames();
+		
+		final Class<?>[] variableClasses = new Class<?>[variableNames.length];
+		
+		for(int i = 0; i < variableNames.length; i++) {
+			final Class<?> clazz = variableClasses[i] = variableTypes.get(variableNames[i]);
+			
+			variables.put(variableNames[i], clazz != null ? clazz : Object.class);
+			
+			replacements.put(variableNames[i], "$" + variableNames[i]);
+			
+//			The members of the script, such as its methods, read the variables from the current ScriptContext of the ScriptEngine whenever they are called.
+			memberReplacements.put(variableNames[i], String.format("%s.class.cast(getVariable(getEngine().getContext(), this.slot%s, \"%s\"))", Types.getTypeName(variables.get(variableNames[i])), Integer.valueOf(i), variableNames[i]));
+		}
+		
+		final List<String> importStatements = preprocessedScript.getImportStatements();
+		final List<String> interfaceNames = preprocessedScript.getInterfaceNames();
+		
+		final String body = preprocessedScript.getBody(replacements);
+		final String members = preprocessedScript.getMembers(memberReplacements);
+		final String packageName = doGetPackageName(preprocessedScript);
+		final String templateSourceCode = doGenerateSourceCode(packageName, CLASS_NAME, importStatements, interfaceNames, variables, members, body, preprocessedScript.isWritingOutput());
+		final String registryKey = ScriptRegistry.getKey(templateSourceCode);
+		final String key = this.bytecodeCache != null ? this.bytecodeCache.getKey(templateSourceCode, this.compilerContextPool.getClassPath(), this.compilerContextPool.getOptions()) : null;
+		final String className = CLASS_NAME + registryKey.substring(0, 32);
+		final String sourceCode = doGenerateSourceCode(packageName, className, importStatements, interfaceNames, variables, members, body, preprocessedScript.isWritingOutput());
+		
+		return new CompilationUnit(preprocessedScript, packageName, className, sourceCode, key, registryKey, variableClasses);
+	}
+	
+	private CompiledScript doCompile(final PreprocessedScript preprocessedScript, final Map<String, Class<?>> variableTypes) throws ScriptException {
+		doCheckNotClosed();
+		
+		final CompilationUnit compilationUnit = doCreateCompilationUnit(preprocessedScript, variableTypes);
+		
+		final Class<?> clazz = this.scriptRegistry.get(compilationUnit.getRegistryKey());
+		
+		if(clazz != null) {
+			return doNewCompiledScript(compilationUnit, clazz);
+		}
+		
+		final Map<String, byte[]> classes = compilationUnit.getKey() != null ? this.bytecodeCache.get(compilationUnit.getKey()) : null;
+		
+		return doNewCompiledScript(compilationUnit, classes != null ? classes : doCompile(compilationUnit));
+	}
+	
+	private CompiledScript doCompile(final String script, final ScriptContext scriptContext) throws ScriptException {
+		doCheckNotClosed();
+		
+//		A PolymorphicScript is returned even if the script has no variables, as it is what applies the timeout of each evaluation.
+		final PolymorphicScript polymorphicScript = new PolymorphicScript(this, Preprocessor.preprocess(script), () -> {});
+		
+		doAddInvocableScript(polymorphicScript.getCompiledScript(scriptContext));
+		
+		return polymorphicScript;
+	}
+	
+	private CompiledScript doGetCompiledScript(final ScriptKey key, final String script, final ScriptContext scriptContext) throws ScriptException {
+		return doGetPolymorphicScript(key, script).getCompiledScript(scriptContext);
+	}
+	
+	private CompiledScript doGetCompiledScriptIfPresent(final ScriptKey key, final ScriptContext scriptContext) {
+		final CompiledScript compiledScript = this.compiledScriptCache.getIfPresent(key);
+		
+		return compiledScript != null ? PolymorphicScript.class.cast(compiledScript).getCompiledScriptIfPresent(scriptContext) : null;
+	}
+	
+	private CompiledScript doNewCompiledScript(final CompilationUnit compilationUnit, final Class<?> clazz) throws ScriptException {
+		final PreprocessedScript preprocessedScript = compilationUnit.getPreprocessedScript();
+		
+		doAddSessionImportStatements(preprocessedScript);
+		
+		try {
+			final Object object = clazz.getConstructor(new Class<?>[] {ScriptEngine.class}).newInstance(new Object[] {this});
+			
+			if(this.scriptTrace != null) {
+				this.scriptTrace.add(preprocessedScript.getScript(), compilationUnit.getVariableClasses());
+			}
+			
+			return CompiledScript.class.cast(object);
+		} catch(final Exception e) {
+			throw new ScriptException(e);
+		}
 	}
 	
-	@Override
-	public CompiledScript compile(final String script) throws ScriptException {
-		return doCompile(Objects.requireNonNull(script, "script == null"));
+	private CompiledScript doNewCompiledScript(final CompilationUnit compilationUnit, final Map<String, byte[]> classes) throws ScriptException {
+		try {
+			return doNewCompiledScript(compilationUnit, Class.forName(compilationUnit.getName(), true, new ArtifactClassLoader(ArtifactScriptEngine.class.getClassLoader(), classes)));
+		} catch(final ClassNotFoundException e) {
+			throw new ScriptException(e);
+		}
 	}
 	
-	@Override
-	public Object eval(final Reader reader, final ScriptContext scriptContext) throws ScriptException {
-		return doEval(Objects.requireNonNull(reader, "reader == null"), Objects.requireNonNull(scriptContext, "scriptContext == null"));
+//	The classes are cached by the thread that compiles them, so they are not lost if the evaluation that waits for them is cancelled by its Deadline first.
+	private Map<String, byte[]> doCompile(final CompilationUnit compilationUnit) throws ScriptException {
+		final Map<String, byte[]> emittedClasses = doEmit(compilationUnit);
+		
+		if(emittedClasses != null) {
+			return doPutClasses(compilationUnit, emittedClasses);
+		}
+		
+		try {
+			return this.compilationScheduler.call(() -> doPutClasses(compilationUnit, this.isCompilingOnDisk ? doCompileOnDisk(compilationUnit) : doCompileInMemory(compilationUnit)), CompilationPriority.INTERACTIVE);
+		} catch(final ScriptException e) {
+			throw e;
+		} catch(final Exception e) {
+			throw new ScriptException(e);
+		}
 	}
 	
-	@Override
-	public Object eval(final String script, final ScriptContext scriptContext) throws ScriptException {
-		return doEval(Objects.requireNonNull(script, "script == null"), Objects.requireNonNull(scriptContext, "scriptContext == null"));
+	private Map<String, byte[]> doCompileInMemory(final CompilationUnit compilationUnit) throws ScriptException {
+		doDumpSourceCode(compilationUnit);
+		
+		try {
+			final CompilerContext compilerContext = this.compilerContextPool.acquire();
+			
+			try {
+				final MemoryJavaFileManager memoryJavaFileManager = new MemoryJavaFileManager(compilerContext.getJavaFileManager());
+				
+				final CompilationTask compilationTask = compilerContext.getTask(memoryJavaFileManager, null, Arrays.asList(new MemorySourceFileObject(compilationUnit.getName(), compilationUnit.getSourceCode())));
+				
+				this.compilationCount.increment();
+				
+				final boolean isCompiled = compilationTask.call().booleanValue();
+				
+				if(!isCompiled) {
+					throw new ScriptException("Unable to compile script \"" + compilationUnit.getScript() + "\".");
+				}
+				
+				return memoryJavaFileManager.getClasses();
+			} finally {
+				this.compilerContextPool.release(compilerContext);
+			}
+		} catch(final IOException | RuntimeException e) {
+			throw new ScriptException(e);
+		}
 	}
 	
-	@Override
-	public ScriptEngineFactory getFactory() {
-		return this.scriptEngineFactory;
+//	Compiles compilationUnits using as few compilation tasks as possible. If a task fails, the compilation units that the errors are reported for are removed and the task is repeated with the remaining ones, so one invalid script does not fail
+//	the others. The classes of all compilation units that were compiled are returned.
+	private Map<String, byte[]> doCompileInMemory(final List<CompilationUnit> compilationUnits, final Map<CompilationUnit, ScriptException> failures) {
+		final List<CompilationUnit> remainingCompilationUnits = new ArrayList<>(compilationUnits);
+		
+		for(final CompilationUnit compilationUnit : compilationUnits) {
+			doDumpSourceCode(compilationUnit);
+		}
+		
+		while(remainingCompilationUnits.size() > 0) {
+			final DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
+			
+			final Map<JavaFileObject, CompilationUnit> sources = new LinkedHashMap<>();
+			
+			for(final CompilationUnit compilationUnit : remainingCompilationUnits) {
+				sources.put(new MemorySourceFileObject(compilationUnit.getName(), compilationUnit.getSourceCode()), compilationUnit);
+			}
+			
+			try {
+				final CompilerContext compilerContext = this.compilerContextPool.acquire();
+				
+				try {
+					final MemoryJavaFileManager memoryJavaFileManager = new MemoryJavaFileManager(compilerContext.getJavaFileManager());
+					
+					final CompilationTask compilationTask = compilerContext.getTask(memoryJavaFileManager, diagnosticCollector, sources.keySet());
+					
+					this.compilationCount.increment();
+					
+					if(compilationTask.call().booleanValue()) {
+						return memoryJavaFileManager.getClasses();
+					}
+				} finally {
+					this.compilerContextPool.release(compilerContext);
+				}
+			} catch(final IOException | RuntimeException e) {
+				for(final CompilationUnit compilationUnit : remainingCompilationUnits) {
+					failures.put(compilationUnit, new ScriptException(e));
+				}
+				
+				break;
+			}
+			
+			final Map<CompilationUnit, StringBuilder> messages = new LinkedHashMap<>();
+			
+			for(final Diagnostic<? extends JavaFileObject> diagnostic : diagnosticCollector.getDiagnostics()) {
+				final CompilationUnit compilationUnit = sources.get(diagnostic.getSource());
+				
+				if(diagnostic.getKind() == Diagnostic.Kind.ERROR && compilationUnit != null) {
+					final
+					StringBuilder stringBuilder = messages.computeIfAbsent(compilationUnit, key -> new StringBuilder("Unable to compile script \"" + key.getScript() + "\"."));
+					stringBuilder.append(LINE_SEPARATOR);
+					stringBuilder.append(String.format("Line %s: %s", Long.valueOf(diagnostic.getLineNumber()), diagnostic.getMessage(null)));
+				}
+			}
+			
+			if(messages.isEmpty()) {
+				for(final CompilationUnit compilationUnit : remainingCompilationUnits) {
+					failures.put(compilationUnit, new ScriptException("Unable to compile script \"" + compilationUnit.getScript() + "\"."));
+				}
+				
+				break;
+			}
+			
+			for(final Map.Entry<CompilationUnit, StringBuilder> entry : messages.entrySet()) {
+				failures.put(entry.getKey(), new ScriptException(entry.getValue().toString()));
+				
+				remainingCompilationUnits.remove(entry.getKey());
+			}
+		}
+		
+		return new HashMap<>();
 	}
 	
-	////////////////////////////////////////////////////////////////////////////////////////////////////
-	
-	private CompiledScript doCompile(final String script) throws ScriptException {
-		final String script0 = doSearchAndReplace(script);
-		final String className = "ArtifactScriptImpl" + IDENTIFIER.incrementAndGet();
-		final String packageName = this.packageName.get();
-		final String directory = packageName.replace(".", "/");
+	private Map<String, byte[]> doCompileOnDisk(final CompilationUnit compilationUnit) throws ScriptException {
+		final String directory = compilationUnit.getPackageName().replace(".", "/");
 		
 		final File binaryDirectory = doGetBinaryDirectory();
 		final File sourceDirectory = doGetSourceDirectory();
-		final File sourceFile = doGetSourceFile(directory, className);
+		final File sourceFile = doGetSourceFile(directory, compilationUnit.getClassName());
 		
-		doAddToClassPath(binaryDirectory);
-		doGenerateSourceCode(packageName, className, script0, sourceFile);
+		doDumpSourceCode(compilationUnit);
+		doWriteSourceCode(compilationUnit.getSourceCode(), sourceFile);
 		
 		try {
-			final JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
+			final CompilerContext compilerContext = this.compilerContextPool.acquire();
 			
-			final List<File> files = doGetFiles(URLClassLoader.class.cast(ClassLoader.getSystemClassLoader()).getURLs());
-			
-			try(final StandardJavaFileManager standardJavaFileManager = javaCompiler.getStandardFileManager(null, null, null)) {
+			try {
+				final StandardJavaFileManager standardJavaFileManager = compilerContext.getStandardJavaFileManager();
 				standardJavaFileManager.setLocation(StandardLocation.CLASS_OUTPUT, Arrays.asList(binaryDirectory));
-				standardJavaFileManager.setLocation(StandardLocation.CLASS_PATH, files);
 				standardJavaFileManager.setLocation(StandardLocation.SOURCE_PATH, Arrays.asList(sourceDirectory));
 				
-				final CompilationTask compilationTask = javaCompiler.getTask(null, standardJavaFileManager, null, null, null, standardJavaFileManager.getJavaFileObjectsFromFiles(Arrays.asList(sourceFile)));
+				final CompilationTask compilationTask = compilerContext.getTask(compilerContext.getJavaFileManager(), null, standardJavaFileManager.getJavaFileObjectsFromFiles(Arrays.asList(sourceFile)));
+				
+				this.compilationCount.increment();
 				
 				final boolean isCompiled = compilationTask.call().booleanValue();
 				
 				if(!isCompiled) {
-					throw new ScriptException("Unable to compile script \"" + script + "\".");
+					throw new ScriptException("Unable to compile script \"" + compilationUnit.getScript() + "\".");
 				}
+			} finally {
+				this.compilerContextPool.release(compilerContext);
 			}
+			
+			return doReadClasses(binaryDirectory, compilationUnit.getPackageName(), compilationUnit.getClassName());
 		} catch(final IOException | RuntimeException e) {
 			throw new ScriptException(e);
 		}
+	}
+	
+//	Returns the classes of compilationUnit, emitted as bytecode without the Java compiler, or null if its script is not a single return statement BytecodeEmitter can emit. Scripts are always compiled by the Java compiler when compiling on disk,
+//	so the source code and class files are written as before.
+	private Map<String, byte[]> doEmit(final CompilationUnit compilationUnit) throws ScriptException {
+		if(!this.isEmittingBytecode || this.isCompilingOnDisk) {
+			return null;
+		}
 		
-		try {
-			final Class<?> clazz = Class.forName(packageName + "." + className);
-			
-			final Object object = clazz.getConstructor(new Class<?>[] {ScriptEngine.class}).newInstance(new Object[] {this});
-			
-			return CompiledScript.class.cast(object);
-		} catch(final Exception e) {
-			throw new ScriptException(e);
+		return BytecodeEmitter.emit(compilationUnit, new ArrayList<>(doGetImportStatements(compilationUnit.getPreprocessedScript().getImportStatements())));
+	}
+	
+	private Map<String, byte[]> doPutClasses(final CompilationUnit compilationUnit, final Map<String, byte[]> classes) {
+		if(compilationUnit.getKey() != null) {
+			this.bytecodeCache.put(compilationUnit.getKey(), classes);
 		}
+		
+		return classes;
 	}
 	
 	private Object doEval(final Reader reader, final ScriptContext scriptContext) throws ScriptException {
@@ -186,20 +1534,27 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 	}
 	
 	private Object doEval(final String script, final ScriptContext scriptContext) throws ScriptException {
+		doCheckNotClosed();
+		doConfigure(scriptContext);
+		
 		try {
-			final String key = Matchers.newWhiteSpaceMatcher(script).replaceAll("");
+			final Deadline deadline = getDeadline(scriptContext);
 			
-			CompiledScript compiledScript = this.compiledScripts.get(key);
+			final PolymorphicScript polymorphicScript = doGetPolymorphicScript(ScriptKey.of(script), script);
 			
-			if(compiledScript == null) {
-				compiledScript = doCompile(script);
-				
-				this.compiledScripts.put(key, compiledScript);
+			if(deadline != null) {
+				return deadline.call(() -> {
+					final CompiledScript compiledScript = polymorphicScript.getCheckedScript().getExecutableScript(scriptContext);
+					
+					doAddInvocableScript(compiledScript);
+					
+					return compiledScript.eval(scriptContext);
+				});
 			}
 			
-			if(compiledScript == null) {
-				throw new ScriptException("Unable to evaluate script \"" + script + "\".");
-			}
+			final CompiledScript compiledScript = polymorphicScript.getExecutableScript(scriptContext);
+			
+			doAddInvocableScript(compiledScript);
 			
 			return compiledScript.eval(scriptContext);
 		} catch(final NullPointerException e) {
@@ -207,46 +1562,99 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 		}
 	}
 	
-	private String doGenerateSourceCode(final String packageName, final String className, final String script) throws ScriptException {
-		final
-		Document document = new Document();
-		document.linef("package %s;", packageName);
-		document.linef("");
+	private PolymorphicScript doGetPolymorphicScript(final ScriptKey key, final String script) throws ScriptException {
+		final CompiledScript compiledScript = this.compiledScriptCache.get(key, () -> new PolymorphicScript(this, Preprocessor.preprocess(script), () -> this.compiledScriptCache.updateWeight(key)));
 		
-		for(final String importStatement : this.importStatementsRequired) {
-			document.linef(importStatement);
+		if(compiledScript == null) {
+			throw new ScriptException("Unable to evaluate script \"" + script + "\".");
 		}
 		
+		return PolymorphicScript.class.cast(compiledScript);
+	}
+	
+	private Set<String> doGetImportStatements(final List<String> importStatementsScript) throws ScriptException {
+		final Set<String> importStatements = new LinkedHashSet<>(this.importStatementsRequired);
+		
 		if(Artifact.isDefaultImportStatementsEnabled()) {
 			try {
-				for(final String importStatement : Artifact.getDefaultImportStatements()) {
-					document.linef(importStatement);
-				}
+				importStatements.addAll(Artifact.getDefaultImportStatements());
 			} catch(final IllegalArgumentException | UncheckedIOException e) {
 				throw new ScriptException(e);
 			}
 		}
 		
-		for(final String importStatement : Artifact.getGlobalImportStatements()) {
-			document.linef(importStatement);
+		importStatements.addAll(Artifact.getGlobalImportStatements());
+		
+		if(this.isSessionImportStatementsEnabled.get()) {
+			importStatements.addAll(getSessionImportStatements());
 		}
 		
-		for(final String importStatement : this.importStatements) {
+		importStatements.addAll(importStatementsScript);
+		
+		return importStatements;
+	}
+	
+	private String doGenerateSourceCode(final String packageName, final String className, final List<String> importStatementsScript, final List<String> interfaceNames, final Map<String, Class<?>> variables, final String members, final String script, final boolean isWritingOutput) throws ScriptException {
+		final Set<String> importStatements = doGetImportStatements(importStatementsScript);
+		
+		final
+		Document document = new Document();
+		document.linef("package %s;", packageName);
+		document.linef("");
+		
+		for(final String importStatement : importStatements) {
 			document.linef(importStatement);
 		}
 		
 		document.linef("");
-		document.linef("public final class %s extends ArtifactScript {", className);
+		document.linef("public final class %s extends ArtifactScript%s {", className, interfaceNames.isEmpty() ? "" : " implements " + String.join(", ", interfaceNames));
+		
+		for(int i = 0; i < variables.size(); i++) {
+			document.linef("	private final int slot%s;", Integer.valueOf(i));
+		}
+		
+		if(variables.size() > 0) {
+			document.linef("	");
+		}
+		
 		document.linef("	public %s(final ScriptEngine scriptEngine) {", className);
 		document.linef("		super(scriptEngine);");
+		
+		int slot = 0;
+		
+		for(final String variableName : variables.keySet()) {
+			document.linef("		");
+			document.linef("		this.slot%s = getSlot(\"%s\");", Integer.valueOf(slot++), variableName);
+		}
+		
 		document.linef("	}");
 		document.linef("	");
+		
+		if(!members.trim().isEmpty()) {
+			document.linef("	%s", doFormatScript(members, "	"));
+			document.linef("	");
+		}
+		
 		document.linef("	@Override");
 		document.linef("	public Object eval(final ScriptContext scriptContext) throws ScriptException {");
 		document.linef("		Exception exception = null;");
 		document.linef("		");
-		document.linef("		try {");
-		document.linef("			%s", doFormatScript(script));
+		
+//		If the script writes output, it is captured during the evaluation and written to the writers of scriptContext once the evaluation has finished.
+		if(isWritingOutput) {
+			document.linef("		try(final java.io.Closeable output$ = %s.captureOutput(scriptContext)) {", ScriptRuntime.class.getName());
+		} else {
+			document.linef("		try {");
+		}
+		
+		slot = 0;
+		
+//		Each variable is read into a local variable once, before the script itself is evaluated. The script refers to the local variable, which has the same name as the variable, including the dollar sign.
+		for(final Map.Entry<String, Class<?>> entry : variables.entrySet()) {
+			document.linef("			final %s $%s = %s.class.cast(getVariable(scriptContext, this.slot%s, \"%s\"));", Types.getTypeName(entry.getValue()), entry.getKey(), Types.getTypeName(entry.getValue()), Integer.valueOf(slot++), entry.getKey());
+		}
+		
+		document.linef("			%s", doFormatScript(script, "			"));
 		document.linef("		} catch(final Exception e) {");
 		document.linef("			exception = e;");
 		document.linef("		}");
@@ -262,94 +1670,173 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 		return document.toString();
 	}
 	
-	private String doSearchAndReplace(String script) throws ScriptException {
-		script = doSearchAndReplaceImports(script);
-		script = doSearchAndReplacePackages(script);
-		script = doSearchAndReplaceSubstitutionVariables(script);
-		
-		return script;
+	private String doGetPackageName(final PreprocessedScript preprocessedScript) {
+		return preprocessedScript.getPackageName().orElse(this.isSessionImportStatementsEnabled.get() ? this.packageName.get() : DEFAULT_PACKAGE_NAME);
 	}
 	
-	private String doSearchAndReplaceImports(final String script) {
-		final StringBuffer stringBuffer = new StringBuffer(script.length());
-		
-		final Matcher matcher = Matchers.newImportStatementMatcher(script);
+//	The scripts that declare methods or interfaces are kept in the order they were most recently evaluated or compiled in. Evaluating the same script again only reads the array.
+	private void doAddInvocableScript(final CompiledScript compiledScript) {
+		if(compiledScript instanceof ArtifactScript && this.invocableScripts.length > 0 && this.invocableScripts[0] == compiledScript) {
+			return;
+		}
 		
-		while(matcher.find()) {
-			final String importStatement = matcher.group(Matchers.NAME_IMPORT_STATEMENT);
-			final String replacement = "";
-			
-			this.importStatements.add(importStatement);
+		if(compiledScript instanceof ArtifactScript && Invocables.isInvocable(compiledScript.getClass())) {
+			synchronized(this) {
+				final List<ArtifactScript> invocableScripts = new ArrayList<>();
+				
+				invocableScripts.add(ArtifactScript.class.cast(compiledScript));
+				
+				for(final ArtifactScript invocableScript : this.invocableScripts) {
+					if(invocableScript != compiledScript && invocableScripts.size() < MAXIMUM_INVOCABLE_SCRIPTS) {
+						invocableScripts.add(invocableScript);
+					}
+				}
+				
+				this.invocableScripts = invocableScripts.toArray(new ArtifactScript[invocableScripts.size()]);
+			}
+		}
+	}
+	
+	private void doAddSessionImportStatements(final PreprocessedScript preprocessedScript) {
+		if(this.isSessionImportStatementsEnabled.get()) {
+			synchronized(this.importStatementsSession) {
+				this.importStatementsSession.addAll(preprocessedScript.getImportStatements());
+			}
 			
-			matcher.appendReplacement(stringBuffer, replacement);
+			preprocessedScript.getPackageName().ifPresent(this.packageName::set);
 		}
-		
-		matcher.appendTail(stringBuffer);
-		
-		return stringBuffer.toString();
 	}
 	
-	private String doSearchAndReplacePackages(final String script) {
-		final StringBuffer stringBuffer = new StringBuffer(script.length());
-		
-		final Matcher matcher = Matchers.newPackageStatementMatcher(script);
+	private void doCheckNotClosed() {
+		if(this.isClosed.get()) {
+			throw new IllegalStateException("The ScriptEngine has been closed.");
+		}
+	}
+	
+	private void doCompileAll(final List<PolymorphicScript> polymorphicScripts, final List<Class<?>[]> variableClasses, final List<CompletableFuture<CompiledScript>> completableFutures) {
+		final List<Class<?>[]> classesList = new ArrayList<>();
+		final List<CompilationUnit> compilationUnits = new ArrayList<>();
+		final List<Integer> indices = new ArrayList<>();
 		
-		while(matcher.find()) {
-			final String packageName = matcher.group(Matchers.NAME_PACKAGE_STATEMENT);
-			final String replacement = "";
+		for(int i = 0; i < polymorphicScripts.size(); i++) {
+			final PolymorphicScript polymorphicScript = polymorphicScripts.get(i);
 			
-			this.packageName.set(packageName);
-			
-			matcher.appendReplacement(stringBuffer, replacement);
+			try {
+				final Class<?>[] classes = variableClasses.get(i);
+				
+				final CompilationUnit compilationUnit = doCreateCompilationUnit(polymorphicScript.getPreprocessedScript(), polymorphicScript.getVariableTypes(classes));
+				
+				final Class<?> clazz = this.scriptRegistry.get(compilationUnit.getRegistryKey());
+				
+				final Map<String, byte[]> cachedClasses = clazz == null && compilationUnit.getKey() != null ? this.bytecodeCache.get(compilationUnit.getKey()) : null;
+				final Map<String, byte[]> emittedClasses = clazz == null && cachedClasses == null ? doEmit(compilationUnit) : null;
+				
+				if(clazz != null) {
+					polymorphicScript.addScriptVariant(classes, doNewCompiledScript(compilationUnit, clazz));
+					
+					completableFutures.get(i).complete(polymorphicScript);
+				} else if(cachedClasses != null) {
+					polymorphicScript.addScriptVariant(classes, doNewCompiledScript(compilationUnit, cachedClasses));
+					
+					completableFutures.get(i).complete(polymorphicScript);
+				} else if(emittedClasses != null) {
+					if(compilationUnit.getKey() != null) {
+						this.bytecodeCache.put(compilationUnit.getKey(), emittedClasses);
+					}
+					
+					polymorphicScript.addScriptVariant(classes, doNewCompiledScript(compilationUnit, emittedClasses));
+					
+					completableFutures.get(i).complete(polymorphicScript);
+				} else {
+					classesList.add(classes);
+					compilationUnits.add(compilationUnit);
+					indices.add(Integer.valueOf(i));
+				}
+			} catch(final ScriptException e) {
+				completableFutures.get(i).completeExceptionally(e);
+			}
 		}
 		
-		matcher.appendTail(stringBuffer);
-		
-		return stringBuffer.toString();
-	}
-	
-	private String doSearchAndReplaceSubstitutionVariables(final String script) throws ScriptException {
-		final StringBuffer stringBuffer = new StringBuffer(script.length());
+		final Map<CompilationUnit, ScriptException> failures = new HashMap<>();
 		
-		final Matcher matcher = Matchers.newSubstitutionVariableMatcher(script);
+		final Map<String, byte[]> allClasses = this.isCompilingOnDisk || compilationUnits.isEmpty() ? new HashMap<>() : doCompileInMemory(compilationUnits, failures);
 		
-		while(matcher.find()) {
-			final String variableName = matcher.group(1);
-			final String dynamicCastEvaluation = String.format("return scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).get(\"%s\");", variableName);
+		for(int i = 0; i < compilationUnits.size(); i++) {
+			final CompilationUnit compilationUnit = compilationUnits.get(i);
 			
-			String replacement = "";
+			final PolymorphicScript polymorphicScript = polymorphicScripts.get(indices.get(i).intValue());
 			
-			final Object object = eval(dynamicCastEvaluation);
+			final CompletableFuture<CompiledScript> completableFuture = completableFutures.get(indices.get(i).intValue());
 			
-			if(object != null) {
-				final Class<?> clazz = object.getClass();
+			try {
+				if(failures.containsKey(compilationUnit)) {
+					throw failures.get(compilationUnit);
+				}
+				
+				final Map<String, byte[]> classes = this.isCompilingOnDisk ? doCompileOnDisk(compilationUnit) : compilationUnit.filter(allClasses);
 				
-				replacement = doCast(clazz, variableName);
+				if(compilationUnit.getKey() != null) {
+					this.bytecodeCache.put(compilationUnit.getKey(), classes);
+				}
+				
+				polymorphicScript.addScriptVariant(classesList.get(i), doNewCompiledScript(compilationUnit, classes));
+				
+				completableFuture.complete(polymorphicScript);
+			} catch(final ScriptException e) {
+				completableFuture.completeExceptionally(e);
 			}
-			
-			matcher.appendReplacement(stringBuffer, replacement);
+		}
+	}
+	
+	private void doConfigure(final ScriptContext scriptContext) throws ScriptException {
+		final Object maximumSize = scriptContext.getAttribute(PROPERTY_CACHE_MAXIMUM_SIZE);
+		final Object maximumWeight = scriptContext.getAttribute(PROPERTY_CACHE_MAXIMUM_WEIGHT);
+		final Object options = scriptContext.getAttribute(PROPERTY_COMPILER_OPTIONS);
+		
+		if(maximumSize != null) {
+			this.compiledScriptCache.setMaximumSize(doGetLong(PROPERTY_CACHE_MAXIMUM_SIZE, maximumSize));
 		}
 		
-		matcher.appendTail(stringBuffer);
+		if(maximumWeight != null) {
+			this.compiledScriptCache.setMaximumWeight(doGetLong(PROPERTY_CACHE_MAXIMUM_WEIGHT, maximumWeight));
+		}
 		
-		return stringBuffer.toString();
+		if(options != null) {
+			this.compilerContextPool.setOptions(CompilerContextPool.parseOptions(options.toString()));
+		}
 	}
 	
-	private void doGenerateSourceCode(final String packageName, final String className, final String script, final File sourceFile) throws ScriptException {
-		final String sourceCode = doGenerateSourceCode(packageName, className, script);
-		
+//	The source code is only dumped when it is about to be compiled, so a script that is interpreted, emitted or loaded from a cache or the ScriptRegistry is not dumped.
+	private void doDumpSourceCode(final CompilationUnit compilationUnit) {
 		if(this.isDumpingSourceCode) {
-			System.out.println(sourceCode);
+			System.out.println(compilationUnit.getSourceCode());
 		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static BytecodeCache doCreateBytecodeCache() {
+		final String directory = System.getProperty(PROPERTY_DISK_CACHE_DIRECTORY);
 		
-		try(final FileWriter fileWriter = new FileWriter(sourceFile)) {
-			fileWriter.write(sourceCode);
-		} catch(final IOException e) {
-			throw new ScriptException(e);
+		if(directory == null || directory.trim().isEmpty()) {
+			return null;
 		}
+		
+		final long maximumAge = Long.getLong(PROPERTY_DISK_CACHE_MAXIMUM_AGE, DEFAULT_DISK_CACHE_MAXIMUM_AGE).longValue() * 24L * 60L * 60L * 1000L;
+		final long maximumSize = Long.getLong(PROPERTY_DISK_CACHE_MAXIMUM_SIZE, DEFAULT_DISK_CACHE_MAXIMUM_SIZE).longValue();
+		
+		return new BytecodeCache(new File(directory.trim()), maximumSize, maximumAge);
 	}
 	
-	////////////////////////////////////////////////////////////////////////////////////////////////////
+	private static ScriptTrace doCreateScriptTrace() {
+		final String file = System.getProperty(PROPERTY_WARM_UP_TRACE);
+		
+		if(file == null || file.trim().isEmpty()) {
+			return null;
+		}
+		
+		return new ScriptTrace(new File(file.trim()));
+	}
 	
 	private static File doGetBinaryDirectory() {
 		final
@@ -375,52 +1862,135 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 		return file;
 	}
 	
-	private static int doGetDimensionsOf(final Class<?> clazz, final int dimensions) {
-		if(clazz.isArray()) {
-			return doGetDimensionsOf(clazz.getComponentType(), dimensions + 1);
-		}
+	private static List<String> doCreateImportStatementsRequired() {
+		final List<String> importStatementsRequired = new ArrayList<>();
+		
+		importStatementsRequired.add("import javax.script.*;");
+		importStatementsRequired.add("import org.macroing.cel4j.artifact.*;");
 		
-		return dimensions;
+		return importStatementsRequired;
 	}
 	
-	private static List<File> doGetFiles(final URL[] uRLs) {
-		final List<File> files = new ArrayList<>();
+	private static Method doGetFunctionalMethod(final Class<?> clazz) {
+		Method functionalMethod = null;
 		
-		for(final URL uRL : uRLs) {
-			try {
-				files.add(new File(uRL.toURI()));
-			} catch(final URISyntaxException e) {
-				files.add(new File(uRL.getPath()));
+		for(final Method method : clazz.getMethods()) {
+			if(Modifier.isAbstract(method.getModifiers()) && !doIsObjectMethod(method)) {
+				if(functionalMethod != null) {
+					throw new IllegalArgumentException("The interface " + clazz.getName() + " has more than one abstract method.");
+				}
+				
+				functionalMethod = method;
 			}
 		}
 		
-		return files;
+		if(functionalMethod == null) {
+			throw new IllegalArgumentException("The interface " + clazz.getName() + " has no abstract method.");
+		}
+		
+		return functionalMethod;
 	}
 	
-	private static List<String> doCreateImportStatementsRequired() {
-		final List<String> importStatementsRequired = new ArrayList<>();
+	private static boolean doIsObjectMethod(final Method method) {
+		try {
+			return Modifier.isPublic(Object.class.getMethod(method.getName(), method.getParameterTypes()).getModifiers());
+		} catch(final NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	private static long doGetLong(final String name, final Object value) throws ScriptException {
+		if(value instanceof Number) {
+			return Number.class.cast(value).longValue();
+		}
 		
-		importStatementsRequired.add("import javax.script.*;");
-		importStatementsRequired.add("import org.macroing.cel4j.artifact.*;");
+		try {
+			return Long.parseLong(value.toString().trim());
+		} catch(final NumberFormatException e) {
+			throw new ScriptException(String.format("Invalid value for %s: %s", name, value));
+		}
+	}
+	
+	private static Map<String, byte[]> doReadClasses(final File binaryDirectory, final String packageName, final String className) throws IOException {
+		final Map<String, byte[]> classes = new HashMap<>();
 		
-		return importStatementsRequired;
+		final File[] files = new File(binaryDirectory, packageName.replace(".", "/")).listFiles();
+		
+		if(files != null) {
+			for(final File file : files) {
+				final String name = file.getName();
+				
+				if(name.equals(className + ".class") || name.startsWith(className + "$") && name.endsWith(".class")) {
+					classes.put(packageName + "." + name.substring(0, name.length() - 6), Files.readAllBytes(file.toPath()));
+				}
+			}
+		}
+		
+		return classes;
 	}
 	
-	private static String doCast(final Class<?> clazz, final String variableName) {
-		String className = clazz.getName();
+//	The function is a script with an implements directive and a single method, so the class of the script implements the interface itself.
+	private static String doGenerateFunctionScript(final Class<?> clazz, final Method method, final String script, final String[] parameters) {
+		final Class<?>[] parameterTypes = method.getParameterTypes();
+		final Class<?>[] exceptionTypes = method.getExceptionTypes();
+		
+		if(parameters.length != parameterTypes.length) {
+			throw new IllegalArgumentException("The method " + method.getName() + " of " + clazz.getName() + " has " + parameterTypes.length + " parameters, but " + parameters.length + " were given.");
+		}
 		
-		if(clazz.isArray()) {
-			final int dimensions = doGetDimensionsOf(clazz, 0);
+		final StringBuilder declarations = new StringBuilder();
+		final StringBuilder signature = new StringBuilder();
+		
+		for(int i = 0; i < parameters.length; i++) {
+			final String parameter = Objects.requireNonNull(parameters[i], "parameters[" + i + "] == null").trim();
+			
+			final int index = Math.max(parameter.lastIndexOf(' '), parameter.lastIndexOf('\t'));
+			
+			final String name = parameter.substring(index + 1);
+			final String type = index >= 0 ? parameter.substring(0, index).trim() : "";
+			
+			if(name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)) || name.charAt(0) == '$' || Lexers.skipIdentifier(name, 0) != name.length() || Lexers.isKeyword(name)) {
+				throw new IllegalArgumentException("The parameter \"" + parameters[i] + "\" is invalid.");
+			}
+			
+			signature.append(i > 0 ? ", " : "");
+			signature.append("final ");
+			signature.append(Types.getTypeName(parameterTypes[i]));
+			signature.append(" ");
+			signature.append(type.isEmpty() ? name : "argument$" + i);
 			
-			className = className.replace(";", "");
-			className = className.replaceAll("\\[{" + dimensions + "," + dimensions + "}L", "");
-			className = className + String.join("", Collections.nCopies(dimensions, "[]"));
+			if(!type.isEmpty()) {
+				declarations.append(String.format("	final %s %s = (%s) argument$%s;%n", type, name, type, Integer.valueOf(i)));
+			}
+		}
+		
+		final String body = script.trim();
+		
+		final boolean isBlock = body.endsWith(";") || body.endsWith("}");
+		
+//		An expression that may end with a line comment is terminated on the next line.
+		final String semicolon = body.contains("//") ? String.format("%n	;") : ";";
+		
+		final
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(String.format("implements %s;%n", clazz.getCanonicalName()));
+		stringBuilder.append(String.format("%n"));
+		stringBuilder.append(String.format("public %s %s(%s)", Types.getTypeName(method.getReturnType()), method.getName(), signature));
+		
+		for(int i = 0; i < exceptionTypes.length; i++) {
+			stringBuilder.append(i == 0 ? " throws " : ", ");
+			stringBuilder.append(exceptionTypes[i].getCanonicalName());
 		}
 		
-		return String.format("%s.class.cast(scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).get(\"%s\"))", className, variableName);
+		stringBuilder.append(String.format(" {%n"));
+		stringBuilder.append(declarations);
+		stringBuilder.append(isBlock ? "	" + body : method.getReturnType() == void.class ? "	" + body + semicolon : "	return " + body + semicolon);
+		stringBuilder.append(String.format("%n}"));
+		
+		return stringBuilder.toString();
 	}
 	
-	private static String doFormatScript(final String script) {
+	private static String doFormatScript(final String script, final String indentation) {
 		final String[] lines = script.trim().split("\n");
 		
 		final StringBuilder stringBuilder = new StringBuilder();
@@ -428,7 +1998,7 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 		for(int i = 0; i < lines.length; i++) {
 			final String line = lines[i];
 			
-			stringBuilder.append(i > 0 ? "			" : "");
+			stringBuilder.append(i > 0 ? indentation : "");
 			stringBuilder.append(line);
 			stringBuilder.append(i + 1 < lines.length ? LINE_SEPARATOR : "");
 		}
@@ -451,17 +2021,21 @@ final class ArtifactScriptEngine extends AbstractScriptEngine implements Compila
 		}
 	}
 	
-	private static void doAddToClassPath(final File file) {
-		try {
-			final Method method = URLClassLoader.class.getDeclaredMethod("addURL", new Class<?>[]{URL.class});
-			
-			final boolean isAccessible = method.isAccessible();
-			
-			method.setAccessible(true);
-			method.invoke(URLClassLoader.class.cast(ClassLoader.getSystemClassLoader()), new Object[]{file.toURI().toURL()});
-			method.setAccessible(isAccessible);
-		} catch(final IllegalAccessException | InvocationTargetException | MalformedURLException | NoSuchMethodException e) {
-			throw new UnsupportedOperationException(e);
+	private static void doCheckInterface(final Class<?> clazz) {
+		if(clazz == null) {
+			throw new IllegalArgumentException("clazz == null");
+		}
+		
+		if(!clazz.isInterface()) {
+			throw new IllegalArgumentException("The Class " + clazz.getName() + " does not represent an interface.");
+		}
+	}
+	
+	private static void doWriteSourceCode(final String sourceCode, final File sourceFile) throws ScriptException {
+		try(final FileWriter fileWriter = new FileWriter(sourceFile)) {
+			fileWriter.write(sourceCode);
+		} catch(final IOException e) {
+			throw new ScriptException(e);
 		}
 	}
 }
\ No newline at end of file
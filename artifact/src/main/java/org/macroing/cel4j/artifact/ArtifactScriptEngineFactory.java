@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
@@ -34,8 +35,8 @@ import javax.script.ScriptEngineFactory;
 /**
  * {@code ArtifactScriptEngineFactory} is a {@code ScriptEngineFactory} that manages a {@code ScriptEngine} called Artifact that evaluates a super-set of Java source code.
  * <p>
- * The {@code ScriptEngine} provided compiles the source code into {@code CompiledScript}s and loads them, using the context {@code ClassLoader}. It caches the {@code CompiledScript}s using a normalized version of the source code provided for that
- * {@code CompiledScript}. By doing so, no re-compilation will be performed when you add whitespace in other places than {@code String} literals.
+ * The {@code ScriptEngine} provided compiles the source code into {@code CompiledScript}s and loads each of them, using a {@code ClassLoader} dedicated to that script. It caches the {@code CompiledScript}s using a normalized version of the source code provided for that
+ * {@code CompiledScript}. By doing so, no re-compilation will be performed when you add whitespace or comments in other places than {@code String} literals.
  * <p>
  * To demonstrate its use, here is an example:
  * <pre>
@@ -52,6 +53,9 @@ import javax.script.ScriptEngineFactory;
  * that refers to a variable called {@code "string"} in the {@code ScriptContext}, and that variable is of type {@code String}. A call such as {@code $string.length()} would return the length of the {@code String} variable. Note, however, that this
  * assumes the variable already exists in the {@code ScriptContext} prior to the evaluation of the current script. Adding a variable to the {@code ScriptContext} and then using this variable substitution mechanism to get that variable in the same
  * script won't work. The reason for this, is that the variable substitution is performed prior to the evaluation of the script itself.
+ * <p>
+ * The {@code ScriptEngine} provided is an {@link ArtifactScriptEngine}. For the features it provides beyond the {@code javax.script} API, and the system properties that configure it, see its documentation. The warm-up of the
+ * {@code ScriptEngine} is started when it is returned by {@link #getScriptEngine()} for the first time. It can be observed using {@link #getReadiness()} and {@link #isReady()}.
  * 
  * @since 1.0.0
  * @author J&#246;rgen Lundgren
@@ -64,7 +68,8 @@ public final class ArtifactScriptEngineFactory implements ScriptEngineFactory {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private final ScriptEngine scriptEngine = new ArtifactScriptEngine(this);
+	private ArtifactScriptEngine scriptEngine = new ArtifactScriptEngine(this);
+	private CompletableFuture<Void> readiness;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -77,6 +82,22 @@ public final class ArtifactScriptEngineFactory implements ScriptEngineFactory {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns a {@code CompletableFuture} that is completed when the warm-up of the {@code ScriptEngine} is done.
+	 * <p>
+	 * Modifying the returned {@code CompletableFuture} will not affect this {@code ArtifactScriptEngineFactory} instance.
+	 * <p>
+	 * If the warm-up has not been started by {@link #getScriptEngine()}, it is started by this method. If no warm-up has been configured, the returned {@code CompletableFuture} is already completed. It is completed exceptionally if a
+	 * configured directory, resource or trace could not be read, or if the {@code ScriptEngine} was closed during the warm-up. Scripts that fail to compile do not prevent it from being completed normally.
+	 * <p>
+	 * If the cached {@code ScriptEngine} has been closed and a new one is created by {@link #getScriptEngine()}, the new one is warmed up as well, and this method will return a {@code CompletableFuture} for that warm-up.
+	 * 
+	 * @return a {@code CompletableFuture} that is completed when the warm-up of the {@code ScriptEngine} is done
+	 */
+	public synchronized CompletableFuture<Void> getReadiness() {
+		return doGetReadiness().thenApply(result -> result);
+	}
+	
 	/**
 	 * Returns a {@code List} with extensions.
 	 * <p>
@@ -136,7 +157,7 @@ public final class ArtifactScriptEngineFactory implements ScriptEngineFactory {
 				case ScriptEngine.NAME:
 					return getNames().get(0);
 				case "THREADING":
-					return null;
+					return "MULTITHREADED";
 				default:
 					return null;
 			}
@@ -148,12 +169,19 @@ public final class ArtifactScriptEngineFactory implements ScriptEngineFactory {
 	/**
 	 * Returns the {@code ScriptEngine}.
 	 * <p>
-	 * It may be cached.
+	 * It may be cached. If the cached {@code ScriptEngine} has been closed, a new one will be created. The warm-up of the {@code ScriptEngine} is started before it is returned, unless it has already been started.
 	 * 
 	 * @return the {@code ScriptEngine}
 	 */
 	@Override
-	public ScriptEngine getScriptEngine() {
+	public synchronized ScriptEngine getScriptEngine() {
+		if(this.scriptEngine.isClosed()) {
+			this.scriptEngine = new ArtifactScriptEngine(this);
+			this.readiness = null;
+		}
+		
+		doGetReadiness();
+		
 		return this.scriptEngine;
 	}
 	
@@ -259,4 +287,28 @@ public final class ArtifactScriptEngineFactory implements ScriptEngineFactory {
 		
 		return stringBuilder.toString();
 	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the warm-up of the {@code ScriptEngine} has completed normally, {@code false} otherwise.
+	 * <p>
+	 * This method is meant to be used by health checks. If the warm-up has not been started, it is started by this method. If no warm-up has been configured, {@code true} is returned. For more information, see {@link #getReadiness()}.
+	 * 
+	 * @return {@code true} if, and only if, the warm-up of the {@code ScriptEngine} has completed normally, {@code false} otherwise
+	 */
+	public synchronized boolean isReady() {
+		final CompletableFuture<Void> readiness = doGetReadiness();
+		
+		return readiness.isDone() && !readiness.isCompletedExceptionally();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The warm-up is started lazily, so constructing this factory, as a ScriptEngineManager does for every ScriptEngineFactory it discovers, does not start any compilations.
+	private CompletableFuture<Void> doGetReadiness() {
+		if(this.readiness == null) {
+			this.readiness = WarmUp.start(this.scriptEngine);
+		}
+		
+		return this.readiness;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RecursiveAction;
+
+final class Batches {
+	private Batches() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static Object[] getColumns(final Map<String, ?> columns, final Object output) {
+		final int length = Array.getLength(output);
+		
+		final Object[] array = new Object[columns.size() + 1];
+		
+		int index = 0;
+		
+		for(final Map.Entry<String, ?> entry : columns.entrySet()) {
+			if(Array.getLength(entry.getValue()) < length) {
+				throw new IllegalArgumentException("The column \"" + entry.getKey() + "\" is shorter than output.");
+			}
+			
+			array[index++] = entry.getValue();
+		}
+		
+		array[index] = output;
+		
+		return array;
+	}
+	
+//	The script is compiled into a method that evaluates a single row and a loop that calls it for each row. Each column is read into a local variable before the loop, and the loop is a counted loop over a range of indices without any other
+//	side effects, so the JIT compiler can inline the method, eliminate the range checks and vectorize the loop.
+	public static String generateScript(final String script, final Map<String, ?> columns, final Object output) {
+		final Class<?> outputType = doGetComponentType(output, "output");
+		
+		final StringBuilder arguments = new StringBuilder();
+		final StringBuilder declarations = new StringBuilder();
+		final StringBuilder parameters = new StringBuilder();
+		
+		int index = 0;
+		
+		for(final Map.Entry<String, ?> entry : columns.entrySet()) {
+			final String name = Objects.requireNonNull(entry.getKey(), "columns contains a null key");
+			
+			if(name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)) || name.charAt(0) == '$' || Lexers.skipIdentifier(name, 0) != name.length() || Lexers.isKeyword(name)) {
+				throw new IllegalArgumentException("The column name \"" + name + "\" is invalid.");
+			}
+			
+			final String typeName = Types.getTypeName(doGetComponentType(entry.getValue(), name));
+			
+			arguments.append(index > 0 ? ", " : "");
+			arguments.append(String.format("column$%s[i]", Integer.valueOf(index)));
+			
+			declarations.append(String.format("	final %s[] column$%s = (%s[]) columns[%s];%n", typeName, Integer.valueOf(index), typeName, Integer.valueOf(index)));
+			
+			parameters.append(index > 0 ? ", " : "");
+			parameters.append(String.format("final %s %s", typeName, name));
+			
+			index++;
+		}
+		
+		final String body = script.trim();
+		final String outputTypeName = Types.getTypeName(outputType);
+		
+		final boolean isBlock = body.endsWith(";") || body.endsWith("}");
+		
+		final
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(String.format("private %s evalRow(%s) {%n", outputTypeName, parameters));
+		stringBuilder.append(isBlock ? "	" + body : "	return " + body + (body.contains("//") ? String.format("%n	;") : ";"));
+		stringBuilder.append(String.format("%n}%n"));
+		stringBuilder.append(String.format("%n"));
+		stringBuilder.append(String.format("public void evalBatch(final Object[] columns, final int start, final int end) {%n"));
+		stringBuilder.append(declarations);
+		stringBuilder.append(String.format("	final %s[] output = (%s[]) columns[%s];%n", outputTypeName, outputTypeName, Integer.valueOf(index)));
+		stringBuilder.append(String.format("	%n"));
+		stringBuilder.append(String.format("	for(int i = start; i < end; i++) {%n"));
+		stringBuilder.append(String.format("		output[i] = evalRow(%s);%n", arguments));
+		stringBuilder.append(String.format("	}%n"));
+		stringBuilder.append(String.format("}"));
+		
+		return stringBuilder.toString();
+	}
+	
+//	The evalBatch method is declared by the class of the script itself rather than by ArtifactScript, so it is called through a MethodHandle that is looked up and bound to artifactScript once per call, rather than once per row or chunk.
+	public static void evalBatch(final ArtifactScript artifactScript, final Object[] columns, final int length, final int chunkSize, final boolean isParallel) {
+		final MethodHandle methodHandle = doFindEvalBatch(artifactScript);
+		
+		if(isParallel && length > chunkSize) {
+			new BatchAction(methodHandle, columns, 0, length, chunkSize).invoke();
+		} else {
+			doEvalBatch(methodHandle, columns, 0, length);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Class<?> doGetComponentType(final Object array, final String name) {
+		final Class<?> componentType = Objects.requireNonNull(array, name + " == null").getClass().getComponentType();
+		
+		if(componentType == null || !componentType.isPrimitive()) {
+			throw new IllegalArgumentException("The column \"" + name + "\" is not an array of a primitive type.");
+		}
+		
+		return componentType;
+	}
+	
+	private static MethodHandle doFindEvalBatch(final ArtifactScript artifactScript) {
+		try {
+			return MethodHandles.publicLookup().findVirtual(artifactScript.getClass(), "evalBatch", MethodType.methodType(void.class, Object[].class, int.class, int.class)).bindTo(artifactScript);
+		} catch(final IllegalAccessException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("The script was not generated by Batches.generateScript.", e);
+		}
+	}
+	
+	private static void doEvalBatch(final MethodHandle methodHandle, final Object[] columns, final int start, final int end) {
+		try {
+			methodHandle.invokeExact(columns, start, end);
+		} catch(final Error | RuntimeException e) {
+			throw e;
+		} catch(final Throwable t) {
+			throw new UndeclaredThrowableException(t);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class BatchAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final MethodHandle methodHandle;
+		private final Object[] columns;
+		private final int chunkSize;
+		private final int end;
+		private final int start;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public BatchAction(final MethodHandle methodHandle, final Object[] columns, final int start, final int end, final int chunkSize) {
+			this.methodHandle = methodHandle;
+			this.columns = columns;
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		protected void compute() {
+			if(this.end - this.start <= this.chunkSize) {
+				doEvalBatch(this.methodHandle, this.columns, this.start, this.end);
+			} else {
+				final int middle = (this.start + this.end) >>> 1;
+				
+				invokeAll(new BatchAction(this.methodHandle, this.columns, this.start, middle, this.chunkSize), new BatchAction(this.methodHandle, this.columns, middle, this.end, this.chunkSize));
+			}
+		}
+	}
+}
\ No newline at end of file
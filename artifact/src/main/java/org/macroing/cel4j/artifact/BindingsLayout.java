@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//	Assigns each variable name a slot, that is an index into the array of every ArtifactBindings that shares this BindingsLayout. Slots are never removed, so a slot that was resolved once stays valid. At most MAXIMUM_SIZE slots are created, so
+//	the arrays stay small even if an unbounded number of names is used. A name that does not get a slot is stored in a Map by each ArtifactBindings instead.
+final class BindingsLayout {
+	private static final int MAXIMUM_SIZE = 256;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final Map<String, Integer> slots;
+	private volatile String[] names;
+	private volatile int size;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public BindingsLayout() {
+		this.slots = new ConcurrentHashMap<>();
+		this.names = new String[0];
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public String getName(final int slot) {
+		return this.names[slot];
+	}
+	
+	public int getSlot(final String name) {
+		final Integer slot = this.slots.get(name);
+		
+		return slot != null ? slot.intValue() : -1;
+	}
+	
+//	Returns the slot of name, creating it if necessary, or -1 if name does not have a slot and all slots are in use.
+	public int getOrCreateSlot(final String name) {
+		final Integer slot = this.slots.get(name);
+		
+		return slot != null ? slot.intValue() : this.size < MAXIMUM_SIZE ? doCreateSlot(name) : -1;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private synchronized int doCreateSlot(final String name) {
+		final Integer slot = this.slots.get(name);
+		
+		if(slot != null) {
+			return slot.intValue();
+		}
+		
+		final int size = this.size;
+		
+		if(size >= MAXIMUM_SIZE) {
+			return -1;
+		}
+		
+//		The array of names grows geometrically. The name is written before the slot is published, so a slot that was read from slots can always be mapped back to its name.
+		if(size == this.names.length) {
+			this.names = Arrays.copyOf(this.names, Math.min(Math.max(size * 2, 16), MAXIMUM_SIZE));
+		}
+		
+		this.names[size] = name;
+		this.size = size + 1;
+		this.slots.put(name, Integer.valueOf(size));
+		
+		return size;
+	}
+}
\ No newline at end of file
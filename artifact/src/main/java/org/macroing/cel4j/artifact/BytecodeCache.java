@@ -0,0 +1,336 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+final class BytecodeCache {
+	private static final int MAGIC = 0x41525446;
+	private static final int VERSION = 2;
+	private static final long COLLECTION_INTERVAL = 60L * 1000L;
+	private static final long TEMPORARY_FILE_MAXIMUM_AGE = 60L * 60L * 1000L;
+	private static final String EXTENSION_ENTRY = ".class-cache";
+	private static final String EXTENSION_TEMPORARY_FILE = ".tmp";
+	private static final String FILENAME_LOCK = "gc.lock";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final AtomicBoolean isCollecting;
+	private final AtomicLong lastCollection;
+	private final AtomicLong writtenSinceLastCollection;
+	private final AtomicReference<Object[]> classPathFingerprint;
+	private final File directory;
+	private final LongAdder hitCount;
+	private final LongAdder missCount;
+	private final long maximumAge;
+	private final long maximumSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public BytecodeCache(final File directory, final long maximumSize, final long maximumAge) {
+		this.directory = Objects.requireNonNull(directory, "directory == null");
+		this.maximumSize = maximumSize;
+		this.maximumAge = maximumAge;
+		this.isCollecting = new AtomicBoolean();
+		this.lastCollection = new AtomicLong();
+		this.writtenSinceLastCollection = new AtomicLong();
+		this.classPathFingerprint = new AtomicReference<>(new Object[] {null, null});
+		this.hitCount = new LongAdder();
+		this.missCount = new LongAdder();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Map<String, byte[]> get(final String key) {
+		final File file = doGetFile(key);
+		
+		if(file.isFile()) {
+			try(final DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+				if(dataInputStream.readInt() == MAGIC && dataInputStream.readInt() == VERSION && dataInputStream.readUTF().equals(key)) {
+					final Map<String, byte[]> classes = new LinkedHashMap<>();
+					
+					final int count = dataInputStream.readInt();
+					
+					for(int i = 0; i < count; i++) {
+						final String name = dataInputStream.readUTF();
+						
+						final byte[] bytes = new byte[dataInputStream.readInt()];
+						
+						dataInputStream.readFully(bytes);
+						
+						classes.put(name, bytes);
+					}
+					
+					file.setLastModified(System.currentTimeMillis());
+					
+					this.hitCount.increment();
+					
+					return classes;
+				}
+			} catch(final IOException | RuntimeException e) {
+//				The entry is truncated or corrupt. It is treated as a miss and replaced by the next put.
+			}
+		}
+		
+		this.missCount.increment();
+		
+		return null;
+	}
+	
+//	The key covers everything that determines the generated bytecode. The source code already contains the script with its variables cast to their binding types, the package and the effective import statements.
+	public String getKey(final String sourceCode, final List<File> classPath, final List<String> options) {
+		final MessageDigest messageDigest = doCreateMessageDigest();
+		
+		doUpdate(messageDigest, Integer.toString(VERSION));
+		doUpdate(messageDigest, System.getProperty("java.vendor", ""));
+		doUpdate(messageDigest, System.getProperty("java.vm.version", ""));
+		doUpdate(messageDigest, System.getProperty("java.version", ""));
+		doUpdate(messageDigest, doGetClassPathFingerprint(classPath));
+		doUpdate(messageDigest, options.toString());
+		doUpdate(messageDigest, sourceCode);
+		
+		return doToHexString(messageDigest.digest());
+	}
+	
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+	
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+	
+	public void collectGarbage() {
+		if(!this.isCollecting.compareAndSet(false, true)) {
+			return;
+		}
+		
+		try {
+			final File lockFile = new File(this.directory, FILENAME_LOCK);
+			
+			try(final RandomAccessFile randomAccessFile = new RandomAccessFile(lockFile, "rw"); final FileChannel fileChannel = randomAccessFile.getChannel()) {
+				try(final FileLock fileLock = fileChannel.tryLock()) {
+					if(fileLock != null) {
+						doCollectGarbage();
+					}
+				} catch(final OverlappingFileLockException e) {
+//					Another BytecodeCache in this JVM is collecting garbage in the same directory.
+				}
+			}
+		} catch(final IOException e) {
+//			Garbage collection is retried after the next interval.
+		} finally {
+			this.lastCollection.set(System.currentTimeMillis());
+			this.writtenSinceLastCollection.set(0L);
+			this.isCollecting.set(false);
+		}
+	}
+	
+//	The entry is written to a temporary file in the same directory, that is then atomically renamed. Readers in this or any other JVM therefore either see a complete entry or none at all. Failing to write an entry is not an error.
+	public void put(final String key, final Map<String, byte[]> classes) {
+		final File file = doGetFile(key);
+		final File parentFile = file.getParentFile();
+		
+		Path temporaryPath = null;
+		
+		try {
+			Files.createDirectories(parentFile.toPath());
+			
+			temporaryPath = Files.createTempFile(parentFile.toPath(), key, EXTENSION_TEMPORARY_FILE);
+			
+			try(final DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+				dataOutputStream.writeInt(MAGIC);
+				dataOutputStream.writeInt(VERSION);
+				dataOutputStream.writeUTF(key);
+				dataOutputStream.writeInt(classes.size());
+				
+				for(final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+					dataOutputStream.writeUTF(entry.getKey());
+					dataOutputStream.writeInt(entry.getValue().length);
+					dataOutputStream.write(entry.getValue());
+				}
+			}
+			
+			final long size = Files.size(temporaryPath);
+			
+			try {
+				Files.move(temporaryPath, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch(final AtomicMoveNotSupportedException e) {
+				Files.move(temporaryPath, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			
+			temporaryPath = null;
+			
+			final long writtenSinceLastCollection = this.writtenSinceLastCollection.addAndGet(size);
+			
+			if(writtenSinceLastCollection >= this.maximumSize / 8L || System.currentTimeMillis() - this.lastCollection.get() >= COLLECTION_INTERVAL) {
+				collectGarbage();
+			}
+		} catch(final IOException | RuntimeException e) {
+//			The script is still usable, it is just not cached on disk.
+		} finally {
+			if(temporaryPath != null) {
+				temporaryPath.toFile().delete();
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private File doGetFile(final String key) {
+		return new File(new File(this.directory, key.substring(0, 2)), key + EXTENSION_ENTRY);
+	}
+	
+	private String doGetClassPathFingerprint(final List<File> classPath) {
+		final Object[] classPathFingerprint = this.classPathFingerprint.get();
+		
+		if(classPath.equals(classPathFingerprint[0])) {
+			return String.class.cast(classPathFingerprint[1]);
+		}
+		
+		final MessageDigest messageDigest = doCreateMessageDigest();
+		
+		for(final File file : classPath) {
+			doUpdate(messageDigest, file.getAbsolutePath());
+			doUpdate(messageDigest, Long.toString(file.length()));
+			doUpdate(messageDigest, Long.toString(file.lastModified()));
+		}
+		
+		final String fingerprint = doToHexString(messageDigest.digest());
+		
+		this.classPathFingerprint.set(new Object[] {new ArrayList<>(classPath), fingerprint});
+		
+		return fingerprint;
+	}
+	
+//	Temporary files left behind by crashed writers and entries that have not been used within the maximum age are deleted. If the remaining entries are still too large, the least recently used ones are deleted until a low-water mark is reached.
+	private void doCollectGarbage() {
+		final long currentTimeMillis = System.currentTimeMillis();
+		
+		final List<File> files = new ArrayList<>();
+		
+		final File[] directories = this.directory.listFiles(File::isDirectory);
+		
+		if(directories == null) {
+			return;
+		}
+		
+		long size = 0L;
+		
+		for(final File directory : directories) {
+			final File[] directoryFiles = directory.listFiles();
+			
+			if(directoryFiles != null) {
+				for(final File file : directoryFiles) {
+					final String name = file.getName();
+					
+					final long age = currentTimeMillis - file.lastModified();
+					
+					if(name.endsWith(EXTENSION_TEMPORARY_FILE) && age > TEMPORARY_FILE_MAXIMUM_AGE || name.endsWith(EXTENSION_ENTRY) && age > this.maximumAge) {
+						file.delete();
+					} else if(name.endsWith(EXTENSION_ENTRY)) {
+						files.add(file);
+						
+						size += file.length();
+					}
+				}
+			}
+		}
+		
+		if(size > this.maximumSize) {
+			final long targetSize = this.maximumSize - this.maximumSize / 8L;
+			
+			files.sort(Comparator.comparingLong(File::lastModified));
+			
+			for(final File file : files) {
+				if(size <= targetSize) {
+					break;
+				}
+				
+				final long length = file.length();
+				
+				if(file.delete()) {
+					size -= length;
+				}
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static MessageDigest doCreateMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch(final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static String doToHexString(final byte[] bytes) {
+		final StringBuilder stringBuilder = new StringBuilder(bytes.length * 2);
+		
+		for(final byte b : bytes) {
+			stringBuilder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			stringBuilder.append(Character.forDigit(b & 0xF, 16));
+		}
+		
+		return stringBuilder.toString();
+	}
+	
+	private static void doUpdate(final MessageDigest messageDigest, final String string) {
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		
+		messageDigest.update((byte)(bytes.length >>> 24));
+		messageDigest.update((byte)(bytes.length >>> 16));
+		messageDigest.update((byte)(bytes.length >>> 8));
+		messageDigest.update((byte)(bytes.length));
+		messageDigest.update(bytes);
+	}
+}
\ No newline at end of file
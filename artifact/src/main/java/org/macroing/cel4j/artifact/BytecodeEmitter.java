@@ -0,0 +1,540 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//	A BytecodeEmitter writes the class of a script with a ClassFileWriter, without the Java compiler, if the script consists of a single return statement whose expression only uses literals, operators, the variables of the ScriptContext and the
+//	fields and methods of java.lang.Math. The expression is parsed by the Interpreter, so its static types are resolved in the same way as by the Java compiler.
+final class BytecodeEmitter {
+	private BytecodeEmitter() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Returns the classes of compilationUnit, written without the Java compiler, or null if its script cannot be emitted. The class behaves as the class compiled from the source code of compilationUnit. Its method eval reads each variable into a
+//	local variable, followed by scriptContext and exception, so the slot of each local variable of the Interpreter is the index of a local variable of eval, offset by this and the parameter of eval.
+	public static Map<String, byte[]> emit(final CompilationUnit compilationUnit, final List<String> importStatements) {
+		final PreprocessedScript preprocessedScript = compilationUnit.getPreprocessedScript();
+		
+		final String[] variableNames = preprocessedScript.getVariableNames();
+		
+		final Class<?>[] variableClasses = compilationUnit.getVariableClasses();
+		
+		final Class<?>[] types = new Class<?>[variableNames.length];
+		
+		final Map<String, String> replacements = new HashMap<>();
+		
+		for(int i = 0; i < variableNames.length; i++) {
+			types[i] = Types.getAccessibleClass(variableClasses[i] != null ? variableClasses[i] : Object.class);
+			
+			replacements.put(variableNames[i], "$" + variableNames[i]);
+		}
+		
+		final String body = preprocessedScript.getBody(replacements);
+		
+		if(preprocessedScript.hasMembers() || !preprocessedScript.getInterfaceNames().isEmpty() || preprocessedScript.isWritingOutput() || body.contains("\\u")) {
+			return null;
+		}
+		
+		final Interpreter.Expression expression = Interpreter.parseReturnExpression(body, importStatements, compilationUnit.getPackageName(), variableNames, types);
+		
+		if(expression == null) {
+			return null;
+		}
+		
+		try {
+			final String name = compilationUnit.getName().replace('.', '/');
+			
+			final ClassFileWriter classFileWriter = new ClassFileWriter(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER, name, "org/macroing/cel4j/artifact/ArtifactScript");
+			
+			final ClassFileWriter.Code constructor = new ClassFileWriter.Code(classFileWriter, name, "javax/script/ScriptEngine");
+			
+			constructor.emitLocal(ClassFileWriter.ALOAD, 0);
+			constructor.emitLocal(ClassFileWriter.ALOAD, 1);
+			constructor.emitMethod(ClassFileWriter.INVOKESPECIAL, "org/macroing/cel4j/artifact/ArtifactScript", "<init>", "(Ljavax/script/ScriptEngine;)V");
+			
+			for(int i = 0; i < variableNames.length; i++) {
+				classFileWriter.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "slot" + i, "I");
+				
+				constructor.emitLocal(ClassFileWriter.ALOAD, 0);
+				constructor.emitLocal(ClassFileWriter.ALOAD, 0);
+				constructor.emitConstant(variableNames[i]);
+				constructor.emitMethod(ClassFileWriter.INVOKEVIRTUAL, name, "getSlot", "(Ljava/lang/String;)I");
+				constructor.emitField(ClassFileWriter.PUTFIELD, name, "slot" + i, "I");
+			}
+			
+			constructor.emit(ClassFileWriter.RETURN, 0, null);
+			
+			final ClassFileWriter.Code code = new ClassFileWriter.Code(classFileWriter, name, "javax/script/ScriptContext");
+			
+			for(int i = 0; i < variableNames.length; i++) {
+				code.emitLocal(ClassFileWriter.ALOAD, 0);
+				code.emitLocal(ClassFileWriter.ALOAD, 1);
+				code.emitLocal(ClassFileWriter.ALOAD, 0);
+				code.emitField(ClassFileWriter.GETFIELD, name, "slot" + i, "I");
+				code.emitConstant(variableNames[i]);
+				code.emitMethod(ClassFileWriter.INVOKEVIRTUAL, name, "getVariable", "(Ljavax/script/ScriptContext;ILjava/lang/String;)Ljava/lang/Object;");
+				
+				if(types[i] != Object.class) {
+					code.emitType(ClassFileWriter.CHECKCAST, doGetInternalName(types[i]));
+				}
+				
+				code.emitLocal(ClassFileWriter.ASTORE, i + 2);
+			}
+			
+			code.emitLocal(ClassFileWriter.ALOAD, 1);
+			code.emitLocal(ClassFileWriter.ASTORE, variableNames.length + 2);
+			code.emitConstant(null);
+			code.emitLocal(ClassFileWriter.ASTORE, variableNames.length + 3);
+			
+			doEmit(code, expression);
+			
+			if(expression.type.isPrimitive()) {
+				doEmitBox(code, expression.type);
+			}
+			
+			code.emit(ClassFileWriter.ARETURN, 1, null);
+			
+//			An Exception thrown by the script is wrapped in a ScriptException, as by the source code of the class.
+			code.catchException(0, code.getOffset(), "java/lang/Exception", 2);
+			code.emitLocal(ClassFileWriter.ASTORE, 2);
+			code.emitType(ClassFileWriter.NEW, "javax/script/ScriptException");
+			code.emit(ClassFileWriter.DUP, 0, "javax/script/ScriptException");
+			code.emitLocal(ClassFileWriter.ALOAD, 2);
+			code.emitMethod(ClassFileWriter.INVOKESPECIAL, "javax/script/ScriptException", "<init>", "(Ljava/lang/Exception;)V");
+			code.emit(ClassFileWriter.ATHROW, 1, null);
+			
+			classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "(Ljavax/script/ScriptEngine;)V", constructor);
+			classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "eval", "(Ljavax/script/ScriptContext;)Ljava/lang/Object;", code);
+			
+			final Map<String, byte[]> classes = new LinkedHashMap<>();
+			
+			classes.put(compilationUnit.getName(), classFileWriter.toByteArray());
+			
+			return classes;
+		} catch(final IllegalStateException | UnsupportedExpressionException e) {
+			return null;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Class<?> doUnbox(final Class<?> type) {
+		if(type == Interpreter.NULL_TYPE) {
+			return null;
+		}
+		
+		final Class<?> primitiveType = MethodType.methodType(type).unwrap().returnType();
+		
+		return primitiveType != type ? primitiveType : null;
+	}
+	
+	private static String doGetDescriptor(final Class<?> type) {
+		return MethodType.methodType(type).toMethodDescriptorString().substring(2);
+	}
+	
+//	The class of an emitted script is defined by a ClassLoader whose parent is the ClassLoader of ArtifactScriptEngine, so each class it refers to has to be found by that ClassLoader as well.
+	private static String doGetInternalName(final Class<?> type) {
+		try {
+			if(type.isPrimitive() || type == Interpreter.NULL_TYPE || Class.forName(type.getName(), false, ArtifactScriptEngine.class.getClassLoader()) != type) {
+				throw new UnsupportedExpressionException();
+			}
+		} catch(final ClassNotFoundException e) {
+			throw new UnsupportedExpressionException();
+		}
+		
+		return type.isArray() ? doGetDescriptor(type) : type.getName().replace('.', '/');
+	}
+	
+	private static String doGetVerificationType(final Class<?> type) {
+		if(type == Interpreter.NULL_TYPE) {
+			return ClassFileWriter.NULL;
+		}
+		
+		return type.isPrimitive() ? ClassFileWriter.getVerificationType(doGetDescriptor(type)) : doGetInternalName(type);
+	}
+	
+//	Returns the offset of the opcode for type from the opcode for int, as in iadd, ladd, fadd and dadd.
+	private static int doGetOpcodeOffset(final Class<?> type) {
+		if(type == long.class) {
+			return 1;
+		} else if(type == float.class) {
+			return 2;
+		} else if(type == double.class) {
+			return 3;
+		} else {
+			return 0;
+		}
+	}
+	
+//	Emits the bytecode that pushes the value of expression onto the operand stack of code. The value of an Expression whose type is primitive is pushed as a value of that type. An Expression that cannot be emitted throws an
+//	UnsupportedExpressionException.
+	private static void doEmit(final ClassFileWriter.Code code, final Interpreter.Expression expression) {
+		if(expression instanceof Interpreter.Arithmetic) {
+			doEmitArithmetic(code, Interpreter.Arithmetic.class.cast(expression));
+		} else if(expression instanceof Interpreter.BitwiseNot) {
+			doEmitBitwiseNot(code, Interpreter.BitwiseNot.class.cast(expression));
+		} else if(expression instanceof Interpreter.Compare) {
+			doEmitCompare(code, Interpreter.Compare.class.cast(expression));
+		} else if(expression instanceof Interpreter.Conditional) {
+			doEmitConditional(code, Interpreter.Conditional.class.cast(expression));
+		} else if(expression instanceof Interpreter.Convert) {
+			doEmitConvert(code, Interpreter.Convert.class.cast(expression));
+		} else if(expression instanceof Interpreter.FieldLoad) {
+			doEmitFieldLoad(code, Interpreter.FieldLoad.class.cast(expression));
+		} else if(expression instanceof Interpreter.Invoke) {
+			doEmitInvoke(code, Interpreter.Invoke.class.cast(expression));
+		} else if(expression instanceof Interpreter.Literal) {
+			doEmitLiteral(code, Interpreter.Literal.class.cast(expression));
+		} else if(expression instanceof Interpreter.LocalLoad) {
+			code.emitLocal(ClassFileWriter.ALOAD, Interpreter.LocalLoad.class.cast(expression).slot + 2);
+		} else if(expression instanceof Interpreter.Logical) {
+			doEmitLogical(code, Interpreter.Logical.class.cast(expression));
+		} else if(expression instanceof Interpreter.Negate) {
+			doEmitNegate(code, Interpreter.Negate.class.cast(expression));
+		} else if(expression instanceof Interpreter.Not) {
+			doEmitNot(code, Interpreter.Not.class.cast(expression));
+		} else if(expression instanceof Interpreter.Parenthesized) {
+			doEmit(code, Interpreter.Parenthesized.class.cast(expression).expression);
+		} else if(expression instanceof Interpreter.Shift) {
+			doEmitShift(code, Interpreter.Shift.class.cast(expression));
+		} else {
+			throw new UnsupportedExpressionException();
+		}
+	}
+	
+	private static void doEmitArithmetic(final ClassFileWriter.Code code, final Interpreter.Arithmetic arithmetic) {
+		doEmit(code, arithmetic.a);
+		doEmit(code, arithmetic.b);
+		
+		final int offset = doGetOpcodeOffset(arithmetic.type);
+		
+		switch(arithmetic.operator) {
+			case '+':
+				code.emit(ClassFileWriter.IADD + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			case '-':
+				code.emit(ClassFileWriter.ISUB + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			case '*':
+				code.emit(ClassFileWriter.IMUL + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			case '/':
+				code.emit(ClassFileWriter.IDIV + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			case '%':
+				code.emit(ClassFileWriter.IREM + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			case '&':
+				code.emit(ClassFileWriter.IAND + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			case '|':
+				code.emit(ClassFileWriter.IOR + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+			default:
+				code.emit(ClassFileWriter.IXOR + offset, 2, doGetVerificationType(arithmetic.type));
+				
+				break;
+		}
+	}
+	
+	private static void doEmitBitwiseNot(final ClassFileWriter.Code code, final Interpreter.BitwiseNot bitwiseNot) {
+		doEmit(code, bitwiseNot.expression);
+		
+		code.emitConstant(bitwiseNot.type == int.class ? (Object)(Integer.valueOf(-1)) : (Object)(Long.valueOf(-1L)));
+		code.emit(ClassFileWriter.IXOR + doGetOpcodeOffset(bitwiseNot.type), 2, doGetVerificationType(bitwiseNot.type));
+	}
+	
+	private static void doEmitBox(final ClassFileWriter.Code code, final Class<?> type) {
+		final Class<?> boxedType = MethodType.methodType(type).wrap().returnType();
+		
+		code.emitMethod(ClassFileWriter.INVOKESTATIC, doGetInternalName(boxedType), "valueOf", "(" + doGetDescriptor(type) + ")" + doGetDescriptor(boxedType));
+	}
+	
+//	The value is 1 if the comparison is true and 0 otherwise. A jump is made if the comparison is false. NaN is compared as javac does, using fcmpg or dcmpg for < and <=, so the jump is made if either operand is NaN.
+	private static void doEmitCompare(final ClassFileWriter.Code code, final Interpreter.Compare compare) {
+		doEmit(code, compare.a);
+		doEmit(code, compare.b);
+		
+		final ClassFileWriter.Label end = new ClassFileWriter.Label();
+		final ClassFileWriter.Label isFalse = new ClassFileWriter.Label();
+		
+		final int opcode = compare.operator.equals("==") ? ClassFileWriter.IFNE : compare.operator.equals("!=") ? ClassFileWriter.IFEQ : compare.operator.equals("<") ? ClassFileWriter.IFGE : compare.operator.equals("<=") ? ClassFileWriter.IFGT : compare.operator.equals(">") ? ClassFileWriter.IFLE : ClassFileWriter.IFLT;
+		
+		final boolean isLess = compare.operator.equals("<") || compare.operator.equals("<=");
+		
+		if(compare.operandType == Object.class) {
+			code.emitJump(compare.operator.equals("==") ? ClassFileWriter.IF_ACMPNE : ClassFileWriter.IF_ACMPEQ, isFalse, 2);
+		} else if(compare.operandType == boolean.class || compare.operandType == int.class) {
+			code.emitJump(opcode + ClassFileWriter.IF_ICMPEQ - ClassFileWriter.IFEQ, isFalse, 2);
+		} else {
+			if(compare.operandType == long.class) {
+				code.emit(ClassFileWriter.LCMP, 2, "I");
+			} else if(compare.operandType == float.class) {
+				code.emit(isLess ? ClassFileWriter.FCMPG : ClassFileWriter.FCMPL, 2, "I");
+			} else {
+				code.emit(isLess ? ClassFileWriter.DCMPG : ClassFileWriter.DCMPL, 2, "I");
+			}
+			
+			code.emitJump(opcode, isFalse, 1);
+		}
+		
+		code.emitConstant(Integer.valueOf(1));
+		code.emitJump(ClassFileWriter.GOTO, end, 0);
+		code.bind(isFalse);
+		code.emitConstant(Integer.valueOf(0));
+		code.bind(end);
+	}
+	
+	private static void doEmitConditional(final ClassFileWriter.Code code, final Interpreter.Conditional conditional) {
+		final ClassFileWriter.Label end = new ClassFileWriter.Label();
+		final ClassFileWriter.Label isFalse = new ClassFileWriter.Label();
+		
+		doEmit(code, conditional.condition);
+		
+		code.emitJump(ClassFileWriter.IFEQ, isFalse, 1);
+		
+		doEmit(code, conditional.a);
+		
+		code.setStackTop(doGetVerificationType(conditional.type));
+		code.emitJump(ClassFileWriter.GOTO, end, 0);
+		code.bind(isFalse);
+		
+		doEmit(code, conditional.b);
+		
+		code.setStackTop(doGetVerificationType(conditional.type));
+		code.bind(end);
+	}
+	
+	private static void doEmitConversion(final ClassFileWriter.Code code, final Class<?> typeA, final Class<?> typeB) {
+		if(typeA == typeB) {
+			return;
+		}
+		
+		if(typeA == boolean.class || typeB == boolean.class) {
+			throw new UnsupportedExpressionException();
+		}
+		
+		final int[][] opcodes = {
+			{0, ClassFileWriter.I2L, ClassFileWriter.I2F, ClassFileWriter.I2D},
+			{ClassFileWriter.L2I, 0, ClassFileWriter.L2F, ClassFileWriter.L2D},
+			{ClassFileWriter.F2I, ClassFileWriter.F2L, 0, ClassFileWriter.F2D},
+			{ClassFileWriter.D2I, ClassFileWriter.D2L, ClassFileWriter.D2F, 0}
+		};
+		
+		final int opcode = opcodes[doGetOpcodeOffset(typeA)][doGetOpcodeOffset(typeB)];
+		
+		if(opcode != 0) {
+			code.emit(opcode, 1, doGetVerificationType(typeB == byte.class || typeB == char.class || typeB == short.class ? int.class : typeB));
+		}
+		
+		if(typeB == byte.class) {
+			code.emit(ClassFileWriter.I2B, 1, "I");
+		} else if(typeB == short.class && typeA != byte.class) {
+			code.emit(ClassFileWriter.I2S, 1, "I");
+		} else if(typeB == char.class) {
+			code.emit(ClassFileWriter.I2C, 1, "I");
+		}
+	}
+	
+//	A CAST of a primitive value boxes it, as that is the only conversion from a primitive type to a reference type the Interpreter uses it for. A NULL_CHECK unboxes a value, and a NUMBER converts a value that may be boxed.
+	private static void doEmitConvert(final ClassFileWriter.Code code, final Interpreter.Convert convert) {
+		final Class<?> expressionType = convert.expression.type;
+		
+		doEmit(code, convert.expression);
+		
+		switch(convert.kind) {
+			case Interpreter.Convert.CAST:
+				if(expressionType.isPrimitive()) {
+					doEmitBox(code, expressionType);
+				} else if(expressionType != Interpreter.NULL_TYPE && !convert.type.isAssignableFrom(expressionType)) {
+					code.emitType(ClassFileWriter.CHECKCAST, doGetInternalName(convert.type));
+				}
+				
+				break;
+			case Interpreter.Convert.NULL_CHECK:
+				if(doUnbox(expressionType) != convert.type) {
+					throw new UnsupportedExpressionException();
+				}
+				
+				doEmitUnbox(code, expressionType);
+				
+				break;
+			default:
+				if(expressionType.isPrimitive()) {
+					doEmitConversion(code, expressionType, convert.type);
+				} else if(doUnbox(expressionType) != null) {
+					doEmitUnbox(code, expressionType);
+					doEmitConversion(code, doUnbox(expressionType), convert.type);
+				} else {
+					throw new UnsupportedExpressionException();
+				}
+				
+				break;
+		}
+	}
+	
+	private static void doEmitFieldLoad(final ClassFileWriter.Code code, final Interpreter.FieldLoad fieldLoad) {
+		if(fieldLoad.target != null || fieldLoad.field.getDeclaringClass() != Math.class || !fieldLoad.field.getType().isPrimitive()) {
+			throw new UnsupportedExpressionException();
+		}
+		
+		code.emitField(ClassFileWriter.GETSTATIC, "java/lang/Math", fieldLoad.field.getName(), doGetDescriptor(fieldLoad.field.getType()));
+	}
+	
+	private static void doEmitInvoke(final ClassFileWriter.Code code, final Interpreter.Invoke invoke) {
+		if(invoke.target != null || invoke.executable.getDeclaringClass() != Math.class || !(invoke.executable instanceof Method) || !Modifier.isStatic(invoke.executable.getModifiers())) {
+			throw new UnsupportedExpressionException();
+		}
+		
+		final Method method = Method.class.cast(invoke.executable);
+		
+		final StringBuilder descriptor = new StringBuilder("(");
+		
+		for(final Class<?> parameterType : method.getParameterTypes()) {
+			descriptor.append(doGetDescriptor(parameterType));
+		}
+		
+		descriptor.append(")");
+		descriptor.append(doGetDescriptor(method.getReturnType()));
+		
+		for(final Interpreter.Expression argument : invoke.arguments) {
+			doEmit(code, argument);
+		}
+		
+		code.emitMethod(ClassFileWriter.INVOKESTATIC, "java/lang/Math", method.getName(), descriptor.toString());
+	}
+	
+	private static void doEmitLiteral(final ClassFileWriter.Code code, final Interpreter.Literal literal) {
+		if(literal.type == boolean.class) {
+			code.emitConstant(Integer.valueOf(Boolean.class.cast(literal.value).booleanValue() ? 1 : 0));
+		} else if(literal.type == char.class) {
+			code.emitConstant(Integer.valueOf(Character.class.cast(literal.value).charValue()));
+		} else if(literal.type == byte.class || literal.type == short.class) {
+			code.emitConstant(Integer.valueOf(Number.class.cast(literal.value).intValue()));
+		} else if(literal.type.isPrimitive() || literal.type == String.class || literal.type == Interpreter.NULL_TYPE) {
+			code.emitConstant(literal.value);
+		} else {
+			throw new UnsupportedExpressionException();
+		}
+	}
+	
+	private static void doEmitLogical(final ClassFileWriter.Code code, final Interpreter.Logical logical) {
+		doEmit(code, logical.a);
+		
+		switch(logical.operator) {
+			case "&&":
+			case "||": {
+				final ClassFileWriter.Label end = new ClassFileWriter.Label();
+				final ClassFileWriter.Label isShortCircuited = new ClassFileWriter.Label();
+				
+				code.emitJump(logical.operator.equals("&&") ? ClassFileWriter.IFEQ : ClassFileWriter.IFNE, isShortCircuited, 1);
+				
+				doEmit(code, logical.b);
+				
+				code.emitJump(ClassFileWriter.GOTO, end, 0);
+				code.bind(isShortCircuited);
+				code.emitConstant(Integer.valueOf(logical.operator.equals("&&") ? 0 : 1));
+				code.bind(end);
+				
+				break;
+			}
+			case "&":
+				doEmit(code, logical.b);
+				
+				code.emit(ClassFileWriter.IAND, 2, "I");
+				
+				break;
+			case "|":
+				doEmit(code, logical.b);
+				
+				code.emit(ClassFileWriter.IOR, 2, "I");
+				
+				break;
+			default:
+				doEmit(code, logical.b);
+				
+				code.emit(ClassFileWriter.IXOR, 2, "I");
+				
+				break;
+		}
+	}
+	
+	private static void doEmitNegate(final ClassFileWriter.Code code, final Interpreter.Negate negate) {
+		doEmit(code, negate.expression);
+		
+		code.emit(ClassFileWriter.INEG + doGetOpcodeOffset(negate.type), 1, doGetVerificationType(negate.type));
+	}
+	
+	private static void doEmitNot(final ClassFileWriter.Code code, final Interpreter.Not not) {
+		doEmit(code, not.expression);
+		
+		code.emitConstant(Integer.valueOf(1));
+		code.emit(ClassFileWriter.IXOR, 2, "I");
+	}
+	
+	private static void doEmitShift(final ClassFileWriter.Code code, final Interpreter.Shift shift) {
+		doEmit(code, shift.a);
+		doEmit(code, shift.b);
+		
+		if(shift.b.type == long.class) {
+			code.emit(ClassFileWriter.L2I, 1, "I");
+		}
+		
+		final int opcode = shift.operator.equals("<<") ? ClassFileWriter.ISHL : shift.operator.equals(">>") ? ClassFileWriter.ISHR : ClassFileWriter.IUSHR;
+		
+		code.emit(opcode + (shift.type == long.class ? 1 : 0), 2, doGetVerificationType(shift.type));
+	}
+	
+	private static void doEmitUnbox(final ClassFileWriter.Code code, final Class<?> type) {
+		final Class<?> primitiveType = doUnbox(type);
+		
+		code.emitMethod(ClassFileWriter.INVOKEVIRTUAL, doGetInternalName(type), primitiveType.getName() + "Value", "()" + doGetDescriptor(primitiveType));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class UnsupportedExpressionException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		public UnsupportedExpressionException() {
+			super(null, null, false, false);
+		}
+	}
+}
\ No newline at end of file
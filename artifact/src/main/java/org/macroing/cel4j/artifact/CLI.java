@@ -47,6 +47,11 @@ final class CLI {
 			
 			final ScriptEngine scriptEngine = scriptEngineManager.getEngineByExtension(Objects.requireNonNull(extension, "extension == null"));
 			
+//			Each line is evaluated as a script of its own, so import statements have to apply to the lines that follow.
+			if(scriptEngine instanceof ArtifactScriptEngine) {
+				ArtifactScriptEngine.class.cast(scriptEngine).setSessionImportStatementsEnabled(true);
+			}
+			
 			while(true) {
 				System.out.print("Artifact: ");
 				
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardLocation;
+
+final class CachingJavaFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+	private final Map<String, List<JavaFileObject>> javaFileObjects;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CachingJavaFileManager(final JavaFileManager javaFileManager) {
+		super(javaFileManager);
+		
+		this.javaFileObjects = new HashMap<>();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The Java compiler lists the contents of every package it resolves, including each package imported on demand, once per compilation task. The class path and the platform classes do not change during the lifetime of this file manager, so
+//	those listings are cached. Source and output locations may change between compilation tasks and are never cached.
+	@Override
+	public Iterable<JavaFileObject> list(final Location location, final String packageName, final Set<Kind> kinds, final boolean recurse) throws IOException {
+		if(location == StandardLocation.CLASS_OUTPUT || location == StandardLocation.SOURCE_OUTPUT || location == StandardLocation.SOURCE_PATH || location.isOutputLocation()) {
+			return super.list(location, packageName, kinds, recurse);
+		}
+		
+		final String key = location.getName() + ":" + packageName + ":" + kinds + ":" + recurse;
+		
+		List<JavaFileObject> javaFileObjects = this.javaFileObjects.get(key);
+		
+		if(javaFileObjects == null) {
+			javaFileObjects = new ArrayList<>();
+			
+			for(final JavaFileObject javaFileObject : super.list(location, packageName, kinds, recurse)) {
+				javaFileObjects.add(javaFileObject);
+			}
+			
+			this.javaFileObjects.put(key, javaFileObjects);
+		}
+		
+		return javaFileObjects;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,811 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+//	A ClassFileWriter writes a class file of version 52, the version used by Java 8, without the Java compiler. Each method is written using a Code, which keeps track of the verification types on the operand stack, so the StackMapTable
+//	attribute that the Java Virtual Machine requires for version 52 can be written for each branch target and exception handler. A verification type is given as "I", "J", "F" or "D" for a primitive type, as "null" for the type of null, as
+//	"top" for an unusable local variable and as the internal name of a class otherwise.
+final class ClassFileWriter {
+	public static final String NULL = "null";
+	public static final String TOP = "top";
+	public static final int ACC_FINAL = 0x0010;
+	public static final int ACC_PRIVATE = 0x0002;
+	public static final int ACC_PUBLIC = 0x0001;
+	public static final int ACC_SUPER = 0x0020;
+	public static final int ACONST_NULL = 1;
+	public static final int ALOAD = 25;
+	public static final int ARETURN = 176;
+	public static final int ASTORE = 58;
+	public static final int ATHROW = 191;
+	public static final int CHECKCAST = 192;
+	public static final int D2F = 144;
+	public static final int D2I = 142;
+	public static final int D2L = 143;
+	public static final int DCMPG = 152;
+	public static final int DCMPL = 151;
+	public static final int DUP = 89;
+	public static final int F2D = 141;
+	public static final int F2I = 139;
+	public static final int F2L = 140;
+	public static final int FCMPG = 150;
+	public static final int FCMPL = 149;
+	public static final int GETFIELD = 180;
+	public static final int GETSTATIC = 178;
+	public static final int GOTO = 167;
+	public static final int I2B = 145;
+	public static final int I2C = 146;
+	public static final int I2D = 135;
+	public static final int I2F = 134;
+	public static final int I2L = 133;
+	public static final int I2S = 147;
+	public static final int IADD = 96;
+	public static final int IAND = 126;
+	public static final int IDIV = 108;
+	public static final int IFEQ = 153;
+	public static final int IFGE = 156;
+	public static final int IFGT = 157;
+	public static final int IFLE = 158;
+	public static final int IFLT = 155;
+	public static final int IFNE = 154;
+	public static final int IF_ACMPEQ = 165;
+	public static final int IF_ACMPNE = 166;
+	public static final int IF_ICMPEQ = 159;
+	public static final int IMUL = 104;
+	public static final int INEG = 116;
+	public static final int INVOKESPECIAL = 183;
+	public static final int INVOKESTATIC = 184;
+	public static final int INVOKEVIRTUAL = 182;
+	public static final int IOR = 128;
+	public static final int IREM = 112;
+	public static final int ISHL = 120;
+	public static final int ISHR = 122;
+	public static final int ISUB = 100;
+	public static final int IUSHR = 124;
+	public static final int IXOR = 130;
+	public static final int L2D = 138;
+	public static final int L2F = 137;
+	public static final int L2I = 136;
+	public static final int LCMP = 148;
+	public static final int NEW = 187;
+	public static final int PUTFIELD = 181;
+	public static final int RETURN = 177;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int BIPUSH = 16;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int DCONST_0 = 14;
+	private static final int FCONST_0 = 11;
+	private static final int ICONST_0 = 3;
+	private static final int LCONST_0 = 9;
+	private static final int LDC = 18;
+	private static final int LDC2_W = 20;
+	private static final int LDC_W = 19;
+	private static final int SIPUSH = 17;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final ByteArrayOutputStream constantPool;
+	private final ByteArrayOutputStream fields;
+	private final ByteArrayOutputStream methods;
+	private final Map<List<Object>, Integer> constants;
+	private final int accessFlags;
+	private final int superClass;
+	private final int thisClass;
+	private int constantCount;
+	private int fieldCount;
+	private int methodCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ClassFileWriter(final int accessFlags, final String name, final String superName) {
+		this.constantPool = new ByteArrayOutputStream();
+		this.fields = new ByteArrayOutputStream();
+		this.methods = new ByteArrayOutputStream();
+		this.constants = new HashMap<>();
+		this.constantCount = 1;
+		this.accessFlags = accessFlags;
+		this.thisClass = doAddClass(Objects.requireNonNull(name, "name == null"));
+		this.superClass = doAddClass(Objects.requireNonNull(superName, "superName == null"));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public byte[] toByteArray() {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		
+		doWriteU4(byteArrayOutputStream, 0xCAFEBABE);
+		doWriteU2(byteArrayOutputStream, 0);
+		doWriteU2(byteArrayOutputStream, 52);
+		doWriteU2(byteArrayOutputStream, this.constantCount);
+		doWriteBytes(byteArrayOutputStream, this.constantPool.toByteArray());
+		doWriteU2(byteArrayOutputStream, this.accessFlags);
+		doWriteU2(byteArrayOutputStream, this.thisClass);
+		doWriteU2(byteArrayOutputStream, this.superClass);
+		doWriteU2(byteArrayOutputStream, 0);
+		doWriteU2(byteArrayOutputStream, this.fieldCount);
+		doWriteBytes(byteArrayOutputStream, this.fields.toByteArray());
+		doWriteU2(byteArrayOutputStream, this.methodCount);
+		doWriteBytes(byteArrayOutputStream, this.methods.toByteArray());
+		doWriteU2(byteArrayOutputStream, 0);
+		
+		return byteArrayOutputStream.toByteArray();
+	}
+	
+	public void addField(final int accessFlags, final String name, final String descriptor) {
+		doWriteU2(this.fields, accessFlags);
+		doWriteU2(this.fields, doAddUTF8(name));
+		doWriteU2(this.fields, doAddUTF8(descriptor));
+		doWriteU2(this.fields, 0);
+		
+		this.fieldCount++;
+	}
+	
+	public void addMethod(final int accessFlags, final String name, final String descriptor, final Code code) {
+		final byte[] bytes = code.toByteArray();
+		
+		doWriteU2(this.methods, accessFlags);
+		doWriteU2(this.methods, doAddUTF8(name));
+		doWriteU2(this.methods, doAddUTF8(descriptor));
+		doWriteU2(this.methods, 1);
+		doWriteU2(this.methods, doAddUTF8("Code"));
+		doWriteU4(this.methods, bytes.length);
+		doWriteBytes(this.methods, bytes);
+		
+		this.methodCount++;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static String getVerificationType(final String descriptor) {
+		switch(descriptor.charAt(0)) {
+			case 'B':
+			case 'C':
+			case 'I':
+			case 'S':
+			case 'Z':
+				return "I";
+			case 'D':
+			case 'F':
+			case 'J':
+				return descriptor.substring(0, 1);
+			case 'L':
+				return descriptor.substring(1, descriptor.indexOf(';'));
+			case '[':
+				return descriptor;
+			default:
+				throw new IllegalArgumentException("Illegal descriptor: " + descriptor);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Each constant is added once. Its key consists of its tag followed by the values it consists of.
+	private int doAddConstant(final List<Object> key, final int size) {
+		final Integer index = this.constants.get(key);
+		
+		if(index != null) {
+			return index.intValue();
+		}
+		
+		if(this.constantCount + size > 0xFFFF) {
+			throw new IllegalStateException("The constant pool is too large.");
+		}
+		
+		final int newIndex = this.constantCount;
+		
+		this.constants.put(key, Integer.valueOf(newIndex));
+		this.constantCount += size;
+		
+		return newIndex;
+	}
+	
+	private int doAddClass(final String internalName) {
+		final int nameIndex = doAddUTF8(internalName);
+		
+		final List<Object> key = Arrays.asList(Integer.valueOf(CONSTANT_CLASS), internalName);
+		
+		final boolean isNew = !this.constants.containsKey(key);
+		
+		final int index = doAddConstant(key, 1);
+		
+		if(isNew) {
+			doWriteU1(this.constantPool, CONSTANT_CLASS);
+			doWriteU2(this.constantPool, nameIndex);
+		}
+		
+		return index;
+	}
+	
+	private int doAddMemberReference(final int tag, final String owner, final String name, final String descriptor) {
+		final int classIndex = doAddClass(owner);
+		final int nameAndTypeIndex = doAddNameAndType(name, descriptor);
+		
+		final List<Object> key = Arrays.asList(Integer.valueOf(tag), owner, name, descriptor);
+		
+		final boolean isNew = !this.constants.containsKey(key);
+		
+		final int index = doAddConstant(key, 1);
+		
+		if(isNew) {
+			doWriteU1(this.constantPool, tag);
+			doWriteU2(this.constantPool, classIndex);
+			doWriteU2(this.constantPool, nameAndTypeIndex);
+		}
+		
+		return index;
+	}
+	
+	private int doAddNameAndType(final String name, final String descriptor) {
+		final int nameIndex = doAddUTF8(name);
+		final int descriptorIndex = doAddUTF8(descriptor);
+		
+		final List<Object> key = Arrays.asList(Integer.valueOf(CONSTANT_NAME_AND_TYPE), name, descriptor);
+		
+		final boolean isNew = !this.constants.containsKey(key);
+		
+		final int index = doAddConstant(key, 1);
+		
+		if(isNew) {
+			doWriteU1(this.constantPool, CONSTANT_NAME_AND_TYPE);
+			doWriteU2(this.constantPool, nameIndex);
+			doWriteU2(this.constantPool, descriptorIndex);
+		}
+		
+		return index;
+	}
+	
+//	Adds an Integer, a Long, a Float, a Double or a String constant.
+	private int doAddValue(final Object value) {
+		if(value instanceof String) {
+			final int utf8Index = doAddUTF8(String.class.cast(value));
+			
+			final List<Object> key = Arrays.asList(Integer.valueOf(CONSTANT_STRING), value);
+			
+			final boolean isNew = !this.constants.containsKey(key);
+			
+			final int index = doAddConstant(key, 1);
+			
+			if(isNew) {
+				doWriteU1(this.constantPool, CONSTANT_STRING);
+				doWriteU2(this.constantPool, utf8Index);
+			}
+			
+			return index;
+		}
+		
+//		A Float or a Double is identified by its bits, so 0.0 and -0.0, as well as NaN values with different bits, are different constants.
+		final int tag = value instanceof Integer ? CONSTANT_INTEGER : value instanceof Float ? CONSTANT_FLOAT : value instanceof Long ? CONSTANT_LONG : CONSTANT_DOUBLE;
+		
+		final long bits = value instanceof Float ? Float.floatToRawIntBits(Float.class.cast(value).floatValue()) : value instanceof Double ? Double.doubleToRawLongBits(Double.class.cast(value).doubleValue()) : Number.class.cast(value).longValue();
+		
+		final List<Object> key = Arrays.asList(Integer.valueOf(tag), Long.valueOf(bits));
+		
+		final boolean isNew = !this.constants.containsKey(key);
+		
+		final int index = doAddConstant(key, tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE ? 2 : 1);
+		
+		if(isNew) {
+			doWriteU1(this.constantPool, tag);
+			
+			if(tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE) {
+				doWriteU4(this.constantPool, (int)(bits >>> 32));
+			}
+			
+			doWriteU4(this.constantPool, (int)(bits));
+		}
+		
+		return index;
+	}
+	
+//	A CONSTANT_Utf8 is written using the modified UTF-8 encoding of the class file format, in which the character 0 is written using two bytes, and each surrogate character is written on its own.
+	private int doAddUTF8(final String string) {
+		final List<Object> key = Arrays.asList(Integer.valueOf(CONSTANT_UTF8), string);
+		
+		if(this.constants.containsKey(key)) {
+			return this.constants.get(key).intValue();
+		}
+		
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		
+		for(int i = 0; i < string.length(); i++) {
+			final char character = string.charAt(i);
+			
+			if(character != 0 && character < 0x80) {
+				doWriteU1(byteArrayOutputStream, character);
+			} else if(character < 0x800) {
+				doWriteU1(byteArrayOutputStream, 0xC0 | character >> 6);
+				doWriteU1(byteArrayOutputStream, 0x80 | character & 0x3F);
+			} else {
+				doWriteU1(byteArrayOutputStream, 0xE0 | character >> 12);
+				doWriteU1(byteArrayOutputStream, 0x80 | character >> 6 & 0x3F);
+				doWriteU1(byteArrayOutputStream, 0x80 | character & 0x3F);
+			}
+		}
+		
+		if(byteArrayOutputStream.size() > 0xFFFF) {
+			throw new IllegalStateException("The string is too long.");
+		}
+		
+		final int index = doAddConstant(key, 1);
+		
+		doWriteU1(this.constantPool, CONSTANT_UTF8);
+		doWriteU2(this.constantPool, byteArrayOutputStream.size());
+		doWriteBytes(this.constantPool, byteArrayOutputStream.toByteArray());
+		
+		return index;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static void doWriteBytes(final ByteArrayOutputStream byteArrayOutputStream, final byte[] bytes) {
+		byteArrayOutputStream.write(bytes, 0, bytes.length);
+	}
+	
+	private static void doWriteU1(final ByteArrayOutputStream byteArrayOutputStream, final int value) {
+		byteArrayOutputStream.write(value);
+	}
+	
+	private static void doWriteU2(final ByteArrayOutputStream byteArrayOutputStream, final int value) {
+		byteArrayOutputStream.write(value >>> 8);
+		byteArrayOutputStream.write(value);
+	}
+	
+	private static void doWriteU4(final ByteArrayOutputStream byteArrayOutputStream, final int value) {
+		byteArrayOutputStream.write(value >>> 24);
+		byteArrayOutputStream.write(value >>> 16);
+		byteArrayOutputStream.write(value >>> 8);
+		byteArrayOutputStream.write(value);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	A Code writes the instructions of a method, whose local variables initially have the verification types given to its constructor, such as the type of this followed by the types of the parameters. Only local variables of reference types
+//	are supported. Each instruction is given the number of values it pops from the operand stack and the verification type of the value it pushes, if any, unless they follow from a descriptor. After an
+//	unconditional jump, a return or a throw, the next instruction can only be reached through a Label or an exception handler, which restores the operand stack that was recorded for it.
+	public static final class Code {
+		private final ClassFileWriter classFileWriter;
+		private final List<String> locals;
+		private final List<int[]> exceptionHandlers;
+		private final Map<Integer, Frame> frames;
+		private List<String> stack;
+		private byte[] bytes;
+		private int length;
+		private int maximumStackSize;
+		
+		public Code(final ClassFileWriter classFileWriter, final String... locals) {
+			this.classFileWriter = Objects.requireNonNull(classFileWriter, "classFileWriter == null");
+			this.locals = new ArrayList<>(Arrays.asList(locals));
+			this.exceptionHandlers = new ArrayList<>();
+			this.frames = new TreeMap<>();
+			this.stack = new ArrayList<>();
+			this.bytes = new byte[64];
+		}
+		
+		public byte[] toByteArray() {
+			final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+			
+			doWriteU2(byteArrayOutputStream, this.maximumStackSize);
+			doWriteU2(byteArrayOutputStream, this.locals.size());
+			doWriteU4(byteArrayOutputStream, this.length);
+			
+			byteArrayOutputStream.write(this.bytes, 0, this.length);
+			
+			doWriteU2(byteArrayOutputStream, this.exceptionHandlers.size());
+			
+			for(final int[] exceptionHandler : this.exceptionHandlers) {
+				for(final int value : exceptionHandler) {
+					doWriteU2(byteArrayOutputStream, value);
+				}
+			}
+			
+			if(this.frames.isEmpty()) {
+				doWriteU2(byteArrayOutputStream, 0);
+				
+				return byteArrayOutputStream.toByteArray();
+			}
+			
+//			Each frame is written as a full_frame, whose offset_delta is relative to the previous frame.
+			final ByteArrayOutputStream stackMapTable = new ByteArrayOutputStream();
+			
+			doWriteU2(stackMapTable, this.frames.size());
+			
+			int previousOffset = -1;
+			
+			for(final Map.Entry<Integer, Frame> entry : this.frames.entrySet()) {
+				final int offset = entry.getKey().intValue();
+				
+				doWriteU1(stackMapTable, 255);
+				doWriteU2(stackMapTable, offset - previousOffset - 1);
+				doWriteVerificationTypes(stackMapTable, entry.getValue().locals);
+				doWriteVerificationTypes(stackMapTable, entry.getValue().stack);
+				
+				previousOffset = offset;
+			}
+			
+			doWriteU2(byteArrayOutputStream, 1);
+			doWriteU2(byteArrayOutputStream, this.classFileWriter.doAddUTF8("StackMapTable"));
+			doWriteU4(byteArrayOutputStream, stackMapTable.size());
+			doWriteBytes(byteArrayOutputStream, stackMapTable.toByteArray());
+			
+			return byteArrayOutputStream.toByteArray();
+		}
+		
+		public int getOffset() {
+			return this.length;
+		}
+		
+//		Binds label to the current offset. If the current offset cannot be reached from the previous instruction, the operand stack recorded by the jumps to label is restored.
+		public void bind(final Label label) {
+			if(label.offset >= 0) {
+				throw new IllegalStateException("The label has already been bound.");
+			}
+			
+			label.offset = this.length;
+			
+			if(this.stack == null) {
+				this.stack = new ArrayList<>(label.stack);
+			} else if(label.stack == null) {
+				label.stack = new ArrayList<>(this.stack);
+			}
+			
+			for(final int reference : label.references) {
+				doPatchJump(reference, label.offset);
+			}
+			
+			doAddFrame(this.locals, label.stack);
+		}
+		
+//		Starts an exception handler for the instructions from start, inclusive, to end, exclusive, that catches the exceptions of the class called type. Only the first locals local variables are used by the exception handler.
+		public void catchException(final int start, final int end, final String type, final int locals) {
+			this.exceptionHandlers.add(new int[] {start, end, this.length, this.classFileWriter.doAddClass(type)});
+			
+			this.stack = new ArrayList<>(Arrays.asList(type));
+			
+			doAddFrame(this.locals.subList(0, locals), this.stack);
+		}
+		
+		public void emit(final int opcode, final int pops, final String push) {
+			doBegin(pops);
+			doWriteByte(opcode);
+			doEnd(opcode, push);
+		}
+		
+		public void emitConstant(final Object value) {
+			if(value == null) {
+				emit(ACONST_NULL, 0, NULL);
+			} else if(value instanceof Integer) {
+				final int i = Integer.class.cast(value).intValue();
+				
+				if(i >= -1 && i <= 5) {
+					emit(ICONST_0 + i, 0, "I");
+				} else if(i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE) {
+					emitU1(BIPUSH, i, 0, "I");
+				} else if(i >= Short.MIN_VALUE && i <= Short.MAX_VALUE) {
+					emitU2(SIPUSH, i, 0, "I");
+				} else {
+					doEmitLoadConstant(this.classFileWriter.doAddValue(value), "I");
+				}
+			} else if(value instanceof Long) {
+				final long l = Long.class.cast(value).longValue();
+				
+				if(l == 0L || l == 1L) {
+					emit(LCONST_0 + (int)(l), 0, "J");
+				} else {
+					emitU2(LDC2_W, this.classFileWriter.doAddValue(value), 0, "J");
+				}
+			} else if(value instanceof Float) {
+				final int bits = Float.floatToRawIntBits(Float.class.cast(value).floatValue());
+				
+				if(bits == Float.floatToRawIntBits(0.0F) || bits == Float.floatToRawIntBits(1.0F) || bits == Float.floatToRawIntBits(2.0F)) {
+					emit(FCONST_0 + (int)(Float.intBitsToFloat(bits)), 0, "F");
+				} else {
+					doEmitLoadConstant(this.classFileWriter.doAddValue(value), "F");
+				}
+			} else if(value instanceof Double) {
+				final long bits = Double.doubleToRawLongBits(Double.class.cast(value).doubleValue());
+				
+				if(bits == Double.doubleToRawLongBits(0.0D) || bits == Double.doubleToRawLongBits(1.0D)) {
+					emit(DCONST_0 + (int)(Double.longBitsToDouble(bits)), 0, "D");
+				} else {
+					emitU2(LDC2_W, this.classFileWriter.doAddValue(value), 0, "D");
+				}
+			} else if(value instanceof String) {
+				doEmitLoadConstant(this.classFileWriter.doAddValue(value), "java/lang/String");
+			} else {
+				throw new IllegalArgumentException("Illegal constant: " + value);
+			}
+		}
+		
+		public void emitConstantClass(final String internalName) {
+			doEmitLoadConstant(this.classFileWriter.doAddClass(internalName), "java/lang/Class");
+		}
+		
+		public void emitField(final int opcode, final String owner, final String name, final String descriptor) {
+			final int index = this.classFileWriter.doAddMemberReference(CONSTANT_FIELDREF, owner, name, descriptor);
+			
+			final String type = getVerificationType(descriptor);
+			
+			switch(opcode) {
+				case GETFIELD:
+					emitU2(opcode, index, 1, type);
+					
+					break;
+				case GETSTATIC:
+					emitU2(opcode, index, 0, type);
+					
+					break;
+				case PUTFIELD:
+					emitU2(opcode, index, 2, null);
+					
+					break;
+				default:
+					throw new IllegalArgumentException("Illegal opcode: " + opcode);
+			}
+		}
+		
+		public void emitJump(final int opcode, final Label label, final int pops) {
+			doBegin(pops);
+			
+			if(label.stack == null) {
+				label.stack = new ArrayList<>(this.stack);
+			}
+			
+			final int reference = this.length;
+			
+			doWriteByte(opcode);
+			doWriteByte(0);
+			doWriteByte(0);
+			
+			if(label.offset >= 0) {
+				doPatchJump(reference, label.offset);
+			} else {
+				label.references.add(Integer.valueOf(reference));
+			}
+			
+			doEnd(opcode, null);
+		}
+		
+//		Emits an aload or an astore instruction.
+		public void emitLocal(final int opcode, final int index) {
+			if(opcode == ASTORE) {
+				while(this.locals.size() <= index) {
+					this.locals.add(TOP);
+				}
+				
+				this.locals.set(index, this.stack.get(this.stack.size() - 1));
+				
+				emitU1(opcode, index, 1, null);
+			} else {
+				emitU1(opcode, index, 0, this.locals.get(index));
+			}
+		}
+		
+//		Emits an invokestatic, an invokevirtual or an invokespecial instruction. The arguments, and the receiver unless the method is static, are popped, and the return value is pushed.
+		public void emitMethod(final int opcode, final String owner, final String name, final String descriptor) {
+			final int index = this.classFileWriter.doAddMemberReference(CONSTANT_METHODREF, owner, name, descriptor);
+			
+			int pops = opcode == INVOKESTATIC ? 0 : 1;
+			
+			for(int i = 1; descriptor.charAt(i) != ')'; i++) {
+				while(descriptor.charAt(i) == '[') {
+					i++;
+				}
+				
+				if(descriptor.charAt(i) == 'L') {
+					i = descriptor.indexOf(';', i);
+				}
+				
+				pops++;
+			}
+			
+			final String returnDescriptor = descriptor.substring(descriptor.indexOf(')') + 1);
+			
+			emitU2(opcode, index, pops, returnDescriptor.equals("V") ? null : getVerificationType(returnDescriptor));
+		}
+		
+		public void emitType(final int opcode, final String internalName) {
+			final int index = this.classFileWriter.doAddClass(internalName);
+			
+			switch(opcode) {
+				case CHECKCAST:
+					emitU2(opcode, index, 1, internalName);
+					
+					break;
+				case NEW:
+					emitU2(opcode, index, 0, internalName);
+					
+					break;
+				default:
+					throw new IllegalArgumentException("Illegal opcode: " + opcode);
+			}
+		}
+		
+		public void emitU1(final int opcode, final int operand, final int pops, final String push) {
+			doBegin(pops);
+			doWriteByte(opcode);
+			doWriteByte(operand);
+			doEnd(opcode, push);
+		}
+		
+		public void emitU2(final int opcode, final int operand, final int pops, final String push) {
+			doBegin(pops);
+			doWriteByte(opcode);
+			doWriteByte(operand >>> 8);
+			doWriteByte(operand);
+			doEnd(opcode, push);
+		}
+		
+//		Replaces the verification type of the value on top of the operand stack with type, which is a supertype of it. It is used before the values of different branches are merged.
+		public void setStackTop(final String type) {
+			doBegin(1);
+			doEnd(-1, type);
+		}
+		
+		private void doAddFrame(final List<String> locals, final List<String> stack) {
+			if(!this.frames.containsKey(Integer.valueOf(this.length))) {
+				this.frames.put(Integer.valueOf(this.length), new Frame(new ArrayList<>(locals), new ArrayList<>(stack)));
+			}
+		}
+		
+		private void doBegin(final int pops) {
+			if(this.stack == null) {
+				throw new IllegalStateException("The instruction cannot be reached.");
+			}
+			
+			for(int i = 0; i < pops; i++) {
+				this.stack.remove(this.stack.size() - 1);
+			}
+		}
+		
+		private void doEmitLoadConstant(final int index, final String push) {
+			if(index <= 0xFF) {
+				emitU1(LDC, index, 0, push);
+			} else {
+				emitU2(LDC_W, index, 0, push);
+			}
+		}
+		
+		private void doEnd(final int opcode, final String push) {
+			if(push != null) {
+				this.stack.add(push);
+			}
+			
+			int stackSize = 0;
+			
+			for(final String type : this.stack) {
+				stackSize += type.equals("J") || type.equals("D") ? 2 : 1;
+			}
+			
+			this.maximumStackSize = Math.max(this.maximumStackSize, stackSize);
+			
+			if(opcode == ARETURN || opcode == ATHROW || opcode == GOTO || opcode == RETURN) {
+				this.stack = null;
+			}
+			
+			if(this.length > 0xFFFF) {
+				throw new IllegalStateException("The code is too large.");
+			}
+		}
+		
+		private void doPatchJump(final int reference, final int offset) {
+			final int delta = offset - reference;
+			
+			if(delta < Short.MIN_VALUE || delta > Short.MAX_VALUE) {
+				throw new IllegalStateException("The jump is too long.");
+			}
+			
+			this.bytes[reference + 1] = (byte)(delta >>> 8);
+			this.bytes[reference + 2] = (byte)(delta);
+		}
+		
+		private void doWriteByte(final int value) {
+			if(this.length == this.bytes.length) {
+				this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+			}
+			
+			this.bytes[this.length++] = (byte)(value);
+		}
+		
+		private void doWriteVerificationTypes(final ByteArrayOutputStream byteArrayOutputStream, final List<String> types) {
+			doWriteU2(byteArrayOutputStream, types.size());
+			
+			for(final String type : types) {
+				switch(type) {
+					case TOP:
+						doWriteU1(byteArrayOutputStream, 0);
+						
+						break;
+					case "I":
+						doWriteU1(byteArrayOutputStream, 1);
+						
+						break;
+					case "F":
+						doWriteU1(byteArrayOutputStream, 2);
+						
+						break;
+					case "D":
+						doWriteU1(byteArrayOutputStream, 3);
+						
+						break;
+					case "J":
+						doWriteU1(byteArrayOutputStream, 4);
+						
+						break;
+					case NULL:
+						doWriteU1(byteArrayOutputStream, 5);
+						
+						break;
+					default:
+						doWriteU1(byteArrayOutputStream, 7);
+						doWriteU2(byteArrayOutputStream, this.classFileWriter.doAddClass(type));
+						
+						break;
+				}
+			}
+		}
+	}
+	
+//	A Label is an offset in a Code that can be jumped to before or after it has been bound.
+	public static final class Label {
+		private final List<Integer> references;
+		private List<String> stack;
+		private int offset;
+		
+		public Label() {
+			this.references = new ArrayList<>();
+			this.offset = -1;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Frame {
+		public final List<String> locals;
+		public final List<String> stack;
+		
+		public Frame(final List<String> locals, final List<String> stack) {
+			this.locals = locals;
+			this.stack = stack;
+		}
+	}
+}
\ No newline at end of file
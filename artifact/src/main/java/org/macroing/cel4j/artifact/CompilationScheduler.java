@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+final class CompilationScheduler {
+	private static final AtomicInteger IDENTIFIER = new AtomicInteger();
+	private static final ThreadLocal<CompilationScheduler> CURRENT = new ThreadLocal<>();
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final AtomicLong sequence;
+	private final LongAdder admissionDelayCount;
+	private final Object lock;
+	private final ThreadPoolExecutor threadPoolExecutor;
+	private final long minimumFreeMemory;
+	private int activeCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompilationScheduler(final int maximumConcurrency, final long minimumFreeMemory) {
+		this.sequence = new AtomicLong();
+		this.admissionDelayCount = new LongAdder();
+		this.lock = new Object();
+		this.threadPoolExecutor = new ThreadPoolExecutor(maximumConcurrency, maximumConcurrency, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), runnable -> doCreateThread(this, runnable));
+		this.threadPoolExecutor.allowCoreThreadTimeOut(true);
+		this.minimumFreeMemory = minimumFreeMemory;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public <T> CompletableFuture<T> submit(final Callable<T> callable, final CompilationPriority compilationPriority) {
+		Objects.requireNonNull(callable, "callable == null");
+		Objects.requireNonNull(compilationPriority, "compilationPriority == null");
+		
+		final CompletableFuture<T> completableFuture = new CompletableFuture<>();
+		
+		final Task task = new Task(compilationPriority, this.sequence.getAndIncrement(), completableFuture, () -> {
+			try {
+				doAdmit();
+			} catch(final InterruptedException e) {
+				completableFuture.completeExceptionally(e);
+				
+				return;
+			}
+			
+			try {
+				completableFuture.complete(callable.call());
+			} catch(final Throwable t) {
+				completableFuture.completeExceptionally(t);
+			} finally {
+				doRelease();
+			}
+		});
+		
+		try {
+			this.threadPoolExecutor.execute(task);
+		} catch(final RejectedExecutionException e) {
+			completableFuture.completeExceptionally(new IllegalStateException("The compilation scheduler has been shut down."));
+		}
+		
+		return completableFuture;
+	}
+	
+//	Calls callable on a thread of this CompilationScheduler and waits for its result. If the current thread already belongs to this CompilationScheduler, callable is called directly. Otherwise a compilation that schedules another compilation and
+//	waits for it could occupy every thread and deadlock. An evaluation with a Deadline stops waiting once its Deadline has passed.
+	public <T> T call(final Callable<T> callable, final CompilationPriority compilationPriority) throws Exception {
+		if(CURRENT.get() == this) {
+			return callable.call();
+		}
+		
+		try {
+			return Deadline.await(submit(callable, compilationPriority));
+		} catch(final CompletionException e) {
+			final Throwable cause = e.getCause();
+			
+			if(cause instanceof Exception) {
+				throw Exception.class.cast(cause);
+			}
+			
+			if(cause instanceof Error) {
+				throw Error.class.cast(cause);
+			}
+			
+			throw e;
+		}
+	}
+	
+	public int getActiveCount() {
+		synchronized(this.lock) {
+			return this.activeCount;
+		}
+	}
+	
+	public int getMaximumConcurrency() {
+		return this.threadPoolExecutor.getMaximumPoolSize();
+	}
+	
+	public int getQueueSize() {
+		return this.threadPoolExecutor.getQueue().size();
+	}
+	
+	public long getAdmissionDelayCount() {
+		return this.admissionDelayCount.sum();
+	}
+	
+	public void shutdown() {
+		for(final Runnable runnable : this.threadPoolExecutor.shutdownNow()) {
+			Task.class.cast(runnable).cancel();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	A compilation is admitted when enough memory is free. It is always admitted when no other compilation is running, so a heap that is too small to meet the requirement delays compilations but never stops them.
+	private void doAdmit() throws InterruptedException {
+		synchronized(this.lock) {
+			boolean isDelayed = false;
+			
+			while(this.activeCount > 0 && doGetFreeMemory() < this.minimumFreeMemory) {
+				if(!isDelayed) {
+					isDelayed = true;
+					
+					this.admissionDelayCount.increment();
+				}
+				
+				this.lock.wait(100L);
+			}
+			
+			this.activeCount++;
+		}
+	}
+	
+	private void doRelease() {
+		synchronized(this.lock) {
+			this.activeCount--;
+			this.lock.notifyAll();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Thread doCreateThread(final CompilationScheduler compilationScheduler, final Runnable runnable) {
+		final
+		Thread thread = new Thread(() -> {
+			CURRENT.set(compilationScheduler);
+			
+			runnable.run();
+		}, "Artifact-Compiler-" + IDENTIFIER.incrementAndGet());
+		thread.setDaemon(true);
+		
+		return thread;
+	}
+	
+	private static long doGetFreeMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		
+		return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Task implements Comparable<Task>, Runnable {
+		private final CompilationPriority compilationPriority;
+		private final CompletableFuture<?> completableFuture;
+		private final Runnable runnable;
+		private final long sequence;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Task(final CompilationPriority compilationPriority, final long sequence, final CompletableFuture<?> completableFuture, final Runnable runnable) {
+			this.compilationPriority = compilationPriority;
+			this.sequence = sequence;
+			this.completableFuture = completableFuture;
+			this.runnable = runnable;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public int compareTo(final Task task) {
+			final int compare = this.compilationPriority.compareTo(task.compilationPriority);
+			
+			return compare != 0 ? compare : Long.compare(this.sequence, task.sequence);
+		}
+		
+		public void cancel() {
+			this.completableFuture.completeExceptionally(new IllegalStateException("The compilation scheduler has been shut down."));
+		}
+		
+		@Override
+		public void run() {
+			this.runnable.run();
+		}
+	}
+}
\ No newline at end of file
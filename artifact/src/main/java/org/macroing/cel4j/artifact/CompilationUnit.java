@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+final class CompilationUnit {
+	private final Class<?>[] variableClasses;
+	private final PreprocessedScript preprocessedScript;
+	private final String className;
+	private final String key;
+	private final String packageName;
+	private final String registryKey;
+	private final String sourceCode;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompilationUnit(final PreprocessedScript preprocessedScript, final String packageName, final String className, final String sourceCode, final String key, final String registryKey, final Class<?>[] variableClasses) {
+		this.preprocessedScript = Objects.requireNonNull(preprocessedScript, "preprocessedScript == null");
+		this.packageName = Objects.requireNonNull(packageName, "packageName == null");
+		this.className = Objects.requireNonNull(className, "className == null");
+		this.sourceCode = Objects.requireNonNull(sourceCode, "sourceCode == null");
+		this.key = key;
+		this.registryKey = Objects.requireNonNull(registryKey, "registryKey == null");
+		this.variableClasses = Objects.requireNonNull(variableClasses, "variableClasses == null");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Class<?>[] getVariableClasses() {
+		return this.variableClasses;
+	}
+	
+	public Map<String, byte[]> filter(final Map<String, byte[]> classes) {
+		final Map<String, byte[]> filteredClasses = new LinkedHashMap<>();
+		
+		final String name = getName();
+		
+		for(final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			if(entry.getKey().equals(name) || entry.getKey().startsWith(name + "$")) {
+				filteredClasses.put(entry.getKey(), entry.getValue());
+			}
+		}
+		
+		return filteredClasses;
+	}
+	
+	public PreprocessedScript getPreprocessedScript() {
+		return this.preprocessedScript;
+	}
+	
+	public String getClassName() {
+		return this.className;
+	}
+	
+	public String getKey() {
+		return this.key;
+	}
+	
+	public String getName() {
+		return this.packageName + "." + this.className;
+	}
+	
+	public String getPackageName() {
+		return this.packageName;
+	}
+	
+	public String getRegistryKey() {
+		return this.registryKey;
+	}
+	
+	public String getScript() {
+		return this.preprocessedScript.getScript();
+	}
+	
+	public String getSourceCode() {
+		return this.sourceCode;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+final class CompiledScriptCache {
+	private final AtomicLong weight;
+	private final ConcurrentMap<ScriptKey, CompiledScriptCacheEntry> compiledScriptCacheEntries;
+	private final LongAdder evictionCount;
+	private final LongAdder hitCount;
+	private final LongAdder missCount;
+	private final Object lock;
+	private volatile long maximumSize;
+	private volatile long maximumWeight;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompiledScriptCache(final long maximumSize, final long maximumWeight) {
+		this.weight = new AtomicLong();
+		this.compiledScriptCacheEntries = new ConcurrentHashMap<>();
+		this.evictionCount = new LongAdder();
+		this.hitCount = new LongAdder();
+		this.missCount = new LongAdder();
+		this.lock = new Object();
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompiledScript get(final ScriptKey key, final Callable<CompiledScript> callable) throws ScriptException {
+		Objects.requireNonNull(key, "key == null");
+		Objects.requireNonNull(callable, "callable == null");
+		
+		CompiledScriptCacheEntry compiledScriptCacheEntry = this.compiledScriptCacheEntries.get(key);
+		
+		if(compiledScriptCacheEntry == null) {
+			final CompiledScriptCacheEntry newCompiledScriptCacheEntry = new CompiledScriptCacheEntry(key);
+			
+			compiledScriptCacheEntry = this.compiledScriptCacheEntries.putIfAbsent(key, newCompiledScriptCacheEntry);
+			
+			if(compiledScriptCacheEntry == null) {
+				compiledScriptCacheEntry = newCompiledScriptCacheEntry;
+				compiledScriptCacheEntry.setLastAccess(System.nanoTime());
+				
+				this.missCount.increment();
+				
+				doCompile(newCompiledScriptCacheEntry, callable);
+				doEvict();
+				
+				return doGet(newCompiledScriptCacheEntry.getCompiledScript());
+			}
+		}
+		
+		compiledScriptCacheEntry.setLastAccess(System.nanoTime());
+		
+		this.hitCount.increment();
+		
+		return doGet(compiledScriptCacheEntry.getCompiledScript());
+	}
+	
+	public CompiledScript getIfPresent(final ScriptKey key) {
+		final CompiledScriptCacheEntry compiledScriptCacheEntry = this.compiledScriptCacheEntries.get(Objects.requireNonNull(key, "key == null"));
+		
+		if(compiledScriptCacheEntry != null && compiledScriptCacheEntry.isCompleted()) {
+			compiledScriptCacheEntry.setLastAccess(System.nanoTime());
+			
+			this.hitCount.increment();
+			
+			return compiledScriptCacheEntry.getCompiledScript().join();
+		}
+		
+		return null;
+	}
+	
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+	
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+	
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+	
+	public long getSize() {
+		return this.compiledScriptCacheEntries.size();
+	}
+	
+	public long getWeight() {
+		return this.weight.get();
+	}
+	
+	public void clear() {
+		synchronized(this.lock) {
+			for(final CompiledScriptCacheEntry compiledScriptCacheEntry : this.compiledScriptCacheEntries.values()) {
+				doRemove(compiledScriptCacheEntry);
+			}
+		}
+	}
+	
+	public void updateWeight(final ScriptKey key) {
+		synchronized(this.lock) {
+			final CompiledScriptCacheEntry compiledScriptCacheEntry = this.compiledScriptCacheEntries.get(key);
+			
+			if(compiledScriptCacheEntry != null && compiledScriptCacheEntry.isCompleted()) {
+				final long oldWeight = compiledScriptCacheEntry.getWeight();
+				final long newWeight = doGetWeight(key, compiledScriptCacheEntry.getCompiledScript().join());
+				
+				compiledScriptCacheEntry.setWeight(newWeight);
+				
+				this.weight.addAndGet(newWeight - oldWeight);
+			}
+		}
+		
+		doEvict();
+	}
+	
+	public void setMaximumSize(final long maximumSize) {
+		if(this.maximumSize != maximumSize) {
+			this.maximumSize = maximumSize;
+			
+			doEvict();
+		}
+	}
+	
+	public void setMaximumWeight(final long maximumWeight) {
+		if(this.maximumWeight != maximumWeight) {
+			this.maximumWeight = maximumWeight;
+			
+			doEvict();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private boolean doIsExceedingLimits(final long size, final long weight) {
+		return size > this.maximumSize || weight > this.maximumWeight;
+	}
+	
+	private boolean doRemove(final CompiledScriptCacheEntry compiledScriptCacheEntry) {
+		if(this.compiledScriptCacheEntries.remove(compiledScriptCacheEntry.getKey(), compiledScriptCacheEntry)) {
+			this.weight.addAndGet(-compiledScriptCacheEntry.getWeight());
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	private void doCompile(final CompiledScriptCacheEntry compiledScriptCacheEntry, final Callable<CompiledScript> callable) {
+		try {
+			final CompiledScript compiledScript = Objects.requireNonNull(callable.call(), "callable.call() == null");
+			
+			final long weight = doGetWeight(compiledScriptCacheEntry.getKey(), compiledScript);
+			
+			synchronized(this.lock) {
+				if(this.compiledScriptCacheEntries.get(compiledScriptCacheEntry.getKey()) == compiledScriptCacheEntry) {
+					this.weight.addAndGet(weight);
+				}
+				
+				compiledScriptCacheEntry.complete(compiledScript, weight);
+			}
+		} catch(final Exception e) {
+			this.compiledScriptCacheEntries.remove(compiledScriptCacheEntry.getKey(), compiledScriptCacheEntry);
+			
+			compiledScriptCacheEntry.completeExceptionally(e);
+		}
+	}
+	
+	private void doEvict() {
+		if(!doIsExceedingLimits(this.compiledScriptCacheEntries.size(), this.weight.get())) {
+			return;
+		}
+		
+		synchronized(this.lock) {
+			final long maximumSize = this.maximumSize;
+			final long maximumWeight = this.maximumWeight;
+			
+//			Evicting down to a low-water mark amortizes the cost of sorting the entries over several insertions.
+			final long targetSize = maximumSize - maximumSize / 8L;
+			final long targetWeight = maximumWeight - maximumWeight / 8L;
+			
+			final List<CompiledScriptCacheEntry> compiledScriptCacheEntries = new ArrayList<>();
+			
+			for(final CompiledScriptCacheEntry compiledScriptCacheEntry : this.compiledScriptCacheEntries.values()) {
+				if(compiledScriptCacheEntry.isCompleted()) {
+					compiledScriptCacheEntries.add(compiledScriptCacheEntry);
+				}
+			}
+			
+//			The time of the last access is read from System.nanoTime() rather than from a counter shared by all threads, so a hit does not contend with the hits of other threads.
+			compiledScriptCacheEntries.sort(Comparator.comparingLong(CompiledScriptCacheEntry::getLastAccess));
+			
+			for(final CompiledScriptCacheEntry compiledScriptCacheEntry : compiledScriptCacheEntries) {
+				if(this.compiledScriptCacheEntries.size() <= targetSize && this.weight.get() <= targetWeight) {
+					break;
+				}
+				
+				if(doRemove(compiledScriptCacheEntry)) {
+					this.evictionCount.increment();
+				}
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static CompiledScript doGet(final CompletableFuture<CompiledScript> compiledScript) throws ScriptException {
+		try {
+			return compiledScript.get();
+		} catch(final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			
+			if(cause instanceof ScriptException) {
+				throw ScriptException.class.cast(cause);
+			} else if(cause instanceof RuntimeException) {
+				throw RuntimeException.class.cast(cause);
+			} else if(cause instanceof Error) {
+				throw Error.class.cast(cause);
+			}
+			
+			throw new ScriptException(Exception.class.cast(cause));
+		} catch(final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			throw new ScriptException(e);
+		}
+	}
+	
+	private static long doGetWeight(final ScriptKey key, final CompiledScript compiledScript) {
+		final ClassLoader classLoader = compiledScript.getClass().getClassLoader();
+		
+		if(classLoader instanceof ArtifactClassLoader) {
+			return key.length() + ArtifactClassLoader.class.cast(classLoader).getSize();
+		}
+		
+		if(compiledScript instanceof PolymorphicScript) {
+			return key.length() + PolymorphicScript.class.cast(compiledScript).getSize();
+		}
+		
+		return key.length();
+	}
+}
\ No newline at end of file
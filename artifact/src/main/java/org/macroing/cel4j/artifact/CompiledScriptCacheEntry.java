@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import javax.script.CompiledScript;
+
+final class CompiledScriptCacheEntry {
+	private final CompletableFuture<CompiledScript> compiledScript;
+	private final ScriptKey key;
+	private volatile boolean isCompleted;
+	private volatile long lastAccess;
+	private volatile long weight;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompiledScriptCacheEntry(final ScriptKey key) {
+		this.compiledScript = new CompletableFuture<>();
+		this.key = Objects.requireNonNull(key, "key == null");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompletableFuture<CompiledScript> getCompiledScript() {
+		return this.compiledScript;
+	}
+	
+	public ScriptKey getKey() {
+		return this.key;
+	}
+	
+	public boolean isCompleted() {
+		return this.isCompleted;
+	}
+	
+	public long getLastAccess() {
+		return this.lastAccess;
+	}
+	
+	public long getWeight() {
+		return this.weight;
+	}
+	
+	public void complete(final CompiledScript compiledScript, final long weight) {
+		this.weight = weight;
+		this.isCompleted = true;
+		this.compiledScript.complete(compiledScript);
+	}
+	
+	public void completeExceptionally(final Throwable throwable) {
+		this.compiledScript.completeExceptionally(throwable);
+	}
+	
+	public void setLastAccess(final long lastAccess) {
+		this.lastAccess = lastAccess;
+	}
+	
+	public void setWeight(final long weight) {
+		this.weight = weight;
+	}
+}
\ No newline at end of file
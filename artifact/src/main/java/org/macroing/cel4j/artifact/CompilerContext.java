@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+final class CompilerContext implements AutoCloseable {
+	private final JavaCompiler javaCompiler;
+	private final JavaFileManager javaFileManager;
+	private final List<File> classPath;
+	private final List<String> options;
+	private final StandardJavaFileManager standardJavaFileManager;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompilerContext(final JavaCompiler javaCompiler, final List<File> classPath, final List<String> options) throws IOException {
+		this.javaCompiler = Objects.requireNonNull(javaCompiler, "javaCompiler == null");
+		this.classPath = new ArrayList<>(Objects.requireNonNull(classPath, "classPath == null"));
+		this.options = new ArrayList<>(Objects.requireNonNull(options, "options == null"));
+		this.standardJavaFileManager = javaCompiler.getStandardFileManager(null, null, null);
+		this.standardJavaFileManager.setLocation(StandardLocation.CLASS_PATH, this.classPath);
+		this.javaFileManager = new CachingJavaFileManager(this.standardJavaFileManager);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompilationTask getTask(final JavaFileManager javaFileManager, final DiagnosticListener<? super JavaFileObject> diagnosticListener, final Iterable<? extends JavaFileObject> compilationUnits) {
+		return this.javaCompiler.getTask(null, javaFileManager, diagnosticListener, this.options, null, compilationUnits);
+	}
+	
+	public JavaFileManager getJavaFileManager() {
+		return this.javaFileManager;
+	}
+	
+	public StandardJavaFileManager getStandardJavaFileManager() {
+		return this.standardJavaFileManager;
+	}
+	
+	public boolean isCompatibleWith(final List<File> classPath, final List<String> options) {
+		return this.classPath.equals(classPath) && this.options.equals(options);
+	}
+	
+	@Override
+	public void close() {
+		try {
+			this.standardJavaFileManager.close();
+		} catch(final IOException e) {
+//			Do nothing.
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+final class CompilerContextPool {
+	private final AtomicReference<List<String>> options;
+	private final Deque<CompilerContext> compilerContexts;
+	private final int maximumSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompilerContextPool(final List<String> options, final int maximumSize) {
+		this.options = new AtomicReference<>(new ArrayList<>(Objects.requireNonNull(options, "options == null")));
+		this.compilerContexts = new ConcurrentLinkedDeque<>();
+		this.maximumSize = maximumSize;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public CompilerContext acquire() throws IOException {
+		final List<File> classPath = doGetClassPath();
+		final List<String> options = this.options.get();
+		
+		CompilerContext compilerContext = null;
+		
+//		A file manager caches the class path and platform classes it has read, but must not be used by more than one compilation task at a time. Therefore idle CompilerContexts are pooled and discarded once the class path or the options change.
+		while((compilerContext = this.compilerContexts.pollFirst()) != null) {
+			if(compilerContext.isCompatibleWith(classPath, options)) {
+				return compilerContext;
+			}
+			
+			compilerContext.close();
+		}
+		
+		final JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
+		
+		if(javaCompiler == null) {
+			throw new IllegalStateException("No Java compiler is available. Make sure to run Artifact on a JDK, not a JRE.");
+		}
+		
+		return new CompilerContext(javaCompiler, classPath, options);
+	}
+	
+	public List<File> getClassPath() {
+		return doGetClassPath();
+	}
+	
+	public List<String> getOptions() {
+		return new ArrayList<>(this.options.get());
+	}
+	
+	public void clear() {
+		CompilerContext compilerContext = null;
+		
+		while((compilerContext = this.compilerContexts.pollFirst()) != null) {
+			compilerContext.close();
+		}
+	}
+	
+	public void release(final CompilerContext compilerContext) {
+		if(compilerContext.isCompatibleWith(doGetClassPath(), this.options.get()) && this.compilerContexts.size() < this.maximumSize) {
+			this.compilerContexts.offerFirst(compilerContext);
+		} else {
+			compilerContext.close();
+		}
+	}
+	
+	public void setOptions(final List<String> options) {
+		final List<String> newOptions = new ArrayList<>(Objects.requireNonNull(options, "options == null"));
+		final List<String> oldOptions = this.options.getAndSet(newOptions);
+		
+		if(!oldOptions.equals(newOptions)) {
+			clear();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static List<String> parseOptions(final String options) {
+		final List<String> list = new ArrayList<>();
+		
+		for(final String option : options.trim().split("\\s+")) {
+			if(!option.isEmpty()) {
+				list.add(option);
+			}
+		}
+		
+		return list;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static List<File> doGetClassPath() {
+		final ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+		
+		if(classLoader instanceof URLClassLoader) {
+			return doGetClassPath(URLClassLoader.class.cast(classLoader).getURLs());
+		}
+		
+		final List<File> classPath = new ArrayList<>();
+		
+		for(final String pathname : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+			if(!pathname.isEmpty()) {
+				classPath.add(new File(pathname));
+			}
+		}
+		
+		return classPath;
+	}
+	
+	private static List<File> doGetClassPath(final URL[] uRLs) {
+		final List<File> classPath = new ArrayList<>();
+		
+		for(final URL uRL : uRLs) {
+			try {
+				classPath.add(new File(uRL.toURI()));
+			} catch(final URISyntaxException e) {
+				classPath.add(new File(uRL.getPath()));
+			}
+		}
+		
+		return classPath;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.script.ScriptException;
+
+//	A Deadline is the point in time at which the evaluation of a script is cancelled. It is also cancelled if its thread is interrupted before that point in time. The Deadline of the current thread is checked by the variant of a script that is
+//	compiled with calls to ScriptRuntime.checkDeadline() at its loop back-edges and method entries. Most of these calls only decrement a counter. The clock and the interrupt status are read about once every CHECK_PERIOD
+//	nanoseconds, but at most once every MAXIMUM_CHECK_INTERVAL calls.
+final class Deadline {
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+	private static final int MAXIMUM_CHECK_INTERVAL = 1024;
+	private static final long CHECK_PERIOD = 1000000L;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final long nanoTime;
+	private int checkInterval;
+	private int countdown;
+	private long checkTime;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Deadline(final long nanoTime) {
+		this.nanoTime = nanoTime;
+		this.checkInterval = 1;
+		this.countdown = 1;
+		this.checkTime = System.nanoTime();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Calls callable with this Deadline, or the Deadline of the current thread if it is earlier. The callable should both find and evaluate the script, so that the time spent waiting for it to be compiled counts towards the Deadline as well.
+//	A script that is cancelled throws a ScriptCancellationException.
+	public Object call(final Callable<Object> callable) throws ScriptException {
+		final Deadline previous = enter(this);
+		
+		try {
+			return callable.call();
+		} catch(final CancellationError e) {
+			throw new ScriptCancellationException(e.getMessage());
+		} catch(final RuntimeException | ScriptException e) {
+			throw e;
+		} catch(final Exception e) {
+			throw new ScriptException(e);
+		} finally {
+			exit(previous);
+		}
+	}
+	
+	public boolean hasPassed() {
+		return System.nanoTime() - this.nanoTime >= 0L;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static Deadline after(final long timeout) {
+		return new Deadline(System.nanoTime() + Math.max(timeout, 0L));
+	}
+	
+	public static Deadline current() {
+		return CURRENT.get();
+	}
+	
+//	Makes deadline, or the Deadline of the current thread if it is earlier, the Deadline of the current thread. The previous Deadline is returned, so it can be restored using exit(Deadline).
+	public static Deadline enter(final Deadline deadline) {
+		final Deadline previous = CURRENT.get();
+		
+		CURRENT.set(previous != null ? doGetEarliest(previous, deadline) : new Deadline(deadline.nanoTime));
+		
+		return previous;
+	}
+	
+//	Waits for completableFuture, but not beyond the Deadline of the current thread, if it has one. The computation of completableFuture is not cancelled, so a compilation that takes longer than the Deadline still completes in the background.
+	public static <T> T await(final CompletableFuture<T> completableFuture) {
+		final Deadline deadline = CURRENT.get();
+		
+		if(deadline == null) {
+			return completableFuture.join();
+		}
+		
+		try {
+			return completableFuture.get(Math.max(deadline.nanoTime - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+		} catch(final ExecutionException e) {
+			throw new CompletionException(e.getCause());
+		} catch(final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			throw new CancellationError("The evaluation of the script was cancelled.");
+		} catch(final TimeoutException e) {
+			throw new CancellationError("The evaluation of the script exceeded its deadline.");
+		}
+	}
+	
+	public static void check() {
+		final Deadline deadline = CURRENT.get();
+		
+		if(deadline != null && --deadline.countdown <= 0) {
+			deadline.doCheck();
+		}
+	}
+	
+	public static void exit(final Deadline previous) {
+		if(previous != null) {
+			CURRENT.set(previous);
+		} else {
+			CURRENT.remove();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The number of calls until the next check is scaled by how much shorter or longer than CHECK_PERIOD the time since the last check was, but it is at most doubled, so a script whose calls are far apart is checked after the first call that
+//	follows a slow one. Once the evaluation has been cancelled, the next call to check() checks again, so a script that catches the CancellationError is cancelled again.
+	private void doCheck() {
+		final long nanoTime = System.nanoTime();
+		
+		this.checkInterval = (int)(Math.max(Math.min(this.checkInterval * CHECK_PERIOD / Math.max(nanoTime - this.checkTime, 1L), Math.min(this.checkInterval * 2L, MAXIMUM_CHECK_INTERVAL)), 1L));
+		this.checkTime = nanoTime;
+		this.countdown = this.checkInterval;
+		
+		if(Thread.currentThread().isInterrupted()) {
+			this.countdown = 1;
+			
+			throw new CancellationError("The evaluation of the script was cancelled.");
+		}
+		
+		if(nanoTime - this.nanoTime >= 0L) {
+			this.countdown = 1;
+			
+			throw new CancellationError("The evaluation of the script exceeded its deadline.");
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Deadline doGetEarliest(final Deadline a, final Deadline b) {
+		return new Deadline(a.nanoTime - b.nanoTime <= 0L ? a.nanoTime : b.nanoTime);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	An Error is thrown, rather than an Exception, so the generated code of the script does not catch it. It has no stack trace, because it is only used to unwind the stack.
+	private static final class CancellationError extends Error {
+		private static final long serialVersionUID = 1L;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public CancellationError(final String message) {
+			super(message, null, false, false);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+
+//	Evaluates a CompiledScript once for each Bindings in a sequence. Each worker reuses a single ScriptContext, whose engine scope is replaced by the next Bindings before each evaluation. The ScriptContext shares the global scope, the reader and the
+//	writers of the ScriptContext given to the constructor.
+final class EvaluationBatch {
+	private static final int CHUNK_SIZE = 256;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final CompiledScript compiledScript;
+	private final Predicate<Object> predicate;
+	private final ScriptContext scriptContext;
+	private ScriptException failure;
+	private int failureIndex;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public EvaluationBatch(final CompiledScript compiledScript, final ScriptContext scriptContext, final Predicate<Object> predicate) {
+		this.compiledScript = Objects.requireNonNull(compiledScript, "compiledScript == null");
+		this.scriptContext = Objects.requireNonNull(scriptContext, "scriptContext == null");
+		this.predicate = predicate;
+		this.failure = null;
+		this.failureIndex = Integer.MAX_VALUE;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public List<Object> evalAll(final Iterable<? extends Bindings> bindingsIterable) throws ScriptException {
+		final List<Object> results = new ArrayList<>();
+		
+		final ScriptContext scriptContext = doCreateScriptContext();
+		
+		for(final Bindings bindings : bindingsIterable) {
+			final Object result = doEval(scriptContext, bindings);
+			
+			results.add(result);
+			
+			if(this.predicate != null && this.predicate.test(result)) {
+				break;
+			}
+		}
+		
+		return results;
+	}
+	
+//	The items are split into chunks, that are claimed by the workers in order. When a result satisfies the predicate, or an item fails, no chunks after it are claimed, but the chunks before it are still evaluated, so the results are the same as
+//	for a sequential evaluation.
+	public List<Object> evalAll(final List<? extends Bindings> bindingsList, final Executor executor, final int workers) throws ScriptException {
+		final int size = bindingsList.size();
+		
+		final Object[] results = new Object[size];
+		
+		final AtomicInteger cursor = new AtomicInteger();
+		final AtomicInteger limit = new AtomicInteger(size);
+		
+		final Runnable runnable = () -> {
+			final ScriptContext scriptContext = doCreateScriptContext();
+			
+			for(int start = cursor.getAndAdd(CHUNK_SIZE); start < limit.get(); start = cursor.getAndAdd(CHUNK_SIZE)) {
+				final int end = Math.min(start + CHUNK_SIZE, size);
+				
+				for(int i = start; i < end && i < limit.get(); i++) {
+					try {
+						final Object result = results[i] = doEval(scriptContext, bindingsList.get(i));
+						
+						if(this.predicate != null && this.predicate.test(result)) {
+							doSetLimit(limit, i + 1);
+						}
+					} catch(final RuntimeException | ScriptException e) {
+						doSetFailure(i, e instanceof ScriptException ? ScriptException.class.cast(e) : new ScriptException(e));
+						doSetLimit(limit, i + 1);
+					}
+				}
+			}
+		};
+		
+		final CompletableFuture<?>[] completableFutures = new CompletableFuture<?>[Math.max(Math.min(workers, (size + CHUNK_SIZE - 1) / CHUNK_SIZE), 1)];
+		
+		for(int i = 0; i < completableFutures.length; i++) {
+			completableFutures[i] = CompletableFuture.runAsync(runnable, executor);
+		}
+		
+		try {
+			CompletableFuture.allOf(completableFutures).join();
+		} catch(final CompletionException e) {
+			if(e.getCause() instanceof Error) {
+				throw Error.class.cast(e.getCause());
+			}
+			
+			throw new ScriptException(e);
+		}
+		
+		synchronized(this) {
+			if(this.failure != null && this.failureIndex < limit.get()) {
+				throw this.failure;
+			}
+		}
+		
+		return new ArrayList<>(Arrays.asList(results).subList(0, limit.get()));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Object doEval(final ScriptContext scriptContext, final Bindings bindings) throws ScriptException {
+		try {
+			scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+			
+			return this.compiledScript.eval(scriptContext);
+		} catch(final NullPointerException e) {
+			throw new ScriptException(e);
+		}
+	}
+	
+	private ScriptContext doCreateScriptContext() {
+		final
+		ScriptContext scriptContext = new SimpleScriptContext();
+		scriptContext.setBindings(this.scriptContext.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+		scriptContext.setErrorWriter(this.scriptContext.getErrorWriter());
+		scriptContext.setReader(this.scriptContext.getReader());
+		scriptContext.setWriter(this.scriptContext.getWriter());
+		
+		return scriptContext;
+	}
+	
+	private synchronized void doSetFailure(final int index, final ScriptException failure) {
+		if(index < this.failureIndex) {
+			this.failure = failure;
+			this.failureIndex = index;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static void doSetLimit(final AtomicInteger limit, final int index) {
+		for(int current = limit.get(); index < current && !limit.compareAndSet(current, index); current = limit.get()) {
+			
+		}
+	}
+}
\ No newline at end of file
@@ -32,6 +32,7 @@ import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.PrintWriter;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.net.URL;
 import java.util.Objects;
@@ -189,12 +190,12 @@ final class GUI {
 	}
 	
 	private void doConfigureJTextPane() {
-		this.jTextPane.getActionMap().put("Evaluate", new EvaluatingAction(this.jTextPane, this.extension));
+		this.jTextPane.getActionMap().put("Evaluate", new EvaluatingAction(this.jTextPane, this.extension, this.jTextAreaOutputStreamDecoratorOut, this.jTextAreaOutputStreamDecoratorErr));
 		this.jTextPane.getInputMap().put(KeyStroke.getKeyStroke("F5"), "Evaluate");
 	}
 	
 	private void doConfigureJToolBar() {
-		this.jToolBar.add(new EvaluatingAction(this.jTextPane, this.extension)).setIcon(doCreateIcon("Evaluate.png", "Evaluate"));
+		this.jToolBar.add(new EvaluatingAction(this.jTextPane, this.extension, this.jTextAreaOutputStreamDecoratorOut, this.jTextAreaOutputStreamDecoratorErr)).setIcon(doCreateIcon("Evaluate.png", "Evaluate"));
 		this.jToolBar.setFloatable(false);
 	}
 	
@@ -266,9 +267,15 @@ final class GUI {
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
-		public EvaluatingAction(final JTextPane jTextPane, final String extension) {
+		public EvaluatingAction(final JTextPane jTextPane, final String extension, final OutputStream out, final OutputStream err) {
 			this.jTextPane = Objects.requireNonNull(jTextPane, "jTextPane == null");
 			this.scriptEngine = DEFAULT_SCRIPT_ENGINE_MANAGER.getEngineByExtension(extension);
+			
+//			The output of the scripts is written to the writers of the ScriptContext, rather than to System.out and System.err, so they are directed to the JTextArea.
+			if(this.scriptEngine != null) {
+				this.scriptEngine.getContext().setErrorWriter(new PrintWriter(err, true));
+				this.scriptEngine.getContext().setWriter(new PrintWriter(out, true));
+			}
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
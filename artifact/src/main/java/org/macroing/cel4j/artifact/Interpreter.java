@@ -0,0 +1,3568 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+//	An Interpreter evaluates a script without compiling it, if the script only uses a subset of Java. That subset consists of literals, operators, local variables, the variables of the ScriptContext, calls to public methods and constructors,
+//	public fields, arrays, and the if, while, do, for, break, continue, return and throw statements. The static type of each expression is resolved while the script is parsed, in the same way as by the Java compiler, so a method is chosen
+//	by the same overload resolution, and a script whose types do not match is not interpreted. Anything outside the subset, or anything the Java compiler could reject, makes the Interpreter give up, so the script is compiled instead.
+//	A script that consists of a single return statement, whose expression only uses literals, operators, the variables of the ScriptContext and the fields and methods of java.lang.Math, can also be emitted as the bytecode of its class by
+//	BytecodeEmitter, which walks the Expression parsed by parseReturnExpression. The Expression classes are package-private for that reason.
+final class Interpreter {
+	static final Class<?> NULL_TYPE = Void.class;
+	private static final ClassValue<Method[]> METHODS = new ClassValue<Method[]>() {
+		@Override
+		protected Method[] computeValue(final Class<?> clazz) {
+			return doGetMethods(clazz);
+		}
+	};
+	private static final Map<String, Optional<Class<?>>> CLASSES = new ConcurrentHashMap<>();
+	private static final Map<List<Object>, MethodHandle> METHOD_HANDLES = new ConcurrentHashMap<>();
+	private static final Set<String> SCRIPT_METHOD_NAMES = doGetScriptMethodNames();
+	private static final String[] OPERATORS = {">>>=", "<<=", ">>=", ">>>", "...", "->", "::", "++", "--", "&&", "||", "==", "!=", "<=", ">=", "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<", ">>"};
+	private static final int MAXIMUM_CLASSES = 4096;
+	private static final int STATUS_BREAK = 1;
+	private static final int STATUS_CONTINUE = 2;
+	private static final int STATUS_NORMAL = 0;
+	private static final int STATUS_RETURN = 3;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final Deque<Map<String, Local>> scopes;
+	private final List<String> importStatements;
+	private final List<Token> tokens;
+	private final Map<String, Optional<Class<?>>> classes;
+	private final String packageName;
+	private boolean isParameterizedType;
+	private int index;
+	private int loops;
+	private int slots;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Interpreter(final String script, final List<String> importStatements, final String packageName) {
+		this.tokens = doTokenize(script);
+		this.importStatements = importStatements;
+		this.packageName = packageName;
+		this.classes = new HashMap<>();
+		this.scopes = new ArrayDeque<>();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Returns a CompiledScript that interprets preprocessedScript for the variable types in variableTypes, or null if it cannot be interpreted. Once the CompiledScript has been evaluated about threshold times, onThreshold is run, so the script
+//	can be compiled. Each iteration of a loop counts as a small part of an evaluation.
+	public static CompiledScript interpret(final ArtifactScriptEngine artifactScriptEngine, final PreprocessedScript preprocessedScript, final Map<String, Class<?>> variableTypes, final List<String> importStatements, final String packageName, final int threshold, final Runnable onThreshold) {
+		final String[] variableNames = preprocessedScript.getVariableNames();
+		
+		final Class<?>[] types = new Class<?>[variableNames.length];
+		
+		final Map<String, String> replacements = new HashMap<>();
+		
+		for(int i = 0; i < variableNames.length; i++) {
+			final Class<?> clazz = variableTypes.get(variableNames[i]);
+			
+			types[i] = Types.getAccessibleClass(clazz != null ? clazz : Object.class);
+			
+			replacements.put(variableNames[i], "$" + variableNames[i]);
+		}
+		
+		final String body = preprocessedScript.getBody(replacements);
+		
+		if(preprocessedScript.hasMembers() || body.contains("\\u")) {
+			return null;
+		}
+		
+		try {
+			final Interpreter interpreter = new Interpreter(body, importStatements, packageName);
+			
+			final Statement statement = interpreter.doParseProgram(variableNames, types);
+			
+			return new InterpretedScript(artifactScriptEngine, statement, variableNames, types, interpreter.slots, preprocessedScript.isWritingOutput(), threshold, onThreshold);
+		} catch(final UnsupportedSyntaxException e) {
+			return null;
+		}
+	}
+	
+//	Returns the Expression of the return statement that body consists of, or null if body consists of anything else or cannot be interpreted. The variables in variableNames have the types in types, and the slot of each variable is its index.
+//	BytecodeEmitter uses the Expression to emit the class of a script without the Java compiler.
+	public static Expression parseReturnExpression(final String body, final List<String> importStatements, final String packageName, final String[] variableNames, final Class<?>[] types) {
+		try {
+			final Statement statement = new Interpreter(body, importStatements, packageName).doParseProgram(variableNames, types);
+			
+			return statement instanceof Return ? Return.class.cast(statement).expression : null;
+		} catch(final UnsupportedSyntaxException e) {
+			return null;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Class<?> doFindClass(final String name) {
+		final Optional<Class<?>> cachedClass = CLASSES.get(name);
+		
+		if(cachedClass != null) {
+			return cachedClass.orElse(null);
+		}
+		
+		Class<?> clazz = null;
+		
+		for(String currentName = name; clazz == null && currentName.lastIndexOf('.') > 0; currentName = currentName.substring(0, currentName.lastIndexOf('.')) + "$" + currentName.substring(currentName.lastIndexOf('.') + 1)) {
+			try {
+				clazz = Class.forName(currentName, false, ArtifactScriptEngine.class.getClassLoader());
+			} catch(final ClassNotFoundException | LinkageError e) {
+				clazz = null;
+			}
+		}
+		
+		if(CLASSES.size() >= MAXIMUM_CLASSES) {
+			CLASSES.clear();
+		}
+		
+		CLASSES.put(name, Optional.ofNullable(clazz));
+		
+		return clazz;
+	}
+	
+	private Class<?> doFindNestedClass(final Class<?> clazz, final String name) {
+		for(final Class<?> nestedClass : clazz.getClasses()) {
+			if(nestedClass.getSimpleName().equals(name)) {
+				return nestedClass;
+			}
+		}
+		
+		return null;
+	}
+	
+	private Class<?> doParseDimensions(final Class<?> type) {
+		Class<?> currentType = type;
+		
+		while(doIsOperator("[") && doPeek(1).text.equals("]")) {
+			doNext();
+			doNext();
+			
+			currentType = doGetArrayClass(currentType);
+		}
+		
+		return currentType;
+	}
+	
+	private Class<?> doParseType() {
+		final Class<?> type = doTryParseType();
+		
+		if(type == null) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return type;
+	}
+	
+//	Parses a qualified name that denotes a class or a primitive type, followed by type arguments, which are ignored as they are by the Java Virtual Machine. Returns null, without consuming anything, if there is no such name. Whether any type arguments were given is kept in isParameterizedType.
+	private Class<?> doParseTypeName() {
+		final int start = this.index;
+		
+		this.isParameterizedType = false;
+		
+		final Token token = doNext();
+		
+		if(token.kind != Token.IDENTIFIER) {
+			this.index = start;
+			
+			return null;
+		}
+		
+		if(doIsPrimitiveTypeName(token.text) || token.text.equals("void")) {
+			return doGetPrimitiveType(token.text);
+		}
+		
+		if(Lexers.isKeyword(token.text) || token.text.equals("var") || doFindLocal(token.text) != null) {
+			this.index = start;
+			
+			return null;
+		}
+		
+		Class<?> clazz = doResolveClass(token.text);
+		
+		final StringBuilder name = new StringBuilder(token.text);
+		
+		while(clazz == null && doIsOperator(".") && doPeek(1).kind == Token.IDENTIFIER) {
+			doNext();
+			
+			name.append('.');
+			name.append(doNext().text);
+			
+			clazz = doFindClass(name.toString());
+		}
+		
+		if(clazz == null) {
+			this.index = start;
+			
+			return null;
+		}
+		
+		this.isParameterizedType |= doSkipTypeArguments();
+		
+		while(doIsOperator(".") && doPeek(1).kind == Token.IDENTIFIER) {
+			final Class<?> nestedClass = doFindNestedClass(clazz, doPeek(1).text);
+			
+			if(nestedClass == null) {
+				break;
+			}
+			
+			doNext();
+			doNext();
+			
+			clazz = nestedClass;
+			
+			this.isParameterizedType |= doSkipTypeArguments();
+		}
+		
+		return clazz;
+	}
+	
+	private Class<?> doRequireType() {
+		final Class<?> type = doParseType();
+		
+		if(doPeek().kind != Token.IDENTIFIER) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return type;
+	}
+	
+	private Class<?> doResolveClass(final String name) {
+		final Optional<Class<?>> resolvedClass = this.classes.get(name);
+		
+		if(resolvedClass != null) {
+			return resolvedClass.orElse(null);
+		}
+		
+		final Class<?> clazz = doResolveClassUncached(name);
+		
+		this.classes.put(name, Optional.ofNullable(clazz));
+		
+		return clazz;
+	}
+	
+//	Single-type imports shadow the classes in the package of the script, which shadow the classes imported on demand. A name that is imported on demand from more than one package is ambiguous.
+	private Class<?> doResolveClassUncached(final String name) {
+		for(final String importStatement : this.importStatements) {
+			if(!doIsStaticImport(importStatement) && !doIsOnDemandImport(importStatement) && doGetImportedName(importStatement).endsWith("." + name)) {
+				final Class<?> clazz = doFindClass(doGetImportedName(importStatement));
+				
+				if(clazz != null) {
+					return clazz;
+				}
+			}
+		}
+		
+		final Class<?> packageClass = doFindClass(this.packageName + "." + name);
+		
+		if(packageClass != null) {
+			return packageClass;
+		}
+		
+		final Set<Class<?>> classes = new LinkedHashSet<>();
+		
+		final Class<?> langClass = doFindClass("java.lang." + name);
+		
+		if(langClass != null) {
+			classes.add(langClass);
+		}
+		
+		for(final String importStatement : this.importStatements) {
+			if(!doIsStaticImport(importStatement) && doIsOnDemandImport(importStatement)) {
+				final Class<?> clazz = doFindClass(doGetImportedName(importStatement) + "." + name);
+				
+				if(clazz != null) {
+					classes.add(clazz);
+				}
+			}
+		}
+		
+		if(classes.size() > 1) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return classes.isEmpty() ? null : classes.iterator().next();
+	}
+	
+	private Class<?> doTryParseType() {
+		final Class<?> type = doParseTypeName();
+		
+		if(type == null || type == void.class) {
+			return null;
+		}
+		
+		return doParseDimensions(type);
+	}
+	
+	private Expression doConvertCompound(final Expression expression, final Class<?> type) {
+		if(type == String.class) {
+			return expression;
+		}
+		
+		final Class<?> primitiveType = type.isPrimitive() ? type : doUnbox(type);
+		
+		if(primitiveType == null) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Expression converted = expression.type == boolean.class ? expression : doConvertForCast(expression, primitiveType);
+		
+		return type.isPrimitive() ? converted : new Convert(type, converted, Convert.CAST);
+	}
+	
+	private Expression doConvertCondition(final Expression expression) {
+		final Class<?> type = doRequireValue(expression).type;
+		
+		if(type == boolean.class) {
+			return expression;
+		}
+		
+		if(type == Boolean.class) {
+			return new Convert(boolean.class, expression, Convert.NULL_CHECK);
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private Expression doConvertForAssignment(final Expression expression, final Class<?> type, final boolean isConstantNarrowingAllowed) {
+		final Class<?> expressionType = doRequireValue(expression).type;
+		
+		if(expressionType == type) {
+			return expression;
+		}
+		
+		if(expressionType == NULL_TYPE || expression.isInexact) {
+			if(type.isPrimitive()) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			return expressionType == NULL_TYPE || type.isAssignableFrom(expressionType) ? expression : new Convert(type, expression, Convert.CAST);
+		}
+		
+		final Class<?> primitiveType = expressionType.isPrimitive() ? expressionType : doUnbox(expressionType);
+		
+		if(type.isPrimitive()) {
+			if(primitiveType == type) {
+				return new Convert(type, expression, Convert.NULL_CHECK);
+			}
+			
+			if(primitiveType != null && doIsWidening(primitiveType, type)) {
+				return doConvertNumber(expression, type);
+			}
+			
+			if(isConstantNarrowingAllowed && doIsConstantNarrowing(expression, type)) {
+				return doConvertNumber(expression, type);
+			}
+			
+			throw new UnsupportedSyntaxException();
+		}
+		
+		if(expressionType.isPrimitive()) {
+			if(type.isAssignableFrom(doBox(expressionType))) {
+				return expression;
+			}
+			
+			final Class<?> unboxedType = doUnbox(type);
+			
+			if(isConstantNarrowingAllowed && unboxedType != null && unboxedType != int.class && doIsConstantNarrowing(expression, unboxedType)) {
+				return new Convert(type, doConvertNumber(expression, unboxedType), Convert.CAST);
+			}
+			
+			throw new UnsupportedSyntaxException();
+		}
+		
+		if(type.isAssignableFrom(expressionType)) {
+			return expression;
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private Expression doConvertForCast(final Expression expression, final Class<?> type) {
+		final Class<?> expressionType = doRequireValue(expression).type;
+		
+		if(expressionType == type) {
+			return expression;
+		}
+		
+		if(type.isPrimitive()) {
+			if(expressionType.isPrimitive()) {
+				if(type == boolean.class || expressionType == boolean.class) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				return doConvertNumber(expression, type);
+			}
+			
+			final Class<?> unboxedType = doUnbox(expressionType);
+			
+			if(unboxedType == type) {
+				return new Convert(type, expression, Convert.NULL_CHECK);
+			}
+			
+			if(unboxedType != null && doIsWidening(unboxedType, type)) {
+				return doConvertNumber(expression, type);
+			}
+			
+			if(unboxedType == null && expressionType != NULL_TYPE && expressionType.isAssignableFrom(doBox(type))) {
+				return new Convert(type, new Convert(doBox(type), expression, Convert.CAST), Convert.NULL_CHECK);
+			}
+			
+			throw new UnsupportedSyntaxException();
+		}
+		
+		if(expressionType.isPrimitive()) {
+			if(type.isAssignableFrom(doBox(expressionType))) {
+				return new Convert(type, expression, Convert.CAST);
+			}
+			
+			throw new UnsupportedSyntaxException();
+		}
+		
+		if(expressionType == NULL_TYPE || doIsCastable(expressionType, type)) {
+			return new Convert(type, expression, Convert.CAST);
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private Expression doConvertIndex(final Expression expression) {
+		final Class<?> type = doGetUnaryPromotedType(doRequireValue(expression).type);
+		
+		if(type != int.class) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return doConvertNumber(expression, int.class);
+	}
+	
+	private Expression doConvertNumber(final Expression expression, final Class<?> type) {
+		if(expression.type == type) {
+			return expression;
+		}
+		
+		if(expression instanceof Literal && expression.isConstant) {
+			return new Literal(type, Convert.convertNumber(Literal.class.cast(expression).value, type), true);
+		}
+		
+		return new Convert(type, expression, Convert.NUMBER);
+	}
+	
+	private Expression doCreateBinary(final String operator, final Expression a, final Expression b) {
+		return doFold(doCreateOperator(operator, a, b));
+	}
+	
+//	A compound assignment, such as "a[i] += b", or an increment, such as "a[i]++", evaluates the variable once. The array and the index are stored in hidden local variables, as is the previous value for a postfix increment.
+	private Expression doCreateCompoundAssignment(final Expression variable, final String operator, final Expression value, final boolean isPostfix) {
+		final Class<?> type = doRequireValue(variable).type;
+		
+		if(variable instanceof LocalLoad) {
+			final Local local = doGetLocal(LocalLoad.class.cast(variable).slot);
+			
+			if(isPostfix) {
+				final int slot = this.slots++;
+				
+				final Expression store = new LocalStore(type, local.slot, doConvertCompound(doCreateBinary(operator, new LocalLoad(type, slot), value), type));
+				
+				return new Sequence(new Expression[] {new LocalStore(type, slot, variable), store, new LocalLoad(type, slot)});
+			}
+			
+			return new LocalStore(type, local.slot, doConvertCompound(doCreateBinary(operator, variable, value), type));
+		}
+		
+		if(variable instanceof ArrayLoad) {
+			final ArrayLoad arrayLoad = ArrayLoad.class.cast(variable);
+			
+			final int arraySlot = this.slots++;
+			final int indexSlot = this.slots++;
+			
+			final Expression array = new LocalLoad(arrayLoad.array.type, arraySlot);
+			final Expression index = new LocalLoad(int.class, indexSlot);
+			final Expression load = new ArrayLoad(type, array, index);
+			
+			if(isPostfix) {
+				final int slot = this.slots++;
+				
+				final Expression store = new ArrayStore(type, array, index, doConvertCompound(doCreateBinary(operator, new LocalLoad(type, slot), value), type));
+				
+				return new Sequence(new Expression[] {new LocalStore(arrayLoad.array.type, arraySlot, arrayLoad.array), new LocalStore(int.class, indexSlot, arrayLoad.index), new LocalStore(type, slot, load), store, new LocalLoad(type, slot)});
+			}
+			
+			final Expression store = new ArrayStore(type, array, index, doConvertCompound(doCreateBinary(operator, load, value), type));
+			
+			return new Sequence(new Expression[] {new LocalStore(arrayLoad.array.type, arraySlot, arrayLoad.array), new LocalStore(int.class, indexSlot, arrayLoad.index), store});
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private Expression doCreateFieldAccess(final Expression target, final Class<?> clazz, final String name) {
+		final Class<?> type = target != null ? doRequireValue(target).type : clazz;
+		
+		if(type.isPrimitive() || type == NULL_TYPE || type.isArray()) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		if(target == null) {
+			final Class<?> nestedClass = doFindNestedClass(type, name);
+			
+			if(nestedClass != null) {
+				throw new UnsupportedSyntaxException();
+			}
+		}
+		
+		try {
+			final Field field = type.getField(name);
+			
+			if(Modifier.isStatic(field.getModifiers()) != (target == null)) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			final Class<?> owner = doIsAccessible(type) ? type : field.getDeclaringClass();
+			
+			final MethodHandle methodHandle = target == null ? MethodHandles.publicLookup().findStaticGetter(owner, name, field.getType()) : MethodHandles.publicLookup().findGetter(owner, name, field.getType());
+			
+			final Class<?> fieldType = Types.getAccessibleClass(field.getType());
+			
+			return new FieldLoad(fieldType, field, target == null ? methodHandle.asType(MethodType.methodType(Object.class)) : methodHandle.asType(MethodType.methodType(Object.class, Object.class)), target);
+		} catch(final IllegalAccessException | NoSuchFieldException | RuntimeException e) {
+			throw new UnsupportedSyntaxException();
+		}
+	}
+	
+	private Expression doCreateIncrement(final Expression variable, final String operator, final boolean isPostfix) {
+		final Class<?> type = doRequireValue(variable).type;
+		
+		final Class<?> primitiveType = type.isPrimitive() ? type : doUnbox(type);
+		
+		if(primitiveType == null || primitiveType == boolean.class) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return doCreateCompoundAssignment(variable, operator, new Literal(int.class, Integer.valueOf(1), true), isPostfix);
+	}
+	
+	private Expression doCreateMethodCall(final Expression target, final Class<?> clazz, final String name, final Expression[] arguments) {
+		final List<Executable> executables = new ArrayList<>();
+		
+		Class<?> type = null;
+		
+		if(target != null) {
+			type = doRequireValue(target).type;
+			
+			if(type.isPrimitive() || type == NULL_TYPE) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			for(final Method method : METHODS.get(type)) {
+				if(method.getName().equals(name)) {
+					executables.add(method);
+				}
+			}
+		} else if(clazz != null) {
+			type = clazz;
+			
+			for(final Method method : METHODS.get(type)) {
+				if(method.getName().equals(name) && Modifier.isStatic(method.getModifiers())) {
+					executables.add(method);
+				}
+			}
+		} else {
+			for(final Class<?> staticImportClass : doGetStaticImportClasses(name)) {
+				for(final Method method : METHODS.get(staticImportClass)) {
+					if(method.getName().equals(name) && Modifier.isStatic(method.getModifiers())) {
+						executables.add(method);
+					}
+				}
+			}
+		}
+		
+		final Resolution resolution = doResolve(executables, arguments);
+		
+		final Method method = Method.class.cast(resolution.executable);
+		
+		final boolean isStatic = Modifier.isStatic(method.getModifiers());
+		
+		final Class<?> owner = type != null && doIsAccessible(type) ? type : method.getDeclaringClass();
+		
+		final Expression expression = new Invoke(Types.getAccessibleClass(method.getReturnType()), method, doGetMethodHandle(owner, method), isStatic ? null : target, doConvertArguments(resolution, arguments));
+		
+		final Type genericReturnType = method.getGenericReturnType();
+		
+//		The return type of a generic method, such as List.get(int), is erased. The type given by the Java compiler may be more specific, so the value is cast where it is assigned, as it is by the Java compiler. If the type of the target is raw, the Java compiler uses the erased type as well.
+		expression.isInexact = !(genericReturnType instanceof Class) && !(genericReturnType instanceof ParameterizedType) && (method.getTypeParameters().length > 0 || target != null && target.isParameterized);
+		expression.isParameterized = genericReturnType instanceof ParameterizedType;
+		expression.isStatementExpression = true;
+		
+		return isStatic && target != null ? new Sequence(new Expression[] {target, expression}) : expression;
+	}
+	
+	private Expression doCreateOperator(final String operator, final Expression a, final Expression b) {
+		final Class<?> typeA = doRequireValue(a).type;
+		final Class<?> typeB = doRequireValue(b).type;
+		
+		final boolean isConstant = a.isConstant && b.isConstant;
+		
+		if(operator.equals("+") && (typeA == String.class || typeB == String.class)) {
+			return new Concatenate(a, b, isConstant);
+		}
+		
+		switch(operator) {
+			case "+":
+			case "-":
+			case "*":
+			case "/":
+			case "%": {
+				final Class<?> type = doGetBinaryPromotedType(typeA, typeB);
+				
+				return new Arithmetic(type, operator.charAt(0), doConvertNumber(a, type), doConvertNumber(b, type), isConstant);
+			}
+			case "<<":
+			case ">>":
+			case ">>>": {
+				final Class<?> type = doGetUnaryPromotedType(typeA);
+				final Class<?> distanceType = doGetUnaryPromotedType(typeB);
+				
+				if(type != int.class && type != long.class || distanceType != int.class && distanceType != long.class) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				return new Shift(type, operator, doConvertNumber(a, type), doConvertNumber(b, distanceType), isConstant);
+			}
+			case "&":
+			case "|":
+			case "^": {
+				if(doIsBoolean(typeA) && doIsBoolean(typeB)) {
+					return new Logical(operator, doConvertCondition(a), doConvertCondition(b), isConstant);
+				}
+				
+				final Class<?> type = doGetBinaryPromotedType(typeA, typeB);
+				
+				if(type != int.class && type != long.class) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				return new Arithmetic(type, operator.charAt(0), doConvertNumber(a, type), doConvertNumber(b, type), isConstant);
+			}
+			case "&&":
+			case "||":
+				return new Logical(operator, doConvertCondition(a), doConvertCondition(b), isConstant);
+			case "==":
+			case "!=": {
+				final boolean isNegated = operator.equals("!=");
+				
+				if((typeA.isPrimitive() || typeB.isPrimitive()) && doIsBoolean(typeA) && doIsBoolean(typeB)) {
+					return new Compare(boolean.class, isNegated ? "!=" : "==", doConvertCondition(a), doConvertCondition(b), isConstant);
+				}
+				
+				if(typeA.isPrimitive() || typeB.isPrimitive()) {
+					final Class<?> type = doGetBinaryPromotedType(typeA, typeB);
+					
+					return new Compare(type, operator, doConvertNumber(a, type), doConvertNumber(b, type), isConstant);
+				}
+				
+				if(typeA != NULL_TYPE && typeB != NULL_TYPE && !doIsCastable(typeA, typeB)) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				return new Compare(Object.class, operator, a, b, false);
+			}
+			case "<":
+			case ">":
+			case "<=":
+			case ">=": {
+				final Class<?> type = doGetBinaryPromotedType(typeA, typeB);
+				
+				return new Compare(type, operator, doConvertNumber(a, type), doConvertNumber(b, type), isConstant);
+			}
+			default:
+				throw new UnsupportedSyntaxException();
+		}
+	}
+	
+	private Expression doCreateStaticImportFieldAccess(final String name) {
+		for(final Class<?> staticImportClass : doGetStaticImportClasses(name)) {
+			try {
+				final Field field = staticImportClass.getField(name);
+				
+				if(Modifier.isStatic(field.getModifiers())) {
+					return doCreateFieldAccess(null, staticImportClass, name);
+				}
+			} catch(final NoSuchFieldException e) {
+				continue;
+			}
+		}
+		
+		return null;
+	}
+	
+//	A constant expression is evaluated once, while the script is parsed. A constant String is interned, as it is by the Java compiler. If evaluating it throws an exception, such as for a division by zero, it is evaluated each time instead.
+	private Expression doFold(final Expression expression) {
+		if(!expression.isConstant || expression instanceof Literal) {
+			return expression;
+		}
+		
+		try {
+			final Object value = expression.evaluate(null);
+			
+			return new Literal(expression.type, value instanceof String ? String.class.cast(value).intern() : value, true);
+		} catch(final Throwable t) {
+			return expression;
+		}
+	}
+	
+	private Expression doParseAdditive() {
+		Expression expression = doParseMultiplicative();
+		
+		while(doIsOperator("+") || doIsOperator("-")) {
+			final String operator = doNext().text;
+			
+			expression = doCreateBinary(operator, expression, doParseMultiplicative());
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseArrayInitializer(final Class<?> arrayType) {
+		final Class<?> componentType = arrayType.getComponentType();
+		
+		if(componentType.isArray()) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		doExpect("{");
+		
+		final List<Expression> elements = new ArrayList<>();
+		
+		while(!doIsOperator("}")) {
+			elements.add(doConvertForAssignment(doParseExpression(), componentType, true));
+			
+			if(!doAccept(",")) {
+				break;
+			}
+		}
+		
+		doExpect("}");
+		
+		return new NewArrayInitializer(arrayType, elements.toArray(new Expression[elements.size()]));
+	}
+	
+	private Expression doParseAssignment() {
+		final Expression expression = doParseConditional();
+		
+		final Token token = doPeek();
+		
+		if(token.kind != Token.OPERATOR || !token.text.endsWith("=") || token.text.equals("==") || token.text.equals("!=") || token.text.equals("<=") || token.text.equals(">=")) {
+			return expression;
+		}
+		
+		doNext();
+		
+		final Expression value = doParseAssignment();
+		
+		if(token.text.equals("=")) {
+			if(expression instanceof LocalLoad) {
+				final Local local = doGetLocal(LocalLoad.class.cast(expression).slot);
+				
+				return new LocalStore(local.type, local.slot, doConvertForAssignment(value, local.type, true));
+			}
+			
+			if(expression instanceof ArrayLoad) {
+				final ArrayLoad arrayLoad = ArrayLoad.class.cast(expression);
+				
+				return new ArrayStore(arrayLoad.type, arrayLoad.array, arrayLoad.index, doConvertForAssignment(value, arrayLoad.type, true));
+			}
+			
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return doCreateCompoundAssignment(expression, token.text.substring(0, token.text.length() - 1), value, false);
+	}
+	
+	private Expression doParseBitwise(final int level) {
+		final String operator = level == 0 ? "|" : level == 1 ? "^" : "&";
+		
+		Expression expression = level < 2 ? doParseBitwise(level + 1) : doParseEquality();
+		
+		while(doIsOperator(operator)) {
+			doNext();
+			
+			expression = doCreateBinary(operator, expression, level < 2 ? doParseBitwise(level + 1) : doParseEquality());
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseConditional() {
+		final Expression condition = doParseLogicalOr();
+		
+		if(!doAccept("?")) {
+			return condition;
+		}
+		
+		final Expression a = doParseExpression();
+		
+		doExpect(":");
+		
+		final Expression b = doParseConditional();
+		
+		final Class<?> type = doGetConditionalType(doRequireValue(a).type, doRequireValue(b).type);
+		
+		return doFold(new Conditional(type, doConvertCondition(condition), doConvertForCast(a, type), doConvertForCast(b, type)));
+	}
+	
+	private Expression doParseEquality() {
+		Expression expression = doParseRelational();
+		
+		while(doIsOperator("==") || doIsOperator("!=")) {
+			final String operator = doNext().text;
+			
+			expression = doCreateBinary(operator, expression, doParseRelational());
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseExpression() {
+		return doParseAssignment();
+	}
+	
+	private Expression doParseLogicalAnd() {
+		Expression expression = doParseBitwise(0);
+		
+		while(doAccept("&&")) {
+			expression = doCreateBinary("&&", expression, doParseBitwise(0));
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseLogicalOr() {
+		Expression expression = doParseLogicalAnd();
+		
+		while(doAccept("||")) {
+			expression = doCreateBinary("||", expression, doParseLogicalAnd());
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseMultiplicative() {
+		Expression expression = doParseUnary();
+		
+		while(doIsOperator("*") || doIsOperator("/") || doIsOperator("%")) {
+			final String operator = doNext().text;
+			
+			expression = doCreateBinary(operator, expression, doParseUnary());
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseNew() {
+		final Class<?> clazz = doParseTypeName();
+		
+		final boolean isParameterized = this.isParameterizedType;
+		
+		if(clazz == null) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		if(doIsOperator("[")) {
+			doNext();
+			
+			if(doAccept("]")) {
+				final Class<?> arrayType = doParseDimensions(doGetArrayClass(clazz));
+				
+				return doParseArrayInitializer(arrayType);
+			}
+			
+			final Expression length = doConvertIndex(doParseExpression());
+			
+			doExpect("]");
+			
+			if(doIsOperator("[") || clazz == void.class) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			return new NewArray(doGetArrayClass(clazz), length);
+		}
+		
+		if(clazz.isPrimitive() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isEnum()) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Expression[] arguments = doParseArguments();
+		
+		if(doIsOperator("{")) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final List<Executable> executables = new ArrayList<>(Arrays.asList(clazz.getConstructors()));
+		
+		final Resolution resolution = doResolve(executables, arguments);
+		
+		final Expression expression = new Invoke(clazz, resolution.executable, doGetMethodHandle(clazz, resolution.executable), null, doConvertArguments(resolution, arguments));
+		
+		expression.isParameterized = isParameterized;
+		expression.isStatementExpression = true;
+		
+		return expression;
+	}
+	
+	private Expression doParsePostfix(final Expression primary) {
+		Expression expression = primary;
+		
+		while(true) {
+			if(doAccept(".")) {
+				final Token name = doExpectIdentifier();
+				
+				if(doIsOperator("(")) {
+					expression = doCreateMethodCall(expression, null, name.text, doParseArguments());
+				} else if(expression.type.isArray() && name.text.equals("length")) {
+					expression = new ArrayLength(expression);
+				} else {
+					expression = doCreateFieldAccess(expression, null, name.text);
+				}
+			} else if(doAccept("[")) {
+				if(!expression.type.isArray()) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				final Expression index = doConvertIndex(doParseExpression());
+				
+				doExpect("]");
+				
+				expression = new ArrayLoad(expression.type.getComponentType(), expression, index);
+			} else if(doIsOperator("++") || doIsOperator("--")) {
+				final String operator = doNext().text;
+				
+				expression = doCreateIncrement(expression, operator.substring(1), true);
+			} else {
+				return expression;
+			}
+		}
+	}
+	
+	private Expression doParsePrimary() {
+		final Token token = doNext();
+		
+		if(token.kind == Token.LITERAL) {
+			return new Literal(token.type, token.value, true);
+		}
+		
+		if(token.kind == Token.OPERATOR) {
+			if(token.text.equals("(")) {
+				final Expression expression = doParseExpression();
+				
+				doExpect(")");
+				
+				return expression.isStatementExpression ? new Parenthesized(expression) : expression;
+			}
+			
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final String name = token.text;
+		
+		switch(name) {
+			case "true":
+				return new Literal(boolean.class, Boolean.TRUE, true);
+			case "false":
+				return new Literal(boolean.class, Boolean.FALSE, true);
+			case "null":
+				return new Literal(NULL_TYPE, null, false);
+			case "new":
+				return doParseNew();
+			default:
+				break;
+		}
+		
+		final Local local = doFindLocal(name);
+		
+		if(local != null) {
+			if(local.constantValue != null) {
+				return new Literal(local.type, local.constantValue, true);
+			}
+			
+			final Expression expression = new LocalLoad(local.type, local.slot);
+			
+			expression.isParameterized = local.isParameterized;
+			
+			return expression;
+		}
+		
+		if(doIsOperator("(")) {
+			if(SCRIPT_METHOD_NAMES.contains(name) || Lexers.isKeyword(name)) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			return doCreateMethodCall(null, null, name, doParseArguments());
+		}
+		
+		if(name.equals("out") || name.equals("err")) {
+			return new Literal(PrintStream.class, name.equals("out") ? ScriptOutput.OUT : ScriptOutput.ERR, false);
+		}
+		
+		if(Lexers.isKeyword(name) && !doIsPrimitiveTypeName(name) && !name.equals("void")) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Expression staticField = doIsPrimitiveTypeName(name) ? null : doCreateStaticImportFieldAccess(name);
+		
+		if(staticField != null) {
+			return staticField;
+		}
+		
+		this.index--;
+		
+		final Class<?> clazz = doParseTypeName();
+		
+		if(clazz == null) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Class<?> type = doParseDimensions(clazz);
+		
+		if(!doAccept(".")) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Token member = doExpectIdentifier();
+		
+		if(member.text.equals("class")) {
+			return new Literal(Class.class, type, false);
+		}
+		
+		if(clazz.isPrimitive() || type != clazz) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+//		ArtifactScript.out and ArtifactScript.err are what the Preprocessor replaces System.out and System.err with.
+		if(clazz == ArtifactScript.class && (member.text.equals("out") || member.text.equals("err"))) {
+			return new Literal(PrintStream.class, member.text.equals("out") ? ScriptOutput.OUT : ScriptOutput.ERR, false);
+		}
+		
+//		ScriptRuntime.checkDeadline() is what the Preprocessor inserts at each loop back-edge and at the start of each method.
+		if(clazz == ScriptRuntime.class && member.text.equals("checkDeadline") && doIsOperator("(")) {
+			doNext();
+			doExpect(")");
+			
+			final Expression expression = new DeadlineCheck();
+			
+			expression.isStatementExpression = true;
+			
+			return expression;
+		}
+		
+		if(doIsOperator("(")) {
+			return doCreateMethodCall(null, clazz, member.text, doParseArguments());
+		}
+		
+		return doCreateFieldAccess(null, clazz, member.text);
+	}
+	
+	private Expression doParseRelational() {
+		Expression expression = doParseShift();
+		
+		while(true) {
+			if(doIsOperator("<") || doIsOperator(">") || doIsOperator("<=") || doIsOperator(">=")) {
+				final String operator = doNext().text;
+				
+				expression = doCreateBinary(operator, expression, doParseShift());
+			} else if(doIsIdentifier("instanceof")) {
+				doNext();
+				
+				final Class<?> type = doParseType();
+				
+				if(type == null || type.isPrimitive() || doPeek().kind == Token.IDENTIFIER || doRequireValue(expression).type.isPrimitive() || !doIsCastable(expression.type, type)) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				expression = new InstanceOf(expression, type);
+			} else {
+				return expression;
+			}
+		}
+	}
+	
+	private Expression doParseShift() {
+		Expression expression = doParseAdditive();
+		
+		while(doIsOperator("<<") || doIsOperator(">>") || doIsOperator(">>>")) {
+			final String operator = doNext().text;
+			
+			expression = doCreateBinary(operator, expression, doParseAdditive());
+		}
+		
+		return expression;
+	}
+	
+	private Expression doParseUnary() {
+		final Token token = doPeek();
+		
+		if(token.kind == Token.OPERATOR) {
+			switch(token.text) {
+				case "+":
+				case "-": {
+					doNext();
+					
+					final Expression expression = doParseUnary();
+					
+					final Class<?> type = doGetUnaryPromotedType(expression.type);
+					
+					if(token.text.equals("+")) {
+						return doConvertNumber(expression, type);
+					}
+					
+					return doFold(new Negate(type, doConvertNumber(expression, type), expression.isConstant));
+				}
+				case "~": {
+					doNext();
+					
+					final Expression expression = doParseUnary();
+					
+					final Class<?> type = doGetUnaryPromotedType(expression.type);
+					
+					if(type != int.class && type != long.class) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					return doFold(new BitwiseNot(type, doConvertNumber(expression, type), expression.isConstant));
+				}
+				case "!": {
+					doNext();
+					
+					final Expression expression = doParseUnary();
+					
+					return doFold(new Not(doConvertCondition(expression), expression.isConstant));
+				}
+				case "++":
+				case "--": {
+					doNext();
+					
+					return doCreateIncrement(doParseUnary(), token.text.substring(1), false);
+				}
+				case "(": {
+					final Expression cast = doTryParseCast();
+					
+					if(cast != null) {
+						return cast;
+					}
+					
+					break;
+				}
+				default:
+					break;
+			}
+		}
+		
+		return doParsePostfix(doParsePrimary());
+	}
+	
+	private Expression doRequireNonConstantCondition(final Expression condition) {
+		if(condition.isConstant) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return condition;
+	}
+	
+	private Expression doRequireStatementExpression(final Expression expression) {
+		if(!expression.isStatementExpression) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return expression;
+	}
+	
+	private Expression doRequireValue(final Expression expression) {
+		if(expression.type == void.class) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return expression;
+	}
+	
+	private Expression doTryParseCast() {
+		final int start = this.index;
+		
+		doNext();
+		
+		final Class<?> type = doTryParseType();
+		
+		if(type != null && doAccept(")")) {
+			if(type.isPrimitive()) {
+				return doConvertForCast(doParseUnary(), type);
+			}
+			
+			final Token token = doPeek();
+			
+			final boolean isCast = token.kind == Token.LITERAL || token.kind == Token.IDENTIFIER && !token.text.equals("instanceof") || token.kind == Token.OPERATOR && (token.text.equals("(") || token.text.equals("!") || token.text.equals("~"));
+			
+			if(isCast) {
+				return doConvertForCast(doParseUnary(), type);
+			}
+		}
+		
+		this.index = start;
+		
+		return null;
+	}
+	
+	private Expression[] doConvertArguments(final Resolution resolution, final Expression[] arguments) {
+		final Class<?>[] parameterTypes = resolution.executable.getParameterTypes();
+		
+		if(!resolution.isVariableArity) {
+			final Expression[] convertedArguments = new Expression[arguments.length];
+			
+			for(int i = 0; i < arguments.length; i++) {
+				convertedArguments[i] = doConvertForAssignment(arguments[i], parameterTypes[i], false);
+			}
+			
+			return convertedArguments;
+		}
+		
+		final Expression[] convertedArguments = new Expression[parameterTypes.length];
+		final Expression[] variableArguments = new Expression[arguments.length - parameterTypes.length + 1];
+		
+		for(int i = 0; i < parameterTypes.length - 1; i++) {
+			convertedArguments[i] = doConvertForAssignment(arguments[i], parameterTypes[i], false);
+		}
+		
+		for(int i = 0; i < variableArguments.length; i++) {
+			variableArguments[i] = doConvertForAssignment(arguments[parameterTypes.length - 1 + i], parameterTypes[parameterTypes.length - 1].getComponentType(), false);
+		}
+		
+		convertedArguments[parameterTypes.length - 1] = new NewArrayInitializer(parameterTypes[parameterTypes.length - 1], variableArguments);
+		
+		return convertedArguments;
+	}
+	
+	private Expression[] doParseArguments() {
+		final List<Expression> arguments = new ArrayList<>();
+		
+		doExpect("(");
+		
+		if(!doAccept(")")) {
+			do {
+				arguments.add(doRequireValue(doParseExpression()));
+			} while(doAccept(","));
+			
+			doExpect(")");
+		}
+		
+		return arguments.toArray(new Expression[arguments.size()]);
+	}
+	
+	private List<Class<?>> doGetStaticImportClasses(final String name) {
+		final List<Class<?>> singleStaticImportClasses = new ArrayList<>();
+		final List<Class<?>> staticImportClasses = new ArrayList<>();
+		
+		for(final String importStatement : this.importStatements) {
+			if(doIsStaticImport(importStatement)) {
+				final String importedName = doGetImportedName(importStatement);
+				
+				if(doIsOnDemandImport(importStatement)) {
+					final Class<?> clazz = doFindClass(importedName);
+					
+					if(clazz != null && !staticImportClasses.contains(clazz)) {
+						staticImportClasses.add(clazz);
+					}
+				} else if(importedName.endsWith("." + name)) {
+					final Class<?> clazz = doFindClass(importedName.substring(0, importedName.lastIndexOf('.')));
+					
+					if(clazz != null && !singleStaticImportClasses.contains(clazz)) {
+						singleStaticImportClasses.add(clazz);
+					}
+				}
+			}
+		}
+		
+		return singleStaticImportClasses.isEmpty() ? staticImportClasses : singleStaticImportClasses;
+	}
+	
+	private Local doDeclareLocal(final String name, final Class<?> type, final boolean isFinal, final boolean isParameterized, final Object constantValue) {
+		if(Lexers.isKeyword(name) || name.equals("var") || name.equals("_") || name.equals("output$") || doFindLocal(name) != null) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Local local = new Local(type, this.slots++, isFinal, isParameterized, constantValue);
+		
+		this.scopes.peek().put(name, local);
+		
+		return local;
+	}
+	
+	private Local doFindLocal(final String name) {
+		for(final Map<String, Local> scope : this.scopes) {
+			final Local local = scope.get(name);
+			
+			if(local != null) {
+				return local;
+			}
+		}
+		
+		return null;
+	}
+	
+	private Local doGetLocal(final int slot) {
+		for(final Map<String, Local> scope : this.scopes) {
+			for(final Local local : scope.values()) {
+				if(local.slot == slot) {
+					if(local.isFinal) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					return local;
+				}
+			}
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private MethodHandle doGetMethodHandle(final Class<?> owner, final Executable executable) {
+		final List<Object> key = Arrays.asList(owner, executable);
+		
+		final MethodHandle cachedMethodHandle = METHOD_HANDLES.get(key);
+		
+		if(cachedMethodHandle != null) {
+			return cachedMethodHandle;
+		}
+		
+		try {
+			final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			
+			final MethodHandle methodHandle;
+			
+			if(executable instanceof Constructor) {
+				methodHandle = lookup.findConstructor(owner, MethodType.methodType(void.class, executable.getParameterTypes()));
+			} else if(Modifier.isStatic(executable.getModifiers())) {
+				methodHandle = lookup.findStatic(owner, executable.getName(), MethodType.methodType(Method.class.cast(executable).getReturnType(), executable.getParameterTypes()));
+			} else {
+				methodHandle = lookup.findVirtual(owner, executable.getName(), MethodType.methodType(Method.class.cast(executable).getReturnType(), executable.getParameterTypes()));
+			}
+			
+			final MethodHandle fixedArityMethodHandle = methodHandle.asFixedArity();
+			
+			final MethodHandle spreadingMethodHandle = fixedArityMethodHandle.asSpreader(Object[].class, fixedArityMethodHandle.type().parameterCount()).asType(MethodType.methodType(Object.class, Object[].class));
+			
+			METHOD_HANDLES.put(key, spreadingMethodHandle);
+			
+			return spreadingMethodHandle;
+		} catch(final IllegalAccessException | NoSuchMethodException | RuntimeException e) {
+			throw new UnsupportedSyntaxException();
+		}
+	}
+	
+//	Resolves the method or constructor to invoke in the three phases of the Java Language Specification. First without boxing or variable arity, then with boxing, and finally with variable arity. The most specific applicable method or
+//	constructor of the first phase in which one is applicable is chosen.
+	private Resolution doResolve(final List<Executable> executables, final Expression[] arguments) {
+		for(final Expression argument : arguments) {
+			if(argument.isInexact && executables.size() > 1) {
+				throw new UnsupportedSyntaxException();
+			}
+		}
+		
+		for(final Executable executable : executables) {
+			for(final Class<?> exceptionType : executable.getExceptionTypes()) {
+				if(!Exception.class.isAssignableFrom(exceptionType) && !Error.class.isAssignableFrom(exceptionType)) {
+					throw new UnsupportedSyntaxException();
+				}
+			}
+		}
+		
+		for(int phase = 0; phase < 3; phase++) {
+			final List<Executable> applicableExecutables = new ArrayList<>();
+			
+			for(final Executable executable : executables) {
+				if(doIsApplicable(executable, arguments, phase)) {
+					applicableExecutables.add(executable);
+				}
+			}
+			
+			if(!applicableExecutables.isEmpty()) {
+				return new Resolution(doGetMostSpecific(applicableExecutables, phase == 2), phase == 2);
+			}
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private Statement doParseBlock() {
+		doExpect("{");
+		
+		this.scopes.push(new HashMap<>());
+		
+		final Statement statement = doParseStatements("}");
+		
+		this.scopes.pop();
+		
+		doExpect("}");
+		
+		return statement;
+	}
+	
+	private Statement doParseDeclaration(final Class<?> declaredType, final boolean isFinal) {
+		final List<Expression> expressions = new ArrayList<>();
+		
+		final boolean isParameterizedType = declaredType != null && this.isParameterizedType;
+		
+		do {
+			final Token name = doExpectIdentifier();
+			
+			if(!doAccept("=")) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			final Expression initializer = declaredType != null && declaredType.isArray() && doIsOperator("{") ? doParseArrayInitializer(declaredType) : doRequireValue(doParseExpression());
+			
+			final Class<?> type = declaredType != null ? declaredType : initializer.type;
+			
+			if(type == NULL_TYPE || declaredType == null && initializer.isInexact) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			final Expression value = doConvertForAssignment(initializer, type, true);
+			
+			final boolean isConstant = isFinal && value.isConstant && value instanceof Literal && (type.isPrimitive() || type == String.class);
+			
+			final Local local = doDeclareLocal(name.text, type, isFinal, declaredType != null ? isParameterizedType : initializer.isParameterized, isConstant ? Literal.class.cast(value).value : null);
+			
+			expressions.add(new LocalStore(type, local.slot, value));
+		} while(doAccept(","));
+		
+		doExpect(";");
+		
+		return new ExpressionStatement(expressions.size() == 1 ? expressions.get(0) : new Sequence(expressions.toArray(new Expression[expressions.size()])));
+	}
+	
+	private Statement doParseFor() {
+		doExpect("(");
+		
+		this.scopes.push(new HashMap<>());
+		
+		try {
+			final int start = this.index;
+			
+			final boolean isFinal = doAccept("final");
+			
+			final boolean isVar = doIsIdentifier("var") && doPeek(1).kind == Token.IDENTIFIER && doAccept("var");
+			
+			final Class<?> declaredType = isVar ? null : doTryParseType();
+			
+			if((declaredType != null || isVar) && doPeek().kind == Token.IDENTIFIER && doPeek(1).text.equals(":")) {
+				return doParseForEach(declaredType, isFinal);
+			}
+			
+			final List<Statement> initializers = new ArrayList<>();
+			
+			if((declaredType != null || isVar) && doPeek().kind == Token.IDENTIFIER) {
+				initializers.add(doParseDeclaration(declaredType, isFinal));
+			} else {
+				this.index = start;
+				
+				if(isFinal) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				if(!doIsOperator(";")) {
+					do {
+						initializers.add(new ExpressionStatement(doRequireStatementExpression(doParseExpression())));
+					} while(doAccept(","));
+				}
+				
+				doExpect(";");
+			}
+			
+			if(doIsOperator(";")) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			final Expression condition = doRequireNonConstantCondition(doConvertCondition(doParseExpression()));
+			
+			doExpect(";");
+			
+			final List<Expression> updates = new ArrayList<>();
+			
+			if(!doIsOperator(")")) {
+				do {
+					updates.add(doRequireStatementExpression(doParseExpression()));
+				} while(doAccept(","));
+			}
+			
+			doExpect(")");
+			
+			final Statement body = doParseLoopBody();
+			
+			return new For(initializers.toArray(new Statement[initializers.size()]), condition, updates.toArray(new Expression[updates.size()]), body);
+		} finally {
+			this.scopes.pop();
+		}
+	}
+	
+	private Statement doParseForEach(final Class<?> declaredType, final boolean isFinal) {
+		final boolean isParameterizedType = declaredType != null && this.isParameterizedType;
+		
+		final Token name = doExpectIdentifier();
+		
+		doExpect(":");
+		
+		final Expression iterable = doRequireValue(doParseExpression());
+		
+		doExpect(")");
+		
+		final Class<?> type;
+		
+		final int elementSlot = this.slots++;
+		
+		final Expression element;
+		
+//		The elements of an Iterable are cast to the declared type, as their type is given by a type argument that is erased. If the type of the Iterable is raw, the Java compiler uses the erased type as well.
+		if(iterable.type.isArray()) {
+			type = declaredType != null ? declaredType : iterable.type.getComponentType();
+			
+			element = new LocalLoad(iterable.type.getComponentType(), elementSlot);
+		} else if(Iterable.class.isAssignableFrom(iterable.type) && declaredType != null && !declaredType.isPrimitive()) {
+			type = declaredType;
+			
+			element = new LocalLoad(Object.class, elementSlot);
+			element.isInexact = iterable.isParameterized;
+		} else {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final Expression value = doConvertForAssignment(element, type, false);
+		
+		final Local local = doDeclareLocal(name.text, type, isFinal, isParameterizedType, null);
+		
+		final Statement body = doParseLoopBody();
+		
+		return new ForEach(iterable, elementSlot, new LocalStore(type, local.slot, value), body);
+	}
+	
+	private Statement doParseLoopBody() {
+		this.loops++;
+		
+		try {
+			return doParseStatement();
+		} finally {
+			this.loops--;
+		}
+	}
+	
+	private Statement doParseProgram(final String[] variableNames, final Class<?>[] types) {
+		this.scopes.push(new HashMap<>());
+		
+		for(int i = 0; i < variableNames.length; i++) {
+			doDeclareLocal("$" + variableNames[i], types[i], true, false, null);
+		}
+		
+//		The generated code of a script declares the parameter scriptContext and the local variable exception, which is null while the script is evaluated.
+		doDeclareLocal("scriptContext", ScriptContext.class, true, false, null);
+		doDeclareLocal("exception", Exception.class, true, false, null);
+		
+		final Statement statement = doParseStatements(null);
+		
+		if(doPeek().kind != Token.END) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return statement;
+	}
+	
+	private Statement doParseStatement() {
+		final Token token = doPeek();
+		
+		if(token.kind == Token.OPERATOR) {
+			if(token.text.equals("{")) {
+				return doParseBlock();
+			}
+			
+			if(token.text.equals(";")) {
+				doNext();
+				
+				return new Block(new Statement[0]);
+			}
+		}
+		
+		if(token.kind == Token.IDENTIFIER) {
+			switch(token.text) {
+				case "if": {
+					doNext();
+					doExpect("(");
+					
+					final Expression condition = doConvertCondition(doParseExpression());
+					
+					doExpect(")");
+					
+					final Statement thenStatement = doParseStatement();
+					final Statement elseStatement = doAccept("else") ? doParseStatement() : null;
+					
+					return new If(condition, thenStatement, elseStatement);
+				}
+				case "while": {
+					doNext();
+					doExpect("(");
+					
+					final Expression condition = doRequireNonConstantCondition(doConvertCondition(doParseExpression()));
+					
+					doExpect(")");
+					
+					return new For(new Statement[0], condition, new Expression[0], doParseLoopBody());
+				}
+				case "do": {
+					doNext();
+					
+					final Statement body = doParseLoopBody();
+					
+					if(!body.isCompletingNormally || !doAccept("while")) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					doExpect("(");
+					
+					final Expression condition = doRequireNonConstantCondition(doConvertCondition(doParseExpression()));
+					
+					doExpect(")");
+					doExpect(";");
+					
+					return new DoWhile(body, condition);
+				}
+				case "for":
+					doNext();
+					
+					return doParseFor();
+				case "break":
+				case "continue":
+					doNext();
+					doExpect(";");
+					
+					if(this.loops == 0) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					return new Jump(token.text.equals("break") ? STATUS_BREAK : STATUS_CONTINUE);
+				case "return": {
+					doNext();
+					
+					final Expression expression = doRequireValue(doParseExpression());
+					
+					doExpect(";");
+					
+					return new Return(expression);
+				}
+				case "throw": {
+					doNext();
+					
+					final Expression expression = doRequireValue(doParseExpression());
+					
+					doExpect(";");
+					
+					if(expression.type != NULL_TYPE && !Exception.class.isAssignableFrom(expression.type) && !Error.class.isAssignableFrom(expression.type)) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					return new Throw(expression);
+				}
+				case "final":
+					doNext();
+					
+					return doParseDeclaration(doAccept("var") ? null : doRequireType(), true);
+				case "var":
+					if(doPeek(1).kind == Token.IDENTIFIER && doPeek(2).text.equals("=")) {
+						doNext();
+						
+						return doParseDeclaration(null, false);
+					}
+					
+					break;
+				default:
+					break;
+			}
+			
+			if(doPeek(1).text.equals(":") || Lexers.isKeyword(token.text) && !doIsPrimitiveTypeName(token.text) && !token.text.equals("new") && !token.text.equals("true") && !token.text.equals("false") && !token.text.equals("null")) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			if(doFindLocal(token.text) == null) {
+				final int start = this.index;
+				
+				final Class<?> type = doTryParseType();
+				
+				if(type != null && doPeek().kind == Token.IDENTIFIER && !Lexers.isKeyword(doPeek().text) && !doPeek().text.equals("instanceof")) {
+					return doParseDeclaration(type, false);
+				}
+				
+				this.index = start;
+			}
+		}
+		
+		final Expression expression = doRequireStatementExpression(doParseExpression());
+		
+		doExpect(";");
+		
+		return new ExpressionStatement(expression);
+	}
+	
+//	A statement that follows a statement that cannot complete normally, such as a return statement, is unreachable, and is rejected by the Java compiler.
+	private Statement doParseStatements(final String end) {
+		final List<Statement> statements = new ArrayList<>();
+		
+		while(end != null ? !doIsOperator(end) : doPeek().kind != Token.END) {
+			if(doPeek().kind == Token.END) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			if(!statements.isEmpty() && !statements.get(statements.size() - 1).isCompletingNormally) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			statements.add(doParseStatement());
+		}
+		
+		return statements.size() == 1 ? statements.get(0) : new Block(statements.toArray(new Statement[statements.size()]));
+	}
+	
+	private Token doExpectIdentifier() {
+		final Token token = doNext();
+		
+		if(token.kind != Token.IDENTIFIER || Lexers.isKeyword(token.text) && !token.text.equals("class")) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return token;
+	}
+	
+	private Token doNext() {
+		final Token token = this.tokens.get(this.index);
+		
+		if(token.kind != Token.END) {
+			this.index++;
+		}
+		
+		return token;
+	}
+	
+	private Token doPeek() {
+		return doPeek(0);
+	}
+	
+	private Token doPeek(final int offset) {
+		return this.tokens.get(Math.min(this.index + offset, this.tokens.size() - 1));
+	}
+	
+	private boolean doAccept(final String text) {
+		final Token token = doPeek();
+		
+		if(token.kind != Token.LITERAL && token.kind != Token.END && token.text.equals(text)) {
+			this.index++;
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	private boolean doIsIdentifier(final String text) {
+		final Token token = doPeek();
+		
+		return token.kind == Token.IDENTIFIER && token.text.equals(text);
+	}
+	
+	private boolean doIsOperator(final String text) {
+		final Token token = doPeek();
+		
+		return token.kind == Token.OPERATOR && token.text.equals(text);
+	}
+	
+	private void doExpect(final String text) {
+		if(!doAccept(text)) {
+			throw new UnsupportedSyntaxException();
+		}
+	}
+	
+//	Type arguments, including the diamond, are skipped. The tokens >> and >>> close more than one list of type arguments.
+	private boolean doSkipTypeArguments() {
+		if(!doIsOperator("<")) {
+			return false;
+		}
+		
+		int depth = 0;
+		
+		do {
+			final Token token = doNext();
+			
+			if(token.kind == Token.OPERATOR && token.text.equals("<")) {
+				depth++;
+			} else if(token.kind == Token.OPERATOR && (token.text.equals(">") || token.text.equals(">>") || token.text.equals(">>>"))) {
+				depth -= token.text.length();
+			} else if(token.kind != Token.IDENTIFIER && !token.text.equals(",") && !token.text.equals(".") && !token.text.equals("?") && !token.text.equals("[") && !token.text.equals("]") && !token.text.equals("&")) {
+				throw new UnsupportedSyntaxException();
+			}
+		} while(depth > 0);
+		
+		if(depth < 0) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return true;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Class<?> doBox(final Class<?> type) {
+		return MethodType.methodType(type).wrap().returnType();
+	}
+	
+	private static Class<?> doGetArrayClass(final Class<?> componentType) {
+		if(componentType == void.class) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return Array.newInstance(componentType, 0).getClass();
+	}
+	
+	private static Class<?> doGetBinaryPromotedType(final Class<?> typeA, final Class<?> typeB) {
+		final Class<?> primitiveTypeA = doGetUnaryPromotedType(typeA);
+		final Class<?> primitiveTypeB = doGetUnaryPromotedType(typeB);
+		
+		if(primitiveTypeA == double.class || primitiveTypeB == double.class) {
+			return double.class;
+		}
+		
+		if(primitiveTypeA == float.class || primitiveTypeB == float.class) {
+			return float.class;
+		}
+		
+		if(primitiveTypeA == long.class || primitiveTypeB == long.class) {
+			return long.class;
+		}
+		
+		return int.class;
+	}
+	
+//	The type of a conditional expression is only resolved in the cases in which it is the same as the type given by the Java compiler, without considering the values of constant expressions or the type arguments of generic types.
+	private static Class<?> doGetConditionalType(final Class<?> typeA, final Class<?> typeB) {
+		if(typeA == typeB) {
+			return typeA;
+		}
+		
+		final Class<?> primitiveTypeA = typeA.isPrimitive() ? typeA : doUnbox(typeA);
+		final Class<?> primitiveTypeB = typeB.isPrimitive() ? typeB : doUnbox(typeB);
+		
+		if(primitiveTypeA != null && primitiveTypeA == primitiveTypeB) {
+			return primitiveTypeA;
+		}
+		
+		if(typeA == NULL_TYPE) {
+			return typeB.isPrimitive() ? doBox(typeB) : typeB;
+		}
+		
+		if(typeB == NULL_TYPE) {
+			return typeA.isPrimitive() ? doBox(typeA) : typeA;
+		}
+		
+		if(primitiveTypeA != null && primitiveTypeB != null && primitiveTypeA != boolean.class && primitiveTypeB != boolean.class) {
+			if(doIsSmallIntegralType(primitiveTypeA) || doIsSmallIntegralType(primitiveTypeB)) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			return doGetBinaryPromotedType(primitiveTypeA, primitiveTypeB);
+		}
+		
+		if(!typeA.isPrimitive() && !typeB.isPrimitive()) {
+			if(typeA.isAssignableFrom(typeB)) {
+				return typeA;
+			}
+			
+			if(typeB.isAssignableFrom(typeA)) {
+				return typeB;
+			}
+		}
+		
+		throw new UnsupportedSyntaxException();
+	}
+	
+	private static Class<?> doGetPrimitiveType(final String name) {
+		switch(name) {
+			case "boolean":
+				return boolean.class;
+			case "byte":
+				return byte.class;
+			case "char":
+				return char.class;
+			case "double":
+				return double.class;
+			case "float":
+				return float.class;
+			case "int":
+				return int.class;
+			case "long":
+				return long.class;
+			case "short":
+				return short.class;
+			default:
+				return void.class;
+		}
+	}
+	
+	private static Class<?> doGetUnaryPromotedType(final Class<?> type) {
+		final Class<?> primitiveType = type.isPrimitive() ? type : doUnbox(type);
+		
+		if(primitiveType == null || primitiveType == boolean.class || primitiveType == void.class) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		return doIsSmallIntegralType(primitiveType) ? int.class : primitiveType;
+	}
+	
+	private static Class<?> doUnbox(final Class<?> type) {
+		if(type == NULL_TYPE) {
+			return null;
+		}
+		
+		final Class<?> primitiveType = MethodType.methodType(type).unwrap().returnType();
+		
+		return primitiveType != type ? primitiveType : null;
+	}
+	
+	private static Executable doGetMostSpecific(final List<Executable> executables, final boolean isVariableArity) {
+		final List<Executable> mostSpecificExecutables = new ArrayList<>();
+		
+		for(final Executable executable : executables) {
+			boolean isMostSpecific = true;
+			
+			for(final Executable otherExecutable : executables) {
+				if(executable != otherExecutable && !doIsMoreSpecific(executable, otherExecutable, isVariableArity)) {
+					isMostSpecific = false;
+				}
+			}
+			
+			if(isMostSpecific) {
+				mostSpecificExecutables.add(executable);
+			}
+		}
+		
+		if(mostSpecificExecutables.isEmpty()) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+//		The methods that remain have the same parameter types, such as a method that is inherited from more than one interface. The one with the most specific return type is chosen, as it is by the Java compiler.
+		Executable mostSpecificExecutable = mostSpecificExecutables.get(0);
+		
+		for(final Executable executable : mostSpecificExecutables) {
+			if(!Arrays.equals(executable.getParameterTypes(), mostSpecificExecutable.getParameterTypes())) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			if(executable instanceof Method && Method.class.cast(mostSpecificExecutable).getReturnType().isAssignableFrom(Method.class.cast(executable).getReturnType())) {
+				mostSpecificExecutable = executable;
+			}
+		}
+		
+		for(final Executable executable : mostSpecificExecutables) {
+			if(executable instanceof Method && !Method.class.cast(executable).getReturnType().isAssignableFrom(Method.class.cast(mostSpecificExecutable).getReturnType())) {
+				throw new UnsupportedSyntaxException();
+			}
+		}
+		
+		return mostSpecificExecutable;
+	}
+	
+//	Splits script into identifiers, including keywords, literals and operators. The literals are decoded into their values. Comments and white space are skipped.
+	private static List<Token> doTokenize(final String script) {
+		final List<Token> tokens = new ArrayList<>();
+		
+		int i = Lexers.skipWhiteSpaceAndComments(script, 0);
+		
+		while(i < script.length()) {
+			final char c = script.charAt(i);
+			
+			if(Character.isJavaIdentifierStart(c)) {
+				final int j = Lexers.skipIdentifier(script, i);
+				
+				tokens.add(new Token(Token.IDENTIFIER, script.substring(i, j), null, null));
+				
+				i = j;
+			} else if(Lexers.isLiteralStart(script, i)) {
+				final int j = Lexers.skipLiteral(script, i);
+				
+				if(j - i < 2 || script.charAt(j - 1) != c || script.startsWith("\"\"\"", i)) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				final String text = doDecode(script.substring(i + 1, j - 1));
+				
+				if(c == '\'') {
+					if(text.length() != 1) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					tokens.add(new Token(Token.LITERAL, script.substring(i, j), char.class, Character.valueOf(text.charAt(0))));
+				} else {
+					tokens.add(new Token(Token.LITERAL, script.substring(i, j), String.class, text.intern()));
+				}
+				
+				i = j;
+			} else if(Character.isDigit(c) || c == '.' && i + 1 < script.length() && Character.isDigit(script.charAt(i + 1))) {
+				int j = i + 1;
+				
+				while(j < script.length() && (Character.isLetterOrDigit(script.charAt(j)) || script.charAt(j) == '_' || script.charAt(j) == '.' || (script.charAt(j) == '+' || script.charAt(j) == '-') && (script.charAt(j - 1) == 'e' || script.charAt(j - 1) == 'E' || script.charAt(j - 1) == 'p' || script.charAt(j - 1) == 'P'))) {
+					j++;
+				}
+				
+				tokens.add(doParseNumber(script.substring(i, j)));
+				
+				i = j;
+			} else {
+				String operator = String.valueOf(c);
+				
+				for(final String currentOperator : OPERATORS) {
+					if(script.startsWith(currentOperator, i)) {
+						operator = currentOperator;
+						
+						break;
+					}
+				}
+				
+				if(operator.equals("->") || operator.equals("::") || operator.equals("...") || operator.equals("@") || operator.equals("#") || operator.equals("\\")) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				tokens.add(new Token(Token.OPERATOR, operator, null, null));
+				
+				i += operator.length();
+			}
+			
+			i = Lexers.skipWhiteSpaceAndComments(script, i);
+		}
+		
+		tokens.add(new Token(Token.END, "", null, null));
+		
+		return tokens;
+	}
+	
+	private static Method[] doGetMethods(final Class<?> clazz) {
+		final List<Method> methods = new ArrayList<>();
+		
+		for(final Method method : clazz.getMethods()) {
+			if(!method.isBridge() && !method.isSynthetic()) {
+				methods.add(method);
+			}
+		}
+		
+		if(clazz.isInterface()) {
+			for(final Method method : Object.class.getMethods()) {
+				methods.add(method);
+			}
+		}
+		
+		return methods.toArray(new Method[methods.size()]);
+	}
+	
+	private static Object doRequireArray(final Object array) {
+		if(array == null) {
+			throw new NullPointerException();
+		}
+		
+		return array;
+	}
+	
+	private static Set<String> doGetScriptMethodNames() {
+		final Set<String> scriptMethodNames = new HashSet<>();
+		
+		for(Class<?> clazz = ArtifactScript.class; clazz != null; clazz = clazz.getSuperclass()) {
+			for(final Method method : clazz.getDeclaredMethods()) {
+				scriptMethodNames.add(method.getName());
+			}
+			
+			for(final Field field : clazz.getDeclaredFields()) {
+				scriptMethodNames.add(field.getName());
+			}
+		}
+		
+		return Collections.unmodifiableSet(scriptMethodNames);
+	}
+	
+	private static String doDecode(final String text) {
+		final StringBuilder stringBuilder = new StringBuilder();
+		
+		for(int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			
+			if(c == '\r' || c == '\n') {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			if(c != '\\') {
+				stringBuilder.append(c);
+				
+				continue;
+			}
+			
+			if(++i >= text.length()) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			final char d = text.charAt(i);
+			
+			switch(d) {
+				case 'b':
+					stringBuilder.append('\b');
+					break;
+				case 'f':
+					stringBuilder.append('\f');
+					break;
+				case 'n':
+					stringBuilder.append('\n');
+					break;
+				case 'r':
+					stringBuilder.append('\r');
+					break;
+				case 't':
+					stringBuilder.append('\t');
+					break;
+				case '"':
+				case '\'':
+				case '\\':
+					stringBuilder.append(d);
+					break;
+				default:
+					if(d >= '0' && d <= '7') {
+						final int length = d <= '3' ? 3 : 2;
+						
+						int j = i;
+						
+						while(j < text.length() && j - i < length && text.charAt(j) >= '0' && text.charAt(j) <= '7') {
+							j++;
+						}
+						
+						stringBuilder.append((char)(Integer.parseInt(text.substring(i, j), 8)));
+						
+						i = j - 1;
+						
+						break;
+					}
+					
+					throw new UnsupportedSyntaxException();
+			}
+		}
+		
+		return stringBuilder.toString();
+	}
+	
+	private static String doGetImportedName(final String importStatement) {
+		final String name = importStatement.replaceAll("\\s+", " ").replace(";", "").trim().replaceFirst("^import ", "").replaceFirst("^static ", "").replace(" ", "");
+		
+		return name.endsWith(".*") ? name.substring(0, name.length() - 2) : name;
+	}
+	
+	private static Token doParseNumber(final String text) {
+		final String lowerCaseText = text.toLowerCase();
+		
+		final boolean isHexadecimal = lowerCaseText.startsWith("0x");
+		
+		if(lowerCaseText.startsWith("_") || lowerCaseText.endsWith("_") || lowerCaseText.contains("_.") || lowerCaseText.contains("._") || lowerCaseText.contains("x_") || lowerCaseText.contains("b_") && !isHexadecimal || lowerCaseText.contains("e_") && !isHexadecimal || lowerCaseText.contains("_e") && !isHexadecimal || lowerCaseText.contains("_l") || lowerCaseText.contains("_f") && !isHexadecimal || lowerCaseText.contains("_d") && !isHexadecimal) {
+			throw new UnsupportedSyntaxException();
+		}
+		
+		final String number = lowerCaseText.replace("_", "");
+		
+		try {
+			final boolean isFloatingPoint = isHexadecimal ? number.contains(".") || number.contains("p") : number.contains(".") || number.contains("e") || number.endsWith("f") || number.endsWith("d");
+			
+			if(isFloatingPoint) {
+				if(isHexadecimal && !number.contains("p")) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				if(number.endsWith("f")) {
+					final Float value = Float.valueOf(number);
+					
+					if(value.isInfinite() || value.floatValue() == 0.0F && doIsNonZero(number)) {
+						throw new UnsupportedSyntaxException();
+					}
+					
+					return new Token(Token.LITERAL, text, float.class, value);
+				}
+				
+				final Double value = Double.valueOf(number);
+				
+				if(value.isInfinite() || value.doubleValue() == 0.0D && doIsNonZero(number)) {
+					throw new UnsupportedSyntaxException();
+				}
+				
+				return new Token(Token.LITERAL, text, double.class, value);
+			}
+			
+			final boolean isLong = number.endsWith("l");
+			
+			final String digits = isLong ? number.substring(0, number.length() - 1) : number;
+			
+			final int radix = isHexadecimal ? 16 : digits.startsWith("0b") ? 2 : digits.startsWith("0") && digits.length() > 1 ? 8 : 10;
+			
+			final String magnitude = radix == 16 || radix == 2 ? digits.substring(2) : radix == 8 ? digits.substring(1) : digits;
+			
+			if(magnitude.isEmpty() || magnitude.startsWith("+") || magnitude.startsWith("-")) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			final long value = radix == 10 ? Long.parseLong(magnitude) : Long.parseUnsignedLong(magnitude, radix);
+			
+			if(isLong) {
+				return new Token(Token.LITERAL, text, long.class, Long.valueOf(value));
+			}
+			
+//			The decimal literal 2147483648 is only valid as the operand of the unary minus operator, and is not interpreted.
+			if(radix == 10 ? value > Integer.MAX_VALUE : (value & 0xFFFFFFFF00000000L) != 0L) {
+				throw new UnsupportedSyntaxException();
+			}
+			
+			return new Token(Token.LITERAL, text, int.class, Integer.valueOf((int)(value)));
+		} catch(final NumberFormatException e) {
+			throw new UnsupportedSyntaxException();
+		}
+	}
+	
+	private static boolean doIsAccessible(final Class<?> clazz) {
+		return Types.getAccessibleClass(clazz) == clazz;
+	}
+	
+	private static boolean doIsApplicable(final Executable executable, final Expression[] arguments, final int phase) {
+		final Class<?>[] parameterTypes = executable.getParameterTypes();
+		
+		if(phase < 2) {
+			if(parameterTypes.length != arguments.length) {
+				return false;
+			}
+			
+			for(int i = 0; i < arguments.length; i++) {
+				if(!doIsConvertible(arguments[i], parameterTypes[i], phase == 1)) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		if(!executable.isVarArgs() || arguments.length < parameterTypes.length - 1) {
+			return false;
+		}
+		
+		for(int i = 0; i < arguments.length; i++) {
+			if(!doIsConvertible(arguments[i], i < parameterTypes.length - 1 ? parameterTypes[i] : parameterTypes[parameterTypes.length - 1].getComponentType(), true)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static boolean doIsBoolean(final Class<?> type) {
+		return type == boolean.class || type == Boolean.class;
+	}
+	
+	private static boolean doIsCastable(final Class<?> typeA, final Class<?> typeB) {
+		if(typeA.isAssignableFrom(typeB) || typeB.isAssignableFrom(typeA)) {
+			return true;
+		}
+		
+		if(typeA.isArray() || typeB.isArray()) {
+			return typeA.isArray() && typeB.isArray() && !typeA.getComponentType().isPrimitive() && !typeB.getComponentType().isPrimitive() && doIsCastable(typeA.getComponentType(), typeB.getComponentType());
+		}
+		
+		if(typeA.isInterface() && typeB.isInterface()) {
+			return true;
+		}
+		
+		return typeA.isInterface() && !Modifier.isFinal(typeB.getModifiers()) || typeB.isInterface() && !Modifier.isFinal(typeA.getModifiers());
+	}
+	
+	private static boolean doIsConstantNarrowing(final Expression expression, final Class<?> type) {
+		if(!(expression instanceof Literal) || !expression.isConstant || !doIsSmallIntegralType(type) || expression.type != int.class && !doIsSmallIntegralType(expression.type)) {
+			return false;
+		}
+		
+		final int value = Number.class.cast(Convert.convertNumber(Literal.class.cast(expression).value, int.class)).intValue();
+		
+		final Object narrowedValue = Convert.convertNumber(Integer.valueOf(value), type);
+		
+		return Number.class.cast(Convert.convertNumber(narrowedValue, int.class)).intValue() == value;
+	}
+	
+//	A method is applicable by strict invocation if no boxing or unboxing is needed, and by loose invocation otherwise. The result of a call to a generic method is only passed to a method that is not overloaded, so the choice of method cannot
+//	depend on the type arguments the Java compiler would infer.
+	private static boolean doIsConvertible(final Expression expression, final Class<?> type, final boolean isBoxingAllowed) {
+		final Class<?> expressionType = expression.type;
+		
+		if(expressionType == type) {
+			return true;
+		}
+		
+		if(expressionType == NULL_TYPE || expression.isInexact) {
+			return !type.isPrimitive();
+		}
+		
+		if(expressionType.isPrimitive() && type.isPrimitive()) {
+			return doIsWidening(expressionType, type);
+		}
+		
+		if(!expressionType.isPrimitive() && !type.isPrimitive()) {
+			return type.isAssignableFrom(expressionType);
+		}
+		
+		if(!isBoxingAllowed) {
+			return false;
+		}
+		
+		if(expressionType.isPrimitive()) {
+			return type.isAssignableFrom(doBox(expressionType));
+		}
+		
+		final Class<?> unboxedType = doUnbox(expressionType);
+		
+		return unboxedType != null && (unboxedType == type || doIsWidening(unboxedType, type));
+	}
+	
+	private static boolean doIsMoreSpecific(final Executable executableA, final Executable executableB, final boolean isVariableArity) {
+		final Class<?>[] parameterTypesA = executableA.getParameterTypes();
+		final Class<?>[] parameterTypesB = executableB.getParameterTypes();
+		
+		final int length = isVariableArity ? Math.max(parameterTypesA.length, parameterTypesB.length) : parameterTypesA.length;
+		
+		for(int i = 0; i < length; i++) {
+			final Class<?> parameterTypeA = isVariableArity && i >= parameterTypesA.length - 1 ? parameterTypesA[parameterTypesA.length - 1].getComponentType() : parameterTypesA[i];
+			final Class<?> parameterTypeB = isVariableArity && i >= parameterTypesB.length - 1 ? parameterTypesB[parameterTypesB.length - 1].getComponentType() : parameterTypesB[i];
+			
+			if(parameterTypeA != parameterTypeB && !(parameterTypeA.isPrimitive() ? parameterTypeB.isPrimitive() && doIsWidening(parameterTypeA, parameterTypeB) : !parameterTypeB.isPrimitive() && parameterTypeB.isAssignableFrom(parameterTypeA))) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static boolean doIsNonZero(final String number) {
+		final String mantissa = number.startsWith("0x") ? number.substring(2, number.indexOf('p')) : number.split("e")[0];
+		
+		for(final char c : mantissa.toCharArray()) {
+			if(c >= '1' && c <= '9' || c >= 'a' && c <= 'f' && number.startsWith("0x")) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static boolean doIsOnDemandImport(final String importStatement) {
+		return importStatement.replaceAll("\\s+", "").endsWith(".*;");
+	}
+	
+	private static boolean doIsPrimitiveTypeName(final String name) {
+		return doGetPrimitiveType(name) != void.class;
+	}
+	
+	private static boolean doIsSmallIntegralType(final Class<?> type) {
+		return type == byte.class || type == char.class || type == short.class;
+	}
+	
+	private static boolean doIsStaticImport(final String importStatement) {
+		return importStatement.trim().matches("import\\s+static\\s[\\s\\S]*");
+	}
+	
+	private static boolean doIsWidening(final Class<?> typeA, final Class<?> typeB) {
+		final String wideningTypes;
+		
+		switch(typeA.getName()) {
+			case "byte":
+				wideningTypes = " short int long float double ";
+				break;
+			case "short":
+			case "char":
+				wideningTypes = " int long float double ";
+				break;
+			case "int":
+				wideningTypes = " long float double ";
+				break;
+			case "long":
+				wideningTypes = " float double ";
+				break;
+			case "float":
+				wideningTypes = " double ";
+				break;
+			default:
+				wideningTypes = " ";
+				break;
+		}
+		
+		return typeA == typeB || wideningTypes.contains(" " + typeB.getName() + " ");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Frame {
+		public final Object[] values;
+		public Object result;
+		public long backEdges;
+		
+		public Frame(final int slots) {
+			this.values = new Object[slots];
+		}
+	}
+	
+	private static final class Local {
+		public final Class<?> type;
+		public final Object constantValue;
+		public final boolean isFinal;
+		public final boolean isParameterized;
+		public final int slot;
+		
+		public Local(final Class<?> type, final int slot, final boolean isFinal, final boolean isParameterized, final Object constantValue) {
+			this.type = type;
+			this.slot = slot;
+			this.isFinal = isFinal;
+			this.isParameterized = isParameterized;
+			this.constantValue = constantValue;
+		}
+	}
+	
+	private static final class Resolution {
+		public final Executable executable;
+		public final boolean isVariableArity;
+		
+		public Resolution(final Executable executable, final boolean isVariableArity) {
+			this.executable = executable;
+			this.isVariableArity = isVariableArity;
+		}
+	}
+	
+	private static final class Token {
+		public static final int END = 0;
+		public static final int IDENTIFIER = 1;
+		public static final int LITERAL = 2;
+		public static final int OPERATOR = 3;
+		
+		public final Class<?> type;
+		public final Object value;
+		public final String text;
+		public final int kind;
+		
+		public Token(final int kind, final String text, final Class<?> type, final Object value) {
+			this.kind = kind;
+			this.text = text;
+			this.type = type;
+			this.value = value;
+		}
+	}
+	
+	private static final class UnsupportedSyntaxException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		public UnsupportedSyntaxException() {
+			super(null, null, false, false);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	abstract static class Expression {
+		public final Class<?> type;
+		public final boolean isConstant;
+		public boolean isInexact;
+		public boolean isParameterized;
+		public boolean isStatementExpression;
+		
+		public Expression(final Class<?> type, final boolean isConstant) {
+			this.type = type;
+			this.isConstant = isConstant;
+		}
+		
+//		Evaluates this Expression. The value of an Expression whose type is primitive is an instance of the wrapper class of that type. A constant Expression can be evaluated with a null Frame.
+		public abstract Object evaluate(final Frame frame) throws Throwable;
+	}
+	
+	private abstract static class Statement {
+		public final boolean isCompletingNormally;
+		
+		public Statement(final boolean isCompletingNormally) {
+			this.isCompletingNormally = isCompletingNormally;
+		}
+		
+		public abstract int execute(final Frame frame) throws Throwable;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	static final class Arithmetic extends Expression {
+		public final Expression a;
+		public final Expression b;
+		public final char operator;
+		
+		public Arithmetic(final Class<?> type, final char operator, final Expression a, final Expression b, final boolean isConstant) {
+			super(type, isConstant);
+			
+			this.operator = operator;
+			this.a = a;
+			this.b = b;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object a = this.a.evaluate(frame);
+			final Object b = this.b.evaluate(frame);
+			
+			if(this.type == int.class) {
+				final int x = Integer.class.cast(a).intValue();
+				final int y = Integer.class.cast(b).intValue();
+				
+				switch(this.operator) {
+					case '+':
+						return Integer.valueOf(x + y);
+					case '-':
+						return Integer.valueOf(x - y);
+					case '*':
+						return Integer.valueOf(x * y);
+					case '/':
+						return Integer.valueOf(x / y);
+					case '%':
+						return Integer.valueOf(x % y);
+					case '&':
+						return Integer.valueOf(x & y);
+					case '|':
+						return Integer.valueOf(x | y);
+					default:
+						return Integer.valueOf(x ^ y);
+				}
+			}
+			
+			if(this.type == long.class) {
+				final long x = Long.class.cast(a).longValue();
+				final long y = Long.class.cast(b).longValue();
+				
+				switch(this.operator) {
+					case '+':
+						return Long.valueOf(x + y);
+					case '-':
+						return Long.valueOf(x - y);
+					case '*':
+						return Long.valueOf(x * y);
+					case '/':
+						return Long.valueOf(x / y);
+					case '%':
+						return Long.valueOf(x % y);
+					case '&':
+						return Long.valueOf(x & y);
+					case '|':
+						return Long.valueOf(x | y);
+					default:
+						return Long.valueOf(x ^ y);
+				}
+			}
+			
+			if(this.type == float.class) {
+				final float x = Float.class.cast(a).floatValue();
+				final float y = Float.class.cast(b).floatValue();
+				
+				switch(this.operator) {
+					case '+':
+						return Float.valueOf(x + y);
+					case '-':
+						return Float.valueOf(x - y);
+					case '*':
+						return Float.valueOf(x * y);
+					case '/':
+						return Float.valueOf(x / y);
+					default:
+						return Float.valueOf(x % y);
+				}
+			}
+			
+			final double x = Double.class.cast(a).doubleValue();
+			final double y = Double.class.cast(b).doubleValue();
+			
+			switch(this.operator) {
+				case '+':
+					return Double.valueOf(x + y);
+				case '-':
+					return Double.valueOf(x - y);
+				case '*':
+					return Double.valueOf(x * y);
+				case '/':
+					return Double.valueOf(x / y);
+				default:
+					return Double.valueOf(x % y);
+			}
+		}
+	}
+	
+	static final class ArrayLength extends Expression {
+		private final Expression array;
+		
+		public ArrayLength(final Expression array) {
+			super(int.class, false);
+			
+			this.array = array;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return Integer.valueOf(Array.getLength(doRequireArray(this.array.evaluate(frame))));
+		}
+	}
+	
+	static final class ArrayLoad extends Expression {
+		public final Expression array;
+		public final Expression index;
+		
+		public ArrayLoad(final Class<?> type, final Expression array, final Expression index) {
+			super(Types.getAccessibleClass(type), false);
+			
+			this.array = array;
+			this.index = index;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object array = this.array.evaluate(frame);
+			
+			final int index = Integer.class.cast(this.index.evaluate(frame)).intValue();
+			
+			return array instanceof Object[] ? Object[].class.cast(array)[index] : Array.get(doRequireArray(array), index);
+		}
+	}
+	
+	static final class ArrayStore extends Expression {
+		private final Expression array;
+		private final Expression index;
+		private final Expression value;
+		
+		public ArrayStore(final Class<?> type, final Expression array, final Expression index, final Expression value) {
+			super(type, false);
+			
+			this.array = array;
+			this.index = index;
+			this.value = value;
+			this.isStatementExpression = true;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object array = this.array.evaluate(frame);
+			
+			final int index = Integer.class.cast(this.index.evaluate(frame)).intValue();
+			
+			final Object value = this.value.evaluate(frame);
+			
+			if(array instanceof Object[]) {
+				Object[].class.cast(array)[index] = value;
+			} else {
+				Array.set(doRequireArray(array), index, value);
+			}
+			
+			return value;
+		}
+	}
+	
+	static final class BitwiseNot extends Expression {
+		public final Expression expression;
+		
+		public BitwiseNot(final Class<?> type, final Expression expression, final boolean isConstant) {
+			super(type, isConstant);
+			
+			this.expression = expression;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object value = this.expression.evaluate(frame);
+			
+			return this.type == int.class ? (Object)(Integer.valueOf(~Integer.class.cast(value).intValue())) : (Object)(Long.valueOf(~Long.class.cast(value).longValue()));
+		}
+	}
+	
+	static final class Compare extends Expression {
+		public final Class<?> operandType;
+		public final Expression a;
+		public final Expression b;
+		public final String operator;
+		
+		public Compare(final Class<?> operandType, final String operator, final Expression a, final Expression b, final boolean isConstant) {
+			super(boolean.class, isConstant);
+			
+			this.operandType = operandType;
+			this.operator = operator;
+			this.a = a;
+			this.b = b;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object a = this.a.evaluate(frame);
+			final Object b = this.b.evaluate(frame);
+			
+			final int comparison;
+			
+			if(this.operandType == Object.class) {
+				return Boolean.valueOf((a == b) == this.operator.equals("=="));
+			} else if(this.operandType == boolean.class) {
+				return Boolean.valueOf(a.equals(b) == this.operator.equals("=="));
+			} else if(this.operandType == int.class) {
+				comparison = Integer.compare(Integer.class.cast(a).intValue(), Integer.class.cast(b).intValue());
+			} else if(this.operandType == long.class) {
+				comparison = Long.compare(Long.class.cast(a).longValue(), Long.class.cast(b).longValue());
+			} else {
+				final double x = Number.class.cast(a).doubleValue();
+				final double y = Number.class.cast(b).doubleValue();
+				
+//				The comparisons of floating-point values are false if either value is NaN, except for !=, which is true.
+				if(Double.isNaN(x) || Double.isNaN(y)) {
+					return Boolean.valueOf(this.operator.equals("!="));
+				}
+				
+				comparison = x < y ? -1 : x > y ? 1 : 0;
+			}
+			
+			switch(this.operator) {
+				case "==":
+					return Boolean.valueOf(comparison == 0);
+				case "!=":
+					return Boolean.valueOf(comparison != 0);
+				case "<":
+					return Boolean.valueOf(comparison < 0);
+				case ">":
+					return Boolean.valueOf(comparison > 0);
+				case "<=":
+					return Boolean.valueOf(comparison <= 0);
+				default:
+					return Boolean.valueOf(comparison >= 0);
+			}
+		}
+	}
+	
+	static final class Concatenate extends Expression {
+		private final Expression a;
+		private final Expression b;
+		
+		public Concatenate(final Expression a, final Expression b, final boolean isConstant) {
+			super(String.class, isConstant);
+			
+			this.a = a;
+			this.b = b;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object a = this.a.evaluate(frame);
+			final Object b = this.b.evaluate(frame);
+			
+			return String.valueOf(a).concat(String.valueOf(b));
+		}
+	}
+	
+	static final class Conditional extends Expression {
+		public final Expression a;
+		public final Expression b;
+		public final Expression condition;
+		
+		public Conditional(final Class<?> type, final Expression condition, final Expression a, final Expression b) {
+			super(type, condition.isConstant && a.isConstant && b.isConstant);
+			
+			this.condition = condition;
+			this.a = a;
+			this.b = b;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return Boolean.class.cast(this.condition.evaluate(frame)).booleanValue() ? this.a.evaluate(frame) : this.b.evaluate(frame);
+		}
+	}
+	
+	static final class Convert extends Expression {
+		public static final int CAST = 0;
+		public static final int NULL_CHECK = 1;
+		public static final int NUMBER = 2;
+		
+		public final Expression expression;
+		public final int kind;
+		
+		public Convert(final Class<?> type, final Expression expression, final int kind) {
+			super(type, kind == NUMBER && expression.isConstant);
+			
+			this.expression = expression;
+			this.kind = kind;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object value = this.expression.evaluate(frame);
+			
+			switch(this.kind) {
+				case CAST:
+					return this.type.cast(value);
+				case NULL_CHECK:
+					if(value == null) {
+						throw new NullPointerException();
+					}
+					
+					return value;
+				default:
+					return convertNumber(value, this.type);
+			}
+		}
+		
+//		Converts value, which is either a Character or a Number, to an instance of the wrapper class of type, in the same way as a primitive conversion.
+		public static Object convertNumber(final Object value, final Class<?> type) {
+			if(value == null) {
+				throw new NullPointerException();
+			}
+			
+			final Number number = value instanceof Character ? Integer.valueOf(Character.class.cast(value).charValue()) : Number.class.cast(value);
+			
+			if(type == int.class) {
+				return Integer.valueOf(number.intValue());
+			} else if(type == long.class) {
+				return Long.valueOf(number.longValue());
+			} else if(type == double.class) {
+				return Double.valueOf(number.doubleValue());
+			} else if(type == float.class) {
+				return Float.valueOf(number.floatValue());
+			} else if(type == char.class) {
+				return Character.valueOf(number instanceof Long ? (char)(number.longValue()) : (char)(number.intValue()));
+			} else if(type == short.class) {
+				return Short.valueOf(number instanceof Long ? (short)(number.longValue()) : (short)(number.intValue()));
+			} else {
+				return Byte.valueOf(number instanceof Long ? (byte)(number.longValue()) : (byte)(number.intValue()));
+			}
+		}
+	}
+	
+	static final class DeadlineCheck extends Expression {
+		public DeadlineCheck() {
+			super(void.class, false);
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) {
+			Deadline.check();
+			
+			return null;
+		}
+	}
+	
+	static final class FieldLoad extends Expression {
+		public final Expression target;
+		public final Field field;
+		private final MethodHandle methodHandle;
+		
+		public FieldLoad(final Class<?> type, final Field field, final MethodHandle methodHandle, final Expression target) {
+			super(type, false);
+			
+			this.field = field;
+			this.methodHandle = methodHandle;
+			this.target = target;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return this.target != null ? (Object)(this.methodHandle.invokeExact(this.target.evaluate(frame))) : (Object)(this.methodHandle.invokeExact());
+		}
+	}
+	
+	static final class InstanceOf extends Expression {
+		private final Class<?> clazz;
+		private final Expression expression;
+		
+		public InstanceOf(final Expression expression, final Class<?> clazz) {
+			super(boolean.class, false);
+			
+			this.expression = expression;
+			this.clazz = clazz;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return Boolean.valueOf(this.clazz.isInstance(this.expression.evaluate(frame)));
+		}
+	}
+	
+	static final class Invoke extends Expression {
+		public final Executable executable;
+		public final Expression target;
+		public final Expression[] arguments;
+		private final MethodHandle methodHandle;
+		
+		public Invoke(final Class<?> type, final Executable executable, final MethodHandle methodHandle, final Expression target, final Expression[] arguments) {
+			super(type, false);
+			
+			this.executable = executable;
+			this.methodHandle = methodHandle;
+			this.target = target;
+			this.arguments = arguments;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final int offset = this.target != null ? 1 : 0;
+			
+			final Object[] values = new Object[this.arguments.length + offset];
+			
+			if(this.target != null) {
+				values[0] = this.target.evaluate(frame);
+			}
+			
+			for(int i = 0; i < this.arguments.length; i++) {
+				values[i + offset] = this.arguments[i].evaluate(frame);
+			}
+			
+			if(this.target != null && values[0] == null) {
+				throw new NullPointerException();
+			}
+			
+			return (Object)(this.methodHandle.invokeExact(values));
+		}
+	}
+	
+	static final class Literal extends Expression {
+		public final Object value;
+		
+		public Literal(final Class<?> type, final Object value, final boolean isConstant) {
+			super(type, isConstant);
+			
+			this.value = value;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) {
+			return this.value;
+		}
+	}
+	
+	static final class LocalLoad extends Expression {
+		public final int slot;
+		
+		public LocalLoad(final Class<?> type, final int slot) {
+			super(type, false);
+			
+			this.slot = slot;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) {
+			return frame.values[this.slot];
+		}
+	}
+	
+	static final class LocalStore extends Expression {
+		private final Expression value;
+		private final int slot;
+		
+		public LocalStore(final Class<?> type, final int slot, final Expression value) {
+			super(type, false);
+			
+			this.slot = slot;
+			this.value = value;
+			this.isStatementExpression = true;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object value = this.value.evaluate(frame);
+			
+			frame.values[this.slot] = value;
+			
+			return value;
+		}
+	}
+	
+	static final class Logical extends Expression {
+		public final Expression a;
+		public final Expression b;
+		public final String operator;
+		
+		public Logical(final String operator, final Expression a, final Expression b, final boolean isConstant) {
+			super(boolean.class, isConstant);
+			
+			this.operator = operator;
+			this.a = a;
+			this.b = b;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final boolean a = Boolean.class.cast(this.a.evaluate(frame)).booleanValue();
+			
+			switch(this.operator) {
+				case "&&":
+					return Boolean.valueOf(a && Boolean.class.cast(this.b.evaluate(frame)).booleanValue());
+				case "||":
+					return Boolean.valueOf(a || Boolean.class.cast(this.b.evaluate(frame)).booleanValue());
+				case "&":
+					return Boolean.valueOf(a & Boolean.class.cast(this.b.evaluate(frame)).booleanValue());
+				case "|":
+					return Boolean.valueOf(a | Boolean.class.cast(this.b.evaluate(frame)).booleanValue());
+				default:
+					return Boolean.valueOf(a ^ Boolean.class.cast(this.b.evaluate(frame)).booleanValue());
+			}
+		}
+	}
+	
+	static final class Negate extends Expression {
+		public final Expression expression;
+		
+		public Negate(final Class<?> type, final Expression expression, final boolean isConstant) {
+			super(type, isConstant);
+			
+			this.expression = expression;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object value = this.expression.evaluate(frame);
+			
+			if(this.type == int.class) {
+				return Integer.valueOf(-Integer.class.cast(value).intValue());
+			} else if(this.type == long.class) {
+				return Long.valueOf(-Long.class.cast(value).longValue());
+			} else if(this.type == float.class) {
+				return Float.valueOf(-Float.class.cast(value).floatValue());
+			} else {
+				return Double.valueOf(-Double.class.cast(value).doubleValue());
+			}
+		}
+	}
+	
+	static final class NewArray extends Expression {
+		private final Expression length;
+		
+		public NewArray(final Class<?> type, final Expression length) {
+			super(type, false);
+			
+			this.length = length;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return Array.newInstance(this.type.getComponentType(), Integer.class.cast(this.length.evaluate(frame)).intValue());
+		}
+	}
+	
+	static final class NewArrayInitializer extends Expression {
+		private final Expression[] elements;
+		
+		public NewArrayInitializer(final Class<?> type, final Expression[] elements) {
+			super(type, false);
+			
+			this.elements = elements;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object array = Array.newInstance(this.type.getComponentType(), this.elements.length);
+			
+			for(int i = 0; i < this.elements.length; i++) {
+				Array.set(array, i, this.elements[i].evaluate(frame));
+			}
+			
+			return array;
+		}
+	}
+	
+	static final class Not extends Expression {
+		public final Expression expression;
+		
+		public Not(final Expression expression, final boolean isConstant) {
+			super(boolean.class, isConstant);
+			
+			this.expression = expression;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return Boolean.valueOf(!Boolean.class.cast(this.expression.evaluate(frame)).booleanValue());
+		}
+	}
+	
+	static final class Parenthesized extends Expression {
+		public final Expression expression;
+		
+		public Parenthesized(final Expression expression) {
+			super(expression.type, expression.isConstant);
+			
+			this.expression = expression;
+			this.isInexact = expression.isInexact;
+			this.isParameterized = expression.isParameterized;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			return this.expression.evaluate(frame);
+		}
+	}
+	
+	static final class Sequence extends Expression {
+		private final Expression[] expressions;
+		
+		public Sequence(final Expression[] expressions) {
+			super(expressions[expressions.length - 1].type, false);
+			
+			this.expressions = expressions;
+			this.isInexact = expressions[expressions.length - 1].isInexact;
+			this.isParameterized = expressions[expressions.length - 1].isParameterized;
+			this.isStatementExpression = true;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			Object value = null;
+			
+			for(final Expression expression : this.expressions) {
+				value = expression.evaluate(frame);
+			}
+			
+			return value;
+		}
+	}
+	
+	static final class Shift extends Expression {
+		public final Expression a;
+		public final Expression b;
+		public final String operator;
+		
+		public Shift(final Class<?> type, final String operator, final Expression a, final Expression b, final boolean isConstant) {
+			super(type, isConstant);
+			
+			this.operator = operator;
+			this.a = a;
+			this.b = b;
+		}
+		
+		@Override
+		public Object evaluate(final Frame frame) throws Throwable {
+			final Object a = this.a.evaluate(frame);
+			
+			final int distance = Number.class.cast(this.b.evaluate(frame)).intValue();
+			
+			if(this.type == int.class) {
+				final int x = Integer.class.cast(a).intValue();
+				
+				return Integer.valueOf(this.operator.equals("<<") ? x << distance : this.operator.equals(">>") ? x >> distance : x >>> distance);
+			}
+			
+			final long x = Long.class.cast(a).longValue();
+			
+			return Long.valueOf(this.operator.equals("<<") ? x << distance : this.operator.equals(">>") ? x >> distance : x >>> distance);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Block extends Statement {
+		private final Statement[] statements;
+		
+		public Block(final Statement[] statements) {
+			super(statements.length == 0 || statements[statements.length - 1].isCompletingNormally);
+			
+			this.statements = statements;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			for(final Statement statement : this.statements) {
+				final int status = statement.execute(frame);
+				
+				if(status != STATUS_NORMAL) {
+					return status;
+				}
+			}
+			
+			return STATUS_NORMAL;
+		}
+	}
+	
+	private static final class DoWhile extends Statement {
+		private final Expression condition;
+		private final Statement body;
+		
+		public DoWhile(final Statement body, final Expression condition) {
+			super(true);
+			
+			this.body = body;
+			this.condition = condition;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			do {
+				final int status = this.body.execute(frame);
+				
+				if(status == STATUS_BREAK) {
+					break;
+				}
+				
+				if(status == STATUS_RETURN) {
+					return status;
+				}
+				
+				frame.backEdges++;
+			} while(Boolean.class.cast(this.condition.evaluate(frame)).booleanValue());
+			
+			return STATUS_NORMAL;
+		}
+	}
+	
+	private static final class ExpressionStatement extends Statement {
+		private final Expression expression;
+		
+		public ExpressionStatement(final Expression expression) {
+			super(true);
+			
+			this.expression = expression;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			this.expression.evaluate(frame);
+			
+			return STATUS_NORMAL;
+		}
+	}
+	
+	private static final class For extends Statement {
+		private final Expression condition;
+		private final Expression[] updates;
+		private final Statement body;
+		private final Statement[] initializers;
+		
+		public For(final Statement[] initializers, final Expression condition, final Expression[] updates, final Statement body) {
+			super(true);
+			
+			this.initializers = initializers;
+			this.condition = condition;
+			this.updates = updates;
+			this.body = body;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			for(final Statement initializer : this.initializers) {
+				initializer.execute(frame);
+			}
+			
+			while(Boolean.class.cast(this.condition.evaluate(frame)).booleanValue()) {
+				final int status = this.body.execute(frame);
+				
+				if(status == STATUS_BREAK) {
+					break;
+				}
+				
+				if(status == STATUS_RETURN) {
+					return status;
+				}
+				
+				for(final Expression update : this.updates) {
+					update.evaluate(frame);
+				}
+				
+				frame.backEdges++;
+			}
+			
+			return STATUS_NORMAL;
+		}
+	}
+	
+	private static final class ForEach extends Statement {
+		private final Expression iterable;
+		private final Expression store;
+		private final Statement body;
+		private final int elementSlot;
+		
+		public ForEach(final Expression iterable, final int elementSlot, final Expression store, final Statement body) {
+			super(true);
+			
+			this.iterable = iterable;
+			this.elementSlot = elementSlot;
+			this.store = store;
+			this.body = body;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			final Object iterable = this.iterable.evaluate(frame);
+			
+			if(iterable instanceof Iterable) {
+				for(final Iterator<?> iterator = Iterable.class.cast(iterable).iterator(); iterator.hasNext();) {
+					frame.values[this.elementSlot] = iterator.next();
+					
+					final int status = doExecute(frame);
+					
+					if(status == STATUS_BREAK) {
+						break;
+					}
+					
+					if(status == STATUS_RETURN) {
+						return status;
+					}
+				}
+			} else {
+				final Object array = doRequireArray(iterable);
+				
+				final int length = Array.getLength(array);
+				
+				for(int i = 0; i < length; i++) {
+					frame.values[this.elementSlot] = Array.get(array, i);
+					
+					final int status = doExecute(frame);
+					
+					if(status == STATUS_BREAK) {
+						break;
+					}
+					
+					if(status == STATUS_RETURN) {
+						return status;
+					}
+				}
+			}
+			
+			return STATUS_NORMAL;
+		}
+		
+		private int doExecute(final Frame frame) throws Throwable {
+			this.store.evaluate(frame);
+			
+			final int status = this.body.execute(frame);
+			
+			frame.backEdges++;
+			
+			return status;
+		}
+	}
+	
+	private static final class If extends Statement {
+		private final Expression condition;
+		private final Statement elseStatement;
+		private final Statement thenStatement;
+		
+		public If(final Expression condition, final Statement thenStatement, final Statement elseStatement) {
+			super(elseStatement == null || thenStatement.isCompletingNormally || elseStatement.isCompletingNormally);
+			
+			this.condition = condition;
+			this.thenStatement = thenStatement;
+			this.elseStatement = elseStatement;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			if(Boolean.class.cast(this.condition.evaluate(frame)).booleanValue()) {
+				return this.thenStatement.execute(frame);
+			}
+			
+			return this.elseStatement != null ? this.elseStatement.execute(frame) : STATUS_NORMAL;
+		}
+	}
+	
+	private static final class Jump extends Statement {
+		private final int status;
+		
+		public Jump(final int status) {
+			super(false);
+			
+			this.status = status;
+		}
+		
+		@Override
+		public int execute(final Frame frame) {
+			return this.status;
+		}
+	}
+	
+	private static final class Return extends Statement {
+		private final Expression expression;
+		
+		public Return(final Expression expression) {
+			super(false);
+			
+			this.expression = expression;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			frame.result = this.expression.evaluate(frame);
+			
+			return STATUS_RETURN;
+		}
+	}
+	
+	private static final class Throw extends Statement {
+		private final Expression expression;
+		
+		public Throw(final Expression expression) {
+			super(false);
+			
+			this.expression = expression;
+		}
+		
+		@Override
+		public int execute(final Frame frame) throws Throwable {
+			final Object throwable = this.expression.evaluate(frame);
+			
+			if(throwable == null) {
+				throw new NullPointerException();
+			}
+			
+			throw Throwable.class.cast(throwable);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	An InterpretedScript evaluates a parsed script for the variable types it was parsed for. The variables are read in the same way as by a compiled script, and any exception is reported in the same way.
+	private static final class InterpretedScript extends CompiledScript {
+		private final ArtifactScriptEngine artifactScriptEngine;
+		private final Class<?>[] types;
+		private final Runnable onThreshold;
+		private final Statement statement;
+		private final String[] variableNames;
+		private final boolean isWritingOutput;
+		private final int[] variableSlots;
+		private final int slots;
+		private final int threshold;
+		private boolean isPromoted;
+		private long evaluations;
+		
+		public InterpretedScript(final ArtifactScriptEngine artifactScriptEngine, final Statement statement, final String[] variableNames, final Class<?>[] types, final int slots, final boolean isWritingOutput, final int threshold, final Runnable onThreshold) {
+			this.artifactScriptEngine = artifactScriptEngine;
+			this.statement = statement;
+			this.variableNames = variableNames;
+			this.variableSlots = new int[variableNames.length];
+			this.types = types;
+			this.slots = slots;
+			this.isWritingOutput = isWritingOutput;
+			this.threshold = threshold;
+			this.onThreshold = onThreshold;
+			
+			for(int i = 0; i < variableNames.length; i++) {
+				this.variableSlots[i] = artifactScriptEngine.getBindingsLayout().getOrCreateSlot(variableNames[i]);
+			}
+		}
+		
+		@Override
+		public Object eval(final ScriptContext scriptContext) throws ScriptException {
+			final Frame frame = new Frame(this.slots);
+			
+			final Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+			
+			final boolean isArtifactBindings = bindings instanceof ArtifactBindings && ArtifactBindings.class.cast(bindings).getBindingsLayout() == this.artifactScriptEngine.getBindingsLayout();
+			
+			for(int i = 0; i < this.variableNames.length; i++) {
+				final Object value = isArtifactBindings ? ArtifactBindings.class.cast(bindings).getValue(this.variableSlots[i], this.variableNames[i]) : bindings != null ? bindings.get(this.variableNames[i]) : null;
+				
+				try {
+					frame.values[i] = this.types[i].cast(value);
+				} catch(final ClassCastException e) {
+					throw new ScriptException(e);
+				}
+			}
+			
+			frame.values[this.variableNames.length] = scriptContext;
+			
+			try {
+				if(this.isWritingOutput) {
+					final ScriptOutput scriptOutput = ScriptOutput.capture(scriptContext);
+					
+					try {
+						this.statement.execute(frame);
+					} finally {
+						scriptOutput.close();
+					}
+				} else {
+					this.statement.execute(frame);
+				}
+			} catch(final Error e) {
+				throw e;
+			} catch(final Exception e) {
+				throw new ScriptException(e);
+			} catch(final Throwable t) {
+				throw new ScriptException(new Exception(t));
+			} finally {
+				doCount(frame);
+			}
+			
+			return frame.result;
+		}
+		
+		@Override
+		public ScriptEngine getEngine() {
+			return this.artifactScriptEngine;
+		}
+		
+//		Each evaluation counts once, and each 1024 iterations of a loop count once more. The count is not synchronized, as it only decides when the script is compiled.
+		private void doCount(final Frame frame) {
+			this.evaluations += 1L + frame.backEdges / 1024L;
+			
+			if(this.evaluations >= this.threshold && !this.isPromoted) {
+				this.isPromoted = true;
+				
+				this.onThreshold.run();
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+
+final class Invocables {
+	private static final ClassValue<Method[]> FUNCTIONS = new ClassValue<Method[]>() {
+		@Override
+		protected Method[] computeValue(final Class<?> type) {
+			return doGetFunctions(type);
+		}
+	};
+	
+	private static final ClassValue<ConcurrentMap<Method, MethodHandle>> METHOD_HANDLES = new ClassValue<ConcurrentMap<Method, MethodHandle>>() {
+		@Override
+		protected ConcurrentMap<Method, MethodHandle> computeValue(final Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+	
+	private static final MethodHandle INVOKE_DEFAULT = doFindInvokeDefault();
+	private static final MethodType INVOKE_METHOD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+	private static final MethodType PROXY_METHOD_TYPE = MethodType.methodType(Object.class, Object[].class);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Invocables() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static Method findFunction(final Class<?> clazz, final String name, final Object[] args) {
+		return doFindMethod(FUNCTIONS.get(clazz), name, args);
+	}
+	
+	public static Method findMethod(final Class<?> clazz, final String name, final Object[] args) {
+		return doFindMethod(clazz.getMethods(), name, args);
+	}
+	
+//	The MethodHandle of method is created the first time it is invoked, and cached with the class that declares it, so later calls are not reflective. An Exception thrown by method is wrapped in a ScriptException, but an Error is not.
+	public static Object invoke(final Method method, final Object object, final Object[] args) throws ScriptException {
+		final MethodHandle methodHandle = doGetMethodHandle(method);
+		
+		try {
+			return methodHandle.invokeExact(object, args);
+		} catch(final Error e) {
+			throw e;
+		} catch(final Throwable t) {
+			throw new ScriptException(Exception.class.cast(t));
+		}
+	}
+	
+//	Returns a proxy that implements clazz by calling the methods of object, or null if object does not have a method for each abstract method of clazz. Each method of the proxy calls a MethodHandle that was bound to object and adapted to the
+//	method of clazz in advance, so nothing is looked up or converted reflectively when it is called. A default method of clazz that object does not have calls the implementation of clazz instead.
+	public static <T> T newProxy(final Class<T> clazz, final Object object, final boolean isFunctionsOnly) {
+		final Map<Method, MethodHandle> defaultMethodHandles = new HashMap<>();
+		final Map<Method, MethodHandle> methodHandles = new HashMap<>();
+		
+		final Method[] methods = isFunctionsOnly ? FUNCTIONS.get(object.getClass()) : object.getClass().getMethods();
+		
+		for(final Method method : clazz.getMethods()) {
+			if(method.getDeclaringClass() == Object.class) {
+				continue;
+			}
+			
+			final MethodHandle methodHandle = doCreateMethodHandle(methods, method, object);
+			
+			final MethodHandle defaultMethodHandle = methodHandle == null && method.isDefault() ? doCreateDefaultMethodHandle(method) : null;
+			
+			if(methodHandle != null) {
+				methodHandles.put(method, methodHandle);
+			} else if(defaultMethodHandle != null) {
+				defaultMethodHandles.put(method, defaultMethodHandle);
+			} else if(Modifier.isAbstract(method.getModifiers())) {
+				return null;
+			}
+		}
+		
+		return clazz.cast(Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] {clazz}, (proxy, method, args) -> {
+			final Object[] arguments = args != null ? args : new Object[0];
+			
+			final MethodHandle methodHandle = methodHandles.get(method);
+			
+			if(methodHandle != null) {
+				return methodHandle.invokeExact(arguments);
+			}
+			
+			final MethodHandle defaultMethodHandle = defaultMethodHandles.get(method);
+			
+			if(defaultMethodHandle != null) {
+				return defaultMethodHandle.invokeExact(proxy, arguments);
+			}
+			
+			switch(method.getName()) {
+				case "equals":
+					return Boolean.valueOf(proxy == args[0]);
+				case "hashCode":
+					return Integer.valueOf(System.identityHashCode(proxy));
+				case "toString":
+					return clazz.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+				default:
+					throw new UnsupportedOperationException(method.toString());
+			}
+		}));
+	}
+	
+	public static boolean isInvocable(final Class<?> clazz) {
+		return clazz.getInterfaces().length > 0 || FUNCTIONS.get(clazz).length > 0;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Class<?> doBox(final Class<?> clazz) {
+		return clazz.isPrimitive() ? MethodType.methodType(clazz).wrap().returnType() : clazz;
+	}
+	
+//	MethodHandles.privateLookupIn(Class, Lookup) was added in Java 9. In Java 8, a Lookup with private access to clazz can only be created using the private constructor of Lookup.
+	private static Lookup doGetPrivateLookup(final Class<?> clazz) throws ReflectiveOperationException {
+		try {
+			return Lookup.class.cast(MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class).invoke(null, clazz, MethodHandles.lookup()));
+		} catch(final NoSuchMethodException e) {
+			final Constructor<Lookup> constructor = Lookup.class.getDeclaredConstructor(Class.class, int.class);
+			
+			constructor.setAccessible(true);
+			
+			return constructor.newInstance(clazz, Integer.valueOf(Lookup.PUBLIC | Lookup.PRIVATE | Lookup.PROTECTED | Lookup.PACKAGE));
+		}
+	}
+	
+	private static Method doFindMethod(final Method[] methods, final String name, final Object[] args) {
+		for(final Method method : methods) {
+			if(method.getName().equals(name) && doIsApplicable(method.getParameterTypes(), args)) {
+				return method;
+			}
+		}
+		
+		return null;
+	}
+	
+	private static Method[] doGetFunctions(final Class<?> clazz) {
+		final List<Method> functions = new ArrayList<>();
+		
+		if(ArtifactScript.class.isAssignableFrom(clazz)) {
+			for(final Method method : clazz.getMethods()) {
+				if(method.getDeclaringClass() == clazz && !method.isBridge() && !method.isSynthetic() && !(method.getName().equals("eval") && Arrays.equals(method.getParameterTypes(), new Class<?>[] {ScriptContext.class}))) {
+					functions.add(method);
+				}
+			}
+		}
+		
+		return functions.toArray(new Method[functions.size()]);
+	}
+	
+//	Returns a MethodHandle that calls the implementation of the default method method on a proxy, and takes the proxy and an Object[] with the arguments. The implementation is called using invokespecial, which requires a Lookup with private
+//	access to the interface. If the package of the interface is not open to this class, InvocationHandler.invokeDefault(Object, Method, Object...) is used instead, if it is available.
+	private static MethodHandle doCreateDefaultMethodHandle(final Method method) {
+		final Class<?> declaringClass = method.getDeclaringClass();
+		
+		try {
+			return doGetPrivateLookup(declaringClass).unreflectSpecial(method, declaringClass).asSpreader(Object[].class, method.getParameterCount()).asType(INVOKE_METHOD_TYPE);
+		} catch(final ReflectiveOperationException | RuntimeException e) {
+			return INVOKE_DEFAULT != null ? MethodHandles.insertArguments(INVOKE_DEFAULT, 1, method) : null;
+		}
+	}
+	
+	private static MethodHandle doCreateMethodHandle(final Method[] methods, final Method method, final Object object) {
+		for(final Method candidate : methods) {
+			if(candidate.getName().equals(method.getName()) && candidate.getParameterCount() == method.getParameterCount()) {
+				try {
+					candidate.setAccessible(true);
+					
+					final MethodHandle methodHandle = MethodHandles.lookup().unreflect(candidate);
+					
+					return (Modifier.isStatic(candidate.getModifiers()) ? methodHandle : methodHandle.bindTo(object)).asType(MethodType.methodType(method.getReturnType(), method.getParameterTypes())).asSpreader(Object[].class, method.getParameterCount()).asType(PROXY_METHOD_TYPE);
+				} catch(final IllegalAccessException | SecurityException | WrongMethodTypeException e) {
+					continue;
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+//	InvocationHandler.invokeDefault(Object, Method, Object...) was added in Java 16.
+	private static MethodHandle doFindInvokeDefault() {
+		try {
+			return MethodHandles.lookup().findStatic(InvocationHandler.class, "invokeDefault", MethodType.methodType(Object.class, Object.class, Method.class, Object[].class)).asFixedArity();
+		} catch(final IllegalAccessException | NoSuchMethodException e) {
+			return null;
+		}
+	}
+	
+//	Returns a MethodHandle that calls method, and takes the Object to call it on and an Object[] with the arguments. The Object is ignored if method is static. If method is not accessible, it is made accessible.
+	private static MethodHandle doGetMethodHandle(final Method method) throws ScriptException {
+		final ConcurrentMap<Method, MethodHandle> methodHandles = METHOD_HANDLES.get(method.getDeclaringClass());
+		
+		final MethodHandle oldMethodHandle = methodHandles.get(method);
+		
+		if(oldMethodHandle != null) {
+			return oldMethodHandle;
+		}
+		
+		final MethodHandle methodHandle = doUnreflect(method);
+		
+		final MethodHandle newMethodHandle = (Modifier.isStatic(method.getModifiers()) ? MethodHandles.dropArguments(methodHandle, 0, Object.class) : methodHandle).asSpreader(Object[].class, method.getParameterCount()).asType(INVOKE_METHOD_TYPE);
+		
+		final MethodHandle currentMethodHandle = methodHandles.putIfAbsent(method, newMethodHandle);
+		
+		return currentMethodHandle != null ? currentMethodHandle : newMethodHandle;
+	}
+	
+	private static MethodHandle doUnreflect(final Method method) throws ScriptException {
+		try {
+			return MethodHandles.lookup().unreflect(method).asFixedArity();
+		} catch(final IllegalAccessException e) {
+			try {
+				method.setAccessible(true);
+				
+				return MethodHandles.lookup().unreflect(method).asFixedArity();
+			} catch(final IllegalAccessException | RuntimeException f) {
+				throw new ScriptException(f);
+			}
+		}
+	}
+	
+	private static boolean doIsApplicable(final Class<?>[] parameterTypes, final Object[] args) {
+		if(parameterTypes.length != args.length) {
+			return false;
+		}
+		
+		for(int i = 0; i < parameterTypes.length; i++) {
+			if(args[i] == null ? parameterTypes[i].isPrimitive() : !doBox(parameterTypes[i]).isInstance(args[i])) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+}
\ No newline at end of file
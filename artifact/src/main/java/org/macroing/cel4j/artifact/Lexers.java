@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+final class Lexers {
+	private static final Set<String> KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue", "default", "do", "double", "else", "enum", "extends", "false", "final", "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "null", "package", "private", "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this", "throw", "throws", "transient", "true", "try", "void", "volatile", "while")));
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Lexers() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static boolean isBlockCommentStart(final CharSequence input, final int index) {
+		return index + 1 < input.length() && input.charAt(index) == '/' && input.charAt(index + 1) == '*';
+	}
+	
+	public static boolean isKeyword(final String identifier) {
+		return KEYWORDS.contains(identifier);
+	}
+	
+	public static boolean isLineCommentStart(final CharSequence input, final int index) {
+		return index + 1 < input.length() && input.charAt(index) == '/' && input.charAt(index + 1) == '/';
+	}
+	
+	public static boolean isLiteralStart(final CharSequence input, final int index) {
+		return input.charAt(index) == '"' || input.charAt(index) == '\'';
+	}
+	
+	public static int skipBlockComment(final CharSequence input, final int index) {
+		final int length = input.length();
+		
+		for(int i = index + 2; i + 1 < length; i++) {
+			if(input.charAt(i) == '*' && input.charAt(i + 1) == '/') {
+				return i + 2;
+			}
+		}
+		
+		return length;
+	}
+	
+	public static int skipIdentifier(final CharSequence input, final int index) {
+		final int length = input.length();
+		
+		int i = index + 1;
+		
+		while(i < length && Character.isJavaIdentifierPart(input.charAt(i))) {
+			i++;
+		}
+		
+		return i;
+	}
+	
+	public static int skipLineComment(final CharSequence input, final int index) {
+		final int length = input.length();
+		
+		for(int i = index + 2; i < length; i++) {
+			final char character = input.charAt(i);
+			
+			if(character == '\n' || character == '\r') {
+				return i;
+			}
+		}
+		
+		return length;
+	}
+	
+	public static int skipLiteral(final CharSequence input, final int index) {
+		final int length = input.length();
+		
+		final char quote = input.charAt(index);
+		
+		if(quote == '"' && doIsTextBlockDelimiter(input, index)) {
+			for(int i = index + 3; i < length; i++) {
+				final char character = input.charAt(i);
+				
+				if(character == '\\') {
+					i++;
+				} else if(character == '"' && doIsTextBlockDelimiter(input, i)) {
+					return i + 3;
+				}
+			}
+			
+			return length;
+		}
+		
+		for(int i = index + 1; i < length; i++) {
+			final char character = input.charAt(i);
+			
+			if(character == '\\') {
+				i++;
+			} else if(character == quote || character == '\n' || character == '\r') {
+				return i + 1;
+			}
+		}
+		
+		return length;
+	}
+	
+	public static int skipWhiteSpaceAndComments(final CharSequence input, final int index) {
+		final int length = input.length();
+		
+		int i = index;
+		
+		while(i < length) {
+			if(Character.isWhitespace(input.charAt(i))) {
+				i++;
+			} else if(isLineCommentStart(input, i)) {
+				i = skipLineComment(input, i);
+			} else if(isBlockCommentStart(input, i)) {
+				i = skipBlockComment(input, i);
+			} else {
+				break;
+			}
+		}
+		
+		return i;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static boolean doIsTextBlockDelimiter(final CharSequence input, final int index) {
+		return index + 2 < input.length() && input.charAt(index) == '"' && input.charAt(index + 1) == '"' && input.charAt(index + 2) == '"';
+	}
+}
\ No newline at end of file
@@ -31,12 +31,25 @@ package org.macroing.cel4j.artifact;
  * The following is a walk-through of all flags currently supported.
  * <ul>
  * <li>
+ * {@code -c} - Use this flag to compile all scripts in a directory ahead of time, instead of starting the CLI- or GUI-program. The scripts are all files with the extension {@code .java} in that directory and its sub-directories. They are written to
+ * a jar file, together with an index. When that jar file is on the class path, the {@code ScriptEngine} uses the precompiled scripts instead of compiling them. This flag requires one parameter argument. So, to use it, here is an example
+ * {@code -c path/to/scripts}.
+ * </li>
+ * <li>
  * {@code -e} - Use this flag to set the filename extension of the scripting language you want to use. If not set, Artifact will be used. That is, the {@code -e} flag is set to {@code java}. This flag requires one parameter argument. So, to use it, here is
  * an example {@code -e java}.
  * </li>
  * <li>
  * {@code -g} - Use this flag to start the GUI-program. By default the CLI-program will be used. This flag takes no parameter arguments. So, to use it, simply write {@code -g}.
  * </li>
+ * <li>
+ * {@code -o} - Use this flag together with {@code -c} to set the jar file to write. If not set, {@code artifact-scripts.jar} will be used. This flag requires one parameter argument. So, to use it, here is an example
+ * {@code -o path/to/scripts.jar}.
+ * </li>
+ * <li>
+ * {@code -t} - Use this flag together with {@code -c} to compile the scripts recorded in a trace file as well, for the types of variables they were evaluated with. For more information about traces, see {@link ArtifactScriptEngineFactory}. This
+ * flag requires one parameter argument. So, to use it, here is an example {@code -t path/to/trace.txt}.
+ * </li>
  * </ul>
  * 
  * @since 1.0.0
@@ -52,11 +65,20 @@ public final class Main {
 	public static void main(final String[] args) {
 		boolean isUsingGUI = false;
 		
+		String directory = null;
 		String extension = "java";
+		String jar = "artifact-scripts.jar";
+		String trace = null;
 		
 		if(args != null) {
 			for(int i = 0; i < args.length; i++) {
 				switch(args[i]) {
+					case "-c":
+						if(i + 1 < args.length) {
+							directory = args[++i];
+						}
+						
+						break;
 					case "-e":
 						if(i + 1 < args.length) {
 							extension = args[++i];
@@ -66,6 +88,18 @@ public final class Main {
 					case "-g":
 						isUsingGUI = true;
 						
+						break;
+					case "-o":
+						if(i + 1 < args.length) {
+							jar = args[++i];
+						}
+						
+						break;
+					case "-t":
+						if(i + 1 < args.length) {
+							trace = args[++i];
+						}
+						
 						break;
 					default:
 						break;
@@ -73,7 +107,11 @@ public final class Main {
 			}
 		}
 		
-		if(isUsingGUI) {
+		if(directory != null) {
+			if(!AOT.start(directory, trace, jar)) {
+				System.exit(1);
+			}
+		} else if(isUsingGUI) {
 			GUI.start(extension);
 		} else {
 			CLI.start(extension);
@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Objects;
+
+import javax.tools.SimpleJavaFileObject;
+
+final class MemoryClassFileObject extends SimpleJavaFileObject {
+	private final ByteArrayOutputStream byteArrayOutputStream;
+	private final String className;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public MemoryClassFileObject(final String className) {
+		super(URI.create("bytes:///" + Objects.requireNonNull(className, "className == null").replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+		
+		this.byteArrayOutputStream = new ByteArrayOutputStream();
+		this.className = className;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Override
+	public OutputStream openOutputStream() {
+		return this.byteArrayOutputStream;
+	}
+	
+	public String getClassName() {
+		return this.className;
+	}
+	
+	public byte[] getBytes() {
+		return this.byteArrayOutputStream.toByteArray();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+
+final class MemoryJavaFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+	private final Map<String, MemoryClassFileObject> memoryClassFileObjects;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public MemoryJavaFileManager(final JavaFileManager javaFileManager) {
+		super(javaFileManager);
+		
+		this.memoryClassFileObjects = new LinkedHashMap<>();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Override
+	public JavaFileObject getJavaFileForOutput(final Location location, final String className, final Kind kind, final FileObject sibling) {
+		final MemoryClassFileObject memoryClassFileObject = new MemoryClassFileObject(className);
+		
+		this.memoryClassFileObjects.put(className, memoryClassFileObject);
+		
+		return memoryClassFileObject;
+	}
+	
+	public Map<String, byte[]> getClasses() {
+		final Map<String, byte[]> classes = new LinkedHashMap<>();
+		
+		for(final MemoryClassFileObject memoryClassFileObject : this.memoryClassFileObjects.values()) {
+			classes.put(memoryClassFileObject.getClassName(), memoryClassFileObject.getBytes());
+		}
+		
+		return classes;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.net.URI;
+import java.util.Objects;
+
+import javax.tools.SimpleJavaFileObject;
+
+final class MemorySourceFileObject extends SimpleJavaFileObject {
+	private final String className;
+	private final String sourceCode;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public MemorySourceFileObject(final String className, final String sourceCode) {
+		super(URI.create("string:///" + Objects.requireNonNull(className, "className == null").replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+		
+		this.className = className;
+		this.sourceCode = Objects.requireNonNull(sourceCode, "sourceCode == null");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Override
+	public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+		return this.sourceCode;
+	}
+	
+	public String getClassName() {
+		return this.className;
+	}
+	
+	public String getSourceCode() {
+		return this.sourceCode;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,428 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+final class PolymorphicScript extends CompiledScript {
+	private static final Class<?>[] EMPTY_CLASSES = new Class<?>[0];
+	private static final int MAXIMUM_EXACT_SCRIPT_VARIANTS = 4;
+	private static final int MAXIMUM_INTERPRETED_SCRIPT_VARIANTS = 4;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final ArtifactScriptEngine artifactScriptEngine;
+	private final ConcurrentMap<List<Class<?>>, CompletableFuture<CompiledScript>> compilations;
+	private final PreprocessedScript preprocessedScript;
+	private final Runnable onScriptVariantAdded;
+	private final String[] variableNames;
+	private final int[] variableSlots;
+	private boolean isInterpreterFailing;
+	private int replacementIndex;
+	private volatile PolymorphicScript checkedScript;
+	private volatile ScriptVariant[] interpretedScriptVariants;
+	private volatile ScriptVariant[] scriptVariants;
+	private volatile boolean isGenericScriptVariantFailing;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public PolymorphicScript(final ArtifactScriptEngine artifactScriptEngine, final PreprocessedScript preprocessedScript, final Runnable onScriptVariantAdded) {
+		this.artifactScriptEngine = Objects.requireNonNull(artifactScriptEngine, "artifactScriptEngine == null");
+		this.compilations = new ConcurrentHashMap<>();
+		this.preprocessedScript = Objects.requireNonNull(preprocessedScript, "preprocessedScript == null");
+		this.variableNames = preprocessedScript.getVariableNames();
+		this.variableSlots = doGetSlots(artifactScriptEngine.getBindingsLayout(), this.variableNames);
+		this.onScriptVariantAdded = Objects.requireNonNull(onScriptVariantAdded, "onScriptVariantAdded == null");
+		this.scriptVariants = new ScriptVariant[0];
+		this.interpretedScriptVariants = new ScriptVariant[0];
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Class<?>[] getClasses(final ScriptContext scriptContext) {
+		return doGetClasses(scriptContext);
+	}
+	
+	public CompiledScript getCompiledScript(final ScriptContext scriptContext) throws ScriptException {
+		final Class<?>[] classes = doGetClasses(scriptContext);
+		
+		for(final ScriptVariant scriptVariant : this.scriptVariants) {
+			if(scriptVariant.matches(classes)) {
+				return scriptVariant.getCompiledScript();
+			}
+		}
+		
+		return doGetCompiledScript(classes);
+	}
+	
+	public CompiledScript getCompiledScriptIfPresent(final Class<?>[] classes) {
+		for(final ScriptVariant scriptVariant : this.scriptVariants) {
+			if(scriptVariant.matches(classes)) {
+				return scriptVariant.getCompiledScript();
+			}
+		}
+		
+		return null;
+	}
+	
+	public CompiledScript getCompiledScriptIfPresent(final ScriptContext scriptContext) {
+		return getCompiledScriptIfPresent(doGetClasses(scriptContext));
+	}
+	
+//	Returns the CompiledScript to evaluate for the variables in scriptContext. A compiled variant is returned if there is one. Otherwise the script is interpreted, and compiled in the background once it has been evaluated often enough. If
+//	the script cannot be interpreted, it is compiled right away.
+	public CompiledScript getExecutableScript(final ScriptContext scriptContext) throws ScriptException {
+		final Class<?>[] classes = doGetClasses(scriptContext);
+		
+		for(final ScriptVariant scriptVariant : this.scriptVariants) {
+			if(scriptVariant.matches(classes)) {
+				return scriptVariant.getCompiledScript();
+			}
+		}
+		
+		for(final ScriptVariant scriptVariant : this.interpretedScriptVariants) {
+			if(scriptVariant.matches(classes)) {
+				return scriptVariant.getCompiledScript();
+			}
+		}
+		
+		return doGetExecutableScript(classes);
+	}
+	
+	public Map<String, Class<?>> getVariableTypes(final Class<?>[] classes) {
+		final Map<String, Class<?>> variableTypes = new LinkedHashMap<>();
+		
+		for(int i = 0; i < this.variableNames.length; i++) {
+			variableTypes.put(this.variableNames[i], classes[i]);
+		}
+		
+		return variableTypes;
+	}
+	
+//	Returns the PolymorphicScript whose variants check the deadline of the current thread at each loop back-edge and method entry. It is only compiled once a deadline is in effect, so the variants of this PolymorphicScript are not affected.
+	public PolymorphicScript getCheckedScript() {
+		PolymorphicScript checkedScript = this.checkedScript;
+		
+		if(checkedScript == null) {
+			synchronized(this) {
+				checkedScript = this.checkedScript;
+				
+				if(checkedScript == null) {
+					final PreprocessedScript preprocessedScript = Preprocessor.preprocess(this.preprocessedScript.getScript(), true);
+					
+					this.checkedScript = checkedScript = new PolymorphicScript(this.artifactScriptEngine, preprocessedScript, this.onScriptVariantAdded);
+				}
+			}
+		}
+		
+		return checkedScript;
+	}
+	
+	public PreprocessedScript getPreprocessedScript() {
+		return this.preprocessedScript;
+	}
+	
+	public long getSize() {
+		long size = 0L;
+		
+		for(final ScriptVariant scriptVariant : this.scriptVariants) {
+			final ClassLoader classLoader = scriptVariant.getCompiledScript().getClass().getClassLoader();
+			
+			if(classLoader instanceof ArtifactClassLoader) {
+				size += ArtifactClassLoader.class.cast(classLoader).getSize();
+			}
+		}
+		
+		final PolymorphicScript checkedScript = this.checkedScript;
+		
+		return checkedScript != null ? size + checkedScript.getSize() : size;
+	}
+	
+	@Override
+	public Object eval(final ScriptContext scriptContext) throws ScriptException {
+		final Deadline deadline = this.artifactScriptEngine.getDeadline(Objects.requireNonNull(scriptContext, "scriptContext == null"));
+		
+		return deadline != null ? deadline.call(() -> getCheckedScript().getExecutableScript(scriptContext).eval(scriptContext)) : getExecutableScript(scriptContext).eval(scriptContext);
+	}
+	
+	@Override
+	public ScriptEngine getEngine() {
+		return this.artifactScriptEngine;
+	}
+	
+//	Adds a variant that was compiled elsewhere, such as in a batch. It is ignored if an existing variant already matches classes or if there is no room for another exact variant.
+	public void addScriptVariant(final Class<?>[] classes, final CompiledScript compiledScript) {
+		doAddScriptVariant(classes, new ScriptVariant(classes, compiledScript, true), false);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Class<?>[] doGetClasses(final ScriptContext scriptContext) {
+		if(this.variableNames.length == 0) {
+			return EMPTY_CLASSES;
+		}
+		
+		final Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+		
+		final Class<?>[] classes = new Class<?>[this.variableNames.length];
+		
+		if(bindings instanceof ArtifactBindings && ArtifactBindings.class.cast(bindings).getBindingsLayout() == this.artifactScriptEngine.getBindingsLayout()) {
+			for(int i = 0; i < classes.length; i++) {
+				final Object object = ArtifactBindings.class.cast(bindings).getValue(this.variableSlots[i], this.variableNames[i]);
+				
+				classes[i] = object != null ? object.getClass() : null;
+			}
+		} else if(bindings != null) {
+			for(int i = 0; i < classes.length; i++) {
+				final Object object = bindings.get(this.variableNames[i]);
+				
+				classes[i] = object != null ? object.getClass() : null;
+			}
+		}
+		
+		return classes;
+	}
+	
+//	Adds scriptVariant, unless a variant that matches classes was added first, and returns the CompiledScript of the variant that matches classes. Only the variants are replaced while the lock of this PolymorphicScript is held. Nothing is
+//	compiled, so a compiler thread that adds a variant from a batch never waits for an evaluation that waits for the compiler.
+	private synchronized CompiledScript doAddScriptVariant(final Class<?>[] classes, final ScriptVariant scriptVariant, final boolean isReplacing) {
+		final ScriptVariant[] scriptVariants = this.scriptVariants;
+		
+		for(final ScriptVariant currentScriptVariant : scriptVariants) {
+			if(currentScriptVariant.matches(classes)) {
+				return currentScriptVariant.getCompiledScript();
+			}
+		}
+		
+		final int exactScriptVariants = doGetExactScriptVariants(scriptVariants);
+		
+		if(!scriptVariant.isExact()) {
+			final ScriptVariant[] newScriptVariants = Arrays.copyOf(scriptVariants, exactScriptVariants + 1);
+			
+			newScriptVariants[exactScriptVariants] = scriptVariant;
+			
+			return doPublish(newScriptVariants, scriptVariant);
+		}
+		
+		if(exactScriptVariants < MAXIMUM_EXACT_SCRIPT_VARIANTS) {
+			final ScriptVariant[] newScriptVariants = new ScriptVariant[scriptVariants.length + 1];
+			
+			System.arraycopy(scriptVariants, 0, newScriptVariants, 0, exactScriptVariants);
+			System.arraycopy(scriptVariants, exactScriptVariants, newScriptVariants, exactScriptVariants + 1, scriptVariants.length - exactScriptVariants);
+			
+			newScriptVariants[exactScriptVariants] = scriptVariant;
+			
+			return doPublish(newScriptVariants, scriptVariant);
+		}
+		
+		if(isReplacing) {
+			final ScriptVariant[] newScriptVariants = scriptVariants.clone();
+			
+			newScriptVariants[this.replacementIndex] = scriptVariant;
+			
+			this.replacementIndex = (this.replacementIndex + 1) % MAXIMUM_EXACT_SCRIPT_VARIANTS;
+			
+			return doPublish(newScriptVariants, scriptVariant);
+		}
+		
+		return scriptVariant.getCompiledScript();
+	}
+	
+	private CompiledScript doCompile(final Class<?>[] classes) throws ScriptException {
+		return this.artifactScriptEngine.compile(this.preprocessedScript, getVariableTypes(classes));
+	}
+	
+//	Compiles the variant for variantClasses and adds it. Evaluations that need the same variant while it is being compiled wait for that compilation instead of starting their own, unless isWaiting is false, in which case null is returned.
+//	The compilation is only forgotten once its variant has been added, so a later evaluation finds the variant. Nothing here holds the lock of this PolymorphicScript, as the compiler may be adding a variant from a batch to it.
+	private CompiledScript doCompileScriptVariant(final Class<?>[] classes, final Class<?>[] variantClasses, final boolean isExact, final boolean isWaiting) throws ScriptException {
+		final List<Class<?>> key = Arrays.asList(variantClasses);
+		
+		final CompletableFuture<CompiledScript> newCompilation = new CompletableFuture<>();
+		
+		final CompletableFuture<CompiledScript> compilation = this.compilations.putIfAbsent(key, newCompilation);
+		
+		if(compilation != null) {
+			return isWaiting ? doGet(compilation) : null;
+		}
+		
+		try {
+			final CompiledScript compiledScript = doCompile(variantClasses);
+			
+			newCompilation.complete(compiledScript);
+			
+			return doAddScriptVariant(classes, new ScriptVariant(variantClasses, compiledScript, isExact), true);
+		} catch(final Error | RuntimeException | ScriptException e) {
+			newCompilation.completeExceptionally(e);
+			
+			throw e;
+		} finally {
+			this.compilations.remove(key, newCompilation);
+		}
+	}
+	
+	private CompiledScript doGetCompiledScript(final Class<?>[] classes) throws ScriptException {
+		final CompiledScript compiledScript = getCompiledScriptIfPresent(classes);
+		
+		if(compiledScript != null) {
+			return compiledScript;
+		}
+		
+//		The script is megamorphic. A variant that casts each variable to the common superclass of all observed classes is compiled and replaces any previous generic variant, unless compiling such a variant has failed before.
+		if(!this.isGenericScriptVariantFailing && doGetExactScriptVariants(this.scriptVariants) >= MAXIMUM_EXACT_SCRIPT_VARIANTS) {
+			try {
+				return doCompileScriptVariant(classes, doGetGenericClasses(this.scriptVariants, classes), false, true);
+			} catch(final ScriptException e) {
+				this.isGenericScriptVariantFailing = true;
+			}
+		}
+		
+		return doCompileScriptVariant(classes, classes, true, true);
+	}
+	
+	private CompiledScript doGetExecutableScript(final Class<?>[] classes) throws ScriptException {
+		final CompiledScript compiledScript = doInterpret(classes);
+		
+		return compiledScript != null ? compiledScript : doGetCompiledScript(classes);
+	}
+	
+	private synchronized CompiledScript doInterpret(final Class<?>[] classes) {
+		for(final ScriptVariant scriptVariant : this.interpretedScriptVariants) {
+			if(scriptVariant.matches(classes)) {
+				return scriptVariant.getCompiledScript();
+			}
+		}
+		
+		if(!this.isInterpreterFailing) {
+			final CompiledScript compiledScript = this.artifactScriptEngine.interpret(this.preprocessedScript, getVariableTypes(classes), () -> doPromote(classes));
+			
+			if(compiledScript != null) {
+				final ScriptVariant[] interpretedScriptVariants = this.interpretedScriptVariants;
+				
+				final ScriptVariant[] newInterpretedScriptVariants = new ScriptVariant[Math.min(interpretedScriptVariants.length + 1, MAXIMUM_INTERPRETED_SCRIPT_VARIANTS)];
+				
+				System.arraycopy(interpretedScriptVariants, 0, newInterpretedScriptVariants, 1, newInterpretedScriptVariants.length - 1);
+				
+				newInterpretedScriptVariants[0] = new ScriptVariant(classes, compiledScript, true);
+				
+				this.interpretedScriptVariants = newInterpretedScriptVariants;
+				
+				return compiledScript;
+			}
+			
+			this.isInterpreterFailing = true;
+		}
+		
+		return null;
+	}
+	
+	private CompiledScript doPublish(final ScriptVariant[] scriptVariants, final ScriptVariant scriptVariant) {
+		this.scriptVariants = scriptVariants;
+		
+		this.onScriptVariantAdded.run();
+		
+		return scriptVariant.getCompiledScript();
+	}
+	
+//	Compiles the variant for classes in the background, once its interpreted variant has been evaluated often enough. Until it has been compiled, the interpreted variant is still used. If an evaluation is already compiling the variant, the
+//	promotion does not wait for it, as that evaluation may itself be waiting for the compiler thread that runs the promotion.
+	private void doPromote(final Class<?>[] classes) {
+		this.artifactScriptEngine.compileInBackground(() -> doCompileScriptVariant(classes, classes, true, false));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Class<?>[] doGetGenericClasses(final ScriptVariant[] scriptVariants, final Class<?>[] classes) {
+		final Class<?>[] genericClasses = classes.clone();
+		
+		for(final ScriptVariant scriptVariant : scriptVariants) {
+			for(int i = 0; i < genericClasses.length; i++) {
+				genericClasses[i] = Types.getCommonSuperclass(genericClasses[i], scriptVariant.getClasses()[i]);
+			}
+		}
+		
+		for(int i = 0; i < genericClasses.length; i++) {
+			genericClasses[i] = genericClasses[i] != null ? Types.getAccessibleClass(genericClasses[i]) : Object.class;
+		}
+		
+		return genericClasses;
+	}
+	
+	private static CompiledScript doGet(final CompletableFuture<CompiledScript> compilation) throws ScriptException {
+		try {
+			return compilation.get();
+		} catch(final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			
+			if(cause instanceof ScriptException) {
+				throw ScriptException.class.cast(cause);
+			} else if(cause instanceof RuntimeException) {
+				throw RuntimeException.class.cast(cause);
+			} else if(cause instanceof Error) {
+				throw Error.class.cast(cause);
+			}
+			
+			throw new ScriptException(Exception.class.cast(cause));
+		} catch(final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			throw new ScriptException(e);
+		}
+	}
+	
+	private static int[] doGetSlots(final BindingsLayout bindingsLayout, final String[] variableNames) {
+		final int[] slots = new int[variableNames.length];
+		
+		for(int i = 0; i < variableNames.length; i++) {
+			slots[i] = bindingsLayout.getOrCreateSlot(variableNames[i]);
+		}
+		
+		return slots;
+	}
+	
+	private static int doGetExactScriptVariants(final ScriptVariant[] scriptVariants) {
+		int exactScriptVariants = 0;
+		
+		for(final ScriptVariant scriptVariant : scriptVariants) {
+			if(scriptVariant.isExact()) {
+				exactScriptVariants++;
+			}
+		}
+		
+		return exactScriptVariants;
+	}
+}
\ No newline at end of file
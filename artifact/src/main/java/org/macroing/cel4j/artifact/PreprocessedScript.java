@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+final class PreprocessedScript {
+	private final List<String> importStatements;
+	private final List<String> interfaceNames;
+	private final String packageName;
+	private final String script;
+	private final String[] memberSegments;
+	private final String[] memberSubstitutionVariableNames;
+	private final String[] segments;
+	private final String[] substitutionVariableNames;
+	private final String[] variableNames;
+	private final boolean isWritingOutput;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public PreprocessedScript(final String script, final String packageName, final List<String> importStatements, final List<String> interfaceNames, final List<String> segments, final List<String> substitutionVariableNames, final List<String> memberSegments, final List<String> memberSubstitutionVariableNames, final boolean isWritingOutput) {
+		this.script = Objects.requireNonNull(script, "script == null");
+		this.packageName = packageName;
+		this.importStatements = new ArrayList<>(Objects.requireNonNull(importStatements, "importStatements == null"));
+		this.interfaceNames = new ArrayList<>(Objects.requireNonNull(interfaceNames, "interfaceNames == null"));
+		this.memberSegments = memberSegments.toArray(new String[memberSegments.size()]);
+		this.memberSubstitutionVariableNames = memberSubstitutionVariableNames.toArray(new String[memberSubstitutionVariableNames.size()]);
+		this.segments = segments.toArray(new String[segments.size()]);
+		this.substitutionVariableNames = substitutionVariableNames.toArray(new String[substitutionVariableNames.size()]);
+		this.variableNames = doGetVariableNames(substitutionVariableNames, memberSubstitutionVariableNames);
+		this.isWritingOutput = isWritingOutput;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public List<String> getImportStatements() {
+		return new ArrayList<>(this.importStatements);
+	}
+	
+	public List<String> getInterfaceNames() {
+		return new ArrayList<>(this.interfaceNames);
+	}
+	
+	public Optional<String> getPackageName() {
+		return Optional.ofNullable(this.packageName);
+	}
+	
+	public String getBody(final Map<String, String> replacements) {
+		return doJoin(this.segments, this.substitutionVariableNames, replacements);
+	}
+	
+	public String getMembers(final Map<String, String> replacements) {
+		return doJoin(this.memberSegments, this.memberSubstitutionVariableNames, replacements);
+	}
+	
+	public String getScript() {
+		return this.script;
+	}
+	
+	public String[] getVariableNames() {
+		return this.variableNames.clone();
+	}
+	
+	public boolean hasMembers() {
+		return this.memberSegments.length > 1 || !this.memberSegments[0].isEmpty() || !this.interfaceNames.isEmpty();
+	}
+	
+//	Returns true if, and only if, the script refers to out or err, or to System.out or System.err, which have been replaced by out and err. Only then is its output captured.
+	public boolean isWritingOutput() {
+		return this.isWritingOutput;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static String doJoin(final String[] segments, final String[] substitutionVariableNames, final Map<String, String> replacements) {
+		final StringBuilder stringBuilder = new StringBuilder();
+		
+		for(int i = 0; i < segments.length; i++) {
+			stringBuilder.append(segments[i]);
+			
+			if(i < substitutionVariableNames.length) {
+				stringBuilder.append(replacements.get(substitutionVariableNames[i]));
+			}
+		}
+		
+		return stringBuilder.toString();
+	}
+	
+	private static String[] doGetVariableNames(final List<String> substitutionVariableNames, final List<String> memberSubstitutionVariableNames) {
+		final Set<String> variableNames = new LinkedHashSet<>(substitutionVariableNames);
+		
+		variableNames.addAll(memberSubstitutionVariableNames);
+		
+		return variableNames.toArray(new String[variableNames.size()]);
+	}
+}
\ No newline at end of file
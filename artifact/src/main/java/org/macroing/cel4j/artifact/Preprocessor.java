@@ -0,0 +1,706 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Preprocessor {
+	private static final String CHECK_DEADLINE = ScriptRuntime.class.getName() + ".checkDeadline()";
+	private static final Set<String> MODIFIERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("abstract", "final", "native", "private", "protected", "public", "static", "strictfp", "synchronized")));
+	private static final Set<String> PRIMITIVE_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("boolean", "byte", "char", "double", "float", "int", "long", "short", "void")));
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Preprocessor() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The script is tokenized in a single pass. Import and package statements are extracted and removed, and substitution variables are recorded as the boundaries between the segments of the body. Comments and literals are copied as-is.
+//	Method declarations at the top level of the script are moved to the members, and implements directives, such as "implements Runnable;", are extracted and removed.
+	public static PreprocessedScript preprocess(final String script) {
+		return preprocess(script, false);
+	}
+	
+//	If isCheckingDeadline is true, a call to ScriptRuntime.checkDeadline() is inserted at each loop back-edge and at the start of each method, but the PreprocessedScript still refers to the script itself. No line breaks are inserted, so the line numbers
+//	of compilation errors are not affected.
+	public static PreprocessedScript preprocess(final String script, final boolean isCheckingDeadline) {
+		final String source = isCheckingDeadline ? doInsertDeadlineChecks(script) : script;
+		
+		final List<String> importStatements = new ArrayList<>();
+		final List<String> interfaceNames = new ArrayList<>();
+		final List<String> memberSegments = new ArrayList<>();
+		final List<String> memberSubstitutionVariableNames = new ArrayList<>();
+		final List<String> segments = new ArrayList<>();
+		final List<String> substitutionVariableNames = new ArrayList<>();
+		final List<String> tokens = new ArrayList<>();
+		
+		final StringBuilder memberStringBuilder = new StringBuilder();
+		final StringBuilder stringBuilder = new StringBuilder(source.length());
+		final StringBuilder packageName = new StringBuilder();
+		
+		final int length = source.length();
+		
+		boolean isInMember = false;
+		boolean isWritingOutput = false;
+		
+		char previous = '\0';
+		
+		int depth = 0;
+		int index = 0;
+		int statementSegments = 0;
+		int statementStart = 0;
+		
+		while(index < length) {
+			final char character = source.charAt(index);
+			
+			final StringBuilder output = isInMember ? memberStringBuilder : stringBuilder;
+			
+			final boolean isAtTopLevel = !isInMember && depth == 0;
+			
+			if(Lexers.isLineCommentStart(source, index)) {
+				final int end = Lexers.skipLineComment(source, index);
+				
+				output.append(source, index, end);
+				
+				index = end;
+			} else if(Lexers.isBlockCommentStart(source, index)) {
+				final int end = Lexers.skipBlockComment(source, index);
+				
+				output.append(source, index, end);
+				
+				index = end;
+			} else if(Lexers.isLiteralStart(source, index)) {
+				final int end = Lexers.skipLiteral(source, index);
+				
+				output.append(source, index, end);
+				
+				if(isAtTopLevel) {
+					tokens.add(String.valueOf(character));
+				}
+				
+				previous = character;
+				
+				index = end;
+			} else if(Character.isJavaIdentifierStart(character)) {
+				final int end = Lexers.skipIdentifier(source, index);
+				
+				final String identifier = source.substring(index, end);
+				
+				if(previous != '.') {
+					final int streamEnd = identifier.equals("System") ? doParseSystemStream(source, end) : -1;
+					
+//					System.out and System.err are replaced by ArtifactScript.out and ArtifactScript.err, so the output is written to the writers of the ScriptContext. The names are fully qualified, so a local variable named out or err does not shadow them, and public, so the nested classes of the script can refer to them as well.
+					if(streamEnd >= 0) {
+						final String stream = source.substring(streamEnd - 3, streamEnd);
+						
+						doAppendLineBreaks(output, source, index, streamEnd);
+						
+						output.append(ArtifactScript.class.getName());
+						output.append(".");
+						output.append(stream);
+						
+						if(isAtTopLevel) {
+							tokens.add(stream);
+						}
+						
+						isWritingOutput = true;
+						
+						previous = 't';
+						
+						index = streamEnd;
+						
+						continue;
+					} else if(identifier.equals("out") || identifier.equals("err")) {
+						isWritingOutput = true;
+					}
+					
+					if(identifier.equals("import")) {
+						final StringBuilder importStatement = new StringBuilder();
+						
+						final int statementEnd = doParseImportStatement(source, end, importStatement);
+						
+						if(statementEnd >= 0) {
+							importStatements.add(importStatement.toString());
+							
+							doAppendLineBreaks(output, source, index, statementEnd);
+							
+							index = statementEnd;
+							
+							continue;
+						}
+					} else if(identifier.equals("package")) {
+						packageName.setLength(0);
+						
+						final int statementEnd = doParseQualifiedName(source, end, packageName, false);
+						
+						if(statementEnd >= 0) {
+							doAppendLineBreaks(output, source, index, statementEnd);
+							
+							index = statementEnd;
+							
+							continue;
+						}
+						
+						packageName.setLength(0);
+					} else if(identifier.equals("implements") && isAtTopLevel && tokens.isEmpty()) {
+						final StringBuilder interfaceName = new StringBuilder();
+						
+						final int statementEnd = doParseImplementsDirective(source, end, interfaceName);
+						
+						if(statementEnd >= 0) {
+							interfaceNames.add(interfaceName.toString().trim());
+							
+							doAppendLineBreaks(output, source, index, statementEnd);
+							
+							index = statementEnd;
+							
+							continue;
+						}
+					} else if(doIsSubstitutionVariable(identifier)) {
+						(isInMember ? memberSegments : segments).add(output.toString());
+						
+						(isInMember ? memberSubstitutionVariableNames : substitutionVariableNames).add(identifier.substring(1));
+						
+						output.setLength(0);
+						
+						if(isAtTopLevel) {
+							tokens.add(identifier);
+						}
+						
+						previous = identifier.charAt(identifier.length() - 1);
+						
+						index = end;
+						
+						continue;
+					}
+				}
+				
+				output.append(identifier);
+				
+				if(isAtTopLevel) {
+					tokens.add(identifier);
+				}
+				
+				previous = identifier.charAt(identifier.length() - 1);
+				
+				index = end;
+			} else {
+				if(character == '{' && isAtTopLevel && segments.size() == statementSegments && doIsMethodDeclaration(tokens)) {
+					final String declaration = stringBuilder.substring(statementStart);
+					
+					stringBuilder.setLength(statementStart);
+					
+					doAppendLineBreaks(stringBuilder, declaration, 0, declaration.length());
+					
+					if(!tokens.contains("public") && !tokens.contains("protected") && !tokens.contains("private")) {
+						memberStringBuilder.append("public ");
+					}
+					
+					memberStringBuilder.append(declaration.trim());
+					memberStringBuilder.append(character);
+					memberStringBuilder.append(isCheckingDeadline ? " " + CHECK_DEADLINE + ";" : "");
+					
+					isInMember = true;
+					
+					depth++;
+					
+					previous = character;
+					
+					index++;
+					
+					continue;
+				}
+				
+				if(character == '{') {
+					depth++;
+				} else if(character == '}' && depth > 0) {
+					depth--;
+				}
+				
+				output.append(character);
+				
+				if(isInMember && depth == 0) {
+					memberStringBuilder.append('\n');
+					
+					isInMember = false;
+				}
+				
+				if(!isInMember && depth == 0 && (character == ';' || character == '{' || character == '}')) {
+					tokens.clear();
+					
+					statementSegments = segments.size();
+					statementStart = stringBuilder.length();
+				} else if(!isInMember && depth == 0 && !Character.isWhitespace(character)) {
+					tokens.add(String.valueOf(character));
+				}
+				
+				previous = Character.isWhitespace(character) ? previous : character;
+				
+				index++;
+			}
+		}
+		
+		memberSegments.add(memberStringBuilder.toString());
+		
+		segments.add(stringBuilder.toString());
+		
+		return new PreprocessedScript(script, packageName.length() > 0 ? packageName.toString() : null, importStatements, interfaceNames, segments, substitutionVariableNames, memberSegments, memberSubstitutionVariableNames, isWritingOutput);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Returns the indices of the semicolons that are not nested in parentheses, brackets or braces.
+	private static List<Integer> doFindSemicolons(final String script) {
+		final List<Integer> semicolons = new ArrayList<>();
+		
+		int depth = 0;
+		int i = 0;
+		
+		while(i < script.length()) {
+			final char character = script.charAt(i);
+			
+			if(Lexers.isLineCommentStart(script, i)) {
+				i = Lexers.skipLineComment(script, i);
+			} else if(Lexers.isBlockCommentStart(script, i)) {
+				i = Lexers.skipBlockComment(script, i);
+			} else if(Lexers.isLiteralStart(script, i)) {
+				i = Lexers.skipLiteral(script, i);
+			} else {
+				if(character == '(' || character == '[' || character == '{') {
+					depth++;
+				} else if(character == ')' || character == ']' || character == '}') {
+					depth--;
+				} else if(character == ';' && depth == 0) {
+					semicolons.add(Integer.valueOf(i));
+				}
+				
+				i++;
+			}
+		}
+		
+		return semicolons;
+	}
+	
+//	A while loop is rewritten into the equivalent for loop "for(; condition; checkDeadline())", and "checkDeadline()" is added to the update of each basic for loop. The body of each do loop and enhanced for loop starts by calling
+//	checkDeadline(), and the body of a do loop that is not a block is made into one. The conditions of the loops are not changed, so neither is the reachability of the statements that follow them.
+	private static String doInsertDeadlineChecks(final String script) {
+		final List<Boolean> braces = new ArrayList<>();
+		final List<Integer> doStatements = new ArrayList<>();
+		
+		final StringBuilder stringBuilder = new StringBuilder(script.length() + 64);
+		
+		final int length = script.length();
+		
+		boolean isDoWhile = false;
+		
+		char previous = '\0';
+		
+		int index = 0;
+		
+		while(index < length) {
+			final char character = script.charAt(index);
+			
+			if(Lexers.isLineCommentStart(script, index) || Lexers.isBlockCommentStart(script, index)) {
+				final int end = Lexers.isLineCommentStart(script, index) ? Lexers.skipLineComment(script, index) : Lexers.skipBlockComment(script, index);
+				
+				stringBuilder.append(script, index, end);
+				
+				index = end;
+			} else if(Lexers.isLiteralStart(script, index)) {
+				final int end = Lexers.skipLiteral(script, index);
+				
+				stringBuilder.append(script, index, end);
+				
+				isDoWhile = false;
+				
+				previous = character;
+				
+				index = end;
+			} else if(Character.isJavaIdentifierStart(character)) {
+				final int end = Lexers.skipIdentifier(script, index);
+				final int next = Lexers.skipWhiteSpaceAndComments(script, end);
+				
+				final String identifier = script.substring(index, end);
+				
+				final boolean isBlockNext = next < length && script.charAt(next) == '{';
+				final boolean isParenthesisNext = next < length && script.charAt(next) == '(';
+				final boolean isKeyword = previous != '.';
+				
+				final int close = isKeyword && isParenthesisNext && (identifier.equals("for") || identifier.equals("while")) ? doSkipParentheses(script, next) : -1;
+				
+				if(isKeyword && identifier.equals("do")) {
+					stringBuilder.append(script, index, next);
+					
+					stringBuilder.append("{ " + CHECK_DEADLINE + ";");
+					
+					if(isBlockNext) {
+						braces.add(Boolean.TRUE);
+					} else {
+						stringBuilder.append(' ');
+						
+						doStatements.add(Integer.valueOf(braces.size()));
+					}
+					
+					isDoWhile = false;
+					
+					previous = '{';
+					
+					index = isBlockNext ? next + 1 : next;
+					
+					continue;
+				} else if(close >= 0 && identifier.equals("while") && !isDoWhile && doIsDoStatementEnd(script, close, doStatements, braces.size())) {
+					doStatements.remove(doStatements.size() - 1);
+					
+					stringBuilder.append("} ");
+					stringBuilder.append(script, index, close);
+				} else if(close >= 0 && identifier.equals("while") && !isDoWhile) {
+					stringBuilder.append("for(;");
+					stringBuilder.append(doInsertDeadlineChecks(script.substring(next + 1, close - 1)));
+					stringBuilder.append("; " + CHECK_DEADLINE + ")");
+				} else if(close >= 0 && identifier.equals("for")) {
+					final String header = script.substring(next + 1, close - 1);
+					
+					final List<Integer> semicolons = doFindSemicolons(header);
+					
+					stringBuilder.append(script, index, next + 1);
+					
+					if(semicolons.size() == 2) {
+						final String update = header.substring(semicolons.get(1).intValue() + 1);
+						
+						stringBuilder.append(doInsertDeadlineChecks(header.substring(0, semicolons.get(1).intValue() + 1)));
+						stringBuilder.append(update.trim().isEmpty() ? update + CHECK_DEADLINE : doInsertDeadlineChecks(update) + ", " + CHECK_DEADLINE);
+						stringBuilder.append(')');
+					} else {
+						final int bodyStart = Lexers.skipWhiteSpaceAndComments(script, close);
+						
+						stringBuilder.append(doInsertDeadlineChecks(header));
+						stringBuilder.append(')');
+						
+						if(bodyStart < length && script.charAt(bodyStart) == '{') {
+							stringBuilder.append(script, close, bodyStart);
+							stringBuilder.append("{ " + CHECK_DEADLINE + ";");
+							
+							braces.add(Boolean.FALSE);
+							
+							isDoWhile = false;
+							
+							previous = '{';
+							
+							index = bodyStart + 1;
+							
+							continue;
+						}
+					}
+				} else {
+					stringBuilder.append(identifier);
+					
+					isDoWhile = false;
+					
+					previous = identifier.charAt(identifier.length() - 1);
+					
+					index = end;
+					
+					continue;
+				}
+				
+				isDoWhile = false;
+				
+				previous = ')';
+				
+				index = close;
+			} else {
+				if(character == '{') {
+					braces.add(Boolean.FALSE);
+				}
+				
+				final boolean isDoBlockEnd = character == '}' && !braces.isEmpty() && braces.remove(braces.size() - 1).booleanValue();
+				
+				stringBuilder.append(character);
+				
+				isDoWhile = isDoBlockEnd || isDoWhile && Character.isWhitespace(character);
+				
+				previous = Character.isWhitespace(character) ? previous : character;
+				
+				index++;
+			}
+		}
+		
+		return stringBuilder.toString();
+	}
+	
+//	Returns true if, and only if, the while at index is the end of the innermost do statement, whose body is not a block. That is, if it is followed by a semicolon and is at the same brace depth as the do statement.
+	private static boolean doIsDoStatementEnd(final String script, final int close, final List<Integer> doStatements, final int depth) {
+		final int next = Lexers.skipWhiteSpaceAndComments(script, close);
+		
+		return next < script.length() && script.charAt(next) == ';' && !doStatements.isEmpty() && doStatements.get(doStatements.size() - 1).intValue() == depth;
+	}
+	
+//	Returns true if, and only if, tokens are the tokens of a method declaration up to, but not including, its body. Such tokens cannot start a statement, because all statements that are followed by a block start with a keyword or contain
+//	some other token, such as an assignment.
+	private static boolean doIsMethodDeclaration(final List<String> tokens) {
+		final int size = tokens.size();
+		
+		int i = 0;
+		
+		while(i < size) {
+			if(tokens.get(i).equals("@") && i + 1 < size && !tokens.get(i + 1).equals("interface")) {
+				i = doSkipQualifiedName(tokens, i + 1);
+				i = i < size && tokens.get(i).equals("(") ? doSkipBalanced(tokens, i, "(", ")") : i;
+			} else if(MODIFIERS.contains(tokens.get(i))) {
+				i++;
+			} else {
+				break;
+			}
+		}
+		
+		if(i < size && tokens.get(i).equals("<")) {
+			i = doSkipBalanced(tokens, i, "<", ">");
+		}
+		
+		if(i >= size || !(doIsName(tokens.get(i)) || PRIMITIVE_TYPES.contains(tokens.get(i)))) {
+			return false;
+		}
+		
+		i = doSkipQualifiedName(tokens, i);
+		i = i < size && tokens.get(i).equals("<") ? doSkipBalanced(tokens, i, "<", ">") : i;
+		
+		while(i + 1 < size && tokens.get(i).equals("[") && tokens.get(i + 1).equals("]")) {
+			i += 2;
+		}
+		
+		if(i + 1 >= size || !doIsName(tokens.get(i)) || !tokens.get(i + 1).equals("(")) {
+			return false;
+		}
+		
+		i = doSkipBalanced(tokens, i + 1, "(", ")");
+		
+		while(i + 1 < size && tokens.get(i).equals("[") && tokens.get(i + 1).equals("]")) {
+			i += 2;
+		}
+		
+		if(i < size && tokens.get(i).equals("throws")) {
+			do {
+				if(i + 1 >= size || !doIsName(tokens.get(i + 1))) {
+					return false;
+				}
+				
+				i = doSkipQualifiedName(tokens, i + 1);
+			} while(i < size && tokens.get(i).equals(","));
+		}
+		
+		return i == size;
+	}
+	
+	private static boolean doIsName(final String token) {
+		return Character.isJavaIdentifierStart(token.charAt(0)) && !Lexers.isKeyword(token);
+	}
+	
+	private static boolean doIsSubstitutionVariable(final String identifier) {
+		return identifier.length() > 1 && identifier.charAt(0) == '$' && Character.isJavaIdentifierStart(identifier.charAt(1)) && !Lexers.isKeyword(identifier.substring(1));
+	}
+	
+	private static int doParseImportStatement(final String script, final int index, final StringBuilder importStatement) {
+		int i = Lexers.skipWhiteSpaceAndComments(script, index);
+		
+		importStatement.append("import ");
+		
+		if(i < script.length() && Character.isJavaIdentifierStart(script.charAt(i))) {
+			final int end = Lexers.skipIdentifier(script, i);
+			
+			if(script.substring(i, end).equals("static")) {
+				importStatement.append("static ");
+				
+				i = end;
+			}
+		}
+		
+		final StringBuilder name = new StringBuilder();
+		
+		i = doParseQualifiedName(script, i, name, true);
+		
+		if(i >= 0) {
+			importStatement.append(name);
+			importStatement.append(";");
+		}
+		
+		return i;
+	}
+	
+//	Parses a qualified name followed by a semicolon, starting at index. Returns the index following the semicolon, or -1 if there is no such name.
+	private static int doParseQualifiedName(final String script, final int index, final StringBuilder name, final boolean isWildcardAllowed) {
+		final int length = script.length();
+		
+		int i = Lexers.skipWhiteSpaceAndComments(script, index);
+		
+		while(true) {
+			if(i >= length || !Character.isJavaIdentifierStart(script.charAt(i))) {
+				return -1;
+			}
+			
+			final int end = Lexers.skipIdentifier(script, i);
+			
+			final String identifier = script.substring(i, end);
+			
+			if(Lexers.isKeyword(identifier)) {
+				return -1;
+			}
+			
+			name.append(identifier);
+			
+			i = Lexers.skipWhiteSpaceAndComments(script, end);
+			
+			if(i < length && script.charAt(i) == ';') {
+				return i + 1;
+			}
+			
+			if(i >= length || script.charAt(i) != '.') {
+				return -1;
+			}
+			
+			name.append('.');
+			
+			i = Lexers.skipWhiteSpaceAndComments(script, i + 1);
+			
+			if(isWildcardAllowed && i < length && script.charAt(i) == '*') {
+				name.append('*');
+				
+				i = Lexers.skipWhiteSpaceAndComments(script, i + 1);
+				
+				return i < length && script.charAt(i) == ';' ? i + 1 : -1;
+			}
+		}
+	}
+	
+//	Returns the index following out or err in System.out or System.err, where index follows System, or -1 if there is none.
+	private static int doParseSystemStream(final String script, final int index) {
+		final int dot = Lexers.skipWhiteSpaceAndComments(script, index);
+		
+		if(dot >= script.length() || script.charAt(dot) != '.') {
+			return -1;
+		}
+		
+		final int start = Lexers.skipWhiteSpaceAndComments(script, dot + 1);
+		
+		if(start >= script.length() || !Character.isJavaIdentifierStart(script.charAt(start))) {
+			return -1;
+		}
+		
+		final int end = Lexers.skipIdentifier(script, start);
+		
+		final String identifier = script.substring(start, end);
+		
+		return identifier.equals("out") || identifier.equals("err") ? end : -1;
+	}
+	
+//	Returns the index following the token that closes the token at index, or the number of tokens if it is not closed.
+	private static int doSkipBalanced(final List<String> tokens, final int index, final String open, final String close) {
+		int depth = 0;
+		
+		for(int i = index; i < tokens.size(); i++) {
+			if(tokens.get(i).equals(open)) {
+				depth++;
+			} else if(tokens.get(i).equals(close) && --depth == 0) {
+				return i + 1;
+			}
+		}
+		
+		return tokens.size();
+	}
+	
+//	Returns the index following the parenthesis that closes the parenthesis at index, or -1 if it is not closed.
+	private static int doSkipParentheses(final String script, final int index) {
+		int depth = 0;
+		int i = index;
+		
+		while(i < script.length()) {
+			if(Lexers.isLineCommentStart(script, i)) {
+				i = Lexers.skipLineComment(script, i);
+			} else if(Lexers.isBlockCommentStart(script, i)) {
+				i = Lexers.skipBlockComment(script, i);
+			} else if(Lexers.isLiteralStart(script, i)) {
+				i = Lexers.skipLiteral(script, i);
+			} else if(script.charAt(i) == '(') {
+				depth++;
+				
+				i++;
+			} else if(script.charAt(i) == ')' && --depth == 0) {
+				return i + 1;
+			} else {
+				i++;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private static int doSkipQualifiedName(final List<String> tokens, final int index) {
+		int i = index + 1;
+		
+		while(i + 1 < tokens.size() && tokens.get(i).equals(".") && doIsName(tokens.get(i + 1))) {
+			i += 2;
+		}
+		
+		return i;
+	}
+	
+//	Parses the interface names of an implements directive, that is everything up to the semicolon, starting at index. Returns the index following the semicolon, or -1 if there is no such directive.
+	private static int doParseImplementsDirective(final String script, final int index, final StringBuilder interfaceName) {
+		final int length = script.length();
+		
+		int i = index;
+		
+		while(i < length) {
+			if(Lexers.isLineCommentStart(script, i) || Lexers.isBlockCommentStart(script, i)) {
+				interfaceName.append(' ');
+				
+				i = Lexers.skipWhiteSpaceAndComments(script, i);
+			} else if(script.charAt(i) == ';') {
+				return interfaceName.toString().trim().isEmpty() ? -1 : i + 1;
+			} else if(script.charAt(i) == '{' || script.charAt(i) == '}' || script.charAt(i) == '=' || Lexers.isLiteralStart(script, i)) {
+				return -1;
+			} else {
+				interfaceName.append(script.charAt(i));
+				
+				i++;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private static void doAppendLineBreaks(final StringBuilder stringBuilder, final String script, final int start, final int end) {
+		for(int i = start; i < end; i++) {
+			if(script.charAt(i) == '\n') {
+				stringBuilder.append('\n');
+			}
+		}
+	}
+}
\ No newline at end of file
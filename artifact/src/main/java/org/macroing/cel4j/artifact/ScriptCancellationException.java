@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import javax.script.ScriptException;
+
+/**
+ * A {@code ScriptCancellationException} is thrown when the evaluation of a script is cancelled before it has finished.
+ * <p>
+ * The evaluation of a script is cancelled when the timeout given by the {@code ScriptContext} attribute {@code org.macroing.cel4j.artifact.timeout} elapses, or when the thread that evaluates it is interrupted while a deadline is in effect, such as
+ * when a {@code CompletableFuture} returned by a {@link ScriptExecutor} is cancelled or times out.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class ScriptCancellationException extends ScriptException {
+	private static final long serialVersionUID = 1L;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code ScriptCancellationException} instance.
+	 * 
+	 * @param message the message of this {@code ScriptCancellationException}
+	 */
+	public ScriptCancellationException(final String message) {
+		super(message);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,420 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleScriptContext;
+
+/**
+ * A {@code ScriptExecutor} evaluates scripts concurrently using a {@code ScriptEngine}.
+ * <p>
+ * Each evaluation is performed using its own {@code ScriptContext}, whose engine scope is the {@code Bindings} given for that evaluation, or a new {@code Bindings} instance. It shares the global scope, the reader and the writers of the
+ * {@code ScriptContext} of the {@code ScriptEngine}. The result of an evaluation is returned as a {@code CompletableFuture}, so the caller does not have to wait for it.
+ * <p>
+ * By default, each evaluation is performed by its own virtual thread if the Java runtime supports virtual threads, so a large number of scripts that wait for I/O can be evaluated concurrently without a platform thread for each of them.
+ * Otherwise the evaluations are performed by a bounded pool of daemon threads, whose size can be configured using the system property {@code org.macroing.cel4j.artifact.executor.threads}. It defaults to four times the number of available
+ * processors. To always use the pool, set the system property {@code org.macroing.cel4j.artifact.executor.virtualThreads} to {@code false}.
+ * <p>
+ * An evaluation can be given a timeout. When the timeout elapses, its {@code CompletableFuture} completes exceptionally with a {@code TimeoutException}. When a {@code CompletableFuture} is cancelled, times out or is otherwise completed before
+ * its evaluation has finished, the thread that performs the evaluation is interrupted, so a script that waits, sleeps or performs interruptible I/O stops. If the {@code ScriptEngine} is an {@link ArtifactScriptEngine} and the evaluation
+ * has a timeout, a script that loops without waiting also stops, because it is compiled with checks for the timeout and the interrupt. Closing a {@code ScriptExecutor} cancels all of its evaluations that have not finished.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class ScriptExecutor implements AutoCloseable {
+	private static final AtomicInteger IDENTIFIER = new AtomicInteger();
+	private static final ScheduledThreadPoolExecutor TIMEOUT_SCHEDULER = doCreateTimeoutScheduler();
+	private static final String PROPERTY_THREADS = "org.macroing.cel4j.artifact.executor.threads";
+	private static final String PROPERTY_VIRTUAL_THREADS = "org.macroing.cel4j.artifact.executor.virtualThreads";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final AtomicBoolean isClosed;
+	private final Executor executor;
+	private final ExecutorService executorService;
+	private final ScriptEngine scriptEngine;
+	private final Set<Task> tasks;
+	private final boolean isUsingVirtualThreads;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code ScriptExecutor} instance that evaluates scripts using {@code scriptEngine}.
+	 * <p>
+	 * The evaluations are performed by virtual threads if they are supported, or by a bounded pool of daemon threads otherwise. Both are owned by the {@code ScriptExecutor} and released by {@link #close()}.
+	 * <p>
+	 * If {@code scriptEngine} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param scriptEngine the {@code ScriptEngine} to evaluate scripts with
+	 * @throws NullPointerException thrown if, and only if, {@code scriptEngine} is {@code null}
+	 */
+	public ScriptExecutor(final ScriptEngine scriptEngine) {
+		final ExecutorService virtualThreadExecutorService = doCreateVirtualThreadExecutorService();
+		
+		this.scriptEngine = Objects.requireNonNull(scriptEngine, "scriptEngine == null");
+		this.executorService = virtualThreadExecutorService != null ? virtualThreadExecutorService : doCreateThreadPoolExecutor();
+		this.executor = this.executorService;
+		this.isClosed = new AtomicBoolean(false);
+		this.isUsingVirtualThreads = virtualThreadExecutorService != null;
+		this.tasks = ConcurrentHashMap.newKeySet();
+	}
+	
+	/**
+	 * Constructs a new {@code ScriptExecutor} instance that evaluates scripts using {@code scriptEngine} and {@code executor}.
+	 * <p>
+	 * The {@code ScriptExecutor} does not own {@code executor}, so it is not shut down by {@link #close()}.
+	 * <p>
+	 * If either {@code scriptEngine} or {@code executor} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param scriptEngine the {@code ScriptEngine} to evaluate scripts with
+	 * @param executor the {@code Executor} to perform the evaluations with
+	 * @throws NullPointerException thrown if, and only if, either {@code scriptEngine} or {@code executor} are {@code null}
+	 */
+	public ScriptExecutor(final ScriptEngine scriptEngine, final Executor executor) {
+		this.scriptEngine = Objects.requireNonNull(scriptEngine, "scriptEngine == null");
+		this.executor = Objects.requireNonNull(executor, "executor == null");
+		this.executorService = null;
+		this.isClosed = new AtomicBoolean(false);
+		this.isUsingVirtualThreads = false;
+		this.tasks = ConcurrentHashMap.newKeySet();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Evaluates {@code script} asynchronously and returns a {@code CompletableFuture} with its result.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * scriptExecutor.submit(script, scriptEngine.createBindings());
+	 * }
+	 * </pre>
+	 * If {@code script} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ScriptExecutor} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @return a {@code CompletableFuture} with the result of {@code script}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ScriptExecutor} has been closed
+	 * @throws NullPointerException thrown if, and only if, {@code script} is {@code null}
+	 */
+	public CompletableFuture<Object> submit(final String script) {
+		return doSubmit(Objects.requireNonNull(script, "script == null"), this.scriptEngine.createBindings(), 0L);
+	}
+	
+	/**
+	 * Evaluates {@code script} asynchronously, using {@code bindings} as its engine scope, and returns a {@code CompletableFuture} with its result.
+	 * <p>
+	 * If either {@code script} or {@code bindings} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code ScriptExecutor} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @param bindings the {@code Bindings} to use as the engine scope
+	 * @return a {@code CompletableFuture} with the result of {@code script}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ScriptExecutor} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script} or {@code bindings} are {@code null}
+	 */
+	public CompletableFuture<Object> submit(final String script, final Bindings bindings) {
+		return doSubmit(Objects.requireNonNull(script, "script == null"), Objects.requireNonNull(bindings, "bindings == null"), 0L);
+	}
+	
+	/**
+	 * Evaluates {@code script} asynchronously, using {@code bindings} as its engine scope, and returns a {@code CompletableFuture} with its result.
+	 * <p>
+	 * If the evaluation has not finished when {@code timeout} has elapsed, the returned {@code CompletableFuture} completes exceptionally with a {@code TimeoutException} and the thread that performs the evaluation is interrupted.
+	 * <p>
+	 * If either {@code script}, {@code bindings} or {@code timeUnit} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code timeout} is less than or equal to {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If this {@code ScriptExecutor} has been closed, an {@code IllegalStateException} will be thrown.
+	 * 
+	 * @param script the script to evaluate
+	 * @param bindings the {@code Bindings} to use as the engine scope
+	 * @param timeout the maximum time to wait for the evaluation
+	 * @param timeUnit the {@code TimeUnit} of {@code timeout}
+	 * @return a {@code CompletableFuture} with the result of {@code script}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code timeout} is less than or equal to {@code 0}
+	 * @throws IllegalStateException thrown if, and only if, this {@code ScriptExecutor} has been closed
+	 * @throws NullPointerException thrown if, and only if, either {@code script}, {@code bindings} or {@code timeUnit} are {@code null}
+	 */
+	public CompletableFuture<Object> submit(final String script, final Bindings bindings, final long timeout, final TimeUnit timeUnit) {
+		Objects.requireNonNull(script, "script == null");
+		Objects.requireNonNull(bindings, "bindings == null");
+		Objects.requireNonNull(timeUnit, "timeUnit == null");
+		
+		if(timeout <= 0L) {
+			throw new IllegalArgumentException("timeout <= 0");
+		}
+		
+		return doSubmit(script, bindings, timeUnit.toNanos(timeout));
+	}
+	
+	/**
+	 * Returns the {@code ScriptEngine} used by this {@code ScriptExecutor}.
+	 * 
+	 * @return the {@code ScriptEngine} used by this {@code ScriptExecutor}
+	 */
+	public ScriptEngine getScriptEngine() {
+		return this.scriptEngine;
+	}
+	
+	/**
+	 * Returns the number of evaluations that have been submitted, but have not finished.
+	 * 
+	 * @return the number of evaluations that have been submitted, but have not finished
+	 */
+	public int getPendingCount() {
+		return this.tasks.size();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code ScriptExecutor} has been closed, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, this {@code ScriptExecutor} has been closed, {@code false} otherwise
+	 */
+	public boolean isClosed() {
+		return this.isClosed.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code ScriptExecutor} performs its evaluations using virtual threads, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, this {@code ScriptExecutor} performs its evaluations using virtual threads, {@code false} otherwise
+	 */
+	public boolean isUsingVirtualThreads() {
+		return this.isUsingVirtualThreads;
+	}
+	
+	/**
+	 * Closes this {@code ScriptExecutor}.
+	 * <p>
+	 * All evaluations that have not finished are cancelled, and the threads performing them are interrupted. If this {@code ScriptExecutor} owns its threads, they are released. Closing a {@code ScriptExecutor} does not close its
+	 * {@code ScriptEngine}.
+	 * <p>
+	 * Calling this method more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if(this.isClosed.compareAndSet(false, true)) {
+			for(final Task task : new ArrayList<>(this.tasks)) {
+				task.getCompletableFuture().cancel(true);
+			}
+			
+			if(this.executorService != null) {
+				this.executorService.shutdownNow();
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private CompletableFuture<Object> doSubmit(final String script, final Bindings bindings, final long timeout) {
+		if(this.isClosed.get()) {
+			throw new IllegalStateException("The ScriptExecutor has been closed.");
+		}
+		
+		final ScriptContext scriptContext = this.scriptEngine.getContext();
+		
+		final
+		ScriptContext isolatedScriptContext = new SimpleScriptContext();
+		isolatedScriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+		isolatedScriptContext.setBindings(scriptContext.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+		isolatedScriptContext.setErrorWriter(scriptContext.getErrorWriter());
+		isolatedScriptContext.setReader(scriptContext.getReader());
+		isolatedScriptContext.setWriter(scriptContext.getWriter());
+		
+		final Task task = new Task(this.scriptEngine, script, isolatedScriptContext, timeout > 0L ? Deadline.after(timeout) : null);
+		
+		final CompletableFuture<Object> completableFuture = task.getCompletableFuture();
+		
+		this.tasks.add(task);
+		
+		if(timeout > 0L) {
+			final ScheduledFuture<?> scheduledFuture = TIMEOUT_SCHEDULER.schedule(() -> completableFuture.completeExceptionally(doCreateTimeoutException()), timeout, TimeUnit.NANOSECONDS);
+			
+			completableFuture.whenComplete((result, throwable) -> scheduledFuture.cancel(false));
+		}
+		
+		completableFuture.whenComplete((result, throwable) -> {
+			task.interrupt();
+			
+			this.tasks.remove(task);
+		});
+		
+		try {
+			this.executor.execute(task);
+		} catch(final RejectedExecutionException e) {
+			completableFuture.completeExceptionally(e);
+		}
+		
+		if(this.isClosed.get()) {
+			completableFuture.cancel(true);
+		}
+		
+		return completableFuture;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static ExecutorService doCreateThreadPoolExecutor() {
+		final int threads = Math.max(Integer.getInteger(PROPERTY_THREADS, Runtime.getRuntime().availableProcessors() * 4).intValue(), 1);
+		
+		final
+		ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> doCreateThread(runnable, "Artifact-Script-Executor-" + IDENTIFIER.incrementAndGet()));
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		
+		return threadPoolExecutor;
+	}
+	
+//	Virtual threads are created using reflection, so this class can be compiled for, and run on, a Java runtime that does not support them.
+	private static ExecutorService doCreateVirtualThreadExecutorService() {
+		if(Objects.toString(System.getProperty(PROPERTY_VIRTUAL_THREADS)).equals("false")) {
+			return null;
+		}
+		
+		try {
+			return ExecutorService.class.cast(Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+		} catch(final ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+	
+	private static ScheduledThreadPoolExecutor doCreateTimeoutScheduler() {
+		final
+		ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(1, runnable -> doCreateThread(runnable, "Artifact-Script-Timeout"));
+		scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
+		
+		return scheduledThreadPoolExecutor;
+	}
+	
+	private static Thread doCreateThread(final Runnable runnable, final String name) {
+		final
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		
+		return thread;
+	}
+	
+	private static TimeoutException doCreateTimeoutException() {
+		return new TimeoutException("The script did not finish within the timeout.");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Task implements Runnable {
+		private final CompletableFuture<Object> completableFuture;
+		private final Deadline deadline;
+		private final ScriptContext scriptContext;
+		private final ScriptEngine scriptEngine;
+		private final String script;
+		private Thread thread;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Task(final ScriptEngine scriptEngine, final String script, final ScriptContext scriptContext, final Deadline deadline) {
+			this.scriptEngine = scriptEngine;
+			this.script = script;
+			this.scriptContext = scriptContext;
+			this.deadline = deadline;
+			this.completableFuture = new CompletableFuture<>();
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public CompletableFuture<Object> getCompletableFuture() {
+			return this.completableFuture;
+		}
+		
+		public synchronized void interrupt() {
+			if(this.thread != null) {
+				this.thread.interrupt();
+			}
+		}
+		
+//		The thread is only interrupted while it evaluates the script. An interrupt that arrives after the evaluation has finished is cleared, so it does not affect the next task performed by the same thread.
+		@Override
+		public void run() {
+			synchronized(this) {
+				if(this.completableFuture.isDone()) {
+					return;
+				}
+				
+				this.thread = Thread.currentThread();
+			}
+			
+//			If the evaluation has a timeout, its Deadline makes an ArtifactScriptEngine evaluate a variant of the script that checks whether the timeout has elapsed or its thread has been interrupted, so a script that loops without waiting
+//			also stops. Otherwise the script is evaluated as it is, so it is not compiled a second time with the checks.
+			final Deadline previous = this.deadline != null ? Deadline.enter(this.deadline) : null;
+			
+			try {
+				this.completableFuture.complete(this.scriptEngine.eval(this.script, this.scriptContext));
+			} catch(final ScriptCancellationException e) {
+//				The Deadline may pass just before the timeout is noticed by TIMEOUT_SCHEDULER, in which case the evaluation has still timed out.
+				this.completableFuture.completeExceptionally(this.deadline != null && this.deadline.hasPassed() ? doCreateTimeoutException() : e);
+			} catch(final Exception e) {
+				this.completableFuture.completeExceptionally(e);
+			} catch(final Error e) {
+				this.completableFuture.completeExceptionally(e);
+				
+				throw e;
+			} finally {
+				if(this.deadline != null) {
+					Deadline.exit(previous);
+				}
+				
+				synchronized(this) {
+					this.thread = null;
+					
+					Thread.interrupted();
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Objects;
+
+final class ScriptKey {
+	private static final String OPERATOR_CHARACTERS = "!%&*+-/<=>^|";
+	private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+	private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final String text;
+	private final long hash0;
+	private final long hash1;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private ScriptKey(final String text, final long hash0, final long hash1) {
+		this.text = text;
+		this.hash0 = hash0;
+		this.hash1 = hash1;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public String getText() {
+		return this.text;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", Long.valueOf(this.hash0), Long.valueOf(this.hash1));
+	}
+	
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof ScriptKey)) {
+			return false;
+		} else if(this.hash0 != ScriptKey.class.cast(object).hash0) {
+			return false;
+		} else if(this.hash1 != ScriptKey.class.cast(object).hash1) {
+			return false;
+		} else if(!Objects.equals(this.text, ScriptKey.class.cast(object).text)) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		return (int)(this.hash1 ^ (this.hash1 >>> 32));
+	}
+	
+	public int length() {
+		return this.text.length();
+	}
+	
+	public long getHash0() {
+		return this.hash0;
+	}
+	
+	public long getHash1() {
+		return this.hash1;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The script is normalized in a single pass. Comments and white space are removed, except where removing them would join two identifiers, keywords or literals, or two operators. String literals, character literals and text blocks are
+//	retained as-is.
+	public static ScriptKey of(final String script) {
+		final int length = script.length();
+		
+		final char[] characters = new char[length];
+		
+		int count = 0;
+		int index = 0;
+		
+		boolean isSeparated = false;
+		
+		while(index < length) {
+			final char character = script.charAt(index);
+			
+			if(Character.isWhitespace(character)) {
+				isSeparated = true;
+				
+				index++;
+			} else if(Lexers.isLineCommentStart(script, index)) {
+				isSeparated = true;
+				
+				index = Lexers.skipLineComment(script, index);
+			} else if(Lexers.isBlockCommentStart(script, index)) {
+				isSeparated = true;
+				
+				index = Lexers.skipBlockComment(script, index);
+			} else {
+				if(isSeparated && count > 0 && doIsSeparationRequired(characters[count - 1], character)) {
+					characters[count++] = ' ';
+				}
+				
+				isSeparated = false;
+				
+				final int end = Lexers.isLiteralStart(script, index) ? Lexers.skipLiteral(script, index) : index + 1;
+				
+				script.getChars(index, end, characters, count);
+				
+				count += end - index;
+				
+				index = end;
+			}
+		}
+		
+		long hash0 = FNV_OFFSET_BASIS;
+		long hash1 = 0L;
+		
+		for(int i = 0; i < count; i++) {
+			final char character = characters[i];
+			
+			hash0 = (hash0 ^ character) * FNV_PRIME;
+			hash1 = (hash1 + character) * GOLDEN_RATIO;
+			hash1 ^= hash1 >>> 29;
+		}
+		
+		return new ScriptKey(new String(characters, 0, count), doMix(hash0 ^ count), doMix(hash1 ^ count));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static boolean doIsSeparationRequired(final char a, final char b) {
+		if(Character.isJavaIdentifierPart(a) && Character.isJavaIdentifierPart(b)) {
+			return true;
+		}
+		
+		if(OPERATOR_CHARACTERS.indexOf(a) >= 0 && OPERATOR_CHARACTERS.indexOf(b) >= 0) {
+			return true;
+		}
+		
+		return false;
+	}
+	
+	private static long doMix(final long hash) {
+		long mixedHash = hash;
+		
+		mixedHash ^= mixedHash >>> 33;
+		mixedHash *= 0xFF51AFD7ED558CCDL;
+		mixedHash ^= mixedHash >>> 33;
+		mixedHash *= 0xC4CEB9FE1A85EC53L;
+		mixedHash ^= mixedHash >>> 33;
+		
+		return mixedHash;
+	}
+}
\ No newline at end of file
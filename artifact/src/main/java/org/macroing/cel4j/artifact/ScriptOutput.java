@@ -0,0 +1,382 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import javax.script.ScriptContext;
+
+//	A ScriptOutput captures the output of one evaluation of a script, that is written to ArtifactScript.out and ArtifactScript.err by the thread that evaluates it. The output is buffered and written to the writer and the error writer of the
+//	ScriptContext of the evaluation when it is closed, or whenever a buffer grows beyond MAXIMUM_BUFFER_SIZE. Output written by other threads, or when no evaluation is in progress, is written to System.out and System.err.
+final class ScriptOutput implements Closeable {
+	public static final PrintStream ERR = new ScriptPrintStream(true);
+	public static final PrintStream OUT = new ScriptPrintStream(false);
+	private static final ThreadLocal<ScriptOutput> CURRENT = new ThreadLocal<>();
+	private static final int MAXIMUM_BUFFER_SIZE = 64 * 1024;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final ScriptContext scriptContext;
+	private final ScriptOutput previous;
+	private Buffer errBuffer;
+	private Buffer outBuffer;
+	private PrintStream err;
+	private PrintStream out;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private ScriptOutput(final ScriptContext scriptContext, final ScriptOutput previous) {
+		this.scriptContext = scriptContext;
+		this.previous = previous;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Writes the buffered output to the writers of the ScriptContext and makes the previous ScriptOutput of the current thread, if any, current again.
+	@Override
+	public void close() throws IOException {
+		try {
+			doFlush(this.out, this.outBuffer);
+			doFlush(this.err, this.errBuffer);
+		} finally {
+			if(this.previous != null) {
+				CURRENT.set(this.previous);
+			} else {
+				CURRENT.remove();
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Makes a new ScriptOutput for scriptContext the ScriptOutput of the current thread. Nothing is allocated for its buffers until something is written.
+	public static ScriptOutput capture(final ScriptContext scriptContext) {
+		final ScriptOutput scriptOutput = new ScriptOutput(scriptContext, CURRENT.get());
+		
+		CURRENT.set(scriptOutput);
+		
+		return scriptOutput;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private PrintStream doGetErr() {
+		if(this.err == null) {
+			this.errBuffer = new Buffer(this.scriptContext, true);
+			this.err = new PrintStream(this.errBuffer);
+		}
+		
+		return this.err;
+	}
+	
+	private PrintStream doGetOut() {
+		if(this.out == null) {
+			this.outBuffer = new Buffer(this.scriptContext, false);
+			this.out = new PrintStream(this.outBuffer);
+		}
+		
+		return this.out;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static PrintStream doGetTarget(final boolean isErr) {
+		final ScriptOutput scriptOutput = CURRENT.get();
+		
+		if(scriptOutput != null) {
+			return isErr ? scriptOutput.doGetErr() : scriptOutput.doGetOut();
+		}
+		
+		return isErr ? System.err : System.out;
+	}
+	
+	private static void doFlush(final PrintStream printStream, final Buffer buffer) throws IOException {
+		if(printStream != null) {
+			printStream.flush();
+			
+			buffer.drain();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Buffer extends ByteArrayOutputStream {
+		private final ScriptContext scriptContext;
+		private final boolean isErr;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Buffer(final ScriptContext scriptContext, final boolean isErr) {
+			super(256);
+			
+			this.scriptContext = scriptContext;
+			this.isErr = isErr;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public synchronized void write(final byte[] b, final int off, final int len) {
+			super.write(b, off, len);
+			
+			if(this.count > MAXIMUM_BUFFER_SIZE) {
+				try {
+					drain();
+				} catch(final IOException e) {
+					reset();
+				}
+			}
+		}
+		
+//		If the ScriptContext has no writer, the output is discarded.
+		public synchronized void drain() throws IOException {
+			if(this.count > 0) {
+				final Writer writer = this.isErr ? this.scriptContext.getErrorWriter() : this.scriptContext.getWriter();
+				
+				final String string = new String(this.buf, 0, this.count, Charset.defaultCharset());
+				
+				reset();
+				
+				if(writer != null) {
+					writer.write(string);
+					writer.flush();
+				}
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Each method delegates to the PrintStream of the current evaluation, so the threads that evaluate scripts do not contend for a lock. The OutputStream also delegates, for the methods that are not overridden.
+	private static final class ScriptPrintStream extends PrintStream {
+		private final boolean isErr;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public ScriptPrintStream(final boolean isErr) {
+			super(new OutputStream() {
+				@Override
+				public void write(final int b) {
+					doGetTarget(isErr).write(b);
+				}
+				
+				@Override
+				public void write(final byte[] b, final int off, final int len) {
+					doGetTarget(isErr).write(b, off, len);
+				}
+				
+				@Override
+				public void flush() {
+					doGetTarget(isErr).flush();
+				}
+			});
+			
+			this.isErr = isErr;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public PrintStream append(final char c) {
+			doGetTarget(this.isErr).append(c);
+			
+			return this;
+		}
+		
+		@Override
+		public PrintStream append(final CharSequence csq) {
+			doGetTarget(this.isErr).append(csq);
+			
+			return this;
+		}
+		
+		@Override
+		public PrintStream append(final CharSequence csq, final int start, final int end) {
+			doGetTarget(this.isErr).append(csq, start, end);
+			
+			return this;
+		}
+		
+		@Override
+		public PrintStream format(final Locale l, final String format, final Object... args) {
+			doGetTarget(this.isErr).format(l, format, args);
+			
+			return this;
+		}
+		
+		@Override
+		public PrintStream format(final String format, final Object... args) {
+			doGetTarget(this.isErr).format(format, args);
+			
+			return this;
+		}
+		
+		@Override
+		public PrintStream printf(final Locale l, final String format, final Object... args) {
+			doGetTarget(this.isErr).printf(l, format, args);
+			
+			return this;
+		}
+		
+		@Override
+		public PrintStream printf(final String format, final Object... args) {
+			doGetTarget(this.isErr).printf(format, args);
+			
+			return this;
+		}
+		
+		@Override
+		public boolean checkError() {
+			return doGetTarget(this.isErr).checkError();
+		}
+		
+//		The streams are owned by the ScriptEngine and shared by all evaluations, so they are never closed by a script. Closing them would otherwise close the writer of the current evaluation, or System.out and System.err.
+		@Override
+		public void close() {
+			
+		}
+		
+		@Override
+		public void flush() {
+			doGetTarget(this.isErr).flush();
+		}
+		
+		@Override
+		public void print(final Object obj) {
+			doGetTarget(this.isErr).print(obj);
+		}
+		
+		@Override
+		public void print(final String s) {
+			doGetTarget(this.isErr).print(s);
+		}
+		
+		@Override
+		public void print(final boolean b) {
+			doGetTarget(this.isErr).print(b);
+		}
+		
+		@Override
+		public void print(final char c) {
+			doGetTarget(this.isErr).print(c);
+		}
+		
+		@Override
+		public void print(final char[] s) {
+			doGetTarget(this.isErr).print(s);
+		}
+		
+		@Override
+		public void print(final double d) {
+			doGetTarget(this.isErr).print(d);
+		}
+		
+		@Override
+		public void print(final float f) {
+			doGetTarget(this.isErr).print(f);
+		}
+		
+		@Override
+		public void print(final int i) {
+			doGetTarget(this.isErr).print(i);
+		}
+		
+		@Override
+		public void print(final long l) {
+			doGetTarget(this.isErr).print(l);
+		}
+		
+		@Override
+		public void println() {
+			doGetTarget(this.isErr).println();
+		}
+		
+		@Override
+		public void println(final Object x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final String x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final boolean x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final char x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final char[] x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final double x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final float x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final int x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void println(final long x) {
+			doGetTarget(this.isErr).println(x);
+		}
+		
+		@Override
+		public void write(final byte[] buf) throws IOException {
+			doGetTarget(this.isErr).write(buf);
+		}
+		
+		@Override
+		public void write(final byte[] buf, final int off, final int len) {
+			doGetTarget(this.isErr).write(buf, off, len);
+		}
+		
+		@Override
+		public void write(final int b) {
+			doGetTarget(this.isErr).write(b);
+		}
+	}
+}
\ No newline at end of file
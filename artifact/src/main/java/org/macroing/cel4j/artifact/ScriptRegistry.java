@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+final class ScriptRegistry {
+	public static final String INDEX = "META-INF/artifact/index.properties";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final ClassLoader classLoader;
+	private final Map<String, String> classNames;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ScriptRegistry(final ClassLoader classLoader) {
+		this.classLoader = Objects.requireNonNull(classLoader, "classLoader == null");
+		this.classNames = doLoadClassNames(classLoader);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Returns the precompiled class registered for key, or null if there is none or it cannot be loaded. In the latter case the script is compiled as usual.
+	public Class<?> get(final String key) {
+		final String className = this.classNames.get(key);
+		
+		if(className != null) {
+			try {
+				return Class.forName(className, true, this.classLoader);
+			} catch(final ClassNotFoundException | LinkageError e) {
+				return null;
+			}
+		}
+		
+		return null;
+	}
+	
+	public boolean isEmpty() {
+		return this.classNames.isEmpty();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The key is a hash of the source code generated for a script, which contains the script, the types of its variables, its package and all import statements, but not the name of the class.
+	public static String getKey(final String sourceCode) {
+		try {
+			final byte[] bytes = MessageDigest.getInstance("SHA-256").digest(sourceCode.getBytes(StandardCharsets.UTF_8));
+			
+			final StringBuilder stringBuilder = new StringBuilder(bytes.length * 2);
+			
+			for(final byte b : bytes) {
+				stringBuilder.append(Character.forDigit((b >> 4) & 0xF, 16));
+				stringBuilder.append(Character.forDigit(b & 0xF, 16));
+			}
+			
+			return stringBuilder.toString();
+		} catch(final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Map<String, String> doLoadClassNames(final ClassLoader classLoader) {
+		final Map<String, String> classNames = new HashMap<>();
+		
+		try {
+			final Enumeration<URL> urls = classLoader.getResources(INDEX);
+			
+			while(urls.hasMoreElements()) {
+				final Properties properties = new Properties();
+				
+				try(final InputStream inputStream = urls.nextElement().openStream()) {
+					properties.load(inputStream);
+				}
+				
+				for(final String key : properties.stringPropertyNames()) {
+					classNames.putIfAbsent(key, properties.getProperty(key));
+				}
+			}
+		} catch(final IOException | RuntimeException e) {
+//			The scripts are compiled as usual.
+		}
+		
+		return classNames;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.Closeable;
+import java.util.Objects;
+
+import javax.script.ScriptContext;
+
+/**
+ * {@code ScriptRuntime} contains the methods that the generated code of a script calls.
+ * <p>
+ * The classes of a script are defined by a class loader of their own, so they are not in the same runtime package as {@link ArtifactScript}. This class is public, so that a script and all of its nested classes can call its methods. It is not
+ * meant to be used directly.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class ScriptRuntime {
+	private ScriptRuntime() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Starts capturing what the current thread writes to {@link ArtifactScript#out} and {@link ArtifactScript#err} for {@code scriptContext}.
+	 * <p>
+	 * Returns a {@code Closeable} that writes the captured output to the writer and the error writer of {@code scriptContext}, and stops capturing it, when it is closed. Until then, the output is buffered, so the evaluations of scripts in
+	 * different threads do not contend for a shared stream. This method is called by the generated code of a script that writes output, at the start of each evaluation.
+	 * <p>
+	 * If {@code scriptContext} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param scriptContext the {@code ScriptContext} to write the captured output to
+	 * @return a {@code Closeable} that writes the captured output to the writers of {@code scriptContext} when it is closed
+	 * @throws NullPointerException thrown if, and only if, {@code scriptContext} is {@code null}
+	 */
+	public static Closeable captureOutput(final ScriptContext scriptContext) {
+		return ScriptOutput.capture(Objects.requireNonNull(scriptContext, "scriptContext == null"));
+	}
+	
+	/**
+	 * Checks whether the evaluation of the current script has been cancelled.
+	 * <p>
+	 * When a script is evaluated with a deadline, it is compiled with a call to this method at each loop back-edge and at the start of each method. If the deadline has passed, or if the current thread has been interrupted, the evaluation is
+	 * ended and a {@link ScriptCancellationException} is thrown by the {@code ScriptEngine}. The deadline is only checked once every few calls, so this method is cheap. If there is no deadline, this method does nothing.
+	 */
+	public static void checkDeadline() {
+		Deadline.check();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class ScriptTrace {
+	private static final String EXTENSION_TEMPORARY_FILE = ".tmp";
+	private static final String SEPARATOR = "\t";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final File file;
+	private final Set<String> lines;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ScriptTrace(final File file) {
+		this.file = Objects.requireNonNull(file, "file == null");
+		this.lines = ConcurrentHashMap.newKeySet();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Returns the recorded scripts, each with the classes of its variables for every variant that was compiled. A variant whose classes cannot be loaded by classLoader is skipped. The file is rewritten without duplicate lines.
+	public synchronized Map<String, List<Class<?>[]>> load(final ClassLoader classLoader) throws IOException {
+		final Map<String, List<Class<?>[]>> scripts = new LinkedHashMap<>();
+		
+		if(!this.file.isFile()) {
+			return scripts;
+		}
+		
+		final Set<String> lines = new LinkedHashSet<>(Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8));
+		
+		lines.remove("");
+		
+		for(final String line : lines) {
+			this.lines.add(line);
+			
+			try {
+				final String[] columns = line.split(SEPARATOR, -1);
+				
+				final String script = new String(Base64.getDecoder().decode(columns[0]), StandardCharsets.UTF_8);
+				
+				final Class<?>[] classes = new Class<?>[columns.length - 1];
+				
+				for(int i = 0; i < classes.length; i++) {
+					classes[i] = columns[i + 1].isEmpty() ? null : Class.forName(columns[i + 1], false, classLoader);
+				}
+				
+				scripts.computeIfAbsent(script, key -> new ArrayList<>()).add(classes);
+			} catch(final ClassNotFoundException | IllegalArgumentException | LinkageError e) {
+//				The line is corrupt or refers to a class that is not available in this process, such as a class declared by a script.
+			}
+		}
+		
+		final Path temporaryPath = new File(this.file.getPath() + EXTENSION_TEMPORARY_FILE).toPath();
+		
+		try {
+			Files.write(temporaryPath, lines, StandardCharsets.UTF_8);
+			Files.move(temporaryPath, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(final IOException | RuntimeException e) {
+//			The duplicate lines are kept until the next time the file is loaded.
+			temporaryPath.toFile().delete();
+		}
+		
+		return scripts;
+	}
+	
+	public void add(final String script, final Class<?>[] classes) {
+		final
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(Base64.getEncoder().encodeToString(script.getBytes(StandardCharsets.UTF_8)));
+		
+		for(final Class<?> clazz : classes) {
+			stringBuilder.append(SEPARATOR);
+			stringBuilder.append(clazz != null ? clazz.getName() : "");
+		}
+		
+		final String line = stringBuilder.toString();
+		
+		if(this.lines.add(line)) {
+			synchronized(this) {
+				try {
+					final File parentFile = this.file.getAbsoluteFile().getParentFile();
+					
+					if(parentFile != null) {
+						Files.createDirectories(parentFile.toPath());
+					}
+					
+					Files.write(this.file.toPath(), (line + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+				} catch(final IOException | RuntimeException e) {
+//					The script is still usable, it is just not recorded.
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
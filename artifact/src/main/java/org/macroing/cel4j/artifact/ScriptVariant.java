@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.Objects;
+
+import javax.script.CompiledScript;
+
+final class ScriptVariant {
+	private final Class<?>[] classes;
+	private final CompiledScript compiledScript;
+	private final boolean isExact;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ScriptVariant(final Class<?>[] classes, final CompiledScript compiledScript, final boolean isExact) {
+		this.classes = Objects.requireNonNull(classes, "classes == null");
+		this.compiledScript = Objects.requireNonNull(compiledScript, "compiledScript == null");
+		this.isExact = isExact;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Class<?>[] getClasses() {
+		return this.classes;
+	}
+	
+	public CompiledScript getCompiledScript() {
+		return this.compiledScript;
+	}
+	
+	public boolean isExact() {
+		return this.isExact;
+	}
+	
+	public boolean matches(final Class<?>[] classes) {
+		if(this.isExact) {
+			for(int i = 0; i < classes.length; i++) {
+				if(this.classes[i] != classes[i]) {
+					return false;
+				}
+			}
+		} else {
+			for(int i = 0; i < classes.length; i++) {
+				if(classes[i] != null && !this.classes[i].isAssignableFrom(classes[i])) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+}
\ No newline at end of file
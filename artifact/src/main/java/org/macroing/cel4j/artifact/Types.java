@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+final class Types {
+	private Types() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static Class<?> getAccessibleClass(final Class<?> clazz) {
+		Objects.requireNonNull(clazz, "clazz == null");
+		
+		if(clazz.isPrimitive()) {
+			return clazz;
+		}
+		
+		if(clazz.isArray()) {
+			final Class<?> componentType = clazz.getComponentType();
+			final Class<?> componentTypeAccessible = getAccessibleClass(componentType);
+			
+			return componentType == componentTypeAccessible ? clazz : doGetArrayClass(componentTypeAccessible);
+		}
+		
+		for(Class<?> currentClass = clazz; currentClass != null; currentClass = currentClass.getSuperclass()) {
+			if(doIsAccessible(currentClass)) {
+				if(currentClass == Object.class && clazz != Object.class) {
+					for(final Class<?> interfaceClass : doGetInterfaces(clazz)) {
+						if(doIsAccessible(interfaceClass)) {
+							return interfaceClass;
+						}
+					}
+				}
+				
+				return currentClass;
+			}
+		}
+		
+		return Object.class;
+	}
+	
+	public static Class<?> getCommonSuperclass(final Class<?> a, final Class<?> b) {
+		if(a == null) {
+			return b;
+		}
+		
+		if(b == null) {
+			return a;
+		}
+		
+		if(a.isAssignableFrom(b)) {
+			return a;
+		}
+		
+		if(b.isAssignableFrom(a)) {
+			return b;
+		}
+		
+		if(a.isArray() && b.isArray() && !a.getComponentType().isPrimitive() && !b.getComponentType().isPrimitive()) {
+			return doGetArrayClass(getCommonSuperclass(a.getComponentType(), b.getComponentType()));
+		}
+		
+		for(Class<?> currentClass = a.getSuperclass(); currentClass != null && currentClass != Object.class; currentClass = currentClass.getSuperclass()) {
+			if(currentClass.isAssignableFrom(b)) {
+				return currentClass;
+			}
+		}
+		
+		for(final Class<?> interfaceClass : doGetInterfaces(a)) {
+			if(interfaceClass.isAssignableFrom(b)) {
+				return interfaceClass;
+			}
+		}
+		
+		return Object.class;
+	}
+	
+	public static String getTypeName(final Class<?> clazz) {
+		final String canonicalName = getAccessibleClass(clazz).getCanonicalName();
+		
+		return canonicalName != null ? canonicalName : "java.lang.Object";
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Class<?> doGetArrayClass(final Class<?> componentType) {
+		return Array.newInstance(componentType, 0).getClass();
+	}
+	
+	private static Set<Class<?>> doGetInterfaces(final Class<?> clazz) {
+		final Set<Class<?>> interfaces = new LinkedHashSet<>();
+		
+		final Deque<Class<?>> classes = new ArrayDeque<>();
+		
+		for(Class<?> currentClass = clazz; currentClass != null; currentClass = currentClass.getSuperclass()) {
+			classes.add(currentClass);
+		}
+		
+		while(!classes.isEmpty()) {
+			for(final Class<?> interfaceClass : classes.removeFirst().getInterfaces()) {
+				if(interfaces.add(interfaceClass)) {
+					classes.add(interfaceClass);
+				}
+			}
+		}
+		
+		return interfaces;
+	}
+	
+	private static boolean doIsAccessible(final Class<?> clazz) {
+		for(Class<?> currentClass = clazz; currentClass != null; currentClass = currentClass.getEnclosingClass()) {
+			if(!Modifier.isPublic(currentClass.getModifiers()) || currentClass.isAnonymousClass() || currentClass.isLocalClass()) {
+				return false;
+			}
+		}
+		
+		return clazz.getCanonicalName() != null;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+
+final class WarmUp {
+	private static final AtomicInteger IDENTIFIER = new AtomicInteger(0);
+	private static final String EXTENSION_SCRIPT = ".java";
+	private static final String PROPERTY_WARM_UP_DIRECTORY = "org.macroing.cel4j.artifact.warmUp.directory";
+	private static final String PROPERTY_WARM_UP_ITERATIONS = "org.macroing.cel4j.artifact.warmUp.iterations";
+	private static final String PROPERTY_WARM_UP_RESOURCES = "org.macroing.cel4j.artifact.warmUp.resources";
+	private static final String SCRIPT = "return null;";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private WarmUp() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Starts warming up artifactScriptEngine on a new thread, if configured, and returns a CompletableFuture that is completed when it is done. The CompletableFuture is only completed exceptionally if a configured source of scripts could not be
+//	read or artifactScriptEngine was closed. A script that fails to compile does not prevent the warm-up from completing, as the failure is reported again when the script is evaluated.
+	public static CompletableFuture<Void> start(final ArtifactScriptEngine artifactScriptEngine) {
+		final String directory = System.getProperty(PROPERTY_WARM_UP_DIRECTORY, "").trim();
+		final String resources = System.getProperty(PROPERTY_WARM_UP_RESOURCES, "").trim();
+		
+		final Optional<ScriptTrace> scriptTrace = artifactScriptEngine.getScriptTrace();
+		
+		final int iterations = Math.max(Integer.getInteger(PROPERTY_WARM_UP_ITERATIONS, 0).intValue(), 0);
+		
+		if(directory.isEmpty() && resources.isEmpty() && !scriptTrace.isPresent() && iterations == 0) {
+			return CompletableFuture.completedFuture(null);
+		}
+		
+		final CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+		
+		final
+		Thread thread = new Thread(() -> {
+			try {
+				doWarmUp(artifactScriptEngine, directory, resources, scriptTrace, iterations);
+				
+				completableFuture.complete(null);
+			} catch(final Throwable throwable) {
+				completableFuture.completeExceptionally(throwable);
+			}
+		}, "Artifact-Warm-Up-" + IDENTIFIER.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+		
+		return completableFuture;
+	}
+	
+	public static List<String> readDirectory(final String directory) throws IOException {
+		final List<String> scripts = new ArrayList<>();
+		
+		if(directory.isEmpty()) {
+			return scripts;
+		}
+		
+		final File file = new File(directory);
+		
+		if(!file.isDirectory()) {
+			throw new FileNotFoundException("Unable to find directory \"" + directory + "\".");
+		}
+		
+		final List<Path> paths;
+		
+		try(final Stream<Path> stream = Files.walk(file.toPath())) {
+			paths = stream.filter(path -> Files.isRegularFile(path) && path.getFileName().toString().endsWith(EXTENSION_SCRIPT)).sorted().collect(Collectors.toList());
+		}
+		
+		for(final Path path : paths) {
+			scripts.add(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+		}
+		
+		return scripts;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static List<String> doReadResources(final String resources, final ClassLoader classLoader) throws IOException {
+		final List<String> scripts = new ArrayList<>();
+		
+		for(final String resource : resources.split(",")) {
+			final String name = resource.trim().startsWith("/") ? resource.trim().substring(1) : resource.trim();
+			
+			if(name.isEmpty()) {
+				continue;
+			}
+			
+			try(final InputStream inputStream = classLoader.getResourceAsStream(name)) {
+				if(inputStream == null) {
+					throw new FileNotFoundException("Unable to find resource \"" + name + "\".");
+				}
+				
+				final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+				
+				final byte[] buffer = new byte[8192];
+				
+				for(int length = inputStream.read(buffer); length != -1; length = inputStream.read(buffer)) {
+					byteArrayOutputStream.write(buffer, 0, length);
+				}
+				
+				scripts.add(new String(byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8));
+			}
+		}
+		
+		return scripts;
+	}
+	
+	private static void doWarmUp(final ArtifactScriptEngine artifactScriptEngine, final String directory, final String resources, final Optional<ScriptTrace> scriptTrace, final int iterations) throws IOException, ScriptException {
+		final ClassLoader classLoader = ArtifactScriptEngine.class.getClassLoader();
+		
+		final List<Class<?>[]> variableClasses = new ArrayList<>();
+		final List<String> scripts = new ArrayList<>();
+		
+		for(final String script : readDirectory(directory)) {
+			scripts.add(script);
+			variableClasses.add(null);
+		}
+		
+		for(final String script : doReadResources(resources, classLoader)) {
+			scripts.add(script);
+			variableClasses.add(null);
+		}
+		
+		if(scriptTrace.isPresent()) {
+			for(final Map.Entry<String, List<Class<?>[]>> entry : scriptTrace.get().load(classLoader).entrySet()) {
+				for(final Class<?>[] classes : entry.getValue()) {
+					scripts.add(entry.getKey());
+					variableClasses.add(classes);
+				}
+			}
+		}
+		
+		if(scripts.size() > 0) {
+			for(final CompletableFuture<CompiledScript> completableFuture : artifactScriptEngine.compileAllAsync(scripts, variableClasses, CompilationPriority.BACKGROUND)) {
+				try {
+					completableFuture.join();
+				} catch(final CompletionException e) {
+//					The script is compiled again, and the error reported, when it is evaluated.
+				}
+			}
+		}
+		
+		final ScriptContext scriptContext = new SimpleScriptContext();
+		
+		for(int i = 0; i < iterations; i++) {
+			artifactScriptEngine.eval(SCRIPT, scriptContext);
+		}
+	}
+}
\ No newline at end of file
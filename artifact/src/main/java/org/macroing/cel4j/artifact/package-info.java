@@ -1,8 +1,8 @@
 /**
  * Provides a {@code ScriptEngine} implementation called Artifact that evaluates a super-set of Java source code.
  * <p>
- * The {@code ScriptEngine} provided compiles the source code into {@code CompiledScript}s and loads them, using the context {@code ClassLoader}. It caches the {@code CompiledScript}s using a normalized version of the source code provided for that
- * {@code CompiledScript}. By doing so, no re-compilation will be performed when you add whitespace in other places than {@code String} literals.
+ * The {@code ScriptEngine} provided compiles the source code into {@code CompiledScript}s and loads each of them, using a {@code ClassLoader} dedicated to that script. It caches the {@code CompiledScript}s using a normalized version of the source code provided for that
+ * {@code CompiledScript}. By doing so, no re-compilation will be performed when you add whitespace or comments in other places than {@code String} literals.
  * <p>
  * To demonstrate its use, here is an example:
  * <pre>
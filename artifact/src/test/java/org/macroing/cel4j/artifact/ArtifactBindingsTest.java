@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class ArtifactBindingsTest {
+	public ArtifactBindingsTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testBindingsBehaveLikeAMap() {
+		final ArtifactBindings artifactBindings = new ArtifactBindings(new BindingsLayout());
+		
+		final Map<String, Object> map = new HashMap<>();
+		
+		final Random random = new Random(1L);
+		
+		for(int i = 0; i < 100000; i++) {
+			final String name = "name" + random.nextInt(1000);
+			
+			final Object value = random.nextInt(4) == 0 ? null : Integer.valueOf(i);
+			
+			switch(random.nextInt(4)) {
+				case 0:
+				case 1:
+					Assert.assertEquals(map.put(name, value), artifactBindings.put(name, value));
+					break;
+				case 2:
+					Assert.assertEquals(map.remove(name), artifactBindings.remove(name));
+					break;
+				default:
+					Assert.assertEquals(map.get(name), artifactBindings.get(name));
+					Assert.assertEquals(Boolean.valueOf(map.containsKey(name)), Boolean.valueOf(artifactBindings.containsKey(name)));
+					break;
+			}
+			
+			Assert.assertEquals(map.size(), artifactBindings.size());
+		}
+		
+		Assert.assertEquals(map, artifactBindings);
+		Assert.assertEquals(artifactBindings, map);
+		Assert.assertEquals(map.hashCode(), artifactBindings.hashCode());
+	}
+	
+	@Test
+	public void testBindingsKeepNamesWithoutASlotInAMap() {
+		final BindingsLayout bindingsLayout = new BindingsLayout();
+		
+		final ArtifactBindings artifactBindings = new ArtifactBindings(bindingsLayout);
+		
+		for(int i = 0; i < 1000; i++) {
+			artifactBindings.put("name" + i, Integer.valueOf(i));
+		}
+		
+//		The BindingsLayout is capped, so most of the names do not get a slot, but all of them are still mapped.
+		Assert.assertEquals(-1, bindingsLayout.getOrCreateSlot("name999"));
+		Assert.assertEquals(1000, artifactBindings.size());
+		
+		for(int i = 0; i < 1000; i++) {
+			final String name = "name" + i;
+			
+			Assert.assertEquals(Integer.valueOf(i), artifactBindings.get(name));
+			Assert.assertEquals(Integer.valueOf(i), artifactBindings.getValue(bindingsLayout.getSlot(name), name));
+		}
+		
+		int count = 0;
+		
+		for(final Iterator<Map.Entry<String, Object>> iterator = artifactBindings.entrySet().iterator(); iterator.hasNext();) {
+			final Map.Entry<String, Object> entry = iterator.next();
+			
+			Assert.assertEquals(entry.getKey(), "name" + entry.getValue());
+			
+			if(Objects.hashCode(entry.getValue()) % 2 == 0) {
+				iterator.remove();
+			}
+			
+			count++;
+		}
+		
+		Assert.assertEquals(1000, count);
+		Assert.assertEquals(500, artifactBindings.size());
+		Assert.assertNull(artifactBindings.get("name998"));
+		Assert.assertEquals(Integer.valueOf(999), artifactBindings.get("name999"));
+		
+		artifactBindings.clear();
+		
+		Assert.assertTrue(artifactBindings.isEmpty());
+		Assert.assertNull(artifactBindings.get("name999"));
+	}
+	
+	@Test
+	public void testGetValueUsesTheSlot() {
+		final BindingsLayout bindingsLayout = new BindingsLayout();
+		
+		final int slot = bindingsLayout.getOrCreateSlot("x");
+		
+		final ArtifactBindings artifactBindings = new ArtifactBindings(bindingsLayout);
+		
+		Assert.assertNull(artifactBindings.getValue(slot, "x"));
+		
+		artifactBindings.put("x", null);
+		
+		Assert.assertTrue(artifactBindings.containsKey("x"));
+		Assert.assertNull(artifactBindings.getValue(slot, "x"));
+		
+		artifactBindings.put("x", "value");
+		
+		Assert.assertEquals("value", artifactBindings.getValue(slot, "x"));
+		Assert.assertEquals("x", bindingsLayout.getName(slot));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testPutThrowsIllegalArgumentExceptionForAnEmptyName() {
+		new ArtifactBindings(new BindingsLayout()).put("", null);
+	}
+	
+	@Test(expected = NullPointerException.class)
+	public void testPutThrowsNullPointerExceptionForANullName() {
+		new ArtifactBindings(new BindingsLayout()).put(null, null);
+	}
+}
\ No newline at end of file
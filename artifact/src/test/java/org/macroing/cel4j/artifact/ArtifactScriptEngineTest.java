@@ -0,0 +1,216 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.ToDoubleFunction;
+
+import javax.script.ScriptException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class ArtifactScriptEngineTest {
+	private ArtifactScriptEngine artifactScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ArtifactScriptEngineTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		if(this.artifactScriptEngine != null) {
+			this.artifactScriptEngine.close();
+		}
+	}
+	
+	@Test
+	public void testCompileFunction() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final DoubleUnaryOperator doubleUnaryOperator = this.artifactScriptEngine.compileFunction(DoubleUnaryOperator.class, "x * x", "x");
+		final DoubleBinaryOperator doubleBinaryOperator = this.artifactScriptEngine.compileFunction(DoubleBinaryOperator.class, "Math.max(x, y)", "x", "y");
+		final LongPredicate longPredicate = this.artifactScriptEngine.compileFunction(LongPredicate.class, "x % 2L == 0L", "x");
+		
+		@SuppressWarnings("unchecked")
+		final ToDoubleFunction<String> toDoubleFunction = this.artifactScriptEngine.compileFunction(ToDoubleFunction.class, "s.toString().length()", "s");
+		
+		Assert.assertEquals(9.0D, doubleUnaryOperator.applyAsDouble(3.0D), 0.0D);
+		Assert.assertEquals(4.0D, doubleBinaryOperator.applyAsDouble(3.0D, 4.0D), 0.0D);
+		Assert.assertTrue(longPredicate.test(4L));
+		Assert.assertFalse(longPredicate.test(5L));
+		Assert.assertEquals(5.0D, toDoubleFunction.applyAsDouble("hello"), 0.0D);
+	}
+	
+//	Evaluations that miss on the same variant at the same time wait for a single compilation of it.
+	@Test
+	public void testConcurrentEvalsInvokeTheJavaCompilerOncePerVariant() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		this.artifactScriptEngine.put("x", Integer.valueOf(1));
+		
+		final ArtifactScriptEngine artifactScriptEngine = this.artifactScriptEngine;
+		
+		final CyclicBarrier cyclicBarrier = new CyclicBarrier(16);
+		
+		final ExecutorService executorService = Executors.newFixedThreadPool(16);
+		
+		try {
+			for(final String script : new String[] {"return 1 + 2;", "return $x + 2;"}) {
+				final long compilationCount = artifactScriptEngine.getCompilationCount();
+				
+				final List<Future<Object>> futures = new ArrayList<>();
+				
+				for(int i = 0; i < 16; i++) {
+					futures.add(executorService.submit(() -> {
+						cyclicBarrier.await();
+						
+						return artifactScriptEngine.eval(script);
+					}));
+				}
+				
+				for(final Future<Object> future : futures) {
+					Assert.assertEquals(Integer.valueOf(3), future.get());
+				}
+				
+				Assert.assertEquals(compilationCount + 1L, artifactScriptEngine.getCompilationCount());
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+	
+//	The types of the variables are read from the ScriptContext, rather than by evaluating a script for each variable, so the Java compiler is invoked once.
+	@Test
+	public void testEvalInvokesTheJavaCompilerOncePerScript() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		this.artifactScriptEngine.put("a", Integer.valueOf(1));
+		this.artifactScriptEngine.put("b", Long.valueOf(2L));
+		this.artifactScriptEngine.put("c", "3");
+		this.artifactScriptEngine.put("d", Double.valueOf(4.0D));
+		this.artifactScriptEngine.put("e", Character.valueOf('5'));
+		
+		Assert.assertEquals("334.05", this.artifactScriptEngine.eval("return $a + $b + $c + $d + $e;"));
+		Assert.assertEquals(1L, this.artifactScriptEngine.getCompilationCount());
+	}
+	
+	@Test
+	public void testEvalReusesTheCompiledScriptIfOnlyWhiteSpaceOrCommentsDiffer() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		Assert.assertEquals(Integer.valueOf(3), this.artifactScriptEngine.eval("int x = 1; return x + 2;"));
+		Assert.assertEquals(Integer.valueOf(3), this.artifactScriptEngine.eval("int x = 1;\n\treturn x+2; // The same script."));
+		Assert.assertEquals(1L, this.artifactScriptEngine.getCompilationCount());
+	}
+	
+//	A default method that the script does not declare calls the implementation of the interface. The default methods of IntUnaryOperator are in a package that is not open to Artifact.
+	@Test
+	public void testGetInterfaceWithDefaultMethods() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		this.artifactScriptEngine.eval("double area() { return 3.0D; } int applyAsInt(int x) { return x + 1; } return null;");
+		
+		final Shape shape = this.artifactScriptEngine.getInterface(Shape.class);
+		
+		Assert.assertEquals(3.0D, shape.area(), 0.0D);
+		Assert.assertEquals(6.0D, shape.doubleArea(), 0.0D);
+		Assert.assertEquals(4, this.artifactScriptEngine.getInterface(IntUnaryOperator.class).andThen(x -> x * 2).applyAsInt(1));
+	}
+	
+	@Test
+	public void testImportStatementsOnlyApplyToTheirScript() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		Assert.assertEquals(Integer.valueOf(1), this.artifactScriptEngine.eval("import java.util.function.IntSupplier; IntSupplier i = () -> 1; return i.getAsInt();"));
+		
+		try {
+			this.artifactScriptEngine.eval("IntSupplier i = () -> 2; return i.getAsInt();");
+			
+			Assert.fail();
+		} catch(final ScriptException e) {
+//			IntSupplier is not imported by the second script.
+		}
+		
+		this.artifactScriptEngine.setSessionImportStatementsEnabled(true);
+		
+		Assert.assertEquals(Integer.valueOf(1), this.artifactScriptEngine.eval("import java.util.function.IntSupplier; IntSupplier i = () -> 1; return i.getAsInt();"));
+		Assert.assertEquals(Integer.valueOf(2), this.artifactScriptEngine.eval("import java.util.function.IntSupplier; IntSupplier i = () -> 2; return i.getAsInt();"));
+		Assert.assertEquals(Integer.valueOf(3), this.artifactScriptEngine.eval("IntSupplier i = () -> 3; return i.getAsInt();"));
+		Assert.assertEquals(1, this.artifactScriptEngine.getSessionImportStatements().size());
+	}
+	
+	@Test
+	public void testInvokeFunction() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		this.artifactScriptEngine.eval("int square(int x) { return x * x; } return null;");
+		
+		Assert.assertEquals(Integer.valueOf(16), this.artifactScriptEngine.invokeFunction("square", Integer.valueOf(4)));
+	}
+	
+	@Test
+	public void testInvokeFunctionThatThrows() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		this.artifactScriptEngine.eval("int fail(String message) { throw new IllegalStateException(message); } return null;");
+		
+		try {
+			this.artifactScriptEngine.invokeFunction("fail", "message");
+			
+			Assert.fail();
+		} catch(final ScriptException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+			Assert.assertEquals("message", e.getCause().getMessage());
+		}
+	}
+	
+	@Test
+	public void testInvokeMethod() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		Assert.assertEquals(Integer.valueOf(3), this.artifactScriptEngine.invokeMethod("abc", "length"));
+		Assert.assertEquals("b", this.artifactScriptEngine.invokeMethod("abc", "substring", Integer.valueOf(1), Integer.valueOf(2)));
+		Assert.assertEquals("abc", this.artifactScriptEngine.invokeMethod("", "format", "a%sc", new Object[] {"b"}));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static interface Shape {
+		double area();
+		
+		default double doubleArea() {
+			return 2.0D * area();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.script.ScriptException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class BatchesTest {
+	private ArtifactScriptEngine artifactScriptEngine;
+	private Map<String, Object> columns;
+	private double[] x;
+	private int[] y;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public BatchesTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		this.artifactScriptEngine.close();
+	}
+	
+	@Before
+	public void setUp() {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		this.x = new double[200000];
+		this.y = new int[200000];
+		
+		for(int i = 0; i < this.x.length; i++) {
+			this.x[i] = i;
+			this.y[i] = i % 7;
+		}
+		
+		this.columns = new LinkedHashMap<>();
+		this.columns.put("x", this.x);
+		this.columns.put("y", this.y);
+	}
+	
+	@Test
+	public void testEvalBatch() throws Exception {
+		for(final boolean isParallel : new boolean[] {false, true}) {
+			final double[] output = new double[this.x.length];
+			
+			this.artifactScriptEngine.evalBatch("x * 2.0D + y", this.columns, output, isParallel);
+			
+			for(int i = 0; i < output.length; i++) {
+				Assert.assertEquals(this.x[i] * 2.0D + this.y[i], output[i], 0.0D);
+			}
+		}
+	}
+	
+	@Test
+	public void testEvalBatchWithABlock() throws Exception {
+		final long[] output = new long[this.x.length];
+		
+		this.artifactScriptEngine.evalBatch("long z = y; for(int i = 0; i < 3; i++) { z *= 2L; } return z;", this.columns, output, true);
+		
+		for(int i = 0; i < output.length; i++) {
+			Assert.assertEquals(this.y[i] * 8L, output[i]);
+		}
+	}
+	
+	@Test(expected = ScriptException.class)
+	public void testEvalBatchThrowsScriptExceptionIfARowThrowsAnException() throws Exception {
+		this.artifactScriptEngine.evalBatch("10 / y", this.columns, new int[this.x.length], true);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testEvalBatchThrowsIllegalArgumentExceptionForAnInvalidColumnName() throws Exception {
+		this.columns.put("$z", this.y);
+		
+		this.artifactScriptEngine.evalBatch("x", this.columns, new double[this.x.length], false);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testEvalBatchThrowsIllegalArgumentExceptionForAShortColumn() throws Exception {
+		this.artifactScriptEngine.evalBatch("x", this.columns, new double[this.x.length + 1], false);
+	}
+}
\ No newline at end of file
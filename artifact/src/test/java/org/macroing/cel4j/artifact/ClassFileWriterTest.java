@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class ClassFileWriterTest {
+	private static final String[] SCRIPTS = {
+		"return 1 + 2;",
+		"return 7 / 2 + 7 % 3 - -4;",
+		"return 1.5 * 2;",
+		"return 10L * 3;",
+		"return 'a' + 1;",
+		"return (char)('a' + 1);",
+		"return \"x\" + 1 + 2;",
+		"return 0x7fffffff + 1;",
+		"return 3 > 2 && 2 > 3 || !false;",
+		"return 1 << 33;",
+		"return -1 >>> 28;",
+		"return ~5;",
+		"return (byte) 200;",
+		"return -2147483648;",
+		"return Double.NaN == Double.NaN;",
+		"return max(1, 2) + sqrt(16.0);",
+		"return Math.max($a, $b) - Math.min($L, 3);",
+		"return Math.sqrt($a * $a + $b * $b);",
+		"return Math.signum($f);",
+		"return $a / 0;",
+		"return 0.0 / 0 >= 1 || 0.0 / 0 <= 1 || 0.0 / 0 > 1 || 0.0 / 0 != 1;",
+		"return $z ? $a : null;",
+		"return $z & $a > 1 | false ^ true;",
+		"return $a * 1000000 * 1000000;",
+		"return (Object) $a;",
+		"return $c + 1;",
+		"return $d * $f + $L;",
+		"return $n;",
+		"return $s != null;",
+		"return ($a + $b) * ($a - $b) / 2;",
+		"return null;",
+		"return \"lit\";",
+		"return 123456789012L;"
+	};
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private ArtifactScriptEngine compilingScriptEngine;
+	private ArtifactScriptEngine emittingScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ClassFileWriterTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		this.compilingScriptEngine.close();
+		this.emittingScriptEngine.close();
+	}
+	
+	@Before
+	public void setUp() {
+		this.compilingScriptEngine = ScriptEngines.createCompiling();
+		this.emittingScriptEngine = ScriptEngines.createEmitting();
+	}
+	
+	@Test
+	public void testEmittedScriptsReturnTheSameResultAsTheJavaCompiler() {
+		int emitted = 0;
+		
+		for(final String script : SCRIPTS) {
+			final long compilationCount = this.emittingScriptEngine.getCompilationCount();
+			
+			Assert.assertEquals(script, Evaluations.describe(this.compilingScriptEngine, script), Evaluations.describe(this.emittingScriptEngine, script));
+			
+			if(this.emittingScriptEngine.getCompilationCount() == compilationCount) {
+				emitted++;
+			}
+		}
+		
+		Assert.assertTrue(emitted > SCRIPTS.length / 2);
+	}
+	
+	@Test
+	public void testCompileEmitsASingleReturnStatementWithoutTheJavaCompiler() throws Exception {
+		this.emittingScriptEngine.put("a", Integer.valueOf(3));
+		this.emittingScriptEngine.put("b", Integer.valueOf(4));
+		
+		Assert.assertEquals(Double.valueOf(5.0D), this.emittingScriptEngine.eval("return Math.sqrt($a * $a + $b * $b);"));
+		Assert.assertEquals(0L, this.emittingScriptEngine.getCompilationCount());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class CompiledScriptCacheTest {
+	public CompiledScriptCacheTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testGetCompilesOnceForConcurrentCallers() throws Exception {
+		final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(100L, Long.MAX_VALUE);
+		
+		final AtomicInteger compilations = new AtomicInteger();
+		
+		final ExecutorService executorService = Executors.newFixedThreadPool(8);
+		
+		try {
+			final List<Future<CompiledScript>> futures = new ArrayList<>();
+			
+			for(int i = 0; i < 8; i++) {
+				futures.add(executorService.submit(() -> compiledScriptCache.get(ScriptKey.of("return 1;"), () -> {
+					compilations.incrementAndGet();
+					
+					Thread.sleep(100L);
+					
+					return new TestCompiledScript();
+				})));
+			}
+			
+			final CompiledScript compiledScript = futures.get(0).get();
+			
+			for(final Future<CompiledScript> future : futures) {
+				Assert.assertSame(compiledScript, future.get());
+			}
+		} finally {
+			executorService.shutdown();
+		}
+		
+		Assert.assertEquals(1, compilations.get());
+		Assert.assertEquals(1L, compiledScriptCache.getMissCount());
+	}
+	
+	@Test
+	public void testGetDoesNotCacheFailures() throws Exception {
+		final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(100L, Long.MAX_VALUE);
+		
+		final AtomicInteger compilations = new AtomicInteger();
+		
+		try {
+			compiledScriptCache.get(ScriptKey.of("return 1;"), () -> {
+				compilations.incrementAndGet();
+				
+				throw new ScriptException("failure");
+			});
+			
+			Assert.fail();
+		} catch(final ScriptException e) {
+			Assert.assertEquals("failure", e.getMessage());
+		}
+		
+		final CompiledScript compiledScript = compiledScriptCache.get(ScriptKey.of("return 1;"), () -> {
+			compilations.incrementAndGet();
+			
+			return new TestCompiledScript();
+		});
+		
+		Assert.assertSame(compiledScript, compiledScriptCache.get(ScriptKey.of("return 1;"), () -> new TestCompiledScript()));
+		Assert.assertEquals(2, compilations.get());
+		Assert.assertEquals(1L, compiledScriptCache.getSize());
+		Assert.assertEquals(2L, compiledScriptCache.getMissCount());
+	}
+	
+	@Test
+	public void testGetEvictsLeastRecentlyUsed() throws Exception {
+		final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(8L, Long.MAX_VALUE);
+		
+		for(int i = 0; i < 8; i++) {
+			compiledScriptCache.get(ScriptKey.of("return " + i + ";"), () -> new TestCompiledScript());
+		}
+		
+		compiledScriptCache.get(ScriptKey.of("return 0;"), () -> new TestCompiledScript());
+		compiledScriptCache.get(ScriptKey.of("return 1;"), () -> new TestCompiledScript());
+		
+		Assert.assertEquals(0L, compiledScriptCache.getEvictionCount());
+		Assert.assertEquals(2L, compiledScriptCache.getHitCount());
+		
+		compiledScriptCache.get(ScriptKey.of("return 8;"), () -> new TestCompiledScript());
+		
+//		The cache is evicted down to 7 entries, so the two least recently used entries are evicted.
+		Assert.assertEquals(7L, compiledScriptCache.getSize());
+		Assert.assertEquals(2L, compiledScriptCache.getEvictionCount());
+		
+		compiledScriptCache.get(ScriptKey.of("return 0;"), () -> new TestCompiledScript());
+		compiledScriptCache.get(ScriptKey.of("return 1;"), () -> new TestCompiledScript());
+		compiledScriptCache.get(ScriptKey.of("return 8;"), () -> new TestCompiledScript());
+		
+		Assert.assertEquals(5L, compiledScriptCache.getHitCount());
+		Assert.assertEquals(9L, compiledScriptCache.getMissCount());
+		
+		compiledScriptCache.get(ScriptKey.of("return 2;"), () -> new TestCompiledScript());
+		
+		Assert.assertEquals(5L, compiledScriptCache.getHitCount());
+		Assert.assertEquals(10L, compiledScriptCache.getMissCount());
+	}
+	
+	@Test
+	public void testGetEvictsByWeight() throws Exception {
+		final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(Long.MAX_VALUE, 100L);
+		
+		for(int i = 0; i < 100; i++) {
+			compiledScriptCache.get(ScriptKey.of("return " + i + ";"), () -> new TestCompiledScript());
+			
+			Assert.assertTrue(compiledScriptCache.getWeight() <= 100L);
+		}
+		
+		Assert.assertTrue(compiledScriptCache.getEvictionCount() > 0L);
+		Assert.assertTrue(compiledScriptCache.getSize() < 100L);
+	}
+	
+	@Test
+	public void testGetIfPresentCountsHits() throws Exception {
+		final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(100L, Long.MAX_VALUE);
+		
+		Assert.assertNull(compiledScriptCache.getIfPresent(ScriptKey.of("return 1;")));
+		
+		compiledScriptCache.get(ScriptKey.of("return 1;"), () -> new TestCompiledScript());
+		compiledScriptCache.get(ScriptKey.of("return  1 ; // The same script."), () -> new TestCompiledScript());
+		
+		Assert.assertNotNull(compiledScriptCache.getIfPresent(ScriptKey.of("return 1;")));
+		Assert.assertEquals(2L, compiledScriptCache.getHitCount());
+		Assert.assertEquals(1L, compiledScriptCache.getMissCount());
+	}
+	
+	@Test
+	public void testSetMaximumSizeEvicts() throws Exception {
+		final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(100L, Long.MAX_VALUE);
+		
+		for(int i = 0; i < 100; i++) {
+			compiledScriptCache.get(ScriptKey.of("return " + i + ";"), () -> new TestCompiledScript());
+		}
+		
+		compiledScriptCache.setMaximumSize(10L);
+		
+		Assert.assertTrue(compiledScriptCache.getSize() <= 10L);
+		
+		compiledScriptCache.clear();
+		
+		Assert.assertEquals(0L, compiledScriptCache.getSize());
+		Assert.assertEquals(0L, compiledScriptCache.getWeight());
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class TestCompiledScript extends CompiledScript {
+		public TestCompiledScript() {
+			
+		}
+		
+		@Override
+		public Object eval(final ScriptContext scriptContext) {
+			return null;
+		}
+		
+		@Override
+		public ScriptEngine getEngine() {
+			return null;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class DeadlineTest {
+	private ArtifactScriptEngine artifactScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public DeadlineTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		if(this.artifactScriptEngine != null) {
+			this.artifactScriptEngine.close();
+		}
+	}
+	
+	@Test(timeout = 60000L)
+	public void testCompiledScriptWithoutVariablesIsCancelled() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final CompiledScript compiledScript = this.artifactScriptEngine.compile("long j = 0L; while(true) { j++; }");
+		
+		doAssertCancelled(() -> compiledScript.eval(doCreateScriptContext(200L)));
+	}
+	
+	@Test(timeout = 60000L)
+	public void testEvalOfACompiledScriptIsCancelled() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final ScriptContext scriptContext = doCreateScriptContext(200L);
+		
+		scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).put("x", Integer.valueOf(1));
+		
+		doAssertCancelled(() -> this.artifactScriptEngine.eval("long j = 0L; while(true) { j += $x; }", scriptContext));
+	}
+	
+	@Test(timeout = 60000L)
+	public void testEvalOfAnInterpretedScriptIsCancelled() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createInterpreting();
+		
+		doAssertCancelled(() -> this.artifactScriptEngine.eval("long j = 0L; while(true) { j++; }", doCreateScriptContext(200L)));
+	}
+	
+	@Test(timeout = 60000L)
+	public void testEvalIsCancelledWhenItsThreadIsInterrupted() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final AtomicReference<Throwable> throwable = new AtomicReference<>();
+		
+		final
+		Thread thread = new Thread(() -> {
+			try {
+				this.artifactScriptEngine.eval("long j = 0L; while(true) { j++; }", doCreateScriptContext(TimeUnit.MINUTES.toMillis(10L)));
+			} catch(final Throwable t) {
+				throwable.set(t);
+			}
+		});
+		thread.start();
+		
+		Thread.sleep(2000L);
+		
+		thread.interrupt();
+		thread.join(10000L);
+		
+		Assert.assertFalse(thread.isAlive());
+		Assert.assertTrue(String.valueOf(throwable.get()), throwable.get() instanceof ScriptCancellationException);
+	}
+	
+//	The classes of a script are not in the same runtime package as ArtifactScript, so the deadline checks in its nested classes can only be called if they are public.
+	@Test(timeout = 60000L)
+	public void testEvalOfALoopInALocalOrAnonymousClass() throws Exception {
+		for(final ArtifactScriptEngine artifactScriptEngine : new ArtifactScriptEngine[] {ScriptEngines.createCompiling(), ScriptEngines.createInterpreting()}) {
+			this.artifactScriptEngine = artifactScriptEngine;
+			
+			final String script = "class L { int f() { int z = 0; while(z < 2) z++; return z; } } return new L().f();";
+			
+			Assert.assertEquals(Integer.valueOf(2), artifactScriptEngine.eval(script));
+			Assert.assertEquals(Integer.valueOf(2), artifactScriptEngine.eval(script, doCreateScriptContext(60000L)));
+			
+			doAssertCancelled(() -> artifactScriptEngine.eval("new Runnable() { public void run() { long j = 0L; while(true) { j++; } } }.run(); return null;", doCreateScriptContext(200L)));
+			
+			artifactScriptEngine.close();
+		}
+	}
+	
+	@Test
+	public void testEvalWithATimeoutReturnsItsResult() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		Assert.assertEquals(Long.valueOf(4950L), this.artifactScriptEngine.eval("long j = 0L; for(int i = 0; i < 100; i++) { j += i; } return j;", doCreateScriptContext(60000L)));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private ScriptContext doCreateScriptContext(final long timeout) {
+		final
+		ScriptContext scriptContext = ScriptEngines.createScriptContext(this.artifactScriptEngine, new StringWriter(), new StringWriter());
+		scriptContext.setAttribute(ScriptEngines.PROPERTY_TIMEOUT, Long.valueOf(timeout), ScriptContext.ENGINE_SCOPE);
+		
+		return scriptContext;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The timeout is 200 milliseconds. The bound is generous, so the test does not fail on a slow machine, but it still fails if the timeout is only noticed after several seconds.
+	private static void doAssertCancelled(final Evaluation evaluation) throws ScriptException {
+		final long nanoTime = System.nanoTime();
+		
+		try {
+			evaluation.eval();
+			
+			Assert.fail();
+		} catch(final ScriptCancellationException e) {
+			Assert.assertTrue(System.nanoTime() - nanoTime < TimeUnit.SECONDS.toNanos(5L));
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static interface Evaluation {
+		Object eval() throws ScriptException;
+	}
+}
\ No newline at end of file
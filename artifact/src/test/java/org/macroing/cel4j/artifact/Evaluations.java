@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+final class Evaluations {
+	private Evaluations() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	Evaluates script with a fixed set of variables and returns a description of its result, its type and its output, or of the exception it threw, so the results of different ScriptEngines can be compared.
+	public static String describe(final ScriptEngine scriptEngine, final String script) {
+		final StringWriter stringWriter = new StringWriter();
+		
+		final ScriptContext scriptContext = ScriptEngines.createScriptContext(scriptEngine, stringWriter, stringWriter);
+		
+		final
+		Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+		bindings.put("a", Integer.valueOf(3));
+		bindings.put("b", Integer.valueOf(4));
+		bindings.put("c", Character.valueOf('x'));
+		bindings.put("d", Double.valueOf(2.5D));
+		bindings.put("f", Float.valueOf(1.5F));
+		bindings.put("l", new ArrayList<>(Arrays.asList("q", "r")));
+		bindings.put("L", Long.valueOf(10L));
+		bindings.put("n", null);
+		bindings.put("s", "hello,world");
+		bindings.put("x", new int[3]);
+		bindings.put("z", Boolean.TRUE);
+		
+		try {
+			final Object object = scriptEngine.eval(script, scriptContext);
+			
+			return doToString(object) + (object != null ? ":" + object.getClass().getSimpleName() : "") + " out=" + stringWriter;
+		} catch(final ScriptException e) {
+			Throwable throwable = e.getCause();
+			
+			if(throwable == null) {
+				return "ScriptException";
+			}
+			
+			while(throwable instanceof ScriptException && throwable.getCause() != null) {
+				throwable = throwable.getCause();
+			}
+			
+			return throwable.getClass().getName() + " out=" + stringWriter;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static String doToString(final Object object) {
+		if(object instanceof Object[]) {
+			return Arrays.deepToString(Object[].class.cast(object));
+		}
+		
+		if(object instanceof int[]) {
+			return Arrays.toString(int[].class.cast(object));
+		}
+		
+		return String.valueOf(object);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class InterpreterTest {
+	private static final String[] SCRIPTS = {
+		"return 1 + 2;",
+		"return 7 / 2 + 7 % 3 - -4;",
+		"return 'a' + 1;",
+		"return (char)('a' + 1);",
+		"return \"x\" + 1 + 2;",
+		"return 0x7fffffff + 1;",
+		"return 3 > 2 && 2 > 3 || !false;",
+		"return -1L >>> 60;",
+		"return 5 ^ 3 & 6;",
+		"int s = 0; for(int i = 0; i < 100; i++) { s += i; } return s;",
+		"int s = 0; int i = 0; while(i < 10) { if(i % 2 == 0) { i++; continue; } s += i; i++; } return s;",
+		"int n = 0; do { n++; } while(n < 5); return n;",
+		"int[] a = new int[5]; for(int i = 0; i < a.length; i++) a[i] = i * i; int s = 0; for(int x : a) s += x; return s;",
+		"int[] a = {1, 2, 3}; a[1] += 10; a[2]++; return a[0] + a[1] + a[2];",
+		"byte b = 10; b += 300; return b;",
+		"char c = 'a'; c++; return c;",
+		"Integer I = 5; I++; return I;",
+		"double d = 0; for(int i = 0; i < 10; i++) d += Math.sqrt(i); return d;",
+		"return Math.max(3, 4L);",
+		"return max(1, 2) + sqrt(16.0);",
+		"return String.format(\"%d-%s\", 1, \"a\");",
+		"java.util.List<String> l = new ArrayList<>(); l.add(\"a\"); l.add(\"b\"); String r = \"\"; for(String s : l) r += s; return r;",
+		"Map<String, Integer> m = new HashMap<>(); m.put(\"a\", 1); return m.get(\"a\");",
+		"StringBuilder sb = new StringBuilder(); for(int i = 0; i < 3; i++) sb.append(i).append(','); return sb.toString();",
+		"Object o = 1; return o instanceof String ? 1 : 2;",
+		"int x = 5; x = x++ + ++x; return x;",
+		"return $a + $b;",
+		"return $s.length() + $a;",
+		"if($a > 1) return \"big\"; else return \"small\";",
+		"return $l.size();",
+		"return true ? 1 : 2.0;",
+		"Integer x = null; int y = x; return y;",
+		"return 1 / 0;",
+		"throw new IllegalStateException(\"boom\");",
+		"Object o = 5; return (String) o;",
+		"return (int) 1e20;",
+		"return 10 % 3.5;",
+		"double nan = 0.0 / 0; return nan < 1 || nan >= 1;",
+		"System.out.println(\"x\" + 2); System.out.print('c'); return null;",
+		"int out = 3; System.out.println(out); return out;",
+		"int s = 0; for(int i = 0, j = 10; i < j; i++, j--) s += j - i; return s;",
+		"switch($a) { case 1: return 1; default: return 2; }",
+		"long h = 1125899906842597L; String s = \"hello\"; for(int i = 0; i < s.length(); i++) h = 31 * h + s.charAt(i); return h;",
+		"Integer a = 1000, b = 1000; return a == b;",
+		"return \"\" + 1.0f + 2.0 + 'c' + 3L + true + null;",
+		"int x = 0; x += 1.7; return x;",
+		"int x = 7; x >>= 1; x <<= 2; x >>>= 1; x %= 5; x /= 2; x *= 9; x -= 1; x &= 0xff; x |= 0x100; x ^= 3; return x;"
+	};
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private ArtifactScriptEngine compilingScriptEngine;
+	private ArtifactScriptEngine interpretingScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public InterpreterTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		this.compilingScriptEngine.close();
+		this.interpretingScriptEngine.close();
+	}
+	
+	@Before
+	public void setUp() {
+		this.compilingScriptEngine = ScriptEngines.createCompiling();
+		this.interpretingScriptEngine = ScriptEngines.createInterpreting();
+	}
+	
+	@Test
+	public void testEvalInterpretsScriptsThatItSupports() throws Exception {
+		Assert.assertEquals(Integer.valueOf(7), this.interpretingScriptEngine.eval("int s = 0; for(int i = 0; i < 4; i++) { s += i; } return s + 1;"));
+		Assert.assertEquals(0L, this.interpretingScriptEngine.getCompilationCount());
+	}
+	
+	@Test
+	public void testEvalReturnsTheSameResultAsTheJavaCompiler() {
+		int interpreted = 0;
+		
+		for(final String script : SCRIPTS) {
+			final long compilationCount = this.interpretingScriptEngine.getCompilationCount();
+			
+			Assert.assertEquals(script, Evaluations.describe(this.compilingScriptEngine, script), Evaluations.describe(this.interpretingScriptEngine, script));
+			
+			if(this.interpretingScriptEngine.getCompilationCount() == compilationCount) {
+				interpreted++;
+			}
+		}
+		
+		Assert.assertTrue(interpreted > SCRIPTS.length / 2);
+	}
+}
\ No newline at end of file
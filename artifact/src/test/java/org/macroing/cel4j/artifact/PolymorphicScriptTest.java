@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.script.CompiledScript;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class PolymorphicScriptTest {
+	private ArtifactScriptEngine artifactScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public PolymorphicScriptTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		if(this.artifactScriptEngine != null) {
+			this.artifactScriptEngine.close();
+		}
+	}
+	
+	@Test
+	public void testEvalCompilesAVariantForEachType() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		this.artifactScriptEngine.put("x", Integer.valueOf(2));
+		
+		Assert.assertEquals(Integer.valueOf(4), this.artifactScriptEngine.eval("return $x + $x;"));
+		
+		this.artifactScriptEngine.put("x", "a");
+		
+		Assert.assertEquals("aa", this.artifactScriptEngine.eval("return $x + $x;"));
+		
+		this.artifactScriptEngine.put("x", Double.valueOf(1.5D));
+		
+		Assert.assertEquals(Double.valueOf(3.0D), this.artifactScriptEngine.eval("return $x + $x;"));
+		
+		final long compilationCount = this.artifactScriptEngine.getCompilationCount();
+		
+		this.artifactScriptEngine.put("x", Integer.valueOf(3));
+		
+		Assert.assertEquals(Integer.valueOf(6), this.artifactScriptEngine.eval("return $x + $x;"));
+		
+		this.artifactScriptEngine.put("x", "b");
+		
+		Assert.assertEquals("bb", this.artifactScriptEngine.eval("return $x + $x;"));
+		Assert.assertEquals(compilationCount, this.artifactScriptEngine.getCompilationCount());
+	}
+	
+	@Test
+	public void testEvalFallsBackToTheCommonSuperclassOfAllTypes() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final List<Object> values = Arrays.asList(Integer.valueOf(1), Long.valueOf(2L), Double.valueOf(3.0D), Float.valueOf(4.0F), Short.valueOf((short)(5)), Byte.valueOf((byte)(6)), Integer.valueOf(7), Long.valueOf(8L));
+		
+		for(final Object value : values) {
+			this.artifactScriptEngine.put("x", value);
+			
+			Assert.assertEquals(Double.valueOf(Number.class.cast(value).doubleValue() * 2.0D), this.artifactScriptEngine.eval("return $x.doubleValue() * 2.0D;"));
+		}
+		
+		this.artifactScriptEngine.put("x", null);
+		
+		Assert.assertEquals(Boolean.TRUE, this.artifactScriptEngine.eval("return $x == null;"));
+	}
+	
+//	Compiling a script waits for a compiler thread. With a single one, a PolymorphicScript that held its lock while waiting used to deadlock with compileAllAsync.
+	@Test(timeout = 120000L)
+	public void testEvalDuringCompileAllAsyncDoesNotDeadlock() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.create(ScriptEngines.PROPERTY_COMPILER_THREADS, "1", ScriptEngines.PROPERTY_INTERPRETER_THRESHOLD, "0", ScriptEngines.PROPERTY_BYTECODE_EMITTER, "false");
+		
+		final ArtifactScriptEngine artifactScriptEngine = this.artifactScriptEngine;
+		
+		final ExecutorService executorService = Executors.newFixedThreadPool(4);
+		
+		try {
+			for(int round = 0; round < 5; round++) {
+				final List<String> scripts = new ArrayList<>();
+				
+				for(int i = 0; i < 6; i++) {
+					scripts.add("String s = \"" + round + "\"; return $x + s.length() + " + i + ";");
+				}
+				
+				artifactScriptEngine.put("x", Integer.valueOf(round));
+				
+				final Map<String, CompletableFuture<CompiledScript>> compiledScripts = artifactScriptEngine.compileAllAsync(scripts);
+				
+				final List<Future<Object>> futures = new ArrayList<>();
+				
+				for(final String script : scripts) {
+					futures.add(executorService.submit(() -> artifactScriptEngine.eval(script)));
+				}
+				
+				for(int i = 0; i < futures.size(); i++) {
+					Assert.assertEquals(Integer.valueOf(round + 1 + i), futures.get(i).get(60L, TimeUnit.SECONDS));
+				}
+				
+				for(final CompletableFuture<CompiledScript> compiledScript : compiledScripts.values()) {
+					Assert.assertNotNull(compiledScript.get(60L, TimeUnit.SECONDS));
+				}
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+}
\ No newline at end of file
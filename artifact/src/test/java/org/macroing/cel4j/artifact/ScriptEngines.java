@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.Writer;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleScriptContext;
+
+final class ScriptEngines {
+	public static final String PROPERTY_BYTECODE_EMITTER = "org.macroing.cel4j.artifact.bytecodeEmitter";
+	public static final String PROPERTY_COMPILER_THREADS = "org.macroing.cel4j.artifact.compiler.threads";
+	public static final String PROPERTY_INTERPRETER_THRESHOLD = "org.macroing.cel4j.artifact.interpreter.threshold";
+	public static final String PROPERTY_TIMEOUT = "org.macroing.cel4j.artifact.timeout";
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private ScriptEngines() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The system properties are read when an ArtifactScriptEngine is created, so they are only set while it is created. properties alternates between names and values.
+	public static ArtifactScriptEngine create(final String... properties) {
+		for(int i = 0; i + 1 < properties.length; i += 2) {
+			System.setProperty(properties[i], properties[i + 1]);
+		}
+		
+		try {
+			return ArtifactScriptEngine.class.cast(new ArtifactScriptEngineFactory().getScriptEngine());
+		} finally {
+			for(int i = 0; i + 1 < properties.length; i += 2) {
+				System.clearProperty(properties[i]);
+			}
+		}
+	}
+	
+	public static ArtifactScriptEngine createCompiling() {
+		return create(PROPERTY_INTERPRETER_THRESHOLD, "0", PROPERTY_BYTECODE_EMITTER, "false");
+	}
+	
+	public static ArtifactScriptEngine createEmitting() {
+		return create(PROPERTY_INTERPRETER_THRESHOLD, "0");
+	}
+	
+	public static ArtifactScriptEngine createInterpreting() {
+		return create(PROPERTY_INTERPRETER_THRESHOLD, "1000000");
+	}
+	
+	public static ScriptContext createScriptContext(final ScriptEngine scriptEngine, final Writer writer, final Writer errorWriter) {
+		final
+		ScriptContext scriptContext = new SimpleScriptContext();
+		scriptContext.setBindings(scriptEngine.createBindings(), ScriptContext.ENGINE_SCOPE);
+		scriptContext.setWriter(writer);
+		scriptContext.setErrorWriter(errorWriter);
+		
+		return scriptContext;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class ScriptExecutorTest {
+	private ArtifactScriptEngine artifactScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ScriptExecutorTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		if(this.artifactScriptEngine != null) {
+			this.artifactScriptEngine.close();
+		}
+	}
+	
+//	Without a timeout, the script is evaluated without deadline checks, so it is compiled once for both the ScriptExecutor and the ScriptEngine.
+	@Test
+	public void testSubmitWithoutATimeoutCompilesTheScriptOnce() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final String script = "int j = 0; for(int i = 0; i < 10; i++) { j += i; } return j;";
+		
+		try(final ScriptExecutor scriptExecutor = new ScriptExecutor(this.artifactScriptEngine)) {
+			Assert.assertEquals(Integer.valueOf(45), scriptExecutor.submit(script).get());
+		}
+		
+		Assert.assertEquals(Integer.valueOf(45), this.artifactScriptEngine.eval(script));
+		Assert.assertEquals(1L, this.artifactScriptEngine.getCompilationCount());
+	}
+	
+//	The ScriptExecutor has a single thread, so the second script can only be evaluated once the first one has stopped.
+	@Test(timeout = 60000L)
+	public void testSubmitWithATimeoutStopsAScriptThatLoops() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		
+		try(final ScriptExecutor scriptExecutor = new ScriptExecutor(this.artifactScriptEngine, executorService)) {
+			try {
+				scriptExecutor.submit("long j = 0L; while(true) { j++; }", this.artifactScriptEngine.createBindings(), 200L, TimeUnit.MILLISECONDS).get();
+				
+				Assert.fail();
+			} catch(final ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof TimeoutException);
+			}
+			
+			Assert.assertEquals(Integer.valueOf(1), scriptExecutor.submit("return 1;").get());
+		} finally {
+			executorService.shutdown();
+		}
+	}
+}
\ No newline at end of file
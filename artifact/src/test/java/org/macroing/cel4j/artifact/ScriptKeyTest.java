@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class ScriptKeyTest {
+	public ScriptKeyTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testOfIgnoresWhiteSpaceAndComments() {
+		Assert.assertEquals(ScriptKey.of("return 1 + 2;"), ScriptKey.of("return 1+2;"));
+		Assert.assertEquals(ScriptKey.of("return 1 + 2;"), ScriptKey.of("\treturn /* one */ 1 +\n2; // two"));
+		Assert.assertEquals(ScriptKey.of("return a - -b;").getText(), ScriptKey.of("return a - - b;").getText());
+	}
+	
+	@Test
+	public void testOfKeepsSeparatorsThatAreNeeded() {
+		Assert.assertNotEquals(ScriptKey.of("return a - -b;"), ScriptKey.of("return a--b;"));
+		Assert.assertNotEquals(ScriptKey.of("int x = 1; return x;"), ScriptKey.of("intx = 1; return x;"));
+	}
+	
+	@Test
+	public void testOfKeepsLiterals() {
+		Assert.assertNotEquals(ScriptKey.of("return \"a b\";"), ScriptKey.of("return \"ab\";"));
+		Assert.assertNotEquals(ScriptKey.of("return \"/* a */\";"), ScriptKey.of("return \"\";"));
+		Assert.assertNotEquals(ScriptKey.of("return ' ';"), ScriptKey.of("return '\\t';"));
+		Assert.assertEquals("return\"a // b\";", ScriptKey.of("return \"a // b\";").getText());
+	}
+	
+	@Test
+	public void testOfScalesLinearly() {
+		final StringBuilder stringBuilder = new StringBuilder();
+		
+		while(stringBuilder.length() < 1000000) {
+			stringBuilder.append("x = x + \"a string literal\" ;  // A comment.\n");
+		}
+		
+		final ScriptKey scriptKey = ScriptKey.of(stringBuilder.toString());
+		
+		Assert.assertTrue(scriptKey.length() < stringBuilder.length());
+		Assert.assertEquals(scriptKey, ScriptKey.of(stringBuilder.toString()));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright 2018 - 2019 J&#246;rgen Lundgren
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.macroing.cel4j.artifact;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.script.ScriptContext;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class ScriptOutputTest {
+	private ArtifactScriptEngine artifactScriptEngine;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public ScriptOutputTest() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@After
+	public void tearDown() {
+		if(this.artifactScriptEngine != null) {
+			this.artifactScriptEngine.close();
+		}
+	}
+	
+//	The streams are owned by the ScriptEngine, so a script that closes them can still write to them.
+	@Test
+	public void testEvalAfterClosingSystemOutOrSystemErr() throws Exception {
+		for(final ArtifactScriptEngine artifactScriptEngine : new ArtifactScriptEngine[] {ScriptEngines.createCompiling(), ScriptEngines.createInterpreting()}) {
+			this.artifactScriptEngine = artifactScriptEngine;
+			
+			Assert.assertEquals("a|b|", doEval("System.out.close(); System.err.close(); System.out.println('a'); System.err.println('b'); return null;"));
+			Assert.assertEquals("c|", doEval("System.out.println('c'); return null;"));
+			
+			artifactScriptEngine.close();
+		}
+	}
+	
+//	The classes of a script are not in the same runtime package as ArtifactScript, so its nested classes can only write output if the streams are public.
+	@Test
+	public void testEvalInAnAnonymousOrLocalClass() throws Exception {
+		for(final ArtifactScriptEngine artifactScriptEngine : new ArtifactScriptEngine[] {ScriptEngines.createCompiling(), ScriptEngines.createInterpreting()}) {
+			this.artifactScriptEngine = artifactScriptEngine;
+			
+			Assert.assertEquals("a|", doEval("new Runnable() { public void run() { System.out.println('a'); } }.run(); return null;"));
+			Assert.assertEquals("b|c|", doEval("class L { void f() { System.out.println('b'); System.err.println('c'); } } new L().f(); return null;"));
+			
+			artifactScriptEngine.close();
+		}
+	}
+	
+	@Test
+	public void testEvalWritesToTheWritersOfTheScriptContext() throws Exception {
+		for(final ArtifactScriptEngine artifactScriptEngine : new ArtifactScriptEngine[] {ScriptEngines.createCompiling(), ScriptEngines.createInterpreting()}) {
+			this.artifactScriptEngine = artifactScriptEngine;
+			
+			Assert.assertEquals("hello 1|err 2|", doEval("System.out.println(\"hello \" + 1); System.err.println(\"err \" + 2); return null;"));
+			Assert.assertEquals("from f|", doEval("void f() { System.out.println(\"from f\"); } f(); return null;"));
+			Assert.assertEquals("x|", doEval("System . out . println('x'); return null;"));
+			
+			artifactScriptEngine.close();
+		}
+	}
+	
+//	A local variable called out or err must not shadow System.out or System.err.
+	@Test
+	public void testEvalWithALocalVariableCalledOutOrErr() throws Exception {
+		for(final ArtifactScriptEngine artifactScriptEngine : new ArtifactScriptEngine[] {ScriptEngines.createCompiling(), ScriptEngines.createInterpreting()}) {
+			this.artifactScriptEngine = artifactScriptEngine;
+			
+			Assert.assertEquals("5|", doEval("int out = 5; System.out.println(out); return null;"));
+			Assert.assertEquals("e|", doEval("String err = \"e\"; System.err.println(err); return null;"));
+			Assert.assertEquals("6|6|", doEval("int out = 5; out++; System.out.println(out); System.err.println(out); return null;"));
+			
+			artifactScriptEngine.close();
+		}
+	}
+	
+	@Test
+	public void testConcurrentEvaluationsDoNotShareOutput() throws Exception {
+		this.artifactScriptEngine = ScriptEngines.createCompiling();
+		
+		final ArtifactScriptEngine artifactScriptEngine = this.artifactScriptEngine;
+		
+		final ExecutorService executorService = Executors.newFixedThreadPool(8);
+		
+		try {
+			final List<Future<String>> futures = new ArrayList<>();
+			
+			for(int i = 0; i < 32; i++) {
+				final Integer k = Integer.valueOf(i);
+				
+				futures.add(executorService.submit(() -> {
+					final StringWriter stringWriter = new StringWriter();
+					
+					final ScriptContext scriptContext = ScriptEngines.createScriptContext(artifactScriptEngine, stringWriter, stringWriter);
+					
+					scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).put("k", k);
+					
+					artifactScriptEngine.eval("for(int i = 0; i < 1000; i++) { System.out.print($k); System.out.print(','); } return null;", scriptContext);
+					
+					return stringWriter.toString();
+				}));
+			}
+			
+			for(int i = 0; i < futures.size(); i++) {
+				final StringBuilder stringBuilder = new StringBuilder();
+				
+				for(int j = 0; j < 1000; j++) {
+					stringBuilder.append(i);
+					stringBuilder.append(',');
+				}
+				
+				Assert.assertEquals(stringBuilder.toString(), futures.get(i).get());
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+//	The output and the error output are written to the same writer, and each line separator is replaced by a vertical bar.
+	private String doEval(final String script) throws Exception {
+		final StringWriter stringWriter = new StringWriter();
+		
+		this.artifactScriptEngine.eval(script, ScriptEngines.createScriptContext(this.artifactScriptEngine, stringWriter, stringWriter));
+		
+		return stringWriter.toString().replace(System.lineSeparator(), "|");
+	}
+}
\ No newline at end of file